@@ -0,0 +1,45 @@
+package db.migration;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * Troca as colunas identity de cliente, produto, carrinho_de_compras e
+ * item_compra por sequências com incremento de 50, usadas pelo otimizador
+ * pooled do Hibernate: os ids passam a sair da memória em blocos e os inserts
+ * podem ser enviados em lote.
+ *
+ * Em Java porque cada sequência começa depois do maior id já existente, valor
+ * que só se conhece ao migrar. O otimizador trata o valor lido da sequência
+ * como o fim do bloco (entrega de valor - 49 até valor), por isso o início é o
+ * maior id mais o incremento.
+ */
+public class V2__SequenciasComAlocacaoEmBloco extends BaseJavaMigration
+{
+	private static final int INCREMENTO = 50;
+	private static final String[] TABELAS = { "cliente", "produto", "carrinho_de_compras", "item_compra" };
+
+	@Override
+	public void migrate(Context context) throws SQLException
+	{
+		try (Statement statement = context.getConnection().createStatement())
+		{
+			for (String tabela : TABELAS)
+			{
+				long maiorId;
+				try (ResultSet resultado = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + tabela))
+				{
+					resultado.next();
+					maiorId = resultado.getLong(1);
+				}
+				statement.execute("CREATE SEQUENCE " + tabela + "_seq START WITH " + (maiorId + INCREMENTO)
+						+ " INCREMENT BY " + INCREMENTO);
+				statement.execute("ALTER TABLE " + tabela + " ALTER COLUMN id DROP IDENTITY");
+			}
+		}
+	}
+}
@@ -0,0 +1,220 @@
+package ecommerce.admissao;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Controle de admissão das finalizações de compra: a aplicação precisa de uma
+ * vaga no limite de concorrência ({@link LimiteDeConcorrencia}) e o cliente de
+ * uma ficha no seu balde ({@link LimiteDeTaxaPorCliente}). Sem qualquer um
+ * deles a requisição é respondida na hora com 429, antes de tocar no banco ou
+ * nos serviços externos; a vaga de uma requisição recusada pelo balde é
+ * devolvida sem contar como amostra de latência.
+ *
+ * Em respostas assíncronas (finalização reativa) a vaga só é liberada quando a
+ * resposta termina, não quando a thread do servlet é devolvida.
+ */
+public class FiltroDeAdmissao extends OncePerRequestFilter
+{
+	static final String MSG_LIMITE_CLIENTE = "Muitas compras em sequência, tente novamente em instantes.";
+	static final String MSG_SOBRECARGA = "Serviço sobrecarregado, tente novamente.";
+
+	private final LimiteDeTaxaPorCliente limiteCliente;
+	private final LimiteDeConcorrencia limiteConcorrencia;
+	private final List<HttpMessageConverter<?>> conversores;
+
+	/**
+	 * @param conversores conversores do Spring MVC, usados para escrever a
+	 *                    recusa no formato negociado, como nos controllers
+	 */
+	public FiltroDeAdmissao(LimiteDeTaxaPorCliente limiteCliente, LimiteDeConcorrencia limiteConcorrencia,
+			List<HttpMessageConverter<?>> conversores)
+	{
+		this.limiteCliente = limiteCliente;
+		this.limiteConcorrencia = limiteConcorrencia;
+		this.conversores = conversores;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request)
+	{
+		return !"POST".equals(request.getMethod());
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException
+	{
+		// Vaga antes da ficha: uma requisição recusada por sobrecarga não gasta a cota do cliente
+		if (!limiteConcorrencia.tentarAdquirir())
+		{
+			rejeitar(request, response, MSG_SOBRECARGA, 1);
+			return;
+		}
+		Long clienteId = clienteId(request);
+		if (clienteId != null)
+		{
+			long espera = limiteCliente.tentarConsumir(clienteId);
+			if (espera > 0)
+			{
+				limiteConcorrencia.devolver();
+				rejeitar(request, response, MSG_LIMITE_CLIENTE, segundosAte(espera));
+				return;
+			}
+		}
+
+		long inicio = System.nanoTime();
+		AtomicBoolean liberada = new AtomicBoolean();
+		Runnable liberar = () -> {
+			if (liberada.compareAndSet(false, true))
+			{
+				limiteConcorrencia.liberar(System.nanoTime() - inicio);
+			}
+		};
+		try
+		{
+			chain.doFilter(request, response);
+		}
+		finally
+		{
+			if (request.isAsyncStarted())
+			{
+				request.getAsyncContext().addListener(new LiberarAoTerminar(liberar));
+			}
+			else
+			{
+				liberar.run();
+			}
+		}
+	}
+
+	private void rejeitar(HttpServletRequest request, HttpServletResponse response, String mensagem,
+			long aguardarSegundos) throws IOException
+	{
+		response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(aguardarSegundos));
+		escrever(request, ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, mensagem),
+				new ServletServerHttpResponse(response));
+	}
+
+	/**
+	 * Escreve a recusa no primeiro formato do {@code Accept} que algum conversor
+	 * do Spring MVC sabe escrever; sem um formato explícito, ou com um que nenhum
+	 * conversor atende, em JSON, como o restante da API.
+	 */
+	@SuppressWarnings("unchecked")
+	private void escrever(HttpServletRequest request, ProblemDetail problema, ServletServerHttpResponse saida)
+			throws IOException
+	{
+		for (MediaType aceito : aceitos(request))
+		{
+			if (!aceito.isConcrete())
+			{
+				continue;
+			}
+			for (HttpMessageConverter<?> conversor : conversores)
+			{
+				if (conversor.canWrite(ProblemDetail.class, aceito))
+				{
+					((HttpMessageConverter<Object>) conversor).write(problema, aceito, saida);
+					return;
+				}
+			}
+		}
+		for (HttpMessageConverter<?> conversor : conversores)
+		{
+			if (conversor.canWrite(ProblemDetail.class, MediaType.APPLICATION_PROBLEM_JSON))
+			{
+				((HttpMessageConverter<Object>) conversor).write(problema, MediaType.APPLICATION_PROBLEM_JSON, saida);
+				return;
+			}
+		}
+		throw new IllegalStateException("Nenhum conversor escreve " + MediaType.APPLICATION_PROBLEM_JSON + ".");
+	}
+
+	/** Tipos do {@code Accept}, do mais ao menos preferido; vazio se ausente ou inválido. */
+	private static List<MediaType> aceitos(HttpServletRequest request)
+	{
+		String accept = request.getHeader(HttpHeaders.ACCEPT);
+		if (accept == null)
+		{
+			return List.of();
+		}
+		try
+		{
+			List<MediaType> tipos = new ArrayList<>(MediaType.parseMediaTypes(accept));
+			MimeTypeUtils.sortBySpecificity(tipos);
+			return tipos;
+		}
+		catch (IllegalArgumentException e)
+		{
+			return List.of();
+		}
+	}
+
+	/** Espera arredondada para cima, em segundos inteiros como pede o Retry-After. */
+	private static long segundosAte(long esperaNanos)
+	{
+		return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(esperaNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+	}
+
+	/** Cliente da requisição, ou {@code null} se ausente ou inválido (o controller responde 400). */
+	private static Long clienteId(HttpServletRequest request)
+	{
+		try
+		{
+			String valor = request.getParameter("clienteId");
+			return valor == null ? null : Long.valueOf(valor);
+		}
+		catch (NumberFormatException e)
+		{
+			return null;
+		}
+	}
+
+	private record LiberarAoTerminar(Runnable liberar) implements AsyncListener
+	{
+		@Override
+		public void onComplete(AsyncEvent event)
+		{
+			liberar.run();
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event)
+		{
+			liberar.run();
+		}
+
+		@Override
+		public void onError(AsyncEvent event)
+		{
+			liberar.run();
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event)
+		{
+			event.getAsyncContext().addListener(this);
+		}
+	}
+}
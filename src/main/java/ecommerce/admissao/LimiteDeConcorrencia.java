@@ -0,0 +1,108 @@
+package ecommerce.admissao;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limite adaptativo de requisições simultâneas, ajustado pela latência
+ * observada (no estilo do algoritmo "gradiente"): enquanto a latência fica
+ * perto da menor latência recente, o limite cresce; quando ela sobe (fila se
+ * formando no banco ou nos serviços externos), o limite encolhe na mesma
+ * proporção. O excesso é rejeitado na entrada, em vez de esperar na fila.
+ *
+ * Todo o estado fica em contadores atômicos; uma atualização do limite perdida
+ * numa disputa apenas atrasa o ajuste para a próxima amostra.
+ */
+public class LimiteDeConcorrencia
+{
+	/** Peso de cada nova estimativa na média do limite. */
+	private static final double SUAVIZACAO = 0.2;
+
+	/** Latência acima da mínima que ainda não é tratada como fila. */
+	private static final double TOLERANCIA = 1.5;
+
+	private final int minimo;
+	private final int maximo;
+	private final int amostrasPorJanela;
+
+	private final AtomicInteger emVoo = new AtomicInteger();
+	private final AtomicLong limiteBits;
+	private final AtomicLong latenciaMinimaNanos = new AtomicLong(Long.MAX_VALUE);
+	private final AtomicLong amostras = new AtomicLong();
+
+	/**
+	 * @param amostrasPorJanela a cada quantas amostras a latência mínima é
+	 *                          reiniciada, para acompanhar mudanças na latência
+	 *                          sem carga
+	 */
+	public LimiteDeConcorrencia(int inicial, int minimo, int maximo, int amostrasPorJanela)
+	{
+		if (minimo <= 0 || minimo > inicial || inicial > maximo || amostrasPorJanela <= 0)
+		{
+			throw new IllegalArgumentException("Limites de concorrência inválidos.");
+		}
+		this.minimo = minimo;
+		this.maximo = maximo;
+		this.amostrasPorJanela = amostrasPorJanela;
+		this.limiteBits = new AtomicLong(Double.doubleToLongBits(inicial));
+	}
+
+	/** Ocupa uma vaga, se houver; quem recebe {@code true} deve chamar {@link #liberar(long)}. */
+	public boolean tentarAdquirir()
+	{
+		int limite = getLimite();
+		while (true)
+		{
+			int atual = emVoo.get();
+			if (atual >= limite)
+			{
+				return false;
+			}
+			if (emVoo.compareAndSet(atual, atual + 1))
+			{
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Libera uma vaga cuja requisição foi recusada antes de executar, sem
+	 * contá-la como amostra de latência.
+	 */
+	public void devolver()
+	{
+		emVoo.decrementAndGet();
+	}
+
+	/** Libera a vaga e ajusta o limite pela latência da requisição. */
+	public void liberar(long latenciaNanos)
+	{
+		int emVooAntes = emVoo.getAndDecrement();
+		latenciaNanos = Math.max(latenciaNanos, 1);
+
+		if (amostras.incrementAndGet() % amostrasPorJanela == 0)
+		{
+			latenciaMinimaNanos.set(latenciaNanos);
+		}
+		long latenciaMinima = latenciaMinimaNanos.accumulateAndGet(latenciaNanos, Math::min);
+
+		long bits = limiteBits.get();
+		double limite = Double.longBitsToDouble(bits);
+		double gradiente = Math.max(0.5, Math.min(1.0, TOLERANCIA * latenciaMinima / latenciaNanos));
+		// Só cresce se o limite atual estava de fato sendo usado
+		double folga = emVooAntes * 2 >= limite ? Math.sqrt(limite) : 0;
+		double estimativa = limite * gradiente + folga;
+		double novo = Math.max(minimo, Math.min(maximo, limite * (1 - SUAVIZACAO) + estimativa * SUAVIZACAO));
+		limiteBits.compareAndSet(bits, Double.doubleToLongBits(novo));
+	}
+
+	public int getLimite()
+	{
+		return (int) Double.longBitsToDouble(limiteBits.get());
+	}
+
+	public int getEmVoo()
+	{
+		return emVoo.get();
+	}
+}
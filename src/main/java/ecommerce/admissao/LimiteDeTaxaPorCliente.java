@@ -0,0 +1,80 @@
+package ecommerce.admissao;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Balde de fichas por cliente, no formato GCRA: cada cliente guarda só o
+ * instante teórico da próxima chegada em um {@link AtomicLong}, e cada pedido
+ * o avança um intervalo ({@code 1 / taxa}) com compare-and-set, sem locks. O
+ * pedido é aceito enquanto esse instante não passar de {@code rajada}
+ * intervalos à frente do relógio.
+ *
+ * Um cliente cujo instante já ficou no passado tem o balde cheio, igual a um
+ * cliente sem registro; {@link #removerOciosos()} descarta esses registros.
+ */
+public class LimiteDeTaxaPorCliente
+{
+	private final long intervaloNanos;
+	private final long toleranciaNanos;
+	private final LongSupplier relogio;
+
+	private final ConcurrentHashMap<Long, AtomicLong> proximaChegada = new ConcurrentHashMap<>();
+
+	public LimiteDeTaxaPorCliente(double taxaPorSegundo, int rajada)
+	{
+		this(taxaPorSegundo, rajada, System::nanoTime);
+	}
+
+	LimiteDeTaxaPorCliente(double taxaPorSegundo, int rajada, LongSupplier relogio)
+	{
+		if (taxaPorSegundo <= 0 || rajada <= 0)
+		{
+			throw new IllegalArgumentException("Taxa e rajada devem ser maiores que zero.");
+		}
+		this.intervaloNanos = (long) (TimeUnit.SECONDS.toNanos(1) / taxaPorSegundo);
+		this.toleranciaNanos = intervaloNanos * rajada;
+		this.relogio = relogio;
+	}
+
+	/**
+	 * Consome uma ficha do cliente. Retorna zero se o pedido foi aceito, ou os
+	 * nanossegundos até haver uma ficha disponível.
+	 */
+	public long tentarConsumir(Long clienteId)
+	{
+		AtomicLong chegada = proximaChegada.computeIfAbsent(clienteId, id -> new AtomicLong(relogio.getAsLong()));
+		while (true)
+		{
+			long agora = relogio.getAsLong();
+			long atual = chegada.get();
+			long proxima = Math.max(atual, agora) + intervaloNanos;
+			long excesso = proxima - agora - toleranciaNanos;
+			if (excesso > 0)
+			{
+				return excesso;
+			}
+			if (chegada.compareAndSet(atual, proxima))
+			{
+				return 0;
+			}
+		}
+	}
+
+	/** Descarta os clientes com o balde cheio. */
+	@Scheduled(fixedDelayString = "${ecommerce.admissao.cliente.limpeza-ms:60000}")
+	public void removerOciosos()
+	{
+		long agora = relogio.getAsLong();
+		proximaChegada.values().removeIf(chegada -> chegada.get() - agora <= 0);
+	}
+
+	int getClientes()
+	{
+		return proximaChegada.size();
+	}
+}
@@ -0,0 +1,134 @@
+package ecommerce.catalogo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+
+import ecommerce.entity.TipoProduto;
+
+/**
+ * Formato binário versionado da fotografia do catálogo de preços.
+ *
+ * Cabeçalho de {@value #TAMANHO_CABECALHO} bytes (número mágico, versão do
+ * formato, tamanho do registro, assinatura dos valores de {@link TipoProduto},
+ * quantidade de produtos, CRC32C da tabela, a marca {@code atualizadoAte} em
+ * milissegundos e a identidade do banco de origem), seguido da tabela de
+ * registros exatamente como em memória. Na leitura o arquivo é mapeado, não
+ * copiado, e a única passada sobre ele é a conferência do CRC.
+ *
+ * A identidade é escolhida por quem grava (ver {@link CatalogoPrecosService}):
+ * um arquivo de outro banco, ou de um banco recriado, nunca é usado.
+ */
+final class ArquivoCatalogo
+{
+	private static final int MAGICO = 0x4354_4C47; // "CTLG"
+	private static final int VERSAO_FORMATO = 3; // 3: CRC e identidade do banco no cabeçalho
+	static final int TAMANHO_CABECALHO = 40;
+
+	private static final int POSICAO_PRODUTOS = 16;
+	private static final int POSICAO_CRC = 20;
+	private static final int POSICAO_ATUALIZADO_ATE = 24;
+	private static final int POSICAO_IDENTIDADE = 32;
+
+	private ArquivoCatalogo()
+	{
+	}
+
+	/**
+	 * Mapeia o arquivo, se existir, for compatível com esta versão do formato e
+	 * dos tipos de produto, tiver sido gravado a partir do banco
+	 * {@code identidade} e estiver íntegro; caso contrário, retorna vazio e o
+	 * catálogo é reconstruído do banco.
+	 */
+	static Optional<CatalogoPrecos> ler(Path arquivo, long identidade)
+	{
+		if (!Files.isRegularFile(arquivo))
+		{
+			return Optional.empty();
+		}
+
+		try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ))
+		{
+			if (canal.size() < TAMANHO_CABECALHO)
+			{
+				return Optional.empty();
+			}
+
+			// O mapeamento continua válido depois que o canal é fechado
+			MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+			int produtos = mapa.getInt(POSICAO_PRODUTOS);
+			if (mapa.getInt(0) != MAGICO || mapa.getInt(4) != VERSAO_FORMATO
+					|| mapa.getInt(8) != CatalogoPrecos.TAMANHO_REGISTRO || mapa.getInt(12) != assinaturaTipos()
+					|| mapa.getLong(POSICAO_IDENTIDADE) != identidade
+					|| produtos < 0 || produtos > CatalogoPrecos.CAPACIDADE_MAXIMA
+					|| canal.size() != TAMANHO_CABECALHO + (long) produtos * CatalogoPrecos.TAMANHO_REGISTRO)
+			{
+				return Optional.empty();
+			}
+
+			ByteBuffer tabela = mapa.slice(TAMANHO_CABECALHO, produtos * CatalogoPrecos.TAMANHO_REGISTRO);
+			if (crc(tabela) != mapa.getInt(POSICAO_CRC))
+			{
+				return Optional.empty();
+			}
+			return Optional.of(new CatalogoPrecos(tabela, Instant.ofEpochMilli(mapa.getLong(POSICAO_ATUALIZADO_ATE))));
+		}
+		catch (IOException e)
+		{
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Grava em um arquivo temporário e o move sobre o definitivo, para que uma
+	 * instância iniciando nunca mapeie um arquivo pela metade.
+	 */
+	static void gravar(CatalogoPrecos catalogo, Path arquivo, long identidade) throws IOException
+	{
+		ByteBuffer tabela = catalogo.tabela();
+		ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO)
+				.putInt(MAGICO)
+				.putInt(VERSAO_FORMATO)
+				.putInt(CatalogoPrecos.TAMANHO_REGISTRO)
+				.putInt(assinaturaTipos())
+				.putInt(POSICAO_PRODUTOS, catalogo.getProdutos())
+				.putInt(POSICAO_CRC, crc(tabela))
+				.putLong(POSICAO_ATUALIZADO_ATE, catalogo.getAtualizadoAte().toEpochMilli())
+				.putLong(POSICAO_IDENTIDADE, identidade)
+				.clear();
+
+		Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+		try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING))
+		{
+			while (cabecalho.hasRemaining() || tabela.hasRemaining())
+			{
+				canal.write(new ByteBuffer[] { cabecalho, tabela });
+			}
+			canal.force(false);
+		}
+		Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/** Muda se valores de TipoProduto forem incluídos, removidos ou reordenados (o ordinal vai na tabela). */
+	private static int assinaturaTipos()
+	{
+		return Arrays.toString(TipoProduto.values()).hashCode();
+	}
+
+	private static int crc(ByteBuffer tabela)
+	{
+		CRC32C crc = new CRC32C();
+		crc.update(tabela.duplicate().clear());
+		return (int) crc.getValue();
+	}
+}
@@ -0,0 +1,354 @@
+package ecommerce.catalogo;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.List;
+
+import ecommerce.dto.ProdutoPrecificacaoDTO;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.TipoProduto;
+import ecommerce.service.CompraService;
+import ecommerce.service.ResumoCarrinho;
+
+/**
+ * Fotografia imutável dos dados de preço do catálogo, fora do heap.
+ *
+ * Cada produto ocupa um registro de tamanho fixo em um {@link ByteBuffer} direto,
+ * com os registros ordenados pelo id: id (long), preço em centavos (long), peso
+ * tributável unitário em gramas (int) e um byte com a flag de fragilidade e o
+ * ordinal do {@link TipoProduto}. A tabela só tem os produtos presentes, então
+ * seu tamanho acompanha a quantidade de produtos, não o maior id; o registro de
+ * um id é achado por busca binária. As consultas usam apenas leituras
+ * absolutas, então a tabela pode ser lida por várias threads sem sincronização
+ * e sem alocar objetos por produto.
+ *
+ * Produtos cujo preço não é exato em centavos ou cujo peso não é exato em
+ * gramas ficam de fora, e os carrinhos que os contêm são precificados pelas
+ * entidades.
+ *
+ * A tabela pode ser um arquivo mapeado em memória (ver {@link ArquivoCatalogo});
+ * {@link #getAtualizadoAte()} é a alteração de produto mais recente refletida nela.
+ */
+public final class CatalogoPrecos
+{
+	static final int TAMANHO_REGISTRO = 24;
+	private static final int DESLOCAMENTO_ID = 0;
+	private static final int DESLOCAMENTO_PRECO = 8;
+	private static final int DESLOCAMENTO_PESO = 16;
+	private static final int DESLOCAMENTO_FLAGS = 20;
+
+	private static final int FRAGIL = 0x40;
+	private static final int MASCARA_TIPO = 0x07;
+
+	/** Maior quantidade de produtos que cabe em um único ByteBuffer. */
+	static final int CAPACIDADE_MAXIMA = Integer.MAX_VALUE / TAMANHO_REGISTRO;
+
+	private static final TipoProduto[] TIPOS = TipoProduto.values();
+
+	public static final CatalogoPrecos VAZIO = new CatalogoPrecos(ByteBuffer.allocateDirect(0), Instant.EPOCH);
+
+	private final ByteBuffer tabela;
+	private final int produtos;
+	private final Instant atualizadoAte;
+
+	CatalogoPrecos(ByteBuffer tabela, Instant atualizadoAte)
+	{
+		this.tabela = tabela;
+		this.produtos = tabela.capacity() / TAMANHO_REGISTRO;
+		this.atualizadoAte = atualizadoAte;
+	}
+
+	/**
+	 * Construtor de uma tabela nova, vazia; {@code produtosPrevistos} só
+	 * reserva espaço, a tabela cresce se vierem mais.
+	 */
+	public static Construtor construtor(int produtosPrevistos)
+	{
+		return new Construtor(VAZIO, produtosPrevistos);
+	}
+
+	/**
+	 * Construtor que parte desta tabela, para aplicar apenas os produtos
+	 * alterados; os demais são copiados como estão.
+	 */
+	public Construtor construtorIncremental()
+	{
+		return new Construtor(this, produtos);
+	}
+
+	/** Quantidade de produtos presentes na tabela. */
+	public int getProdutos()
+	{
+		return produtos;
+	}
+
+	public Instant getAtualizadoAte()
+	{
+		return atualizadoAte;
+	}
+
+	public boolean contem(long produtoId)
+	{
+		return registro(produtoId) >= 0;
+	}
+
+	/** Preço unitário do produto na tabela, ou {@code null} se ele não está nela. */
+	public BigDecimal preco(long produtoId)
+	{
+		int registro = registro(produtoId);
+		return registro < 0 ? null
+				: BigDecimal.valueOf(tabela.getLong(registro * TAMANHO_REGISTRO + DESLOCAMENTO_PRECO), 2);
+	}
+
+	/**
+	 * Resume os itens do carrinho a partir da tabela, ou retorna {@code null} se
+	 * algum item não puder ser precificado por ela (produto ausente, quantidade
+	 * inválida ou estouro), deixando a validação para o cálculo pelas entidades.
+	 */
+	public ResumoCarrinho resumir(List<ItemCompra> itens)
+	{
+		long[] centavosPorTipo = new long[TIPOS.length];
+		long[] quantidadePorTipo = new long[TIPOS.length];
+		long pesoGramas = 0;
+		long unidadesFrageis = 0;
+
+		try
+		{
+			for (int i = 0; i < itens.size(); i++)
+			{
+				ItemCompra item = itens.get(i);
+				Long quantidade = item.getQuantidade();
+				if (quantidade == null || quantidade <= 0 || item.getProduto() == null
+						|| item.getProduto().getId() == null)
+				{
+					return null;
+				}
+				int registro = registro(item.getProduto().getId());
+				if (registro < 0)
+				{
+					return null;
+				}
+
+				int base = registro * TAMANHO_REGISTRO;
+				int flags = tabela.get(base + DESLOCAMENTO_FLAGS);
+				int tipo = flags & MASCARA_TIPO;
+
+				centavosPorTipo[tipo] = Math.addExact(centavosPorTipo[tipo],
+						Math.multiplyExact(tabela.getLong(base + DESLOCAMENTO_PRECO), quantidade));
+				quantidadePorTipo[tipo] = Math.addExact(quantidadePorTipo[tipo], quantidade);
+				pesoGramas = Math.addExact(pesoGramas,
+						Math.multiplyExact((long) tabela.getInt(base + DESLOCAMENTO_PESO), quantidade));
+				if ((flags & FRAGIL) != 0)
+				{
+					unidadesFrageis = Math.addExact(unidadesFrageis, quantidade);
+				}
+			}
+		}
+		catch (ArithmeticException e)
+		{
+			return null;
+		}
+
+		ResumoCarrinho resumo = new ResumoCarrinho();
+		for (int tipo = 0; tipo < TIPOS.length; tipo++)
+		{
+			if (quantidadePorTipo[tipo] > 0)
+			{
+				resumo.adicionarValor(TIPOS[tipo], BigDecimal.valueOf(centavosPorTipo[tipo], 2), quantidadePorTipo[tipo]);
+			}
+		}
+		resumo.adicionarPeso(BigDecimal.valueOf(pesoGramas, 3));
+		resumo.adicionarFrageis(unidadesFrageis);
+		return resumo;
+	}
+
+	/** Visão somente leitura da tabela inteira, a partir da posição zero. */
+	ByteBuffer tabela()
+	{
+		return tabela.asReadOnlyBuffer().clear();
+	}
+
+	/** Índice do registro do produto, ou -1 se ele não está na tabela. */
+	private int registro(long produtoId)
+	{
+		int i = primeiroNaoMenor(produtoId, 0);
+		return i < produtos && id(i) == produtoId ? i : -1;
+	}
+
+	/** Índice do primeiro registro, a partir de {@code desde}, com id maior ou igual a {@code produtoId}. */
+	private int primeiroNaoMenor(long produtoId, int desde)
+	{
+		int inicio = desde;
+		int fim = produtos;
+		while (inicio < fim)
+		{
+			int meio = (inicio + fim) >>> 1;
+			if (id(meio) < produtoId)
+			{
+				inicio = meio + 1;
+			}
+			else
+			{
+				fim = meio;
+			}
+		}
+		return inicio;
+	}
+
+	private long id(int registro)
+	{
+		return tabela.getLong(registro * TAMANHO_REGISTRO + DESLOCAMENTO_ID);
+	}
+
+	/**
+	 * Preenche uma nova tabela; só é publicada (e então lida por outras threads)
+	 * depois de {@link #construir()}. Os produtos devem vir em ordem crescente de
+	 * id: a tabela nova é a intercalação, em uma passada, dos registros da base
+	 * com os produtos recebidos, que substituem os da base de mesmo id.
+	 */
+	public static final class Construtor
+	{
+		private final CatalogoPrecos base;
+		private ByteBuffer tabela;
+		private int produtos;
+		private int proximoDaBase;
+		private Long ultimoId;
+		private Instant atualizadoAte;
+		private boolean alterado;
+
+		private Construtor(CatalogoPrecos base, int produtosPrevistos)
+		{
+			this.base = base;
+			this.tabela = ByteBuffer.allocateDirect(
+					Math.min(Math.max(produtosPrevistos, 0), CAPACIDADE_MAXIMA) * TAMANHO_REGISTRO);
+			this.atualizadoAte = base.atualizadoAte;
+		}
+
+		/**
+		 * Grava o produto na tabela, substituindo o registro anterior do mesmo id;
+		 * retorna {@code false} (e remove o registro) se ele não puder ser representado.
+		 *
+		 * @throws IllegalArgumentException se o id não for maior que o do produto anterior
+		 * @throws IllegalStateException se a tabela passar de {@link #CAPACIDADE_MAXIMA} produtos
+		 */
+		public boolean adicionar(ProdutoPrecificacaoDTO produto)
+		{
+			Long id = produto.id();
+			if (id == null)
+			{
+				return false;
+			}
+			if (ultimoId != null && id <= ultimoId)
+			{
+				throw new IllegalArgumentException(
+						"Produtos fora da ordem crescente de id: " + id + " depois de " + ultimoId + ".");
+			}
+			ultimoId = id;
+			if (produto.atualizadoEm() != null && produto.atualizadoEm().isAfter(atualizadoAte))
+			{
+				atualizadoAte = produto.atualizadoEm();
+				alterado = true;
+			}
+
+			copiarDaBase(base.primeiroNaoMenor(id, proximoDaBase));
+			int anterior = proximoDaBase < base.produtos && base.id(proximoDaBase) == id ? proximoDaBase++ : -1;
+
+			Long centavos = null;
+			Long gramas = null;
+			if (produto.preco() != null && produto.preco().signum() >= 0 && produto.pesoFisico() != null
+					&& produto.comprimento() != null && produto.largura() != null && produto.altura() != null
+					&& produto.fragil() != null && produto.tipo() != null)
+			{
+				centavos = valorExato(produto.preco(), 2);
+				gramas = valorExato(CompraService.calcularPesoTributavel(produto.pesoFisico(), produto.comprimento(),
+						produto.largura(), produto.altura()), 3);
+			}
+
+			if (centavos == null || gramas == null || gramas.intValue() != gramas)
+			{
+				if (anterior >= 0)
+				{
+					alterado = true;
+				}
+				return false;
+			}
+
+			byte flags = (byte) ((produto.fragil() ? FRAGIL : 0) | produto.tipo().ordinal());
+			if (anterior < 0 || base.tabela.getLong(anterior * TAMANHO_REGISTRO + DESLOCAMENTO_PRECO) != centavos
+					|| base.tabela.getInt(anterior * TAMANHO_REGISTRO + DESLOCAMENTO_PESO) != gramas.intValue()
+					|| base.tabela.get(anterior * TAMANHO_REGISTRO + DESLOCAMENTO_FLAGS) != flags)
+			{
+				alterado = true;
+			}
+
+			reservar(1);
+			int posicao = produtos * TAMANHO_REGISTRO;
+			tabela.putLong(posicao + DESLOCAMENTO_ID, id);
+			tabela.putLong(posicao + DESLOCAMENTO_PRECO, centavos);
+			tabela.putInt(posicao + DESLOCAMENTO_PESO, gramas.intValue());
+			tabela.put(posicao + DESLOCAMENTO_FLAGS, flags);
+			produtos++;
+			return true;
+		}
+
+		/** A nova fotografia, ou a própria base se nada mudou. Chamado uma única vez. */
+		public CatalogoPrecos construir()
+		{
+			copiarDaBase(base.produtos);
+			if (!alterado)
+			{
+				return base;
+			}
+			int tamanho = produtos * TAMANHO_REGISTRO;
+			if (tamanho != tabela.capacity())
+			{
+				tabela = ByteBuffer.allocateDirect(tamanho).put(0, tabela, 0, tamanho);
+			}
+			return new CatalogoPrecos(tabela, atualizadoAte);
+		}
+
+		/** Copia os registros da base ainda não copiados, até o índice {@code fim} (exclusivo). */
+		private void copiarDaBase(int fim)
+		{
+			int quantidade = fim - proximoDaBase;
+			if (quantidade > 0)
+			{
+				reservar(quantidade);
+				tabela.put(produtos * TAMANHO_REGISTRO, base.tabela, proximoDaBase * TAMANHO_REGISTRO,
+						quantidade * TAMANHO_REGISTRO);
+				produtos += quantidade;
+				proximoDaBase = fim;
+			}
+		}
+
+		private void reservar(int registros)
+		{
+			long necessarios = (long) produtos + registros;
+			if (necessarios > CAPACIDADE_MAXIMA)
+			{
+				throw new IllegalStateException(
+						"O catálogo de preços comporta no máximo " + CAPACIDADE_MAXIMA + " produtos.");
+			}
+			if (necessarios * TAMANHO_REGISTRO > tabela.capacity())
+			{
+				long capacidade = Math.min(Math.max(necessarios, 2L * tabela.capacity() / TAMANHO_REGISTRO),
+						CAPACIDADE_MAXIMA);
+				tabela = ByteBuffer.allocateDirect((int) capacidade * TAMANHO_REGISTRO)
+						.put(0, tabela, 0, produtos * TAMANHO_REGISTRO);
+			}
+		}
+
+		private static Long valorExato(BigDecimal valor, int casasDecimais)
+		{
+			try
+			{
+				return valor.movePointRight(casasDecimais).longValueExact();
+			}
+			catch (ArithmeticException e)
+			{
+				return null;
+			}
+		}
+	}
+}
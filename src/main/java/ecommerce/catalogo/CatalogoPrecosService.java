@@ -0,0 +1,152 @@
+package ecommerce.catalogo;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import ecommerce.dto.ProdutoPrecificacaoDTO;
+import ecommerce.repository.ProdutoRepository;
+import jakarta.transaction.Transactional;
+
+/**
+ * Mantém a fotografia do catálogo usada na precificação, trocada atomicamente
+ * a cada atualização: quem está precificando continua lendo a tabela anterior
+ * até terminar.
+ *
+ * Na inicialização, a última fotografia gravada em disco a partir deste mesmo
+ * banco é mapeada em memória, então a instância já precifica sem consultar o
+ * banco. As atualizações leem apenas os produtos alterados desde a fotografia
+ * (com uma margem para transações que confirmaram atrasadas) e regravam o
+ * arquivo. Como a marca {@code atualizado_em} não vê exclusões, alterações
+ * feitas direto no banco nem produtos sem a marca, a primeira atualização
+ * depois da inicialização e uma a cada
+ * {@code ecommerce.catalogo.intervalo-reconstrucao-ms} releem o catálogo inteiro.
+ */
+@Service
+public class CatalogoPrecosService
+{
+	private static final Logger log = LoggerFactory.getLogger(CatalogoPrecosService.class);
+
+	/** Releitura de alterações já vistas: cobre commits com marca de tempo anterior à última lida. */
+	private static final Duration MARGEM_ATUALIZACAO = Duration.ofMinutes(5);
+
+	private final ProdutoRepository repository;
+	private final Path arquivo;
+	private final long identidade;
+	private final long intervaloReconstrucaoNanos;
+	private final AtomicReference<CatalogoPrecos> atual;
+	private long ultimaReconstrucao;
+	private boolean reconstruido;
+
+	@Autowired
+	public CatalogoPrecosService(ProdutoRepository repository, DataSource dataSource,
+			@Value("${ecommerce.catalogo.arquivo}") String arquivo,
+			@Value("${ecommerce.catalogo.intervalo-reconstrucao-ms:3600000}") long intervaloReconstrucaoMs)
+	{
+		this(repository, identidadeDoBanco(dataSource), arquivo, intervaloReconstrucaoMs);
+	}
+
+	/** Idem, com a identidade do banco já conhecida. */
+	public CatalogoPrecosService(ProdutoRepository repository, long identidade, String arquivo,
+			long intervaloReconstrucaoMs)
+	{
+		this.repository = repository;
+		this.arquivo = Path.of(arquivo);
+		this.identidade = identidade;
+		this.intervaloReconstrucaoNanos = Duration.ofMillis(intervaloReconstrucaoMs).toNanos();
+		this.atual = new AtomicReference<>(ArquivoCatalogo.ler(this.arquivo, identidade).orElse(CatalogoPrecos.VAZIO));
+	}
+
+	public CatalogoPrecos atual()
+	{
+		return atual.get();
+	}
+
+	@Transactional
+	@Scheduled(fixedDelayString = "${ecommerce.catalogo.intervalo-atualizacao-ms:60000}")
+	public synchronized void atualizar()
+	{
+		CatalogoPrecos anterior = atual.get();
+		CatalogoPrecos novo;
+		long agora = System.nanoTime();
+		if (!reconstruido || agora - ultimaReconstrucao >= intervaloReconstrucaoNanos)
+		{
+			novo = construir(CatalogoPrecos.construtor(anterior.getProdutos()), repository.listarParaPrecificacao());
+			if (novo.getAtualizadoAte().equals(anterior.getAtualizadoAte()) && novo.tabela().equals(anterior.tabela()))
+			{
+				novo = anterior;
+			}
+			reconstruido = true;
+			ultimaReconstrucao = agora;
+		}
+		else
+		{
+			novo = construir(anterior.construtorIncremental(), repository.listarParaPrecificacaoAlteradosDesde(
+					anterior.getAtualizadoAte().minus(MARGEM_ATUALIZACAO)));
+		}
+
+		if (novo != anterior)
+		{
+			atual.set(novo);
+			gravar(novo);
+		}
+	}
+
+	private static CatalogoPrecos construir(CatalogoPrecos.Construtor construtor, Stream<ProdutoPrecificacaoDTO> produtos)
+	{
+		try (produtos)
+		{
+			produtos.forEach(construtor::adicionar);
+		}
+		return construtor.construir();
+	}
+
+	private void gravar(CatalogoPrecos catalogo)
+	{
+		try
+		{
+			ArquivoCatalogo.gravar(catalogo, arquivo, identidade);
+		}
+		catch (IOException e)
+		{
+			// A fotografia em memória continua válida; só a próxima inicialização será fria
+			log.warn("Não foi possível gravar o catálogo de preços em {}", arquivo, e);
+		}
+	}
+
+	/**
+	 * Identidade do banco de onde vêm os produtos (URL, usuário, catálogo e
+	 * esquema). Bancos em memória com nome gerado mudam de identidade a cada
+	 * execução, e então o arquivo nunca é reaproveitado.
+	 */
+	private static long identidadeDoBanco(DataSource dataSource)
+	{
+		try (Connection conexao = dataSource.getConnection())
+		{
+			DatabaseMetaData banco = conexao.getMetaData();
+			String identidade = banco.getURL() + '|' + banco.getUserName() + '|' + conexao.getCatalog() + '|'
+					+ conexao.getSchema();
+			return UUID.nameUUIDFromBytes(identidade.getBytes(StandardCharsets.UTF_8)).getMostSignificantBits();
+		}
+		catch (SQLException e)
+		{
+			throw new IllegalStateException("Não foi possível identificar o banco do catálogo de preços.", e);
+		}
+	}
+}
@@ -0,0 +1,205 @@
+package ecommerce.catalogo;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ecommerce.dto.PrecoVigenciaDTO;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+
+/**
+ * Fotografia imutável das vigências de preço (ver {@link ecommerce.entity.PrecoProduto}).
+ *
+ * Cada produto com histórico tem os inícios de vigência ordenados num
+ * {@code long[]} (microssegundos desde a época, a precisão da coluna) e os
+ * preços num vetor paralelo; o preço num instante é o da última vigência
+ * iniciada até ele, achado por busca binária. Antes da primeira vigência, ou
+ * para produtos sem histórico, vale o próprio {@link Produto#getPreco()}.
+ *
+ * Vigências futuras já fazem parte da fotografia, então um preço agendado passa
+ * a valer no instante marcado sem nenhuma escrita no banco.
+ *
+ * Uma fotografia montada a partir de um instante ({@link #construtor(Instant)})
+ * tem, de cada produto, só a vigência em curso nele e as posteriores, e por
+ * isso só responde por instantes a partir dele (ver {@link #cobre(Instant)}).
+ */
+public final class HistoricoPrecos
+{
+	public static final HistoricoPrecos VAZIO = new HistoricoPrecos(Map.of(), Instant.MIN);
+
+	private final Map<Long, Serie> series;
+	private final Instant desde;
+
+	private HistoricoPrecos(Map<Long, Serie> series, Instant desde)
+	{
+		this.series = series;
+		this.desde = desde;
+	}
+
+	/** Construtor de um histórico completo, que responde por qualquer instante. */
+	public static Construtor construtor()
+	{
+		return construtor(Instant.MIN);
+	}
+
+	/**
+	 * Construtor de um histórico que responde a partir de {@code desde}, com as
+	 * vigências em curso nesse instante e as posteriores.
+	 */
+	public static Construtor construtor(Instant desde)
+	{
+		return new Construtor(desde);
+	}
+
+	/** Quantidade de produtos com histórico. */
+	public int getProdutos()
+	{
+		return series.size();
+	}
+
+	/** Se a fotografia tem todas as vigências que podem valer no instante dado. */
+	public boolean cobre(Instant momento)
+	{
+		return !momento.isBefore(desde);
+	}
+
+	/** Preço do produto vigente no instante dado. */
+	public BigDecimal precoEm(Produto produto, Instant momento)
+	{
+		Serie serie = produto.getId() == null ? null : series.get(produto.getId());
+		if (serie == null)
+		{
+			return produto.getPreco();
+		}
+		int indice = serie.indiceEm(micros(momento));
+		return indice < 0 ? produto.getPreco() : serie.precos[indice];
+	}
+
+	/**
+	 * Se algum item tem uma vigência iniciada até o instante dado, isto é, se o
+	 * preço de algum deles difere do {@link Produto#getPreco()}.
+	 */
+	public boolean afeta(List<ItemCompra> itens, Instant momento)
+	{
+		if (series.isEmpty())
+		{
+			return false;
+		}
+		long instante = micros(momento);
+		for (ItemCompra item : itens)
+		{
+			Serie serie = item.getProduto() == null || item.getProduto().getId() == null ? null
+					: series.get(item.getProduto().getId());
+			if (serie != null && serie.inicios[0] <= instante)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Se o preço de todos os itens no instante dado é conhecido: a fotografia o
+	 * cobre e nenhum produto com histórico tem só vigências posteriores a ele.
+	 * Antes da primeira vigência de um produto vale o {@link Produto#getPreco()},
+	 * que é o preço de hoje, não o da época.
+	 */
+	public boolean conhecePrecosEm(List<ItemCompra> itens, Instant momento)
+	{
+		if (!cobre(momento))
+		{
+			return false;
+		}
+		long instante = micros(momento);
+		for (ItemCompra item : itens)
+		{
+			Serie serie = item.getProduto() == null || item.getProduto().getId() == null ? null
+					: series.get(item.getProduto().getId());
+			if (serie != null && serie.inicios[0] > instante)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static long micros(Instant instante)
+	{
+		return Math.addExact(Math.multiplyExact(instante.getEpochSecond(), 1_000_000L), instante.getNano() / 1_000);
+	}
+
+	private static final class Serie
+	{
+		private final long[] inicios;
+		private final BigDecimal[] precos;
+
+		private Serie(long[] inicios, BigDecimal[] precos)
+		{
+			this.inicios = inicios;
+			this.precos = precos;
+		}
+
+		/** Índice da última vigência iniciada até {@code instante}, ou -1 se nenhuma. */
+		int indiceEm(long instante)
+		{
+			int posicao = Arrays.binarySearch(inicios, instante);
+			return posicao >= 0 ? posicao : -posicao - 2;
+		}
+	}
+
+	/** Acumula as vigências em qualquer ordem; vigências com preço nulo ou negativo são ignoradas. */
+	public static final class Construtor
+	{
+		private final Map<Long, List<PrecoVigenciaDTO>> porProduto = new HashMap<>();
+		private final Instant desde;
+
+		private Construtor(Instant desde)
+		{
+			this.desde = desde;
+		}
+
+		public void adicionar(PrecoVigenciaDTO vigencia)
+		{
+			if (vigencia.produtoId() == null || vigencia.vigenteDesde() == null || vigencia.preco() == null
+					|| vigencia.preco().signum() < 0)
+			{
+				return;
+			}
+			porProduto.computeIfAbsent(vigencia.produtoId(), id -> new ArrayList<>()).add(vigencia);
+		}
+
+		public HistoricoPrecos construir()
+		{
+			if (porProduto.isEmpty())
+			{
+				return desde.equals(Instant.MIN) ? VAZIO : new HistoricoPrecos(Map.of(), desde);
+			}
+			Map<Long, Serie> series = new HashMap<>(porProduto.size() * 4 / 3 + 1);
+			porProduto.forEach((id, vigencias) -> {
+				vigencias.sort((a, b) -> a.vigenteDesde().compareTo(b.vigenteDesde()));
+				long[] inicios = new long[vigencias.size()];
+				BigDecimal[] precos = new BigDecimal[vigencias.size()];
+				int n = 0;
+				for (PrecoVigenciaDTO vigencia : vigencias)
+				{
+					long inicio = micros(vigencia.vigenteDesde());
+					// Mesmo início (só possível fora do banco, que tem índice único): vale a última adicionada
+					if (n > 0 && inicios[n - 1] == inicio)
+					{
+						n--;
+					}
+					inicios[n] = inicio;
+					precos[n] = vigencia.preco();
+					n++;
+				}
+				series.put(id, new Serie(Arrays.copyOf(inicios, n), Arrays.copyOf(precos, n)));
+			});
+			return new HistoricoPrecos(series, desde);
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package ecommerce.catalogo;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import ecommerce.dto.PrecoVigenciaDTO;
+import ecommerce.entity.ItemCompra;
+import ecommerce.repository.PrecoProdutoRepository;
+import jakarta.transaction.Transactional;
+
+/**
+ * Mantém o {@link HistoricoPrecos} usado na precificação, recarregado a cada
+ * intervalo e trocado atomicamente. Um preço novo (inclusive agendado) é visto
+ * no máximo um intervalo depois de gravado; a partir daí, entra em vigor no
+ * instante marcado.
+ *
+ * Cada carga traz só as vigências em curso e as futuras, não o histórico
+ * inteiro; preços de instantes anteriores à carga são consultados no banco
+ * quando pedidos (ver {@link #em(Instant, List)}).
+ */
+@Service
+public class HistoricoPrecosService
+{
+	private final PrecoProdutoRepository repository;
+	// Antes da primeira carga nenhum instante é coberto, e todos são consultados no banco
+	private final AtomicReference<HistoricoPrecos> atual = new AtomicReference<>(
+			HistoricoPrecos.construtor(Instant.MAX).construir());
+
+	@Autowired
+	public HistoricoPrecosService(PrecoProdutoRepository repository)
+	{
+		this.repository = repository;
+	}
+
+	public HistoricoPrecos atual()
+	{
+		return atual.get();
+	}
+
+	/**
+	 * Histórico que responde pelos preços dos itens no instante dado: a
+	 * fotografia atual, se ela o cobre, ou as vigências dos produtos dos itens
+	 * lidas do banco a partir dele.
+	 */
+	public HistoricoPrecos em(Instant momento, List<ItemCompra> itens)
+	{
+		HistoricoPrecos historico = atual.get();
+		if (historico.cobre(momento))
+		{
+			return historico;
+		}
+		Set<Long> produtosIds = itens.stream()
+				.filter(item -> item.getProduto() != null && item.getProduto().getId() != null)
+				.map(item -> item.getProduto().getId())
+				.collect(Collectors.toSet());
+		HistoricoPrecos.Construtor construtor = HistoricoPrecos.construtor(momento);
+		if (!produtosIds.isEmpty())
+		{
+			repository.listarVigentesAPartirDe(momento, produtosIds).forEach(construtor::adicionar);
+		}
+		return construtor.construir();
+	}
+
+	@Transactional
+	@Scheduled(fixedDelayString = "${ecommerce.precos.intervalo-atualizacao-ms:30000}")
+	public void atualizar()
+	{
+		Instant agora = Instant.now();
+		HistoricoPrecos.Construtor construtor = HistoricoPrecos.construtor(agora);
+		try (Stream<PrecoVigenciaDTO> vigencias = repository.listarVigentesAPartirDe(agora))
+		{
+			vigencias.forEach(construtor::adicionar);
+		}
+		atual.set(construtor.construir());
+	}
+}
@@ -0,0 +1,49 @@
+package ecommerce.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import ecommerce.admissao.FiltroDeAdmissao;
+import ecommerce.admissao.LimiteDeConcorrencia;
+import ecommerce.admissao.LimiteDeTaxaPorCliente;
+
+/**
+ * Controle de admissão dos endpoints de finalização de compra: taxa por
+ * cliente e limite adaptativo de concorrência, com 429 para o excesso.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ecommerce.admissao.habilitado", havingValue = "true", matchIfMissing = true)
+public class AdmissaoConfig
+{
+	@Bean
+	public LimiteDeTaxaPorCliente limiteDeTaxaPorCliente(
+			@Value("${ecommerce.admissao.cliente.taxa-por-segundo:5}") double taxaPorSegundo,
+			@Value("${ecommerce.admissao.cliente.rajada:10}") int rajada)
+	{
+		return new LimiteDeTaxaPorCliente(taxaPorSegundo, rajada);
+	}
+
+	@Bean
+	public LimiteDeConcorrencia limiteDeConcorrencia(
+			@Value("${ecommerce.admissao.concorrencia.inicial:20}") int inicial,
+			@Value("${ecommerce.admissao.concorrencia.minimo:4}") int minimo,
+			@Value("${ecommerce.admissao.concorrencia.maximo:200}") int maximo,
+			@Value("${ecommerce.admissao.concorrencia.amostras-por-janela:1000}") int amostrasPorJanela)
+	{
+		return new LimiteDeConcorrencia(inicial, minimo, maximo, amostrasPorJanela);
+	}
+
+	@Bean
+	public FilterRegistrationBean<FiltroDeAdmissao> filtroDeAdmissao(LimiteDeTaxaPorCliente limiteCliente,
+			LimiteDeConcorrencia limiteConcorrencia, HttpMessageConverters conversores)
+	{
+		FilterRegistrationBean<FiltroDeAdmissao> registro = new FilterRegistrationBean<>(
+				new FiltroDeAdmissao(limiteCliente, limiteConcorrencia, conversores.getConverters()));
+		registro.addUrlPatterns("/finalizar", "/reativo/finalizar");
+		return registro;
+	}
+}
@@ -0,0 +1,52 @@
+package ecommerce.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import ecommerce.external.IEstoqueExternal;
+import ecommerce.external.agrupamento.BaixaAgregada;
+import ecommerce.external.agrupamento.DisponibilidadeAgrupada;
+
+/**
+ * Monta o estoque usado pela aplicação sobre o cliente remoto (qualificado
+ * como {@code remoto}): baixas agregadas e, na frente delas, consultas de
+ * disponibilidade agrupadas.
+ */
+@Configuration
+public class EstoqueConfig
+{
+	@Value("${ecommerce.estoque.agrupamento.threads:4}")
+	private int threads;
+
+	@Bean
+	public IEstoqueExternal estoqueComBaixaAgregada(@Qualifier("remoto") IEstoqueExternal remoto,
+			@Value("${ecommerce.estoque.baixa-agregada.habilitado:true}") boolean habilitado,
+			@Value("${ecommerce.estoque.baixa-agregada.janela-micros:1000}") long janelaMicros,
+			@Value("${ecommerce.estoque.baixa-agregada.maximo-por-lote:128}") int maximoPorLote)
+	{
+		if (!habilitado)
+		{
+			return remoto;
+		}
+		return new BaixaAgregada(remoto, Duration.ofNanos(janelaMicros * 1000), maximoPorLote, threads);
+	}
+
+	@Bean
+	@Primary
+	public IEstoqueExternal estoqueExternal(@Qualifier("estoqueComBaixaAgregada") IEstoqueExternal estoque,
+			@Value("${ecommerce.estoque.agrupamento.habilitado:true}") boolean habilitado,
+			@Value("${ecommerce.estoque.agrupamento.janela-micros:2000}") long janelaMicros,
+			@Value("${ecommerce.estoque.agrupamento.maximo-por-lote:256}") int maximoPorLote)
+	{
+		if (!habilitado)
+		{
+			return estoque;
+		}
+		return new DisponibilidadeAgrupada(estoque, Duration.ofNanos(janelaMicros * 1000), maximoPorLote, threads);
+	}
+}
@@ -0,0 +1,28 @@
+package ecommerce.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import ecommerce.eventos.LogDeEventos;
+
+@Configuration
+public class EventosConfig
+{
+
+	/**
+	 * Log dos eventos de pedido. Ao fechar, os eventos ainda na fila são gravados
+	 * antes de a aplicação terminar.
+	 */
+	@Bean(destroyMethod = "close")
+	public LogDeEventos logDeEventos(@Value("${ecommerce.eventos.diretorio}") String diretorio,
+			@Value("${ecommerce.eventos.tamanho-segmento-bytes:67108864}") long tamanhoSegmento,
+			@Value("${ecommerce.eventos.maximo-por-lote:512}") int maximoPorLote,
+			@Value("${ecommerce.eventos.capacidade-fila:65536}") int capacidadeFila) throws IOException
+	{
+		return new LogDeEventos(Path.of(diretorio), tamanhoSegmento, maximoPorLote, capacidadeFila);
+	}
+}
@@ -0,0 +1,79 @@
+package ecommerce.config;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Representações binárias (CBOR e Smile) para todos os endpoints, escolhidas
+ * pelo cabeçalho {@code Accept} (e lidas pelo {@code Content-Type}); JSON
+ * continua sendo o padrão.
+ *
+ * O Spring MVC já registra conversores CBOR e Smile quando as bibliotecas estão
+ * no classpath, mas com um mapeador próprio, sem as propriedades
+ * {@code spring.jackson.*} nem os módulos registrados como beans. Os daqui
+ * partem do builder do Spring Boot, com as mesmas configurações do JSON. O
+ * Spring Boot insere cada conversor declarado antes do padrão da mesma classe
+ * sem removê-lo; {@link #messageConverters} descarta esses padrões, que nunca
+ * seriam escolhidos.
+ */
+@Configuration
+public class FormatosBinariosConfig
+{
+	private static final Set<Class<?>> SUBSTITUIDOS = Set.of(MappingJackson2CborHttpMessageConverter.class,
+			MappingJackson2SmileHttpMessageConverter.class);
+
+	@Bean
+	public MappingJackson2CborHttpMessageConverter conversorCbor(Jackson2ObjectMapperBuilder builder)
+	{
+		return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+	}
+
+	@Bean
+	public MappingJackson2SmileHttpMessageConverter conversorSmile(Jackson2ObjectMapperBuilder builder)
+	{
+		return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+	}
+
+	/** Mesma lista da autoconfiguração do Spring Boot, sem os padrões CBOR e Smile substituídos acima. */
+	@Bean
+	public HttpMessageConverters messageConverters(ObjectProvider<HttpMessageConverter<?>> conversores)
+	{
+		return new HttpMessageConverters(conversores.orderedStream().toList())
+		{
+			@Override
+			protected List<HttpMessageConverter<?>> postProcessConverters(List<HttpMessageConverter<?>> combinados)
+			{
+				return semPadroesSubstituidos(combinados);
+			}
+		};
+	}
+
+	/** Mantém só o primeiro conversor CBOR e o primeiro Smile da lista. */
+	static List<HttpMessageConverter<?>> semPadroesSubstituidos(List<HttpMessageConverter<?>> conversores)
+	{
+		Set<Class<?>> vistos = new HashSet<>();
+		List<HttpMessageConverter<?>> resultado = new ArrayList<>(conversores.size());
+		for (HttpMessageConverter<?> conversor : conversores)
+		{
+			if (!SUBSTITUIDOS.contains(conversor.getClass()) || vistos.add(conversor.getClass()))
+			{
+				resultado.add(conversor);
+			}
+		}
+		return resultado;
+	}
+}
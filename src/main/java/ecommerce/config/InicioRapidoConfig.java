@@ -0,0 +1,28 @@
+package ecommerce.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+
+@Configuration
+public class InicioRapidoConfig
+{
+
+	/**
+	 * Com {@code spring.main.lazy-initialization} (perfil {@code inicio-rapido}),
+	 * mantém a criação na partida dos beans com métodos {@link Scheduled}: o
+	 * agendamento só é registrado quando o bean existe, e são eles que carregam
+	 * catálogo, promoções e histórico de preços antes da primeira compra.
+	 */
+	@Bean
+	static LazyInitializationExcludeFilter agendadosCriadosNaPartida()
+	{
+		return (nome, definicao, tipo) -> tipo != null && !MethodIntrospector.selectMethods(tipo,
+				(MethodIntrospector.MetadataLookup<Scheduled>) metodo -> AnnotatedElementUtils
+						.findMergedAnnotation(metodo, Scheduled.class))
+				.isEmpty();
+	}
+}
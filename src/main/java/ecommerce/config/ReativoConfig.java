@@ -0,0 +1,26 @@
+package ecommerce.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class ReativoConfig
+{
+
+	/**
+	 * Threads para as chamadas bloqueantes do fluxo reativo (JPA e os clientes
+	 * externos ainda síncronos). A fila é limitada: acima dela a tarefa é
+	 * rejeitada e a compra responde 503 imediatamente, em vez de acumular
+	 * requisições que só expirariam depois.
+	 */
+	@Bean(destroyMethod = "dispose")
+	public Scheduler agendadorBloqueante(@Value("${ecommerce.reativo.threads:64}") int threads,
+			@Value("${ecommerce.reativo.fila:1000}") int fila)
+	{
+		return Schedulers.newBoundedElastic(threads, fila, "compra-bloqueante");
+	}
+}
@@ -0,0 +1,114 @@
+package ecommerce.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import ecommerce.dto.CarrinhoDTO;
+import ecommerce.dto.ItemCarrinhoDTO;
+import ecommerce.dto.PaginaCarrinhosDTO;
+import ecommerce.entity.Cliente;
+import ecommerce.service.CarrinhoDeComprasService;
+import ecommerce.service.ClienteService;
+
+@RestController
+@RequestMapping("/carrinhos")
+public class CarrinhoController
+{
+
+	private final CarrinhoDeComprasService carrinhoService;
+	private final ClienteService clienteService;
+
+	@Autowired
+	public CarrinhoController(CarrinhoDeComprasService carrinhoService, ClienteService clienteService)
+	{
+		this.carrinhoService = carrinhoService;
+		this.clienteService = clienteService;
+	}
+
+	/**
+	 * Carrinhos do cliente por data. Para a próxima página, repita a chamada com
+	 * {@code aposData}/{@code aposId} iguais a {@code proximaData}/{@code proximoId}.
+	 */
+	@GetMapping
+	public ResponseEntity<?> listarPorCliente(@RequestParam Long clienteId,
+			@RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate aposData,
+			@RequestParam(required = false) Long aposId, @RequestParam(defaultValue = "50") Integer tamanho)
+	{
+		try
+		{
+			PaginaCarrinhosDTO pagina = carrinhoService.listarPorCliente(clienteId, aposData, aposId, tamanho);
+			return ResponseEntity.ok(pagina);
+		}
+		catch (IllegalArgumentException e)
+		{
+			return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage())).build();
+		}
+	}
+
+	/** Carrinhos de todos os clientes com data no período, paginados como em {@code GET /carrinhos}. */
+	@GetMapping("/periodo")
+	public ResponseEntity<?> listarPorPeriodo(@RequestParam @DateTimeFormat(iso = ISO.DATE) LocalDate inicio,
+			@RequestParam @DateTimeFormat(iso = ISO.DATE) LocalDate fim,
+			@RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate aposData,
+			@RequestParam(required = false) Long aposId, @RequestParam(defaultValue = "50") Integer tamanho)
+	{
+		try
+		{
+			PaginaCarrinhosDTO pagina = carrinhoService.listarPorPeriodo(inicio, fim, aposData, aposId, tamanho);
+			return ResponseEntity.ok(pagina);
+		}
+		catch (IllegalArgumentException e)
+		{
+			return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage())).build();
+		}
+	}
+
+	@PostMapping
+	public ResponseEntity<?> criar(@RequestParam Long clienteId, @RequestBody List<ItemCarrinhoDTO> itens)
+	{
+		try
+		{
+			Cliente cliente = clienteService.buscarPorId(clienteId);
+			CarrinhoDTO carrinho = CarrinhoDTO.de(carrinhoService.criar(cliente, itens));
+			return ResponseEntity.status(HttpStatus.CREATED).body(carrinho);
+		}
+		catch (IllegalArgumentException e)
+		{
+			return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage())).build();
+		}
+	}
+
+	/**
+	 * Inclui, altera e remove vários itens em uma chamada (quantidade zero
+	 * remove o produto do carrinho).
+	 */
+	@PutMapping("/{carrinhoId}/itens")
+	public ResponseEntity<?> alterarItens(@PathVariable Long carrinhoId, @RequestParam Long clienteId,
+			@RequestBody List<ItemCarrinhoDTO> itens)
+	{
+		try
+		{
+			Cliente cliente = clienteService.buscarPorId(clienteId);
+			CarrinhoDTO carrinho = CarrinhoDTO.de(carrinhoService.alterarItens(carrinhoId, cliente, itens));
+			return ResponseEntity.ok(carrinho);
+		}
+		catch (IllegalArgumentException e)
+		{
+			return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage())).build();
+		}
+		catch (OptimisticLockingFailureException e)
+		{
+			return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT,
+					"Carrinho alterado por outra requisição, tente novamente.")).build();
+		}
+	}
+}
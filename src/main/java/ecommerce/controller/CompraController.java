@@ -1,12 +1,18 @@
 package ecommerce.controller;
 
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import ecommerce.dto.CompraDTO;
+import ecommerce.service.CompraReativaService;
 import ecommerce.service.CompraService;
+import ecommerce.service.ResultadoCompra;
+import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("/")
@@ -14,33 +20,93 @@ public class CompraController
 {
 
 	private final CompraService compraService;
+	private final CompraReativaService compraReativaService;
 
 	@Autowired
-	public CompraController(CompraService compraService)
+	public CompraController(CompraService compraService, CompraReativaService compraReativaService)
 	{
 		this.compraService = compraService;
+		this.compraReativaService = compraReativaService;
 	}
 
 	@PostMapping("/finalizar")
-	public ResponseEntity<CompraDTO> finalizarCompra(@RequestParam Long carrinhoId, @RequestParam Long clienteId)
+	public ResponseEntity<?> finalizarCompra(@RequestParam Long carrinhoId, @RequestParam Long clienteId,
+			@RequestParam(required = false) String cupom)
 	{
 		try
 		{
-			CompraDTO compraDTO = compraService.finalizarCompra(carrinhoId, clienteId);
-			return ResponseEntity.ok(compraDTO);
+			return resposta(compraService.tentarFinalizarCompra(carrinhoId, clienteId, cupom));
 		}
 		catch (IllegalArgumentException e)
 		{
-			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new CompraDTO(false, null, e.getMessage()));
+			return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage())).build();
 		}
 		catch (IllegalStateException e)
 		{
-			return ResponseEntity.status(HttpStatus.CONFLICT).body(new CompraDTO(false, null, e.getMessage()));
+			return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage())).build();
 		}
 		catch (Exception e)
 		{
-			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-					.body(new CompraDTO(false, null, "Erro ao processar compra."));
+			return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.INTERNAL_SERVER_ERROR,
+					"Erro ao processar compra.")).build();
+		}
+	}
+
+	/**
+	 * Mesma finalização de {@code /finalizar}, sem ocupar a thread do servlet
+	 * durante as chamadas externas (a resposta é escrita de forma assíncrona).
+	 */
+	@PostMapping("/reativo/finalizar")
+	public Mono<ResponseEntity<?>> finalizarCompraReativa(@RequestParam Long carrinhoId,
+			@RequestParam Long clienteId, @RequestParam(required = false) String cupom)
+	{
+		return compraReativaService.finalizarCompra(carrinhoId, clienteId, cupom)
+				.<ResponseEntity<?>>map(CompraController::resposta)
+				.onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity
+						.of(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage())).build()))
+				.onErrorResume(IllegalStateException.class, e -> Mono.just(ResponseEntity
+						.of(ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage())).build()))
+				.onErrorResume(TimeoutException.class, e -> Mono.just(ResponseEntity.of(ProblemDetail
+						.forStatusAndDetail(HttpStatus.GATEWAY_TIMEOUT, "Tempo esgotado ao processar compra.")).build()))
+				.onErrorResume(RejectedExecutionException.class, e -> Mono.just(ResponseEntity.of(ProblemDetail
+						.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, "Serviço sobrecarregado, tente novamente."))
+						.build()))
+				.onErrorResume(e -> Mono.just(ResponseEntity.of(ProblemDetail
+						.forStatusAndDetail(HttpStatus.INTERNAL_SERVER_ERROR, "Erro ao processar compra.")).build()));
+	}
+
+	/**
+	 * Sucesso com a compra no corpo; cada recusa com o próprio status, para que
+	 * o cliente saiba se adianta repetir a chamada ou ajustar o carrinho.
+	 */
+	private static ResponseEntity<?> resposta(ResultadoCompra resultado)
+	{
+		if (resultado instanceof ResultadoCompra.Sucesso sucesso)
+		{
+			return ResponseEntity.ok(sucesso.compra());
+		}
+		return ResponseEntity.of(recusa(resultado)).build();
+	}
+
+	private static ProblemDetail recusa(ResultadoCompra resultado)
+	{
+		if (resultado instanceof ResultadoCompra.ForaDeEstoque foraDeEstoque)
+		{
+			ProblemDetail problema = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, resultado.mensagem());
+			problema.setTitle("Fora de estoque");
+			problema.setProperty("idsProdutosIndisponiveis", foraDeEstoque.idsProdutosIndisponiveis());
+			return problema;
+		}
+		if (resultado instanceof ResultadoCompra.PagamentoNegado)
+		{
+			ProblemDetail problema = ProblemDetail.forStatusAndDetail(HttpStatus.PAYMENT_REQUIRED, resultado.mensagem());
+			problema.setTitle("Pagamento negado");
+			return problema;
 		}
+		ProblemDetail problema = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, resultado.mensagem());
+		// Nos dois casos o pagamento já foi cancelado e a compra pode ser refeita
+		problema.setTitle(resultado instanceof ResultadoCompra.CarrinhoAlterado ? "Carrinho alterado"
+				: "Falha na baixa do estoque");
+		return problema;
 	}
 }
@@ -0,0 +1,55 @@
+package ecommerce.controller;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import ecommerce.dto.EventosPedidoDTO;
+import ecommerce.eventos.EventosDePedidoService;
+
+@RestController
+@RequestMapping("/eventos")
+public class EventoController
+{
+	private static final int MAXIMO_POR_LEITURA = 1000;
+	private static final long ESPERA_MAXIMA_MS = 30_000;
+
+	private final EventosDePedidoService eventosService;
+
+	@Autowired
+	public EventoController(EventosDePedidoService eventosService)
+	{
+		this.eventosService = eventosService;
+	}
+
+	/**
+	 * Eventos de pedido concluído a partir de {@code posicao}. O consumidor
+	 * repete a chamada com a {@code proximaPosicao} da resposta; com
+	 * {@code esperaMs}, a chamada aguarda novos eventos antes de responder vazia.
+	 */
+	@GetMapping("/pedidos")
+	public ResponseEntity<?> lerPedidos(@RequestParam(defaultValue = "0") Long posicao,
+			@RequestParam(defaultValue = "100") Integer maximo, @RequestParam(defaultValue = "0") Long esperaMs)
+	{
+		try
+		{
+			EventosPedidoDTO eventos = eventosService.ler(posicao, Math.min(maximo, MAXIMO_POR_LEITURA),
+					Duration.ofMillis(Math.min(esperaMs, ESPERA_MAXIMA_MS)));
+			return ResponseEntity.ok(eventos);
+		}
+		catch (IllegalArgumentException e)
+		{
+			return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage())).build();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE,
+					"Leitura de eventos interrompida; tente novamente")).build();
+		}
+	}
+}
@@ -0,0 +1,18 @@
+package ecommerce.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import ecommerce.entity.CarrinhoDeCompras;
+
+public record CarrinhoDTO(Long id, Long clienteId, LocalDate data, Long versao, List<ItemCarrinhoDTO> itens)
+{
+	public static CarrinhoDTO de(CarrinhoDeCompras carrinho)
+	{
+		List<ItemCarrinhoDTO> itens = carrinho.getItens().stream()
+				.map(item -> new ItemCarrinhoDTO(item.getProduto().getId(), item.getQuantidade()))
+				.toList();
+		return new CarrinhoDTO(carrinho.getId(), carrinho.getCliente().getId(), carrinho.getData(),
+				carrinho.getVersao(), itens);
+	}
+}
@@ -0,0 +1,8 @@
+package ecommerce.dto;
+
+import java.time.LocalDate;
+
+public record CarrinhoResumoDTO(Long id, Long clienteId, LocalDate data, Long versao)
+{
+
+}
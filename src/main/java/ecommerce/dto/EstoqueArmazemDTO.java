@@ -0,0 +1,8 @@
+package ecommerce.dto;
+
+import java.util.List;
+
+/** Quantidades disponíveis de cada produto em um armazém. */
+public record EstoqueArmazemDTO(Long armazemId, List<Long> produtosIds, List<Long> quantidadesDisponiveis)
+{
+}
@@ -0,0 +1,10 @@
+package ecommerce.dto;
+
+import java.util.List;
+
+import ecommerce.eventos.PedidoConcluido;
+
+public record EventosPedidoDTO(List<PedidoConcluido> eventos, Long proximaPosicao)
+{
+
+}
@@ -0,0 +1,6 @@
+package ecommerce.dto;
+
+public record ItemCarrinhoDTO(Long produtoId, Long quantidade)
+{
+
+}
@@ -0,0 +1,14 @@
+package ecommerce.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Uma página de carrinhos; a próxima é pedida com {@code aposData} e
+ * {@code aposId} iguais a {@code proximaData} e {@code proximoId}, nulos na
+ * última página.
+ */
+public record PaginaCarrinhosDTO(List<CarrinhoResumoDTO> carrinhos, LocalDate proximaData, Long proximoId)
+{
+
+}
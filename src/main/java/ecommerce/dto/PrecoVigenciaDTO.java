@@ -0,0 +1,8 @@
+package ecommerce.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record PrecoVigenciaDTO(Long produtoId, BigDecimal preco, Instant vigenteDesde)
+{
+}
@@ -0,0 +1,11 @@
+package ecommerce.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import ecommerce.entity.TipoProduto;
+
+public record ProdutoPrecificacaoDTO(Long id, BigDecimal preco, BigDecimal pesoFisico, BigDecimal comprimento,
+		BigDecimal largura, BigDecimal altura, Boolean fragil, TipoProduto tipo, Instant atualizadoEm)
+{
+}
@@ -5,20 +5,29 @@ import java.util.ArrayList;
 import java.util.List;
 
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 @Entity
+@Table(indexes = { // Paginação por chave: carrinhos de um cliente e carrinhos de um período, ordenados por (data, id)
+		@Index(name = "idx_carrinho_cliente_data_id", columnList = "cliente_id, data, id"),
+		@Index(name = "idx_carrinho_data_id", columnList = "data, id") })
 public class CarrinhoDeCompras
 {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "carrinho_de_compras_seq")
+	@SequenceGenerator(name = "carrinho_de_compras_seq", sequenceName = "carrinho_de_compras_seq", allocationSize = 50)
 	private Long id;
 
 	@ManyToOne // Um cliente pode ter vários carrinhos
@@ -29,8 +38,12 @@ public class CarrinhoDeCompras
 	@JoinColumn(name = "carrinho_id") // Mapeamento de chave estrangeira na tabela ItemCompra
 	private List<ItemCompra> itens = new ArrayList<>();
 
+	@Column(nullable = false) // Chave da paginação, junto com o id
 	private LocalDate data;
 
+	@Version // Controle de concorrência otimista: detecta alterações durante a finalização da compra
+	private Long versao;
+
 	public CarrinhoDeCompras()
 	{
 	}
@@ -83,4 +96,14 @@ public class CarrinhoDeCompras
 	{
 		this.data = data;
 	}
+
+	public Long getVersao()
+	{
+		return versao;
+	}
+
+	public void setVersao(Long versao)
+	{
+		this.versao = versao;
+	}
 }
@@ -4,15 +4,23 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 @Entity
+@Table(indexes = { // carrinho_id é a chave do mapeamento CarrinhoDeCompras.itens
+		@Index(name = "idx_item_compra_carrinho", columnList = "carrinho_id"),
+		@Index(name = "idx_item_compra_produto", columnList = "produto_id") })
 public class ItemCompra
 {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_compra_seq")
+	@SequenceGenerator(name = "item_compra_seq", sequenceName = "item_compra_seq", allocationSize = 50)
 	private Long id;
 
 	@ManyToOne // Vários itens podem se referir ao mesmo produto
@@ -21,6 +29,9 @@ public class ItemCompra
 
 	private Long quantidade;
 
+	@Version
+	private Long versao;
+
 	public ItemCompra()
 	{
 	}
@@ -62,4 +73,14 @@ public class ItemCompra
 	{
 		this.quantidade = quantidade;
 	}
+
+	public Long getVersao()
+	{
+		return versao;
+	}
+
+	public void setVersao(Long versao)
+	{
+		this.versao = versao;
+	}
 }
@@ -0,0 +1,113 @@
+package ecommerce.entity;
+
+import java.math.BigDecimal;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(indexes = { @Index(name = "idx_item_pedido_pedido", columnList = "pedido_id"),
+		@Index(name = "idx_item_pedido_produto", columnList = "produto_id") })
+public class ItemPedido
+{
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_pedido_seq")
+	@SequenceGenerator(name = "item_pedido_seq", sequenceName = "item_pedido_seq", allocationSize = 50)
+	private Long id;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "pedido_id")
+	private Pedido pedido;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "produto_id")
+	private Produto produto;
+
+	private Long quantidade;
+
+	private BigDecimal precoUnitario; // Preço praticado na compra, independente de alterações futuras do produto
+
+	private Long armazemId; // Armazém do plano de envios; nulo quando a compra não seguiu um plano
+
+	public ItemPedido()
+	{
+	}
+
+	public ItemPedido(Produto produto, Long quantidade, BigDecimal precoUnitario, Long armazemId)
+	{
+		this.produto = produto;
+		this.quantidade = quantidade;
+		this.precoUnitario = precoUnitario;
+		this.armazemId = armazemId;
+	}
+
+	// Getters e Setters
+	public Long getId()
+	{
+		return id;
+	}
+
+	public void setId(Long id)
+	{
+		this.id = id;
+	}
+
+	public Pedido getPedido()
+	{
+		return pedido;
+	}
+
+	public void setPedido(Pedido pedido)
+	{
+		this.pedido = pedido;
+	}
+
+	public Produto getProduto()
+	{
+		return produto;
+	}
+
+	public void setProduto(Produto produto)
+	{
+		this.produto = produto;
+	}
+
+	public Long getQuantidade()
+	{
+		return quantidade;
+	}
+
+	public void setQuantidade(Long quantidade)
+	{
+		this.quantidade = quantidade;
+	}
+
+	public BigDecimal getPrecoUnitario()
+	{
+		return precoUnitario;
+	}
+
+	public void setPrecoUnitario(BigDecimal precoUnitario)
+	{
+		this.precoUnitario = precoUnitario;
+	}
+
+	public Long getArmazemId()
+	{
+		return armazemId;
+	}
+
+	public void setArmazemId(Long armazemId)
+	{
+		this.armazemId = armazemId;
+	}
+}
@@ -0,0 +1,137 @@
+package ecommerce.entity;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.persistence.CascadeType;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(indexes = @Index(name = "idx_pedido_cliente", columnList = "cliente_id"))
+public class Pedido
+{
+
+	// Sequência com alocação em blocos (pooled): os ids saem da memória e os inserts podem ir em lote
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pedido_seq")
+	@SequenceGenerator(name = "pedido_seq", sequenceName = "pedido_seq", allocationSize = 50)
+	private Long id;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "cliente_id")
+	private Cliente cliente;
+
+	private Long carrinhoId;
+
+	private Long transacaoPagamentoId;
+
+	private BigDecimal total;
+
+	private Instant concluidoEm;
+
+	// O item é o lado dono da relação: cada linha é inserida já com pedido_id, sem UPDATE posterior
+	@OneToMany(mappedBy = "pedido", cascade = CascadeType.ALL, orphanRemoval = true)
+	private List<ItemPedido> itens = new ArrayList<>();
+
+	public Pedido()
+	{
+	}
+
+	public Pedido(Cliente cliente, Long carrinhoId, Long transacaoPagamentoId, BigDecimal total, Instant concluidoEm)
+	{
+		this.cliente = cliente;
+		this.carrinhoId = carrinhoId;
+		this.transacaoPagamentoId = transacaoPagamentoId;
+		this.total = total;
+		this.concluidoEm = concluidoEm;
+	}
+
+	public void adicionarItem(ItemPedido item)
+	{
+		item.setPedido(this);
+		itens.add(item);
+	}
+
+	// Getters e Setters
+	public Long getId()
+	{
+		return id;
+	}
+
+	public void setId(Long id)
+	{
+		this.id = id;
+	}
+
+	public Cliente getCliente()
+	{
+		return cliente;
+	}
+
+	public void setCliente(Cliente cliente)
+	{
+		this.cliente = cliente;
+	}
+
+	public Long getCarrinhoId()
+	{
+		return carrinhoId;
+	}
+
+	public void setCarrinhoId(Long carrinhoId)
+	{
+		this.carrinhoId = carrinhoId;
+	}
+
+	public Long getTransacaoPagamentoId()
+	{
+		return transacaoPagamentoId;
+	}
+
+	public void setTransacaoPagamentoId(Long transacaoPagamentoId)
+	{
+		this.transacaoPagamentoId = transacaoPagamentoId;
+	}
+
+	public BigDecimal getTotal()
+	{
+		return total;
+	}
+
+	public void setTotal(BigDecimal total)
+	{
+		this.total = total;
+	}
+
+	public Instant getConcluidoEm()
+	{
+		return concluidoEm;
+	}
+
+	public void setConcluidoEm(Instant concluidoEm)
+	{
+		this.concluidoEm = concluidoEm;
+	}
+
+	public List<ItemPedido> getItens()
+	{
+		return itens;
+	}
+
+	public void setItens(List<ItemPedido> itens)
+	{
+		this.itens = itens;
+	}
+}
@@ -0,0 +1,89 @@
+package ecommerce.entity;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * Preço de um produto a partir de {@code vigenteDesde}, até a próxima vigência
+ * do mesmo produto. As linhas só são inseridas: agendar um preço é gravar uma
+ * vigência futura, e o histórico permite reprecificar um carrinho em qualquer
+ * instante passado.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_preco_produto_vigencia", columnNames = { "produto_id",
+		"vigente_desde" }))
+public class PrecoProduto
+{
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "preco_produto_seq")
+	@SequenceGenerator(name = "preco_produto_seq", sequenceName = "preco_produto_seq", allocationSize = 50)
+	private Long id;
+
+	private Long produtoId;
+
+	private BigDecimal preco;
+
+	private Instant vigenteDesde;
+
+	public PrecoProduto()
+	{
+	}
+
+	public PrecoProduto(Long id, Long produtoId, BigDecimal preco, Instant vigenteDesde)
+	{
+		this.id = id;
+		this.produtoId = produtoId;
+		this.preco = preco;
+		this.vigenteDesde = vigenteDesde;
+	}
+
+	// Getters e Setters
+	public Long getId()
+	{
+		return id;
+	}
+
+	public void setId(Long id)
+	{
+		this.id = id;
+	}
+
+	public Long getProdutoId()
+	{
+		return produtoId;
+	}
+
+	public void setProdutoId(Long produtoId)
+	{
+		this.produtoId = produtoId;
+	}
+
+	public BigDecimal getPreco()
+	{
+		return preco;
+	}
+
+	public void setPreco(BigDecimal preco)
+	{
+		this.preco = preco;
+	}
+
+	public Instant getVigenteDesde()
+	{
+		return vigenteDesde;
+	}
+
+	public void setVigenteDesde(Instant vigenteDesde)
+	{
+		this.vigenteDesde = vigenteDesde;
+	}
+}
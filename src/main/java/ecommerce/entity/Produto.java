@@ -1,20 +1,34 @@
 package ecommerce.entity;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // Leitura frequente: servido do cache de segundo nível
+@Table(indexes = @Index(name = "idx_produto_atualizado_em", columnList = "atualizado_em"))
 public class Produto
 {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "produto_seq")
+	@SequenceGenerator(name = "produto_seq", sequenceName = "produto_seq", allocationSize = 50)
 	private Long id;
 
 	private String nome;
@@ -38,6 +52,11 @@ public class Produto
 	@Enumerated(EnumType.STRING)
 	private TipoProduto tipo;
 
+	/** Momento da última alteração, usado na atualização incremental do catálogo de preços. */
+	@UpdateTimestamp
+	@Column(name = "atualizado_em")
+	private Instant atualizadoEm;
+
 	public Produto()
 	{
 	}
@@ -157,4 +176,14 @@ public class Produto
 	{
 		this.tipo = tipo;
 	}
+
+	public Instant getAtualizadoEm()
+	{
+		return atualizadoEm;
+	}
+
+	public void setAtualizadoEm(Instant atualizadoEm)
+	{
+		this.atualizadoEm = atualizadoEm;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,171 @@
+package ecommerce.entity;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+/**
+ * Desconto percentual sobre o valor dos itens, vigente de {@code inicio} até
+ * {@code fim} (exclusivo; nulo para sem prazo). O alcance é um produto, um tipo
+ * de produto ou, sem nenhum dos dois, todos os itens; {@code tipoCliente}
+ * restringe a um nível e {@code cupom}, se presente, exige o código na compra.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_promocao_fim", columnList = "fim"))
+public class Promocao
+{
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "promocao_seq")
+	@SequenceGenerator(name = "promocao_seq", sequenceName = "promocao_seq", allocationSize = 50)
+	private Long id;
+
+	private String nome;
+
+	private String cupom;
+
+	private Long produtoId;
+
+	@Enumerated(EnumType.STRING)
+	private TipoProduto tipoProduto;
+
+	@Enumerated(EnumType.STRING)
+	private TipoCliente tipoCliente;
+
+	private BigDecimal percentual;
+
+	private Long quantidadeMinima;
+
+	private Instant inicio;
+
+	private Instant fim;
+
+	public Promocao()
+	{
+	}
+
+	public Promocao(Long id, String nome, String cupom, Long produtoId, TipoProduto tipoProduto,
+			TipoCliente tipoCliente, BigDecimal percentual, Long quantidadeMinima, Instant inicio, Instant fim)
+	{
+		this.id = id;
+		this.nome = nome;
+		this.cupom = cupom;
+		this.produtoId = produtoId;
+		this.tipoProduto = tipoProduto;
+		this.tipoCliente = tipoCliente;
+		this.percentual = percentual;
+		this.quantidadeMinima = quantidadeMinima;
+		this.inicio = inicio;
+		this.fim = fim;
+	}
+
+	// Getters e Setters
+	public Long getId()
+	{
+		return id;
+	}
+
+	public void setId(Long id)
+	{
+		this.id = id;
+	}
+
+	public String getNome()
+	{
+		return nome;
+	}
+
+	public void setNome(String nome)
+	{
+		this.nome = nome;
+	}
+
+	public String getCupom()
+	{
+		return cupom;
+	}
+
+	public void setCupom(String cupom)
+	{
+		this.cupom = cupom;
+	}
+
+	public Long getProdutoId()
+	{
+		return produtoId;
+	}
+
+	public void setProdutoId(Long produtoId)
+	{
+		this.produtoId = produtoId;
+	}
+
+	public TipoProduto getTipoProduto()
+	{
+		return tipoProduto;
+	}
+
+	public void setTipoProduto(TipoProduto tipoProduto)
+	{
+		this.tipoProduto = tipoProduto;
+	}
+
+	public TipoCliente getTipoCliente()
+	{
+		return tipoCliente;
+	}
+
+	public void setTipoCliente(TipoCliente tipoCliente)
+	{
+		this.tipoCliente = tipoCliente;
+	}
+
+	public BigDecimal getPercentual()
+	{
+		return percentual;
+	}
+
+	public void setPercentual(BigDecimal percentual)
+	{
+		this.percentual = percentual;
+	}
+
+	public Long getQuantidadeMinima()
+	{
+		return quantidadeMinima;
+	}
+
+	public void setQuantidadeMinima(Long quantidadeMinima)
+	{
+		this.quantidadeMinima = quantidadeMinima;
+	}
+
+	public Instant getInicio()
+	{
+		return inicio;
+	}
+
+	public void setInicio(Instant inicio)
+	{
+		this.inicio = inicio;
+	}
+
+	public Instant getFim()
+	{
+		return fim;
+	}
+
+	public void setFim(Instant fim)
+	{
+		this.fim = fim;
+	}
+}
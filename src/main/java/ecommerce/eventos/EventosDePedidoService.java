@@ -0,0 +1,78 @@
+package ecommerce.eventos;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ecommerce.dto.EventosPedidoDTO;
+
+/**
+ * Publica e lê os eventos de pedido concluído, serializados em JSON no
+ * {@link LogDeEventos}. A publicação não espera o disco: a finalização da
+ * compra não paga a latência do fsync nem depende de quem consome os eventos.
+ */
+@Service
+public class EventosDePedidoService
+{
+	private static final Logger log = LoggerFactory.getLogger(EventosDePedidoService.class);
+
+	private final LogDeEventos logDeEventos;
+	private final ObjectMapper objectMapper;
+
+	@Autowired
+	public EventosDePedidoService(LogDeEventos logDeEventos, ObjectMapper objectMapper)
+	{
+		this.logDeEventos = logDeEventos;
+		this.objectMapper = objectMapper;
+	}
+
+	public void publicar(PedidoConcluido evento)
+	{
+		byte[] dados;
+		try
+		{
+			dados = objectMapper.writeValueAsBytes(evento);
+		}
+		catch (JsonProcessingException e)
+		{
+			throw new IllegalStateException("Erro ao serializar evento de pedido.", e);
+		}
+		if (!logDeEventos.anexar(dados))
+		{
+			log.warn("Log de eventos não aceitou o evento do pedido com transação {}", evento.transacaoId());
+		}
+	}
+
+	/**
+	 * Lê os eventos a partir de {@code posicao}, esperando até {@code espera}
+	 * quando ainda não há nenhum novo.
+	 */
+	public EventosPedidoDTO ler(long posicao, int maximo, Duration espera) throws InterruptedException
+	{
+		List<RegistroDoLog> registros = logDeEventos.acompanhar(posicao, maximo, espera);
+
+		List<PedidoConcluido> eventos = new ArrayList<>(registros.size());
+		for (RegistroDoLog registro : registros)
+		{
+			try
+			{
+				eventos.add(objectMapper.readValue(registro.dados(), PedidoConcluido.class));
+			}
+			catch (IOException e)
+			{
+				throw new IllegalStateException("Evento ilegível na posição " + registro.posicao() + ".", e);
+			}
+		}
+		long proximaPosicao = registros.isEmpty() ? posicao : registros.get(registros.size() - 1).proximaPosicao();
+		return new EventosPedidoDTO(eventos, proximaPosicao);
+	}
+}
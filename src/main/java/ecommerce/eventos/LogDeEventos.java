@@ -0,0 +1,333 @@
+package ecommerce.eventos;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Log de eventos somente de acréscimo, gravado em segmentos de arquivo.
+ *
+ * Quem publica só enfileira o registro; uma thread escritora grava tudo o que
+ * se acumulou na fila de uma vez e faz um único fsync por lote, de modo que a
+ * publicação não espera o disco. Os consumidores leem apenas o que já foi
+ * sincronizado, a partir de uma posição (deslocamento em bytes desde o início
+ * do log), e guardam a {@link RegistroDoLog#proximaPosicao()} para continuar.
+ *
+ * Cada segmento se chama pela posição em que começa. Cada registro é gravado
+ * como tamanho (int), CRC32 (int) e dados; na abertura, um final incompleto ou
+ * corrompido do último segmento (queda no meio de uma gravação) é descartado.
+ */
+public class LogDeEventos implements AutoCloseable
+{
+	private static final Logger log = LoggerFactory.getLogger(LogDeEventos.class);
+
+	private static final String EXTENSAO = ".log";
+	private static final int CABECALHO_REGISTRO = 8;
+	private static final long ESPERA_ESCRITOR_MS = 100;
+
+	private final Path diretorio;
+	private final long tamanhoSegmento;
+	private final int maximoPorLote;
+
+	private final ConcurrentSkipListMap<Long, Path> segmentos = new ConcurrentSkipListMap<>();
+	private final BlockingQueue<byte[]> pendentes;
+	private final Thread escritor;
+	private final Object sincronizado = new Object();
+
+	private FileChannel ativo;
+	private long inicioAtivo;
+	private long posicaoFinal;
+	private volatile long posicaoDuravel;
+	private volatile boolean aberto = true;
+
+	public LogDeEventos(Path diretorio, long tamanhoSegmento, int maximoPorLote, int capacidadeFila) throws IOException
+	{
+		this.diretorio = diretorio;
+		this.tamanhoSegmento = tamanhoSegmento;
+		this.maximoPorLote = maximoPorLote;
+		this.pendentes = new ArrayBlockingQueue<>(capacidadeFila);
+
+		Files.createDirectories(diretorio);
+		try (Stream<Path> arquivos = Files.list(diretorio))
+		{
+			arquivos.filter(arquivo -> arquivo.getFileName().toString().endsWith(EXTENSAO))
+					.forEach(arquivo -> segmentos.put(inicioDoSegmento(arquivo), arquivo));
+		}
+		if (segmentos.isEmpty())
+		{
+			segmentos.put(0L, arquivoDoSegmento(0));
+		}
+		recuperarUltimoSegmento();
+
+		this.escritor = new Thread(this::escrever, "log-de-eventos");
+		this.escritor.setDaemon(true);
+		this.escritor.start();
+	}
+
+	/**
+	 * Enfileira um registro para gravação, sem esperar o disco.
+	 *
+	 * @return {@code false} se a fila está cheia (ou o log fechado) e o registro
+	 *         não foi aceito
+	 */
+	public boolean anexar(byte[] dados)
+	{
+		return aberto && pendentes.offer(dados);
+	}
+
+	/** Lê até {@code maximo} registros já sincronizados a partir de {@code posicao}. */
+	public List<RegistroDoLog> ler(long posicao, int maximo)
+	{
+		long fim = posicaoDuravel;
+		if (posicao < 0 || posicao > fim)
+		{
+			throw new IllegalArgumentException("Posição fora do log: " + posicao + " (fim em " + fim + ").");
+		}
+
+		List<RegistroDoLog> registros = new ArrayList<>();
+		while (registros.size() < maximo && posicao < fim)
+		{
+			Map.Entry<Long, Path> segmento = segmentos.floorEntry(posicao);
+			try (FileChannel canal = FileChannel.open(segmento.getValue(), StandardOpenOption.READ))
+			{
+				long limite = Math.min(canal.size(), fim - segmento.getKey());
+				long local = posicao - segmento.getKey();
+				while (registros.size() < maximo && local < limite)
+				{
+					byte[] dados = lerRegistro(canal, local, limite);
+					if (dados == null)
+					{
+						throw new IllegalArgumentException("Posição não corresponde ao início de um registro: " + posicao);
+					}
+					long proxima = posicao + CABECALHO_REGISTRO + dados.length;
+					registros.add(new RegistroDoLog(posicao, proxima, dados));
+					local += CABECALHO_REGISTRO + dados.length;
+					posicao = proxima;
+				}
+			}
+			catch (IOException e)
+			{
+				throw new IllegalStateException("Erro ao ler o log de eventos.", e);
+			}
+		}
+		return registros;
+	}
+
+	/**
+	 * Como {@link #ler(long, int)}, mas, se não houver nada depois de
+	 * {@code posicao}, espera até {@code espera} por novos registros.
+	 */
+	public List<RegistroDoLog> acompanhar(long posicao, int maximo, Duration espera) throws InterruptedException
+	{
+		long limite = System.nanoTime() + espera.toNanos();
+		synchronized (sincronizado)
+		{
+			long restante;
+			while (posicaoDuravel <= posicao && aberto && (restante = limite - System.nanoTime()) > 0)
+			{
+				TimeUnit.NANOSECONDS.timedWait(sincronizado, restante);
+			}
+		}
+		return ler(posicao, maximo);
+	}
+
+	/** Posição logo após o último registro sincronizado. */
+	public long getPosicaoFinal()
+	{
+		return posicaoDuravel;
+	}
+
+	/** Para de aceitar registros, grava os que estão na fila e fecha o segmento ativo. */
+	@Override
+	public void close() throws IOException
+	{
+		aberto = false;
+		try
+		{
+			escritor.join();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		ativo.close();
+		synchronized (sincronizado)
+		{
+			sincronizado.notifyAll();
+		}
+	}
+
+	private void escrever()
+	{
+		List<byte[]> lote = new ArrayList<>(maximoPorLote);
+		while (aberto || !pendentes.isEmpty())
+		{
+			try
+			{
+				byte[] primeiro = pendentes.poll(ESPERA_ESCRITOR_MS, TimeUnit.MILLISECONDS);
+				if (primeiro == null)
+				{
+					continue;
+				}
+				lote.add(primeiro);
+				pendentes.drainTo(lote, maximoPorLote - 1);
+				gravar(lote);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				return;
+			}
+			catch (IOException e)
+			{
+				log.error("Falha ao gravar {} eventos no log; descartados", lote.size(), e);
+				descartarNaoSincronizado();
+			}
+			lote.clear();
+		}
+	}
+
+	private void gravar(List<byte[]> lote) throws IOException
+	{
+		int tamanho = 0;
+		for (byte[] dados : lote)
+		{
+			tamanho += CABECALHO_REGISTRO + dados.length;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(tamanho);
+		CRC32 crc = new CRC32();
+		for (byte[] dados : lote)
+		{
+			crc.reset();
+			crc.update(dados);
+			buffer.putInt(dados.length).putInt((int) crc.getValue()).put(dados);
+		}
+		buffer.flip();
+
+		if (posicaoFinal > inicioAtivo && posicaoFinal - inicioAtivo + tamanho > tamanhoSegmento)
+		{
+			abrirNovoSegmento();
+		}
+		while (buffer.hasRemaining())
+		{
+			ativo.write(buffer);
+		}
+		ativo.force(false);
+
+		posicaoFinal += tamanho;
+		posicaoDuravel = posicaoFinal;
+		synchronized (sincronizado)
+		{
+			sincronizado.notifyAll();
+		}
+	}
+
+	private void abrirNovoSegmento() throws IOException
+	{
+		ativo.close();
+		inicioAtivo = posicaoFinal;
+		Path arquivo = arquivoDoSegmento(inicioAtivo);
+		ativo = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		segmentos.put(inicioAtivo, arquivo);
+	}
+
+	/** Depois de uma gravação com erro, volta o segmento ativo ao último ponto sincronizado. */
+	private void descartarNaoSincronizado()
+	{
+		try
+		{
+			posicaoFinal = posicaoDuravel;
+			ativo.truncate(posicaoFinal - inicioAtivo);
+			ativo.position(posicaoFinal - inicioAtivo);
+		}
+		catch (IOException e)
+		{
+			log.error("Falha ao restaurar o segmento ativo do log de eventos", e);
+		}
+	}
+
+	private void recuperarUltimoSegmento() throws IOException
+	{
+		Map.Entry<Long, Path> ultimo = segmentos.lastEntry();
+		inicioAtivo = ultimo.getKey();
+		ativo = FileChannel.open(ultimo.getValue(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+
+		long tamanho = ativo.size();
+		long local = 0;
+		byte[] dados;
+		while (local < tamanho && (dados = lerRegistro(ativo, local, tamanho)) != null)
+		{
+			local += CABECALHO_REGISTRO + dados.length;
+		}
+		if (local < tamanho)
+		{
+			log.warn("Descartando {} bytes incompletos no final de {}", tamanho - local, ultimo.getValue());
+			ativo.truncate(local);
+		}
+		ativo.position(local);
+		posicaoFinal = inicioAtivo + local;
+		posicaoDuravel = posicaoFinal;
+	}
+
+	/** Lê o registro em {@code local}, ou {@code null} se ele está incompleto ou corrompido. */
+	private static byte[] lerRegistro(FileChannel canal, long local, long limite) throws IOException
+	{
+		if (local + CABECALHO_REGISTRO > limite)
+		{
+			return null;
+		}
+		ByteBuffer cabecalho = ByteBuffer.allocate(CABECALHO_REGISTRO);
+		lerCompleto(canal, cabecalho, local);
+		int tamanho = cabecalho.getInt(0);
+		int crcEsperado = cabecalho.getInt(4);
+		if (tamanho < 0 || local + CABECALHO_REGISTRO + tamanho > limite)
+		{
+			return null;
+		}
+		ByteBuffer dados = ByteBuffer.allocate(tamanho);
+		lerCompleto(canal, dados, local + CABECALHO_REGISTRO);
+		CRC32 crc = new CRC32();
+		crc.update(dados.array());
+		return (int) crc.getValue() == crcEsperado ? dados.array() : null;
+	}
+
+	private static void lerCompleto(FileChannel canal, ByteBuffer buffer, long posicao) throws IOException
+	{
+		while (buffer.hasRemaining())
+		{
+			int lidos = canal.read(buffer, posicao + buffer.position());
+			if (lidos < 0)
+			{
+				break;
+			}
+		}
+	}
+
+	private Path arquivoDoSegmento(long inicio)
+	{
+		return diretorio.resolve(String.format("%020d%s", inicio, EXTENSAO));
+	}
+
+	private static long inicioDoSegmento(Path arquivo)
+	{
+		String nome = arquivo.getFileName().toString();
+		return Long.parseLong(nome.substring(0, nome.length() - EXTENSAO.length()));
+	}
+}
@@ -0,0 +1,16 @@
+package ecommerce.eventos;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/** Evento publicado no log quando uma compra é finalizada com sucesso. */
+public record PedidoConcluido(Long pedidoId, Long carrinhoId, Long clienteId, Long transacaoId, BigDecimal total,
+		List<Item> itens, Instant concluidoEm)
+{
+	/** {@code armazemId} é nulo quando a compra não seguiu um plano de envios por armazém. */
+	public record Item(Long produtoId, Long quantidade, BigDecimal precoUnitario, Long armazemId)
+	{
+
+	}
+}
@@ -0,0 +1,10 @@
+package ecommerce.eventos;
+
+/**
+ * Registro lido do log: seus bytes, a posição em que começa e a posição do
+ * registro seguinte, que é de onde o consumidor continua a leitura.
+ */
+public record RegistroDoLog(long posicao, long proximaPosicao, byte[] dados)
+{
+
+}
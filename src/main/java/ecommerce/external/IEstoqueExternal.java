@@ -3,6 +3,7 @@ package ecommerce.external;
 import java.util.List;
 
 import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueArmazemDTO;
 import ecommerce.dto.EstoqueBaixaDTO;
 
 public interface IEstoqueExternal
@@ -12,4 +13,38 @@ public interface IEstoqueExternal
 
 	public DisponibilidadeDTO verificarDisponibilidade(List<Long> produtosIds, List<Long> produtosQuantidades);
 
+	/**
+	 * Devolve ao estoque as quantidades de uma baixa já confirmada, quando a
+	 * compra não pôde ser concluída depois dela.
+	 */
+	public EstoqueBaixaDTO estornarBaixa(List<Long> produtosIds, List<Long> produtosQuantidades);
+
+	/**
+	 * Baixa de cada produto no armazém indicado em {@code armazensIds}, conforme
+	 * o plano de envios usado no frete. Um estoque que não informa armazéns
+	 * (ver {@link #consultarArmazens}) nunca recebe um plano; por padrão, a baixa
+	 * ignora os armazéns.
+	 */
+	public default EstoqueBaixaDTO darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades,
+			List<Long> armazensIds)
+	{
+		return darBaixa(produtosIds, produtosQuantidades);
+	}
+
+	/** Estorno de uma baixa feita por armazém. */
+	public default EstoqueBaixaDTO estornarBaixa(List<Long> produtosIds, List<Long> produtosQuantidades,
+			List<Long> armazensIds)
+	{
+		return estornarBaixa(produtosIds, produtosQuantidades);
+	}
+
+	/**
+	 * Disponibilidade dos produtos em cada armazém; vazia se o estoque não
+	 * informa armazéns, e então o frete é calculado como um único envio.
+	 */
+	public default List<EstoqueArmazemDTO> consultarArmazens(List<Long> produtosIds)
+	{
+		return List.of();
+	}
+
 }
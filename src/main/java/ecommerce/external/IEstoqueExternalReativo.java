@@ -0,0 +1,30 @@
+package ecommerce.external;
+
+import java.util.List;
+
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueArmazemDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import reactor.core.publisher.Mono;
+
+public interface IEstoqueExternalReativo
+{
+
+	public Mono<EstoqueBaixaDTO> darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades);
+
+	public Mono<DisponibilidadeDTO> verificarDisponibilidade(List<Long> produtosIds, List<Long> produtosQuantidades);
+
+	/** Ver {@link IEstoqueExternal#darBaixa(List, List, List)}. */
+	public default Mono<EstoqueBaixaDTO> darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades,
+			List<Long> armazensIds)
+	{
+		return darBaixa(produtosIds, produtosQuantidades);
+	}
+
+	/** Ver {@link IEstoqueExternal#consultarArmazens(List)}. */
+	public default Mono<List<EstoqueArmazemDTO>> consultarArmazens(List<Long> produtosIds)
+	{
+		return Mono.just(List.of());
+	}
+
+}
@@ -1,11 +1,13 @@
 package ecommerce.external;
 
+import java.math.BigDecimal;
+
 import ecommerce.dto.PagamentoDTO;
 
 public interface IPagamentoExternal
 {
 
-	PagamentoDTO autorizarPagamento(Long clienteId, Double custoTotal);
+	PagamentoDTO autorizarPagamento(Long clienteId, BigDecimal custoTotal);
 
 	void cancelarPagamento(Long clienteId, Long pagamentoTransacaoId);
 }
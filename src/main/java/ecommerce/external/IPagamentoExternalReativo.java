@@ -0,0 +1,20 @@
+package ecommerce.external;
+
+import java.math.BigDecimal;
+
+import ecommerce.dto.PagamentoDTO;
+import reactor.core.publisher.Mono;
+
+public interface IPagamentoExternalReativo
+{
+
+	/**
+	 * Autoriza o pagamento. Se a chamada terminar em erro (inclusive tempo
+	 * esgotado), o desfecho no meio de pagamento é desconhecido: a autorização
+	 * pode ter sido concedida, mas sem a transação não há como cancelá-la
+	 * daqui; fica a cargo da expiração ou da conciliação do meio de pagamento.
+	 */
+	Mono<PagamentoDTO> autorizarPagamento(Long clienteId, BigDecimal custoTotal);
+
+	Mono<Void> cancelarPagamento(Long clienteId, Long pagamentoTransacaoId);
+}
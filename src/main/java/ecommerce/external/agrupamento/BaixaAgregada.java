@@ -0,0 +1,158 @@
+package ecommerce.external.agrupamento;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueArmazemDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import ecommerce.external.IEstoqueExternal;
+
+/**
+ * Agrega baixas de estoque concorrentes em uma única baixa remota, somando as
+ * quantidades de cada produto.
+ *
+ * A baixa remota é tudo-ou-nada: uma resposta sem sucesso significa que nada
+ * foi baixado. Assim, quando o lote falha, ele é dividido ao meio e cada
+ * metade é refeita, até isolar as baixas que realmente não cabem no estoque;
+ * as demais são confirmadas sem serem afetadas pela falha alheia. Uma exceção
+ * na chamada remota, ao contrário, não diz se a baixa foi aplicada, e por isso
+ * é repassada a todo o lote em vez de arriscar baixar duas vezes.
+ *
+ * Quem chama continua esperando a confirmação da própria baixa, já que a
+ * finalização da compra cancela o pagamento quando ela falha.
+ */
+public class BaixaAgregada implements IEstoqueExternal, AutoCloseable
+{
+	private final IEstoqueExternal remoto;
+	private final LoteAgrupador<Baixa> agrupador;
+
+	private final LongAdder baixasRecebidas = new LongAdder();
+	private final LongAdder chamadasRemotas = new LongAdder();
+
+	public BaixaAgregada(IEstoqueExternal remoto, Duration janela, int maximoPorLote, int threads)
+	{
+		this.remoto = remoto;
+		this.agrupador = new LoteAgrupador<>("estoque-baixa", janela, maximoPorLote, threads, this::despachar);
+	}
+
+	@Override
+	public EstoqueBaixaDTO darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades)
+	{
+		baixasRecebidas.increment();
+		Baixa baixa = new Baixa(produtosIds, produtosQuantidades);
+		agrupador.adicionar(baixa);
+		return LoteAgrupador.aguardar(baixa.resposta);
+	}
+
+	/** Baixas por armazém vão direto ao estoque remoto, sem agregação. */
+	@Override
+	public EstoqueBaixaDTO darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades, List<Long> armazensIds)
+	{
+		return remoto.darBaixa(produtosIds, produtosQuantidades, armazensIds);
+	}
+
+	@Override
+	public DisponibilidadeDTO verificarDisponibilidade(List<Long> produtosIds, List<Long> produtosQuantidades)
+	{
+		return remoto.verificarDisponibilidade(produtosIds, produtosQuantidades);
+	}
+
+	@Override
+	public EstoqueBaixaDTO estornarBaixa(List<Long> produtosIds, List<Long> produtosQuantidades)
+	{
+		return remoto.estornarBaixa(produtosIds, produtosQuantidades);
+	}
+
+	@Override
+	public EstoqueBaixaDTO estornarBaixa(List<Long> produtosIds, List<Long> produtosQuantidades,
+			List<Long> armazensIds)
+	{
+		return remoto.estornarBaixa(produtosIds, produtosQuantidades, armazensIds);
+	}
+
+	@Override
+	public List<EstoqueArmazemDTO> consultarArmazens(List<Long> produtosIds)
+	{
+		return remoto.consultarArmazens(produtosIds);
+	}
+
+	public long getBaixasRecebidas()
+	{
+		return baixasRecebidas.sum();
+	}
+
+	public long getChamadasRemotas()
+	{
+		return chamadasRemotas.sum();
+	}
+
+	@Override
+	public void close()
+	{
+		agrupador.close();
+	}
+
+	private void despachar(List<Baixa> baixas)
+	{
+		try
+		{
+			baixar(baixas);
+		}
+		catch (RuntimeException e)
+		{
+			baixas.forEach(baixa -> baixa.resposta.completeExceptionally(e));
+		}
+	}
+
+	private void baixar(List<Baixa> baixas)
+	{
+		chamadasRemotas.increment();
+		if (baixas.size() == 1)
+		{
+			Baixa unica = baixas.get(0);
+			unica.resposta.complete(remoto.darBaixa(unica.produtosIds, unica.produtosQuantidades));
+			return;
+		}
+
+		Map<Long, Long> totalPorProduto = new LinkedHashMap<>();
+		for (Baixa baixa : baixas)
+		{
+			for (int i = 0; i < baixa.produtosIds.size(); i++)
+			{
+				totalPorProduto.merge(baixa.produtosIds.get(i), baixa.produtosQuantidades.get(i), Long::sum);
+			}
+		}
+
+		EstoqueBaixaDTO agregada = remoto.darBaixa(new ArrayList<>(totalPorProduto.keySet()),
+				new ArrayList<>(totalPorProduto.values()));
+		if (Boolean.TRUE.equals(agregada.sucesso()))
+		{
+			baixas.forEach(baixa -> baixa.resposta.complete(agregada));
+			return;
+		}
+
+		// Uma baixa que não cabe custa log2(n) chamadas extras, sem derrubar as outras
+		int meio = baixas.size() / 2;
+		baixar(baixas.subList(0, meio));
+		baixar(baixas.subList(meio, baixas.size()));
+	}
+
+	private static final class Baixa
+	{
+		private final List<Long> produtosIds;
+		private final List<Long> produtosQuantidades;
+		private final CompletableFuture<EstoqueBaixaDTO> resposta = new CompletableFuture<>();
+
+		private Baixa(List<Long> produtosIds, List<Long> produtosQuantidades)
+		{
+			this.produtosIds = produtosIds;
+			this.produtosQuantidades = produtosQuantidades;
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package ecommerce.external.agrupamento;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueArmazemDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import ecommerce.external.IEstoqueExternal;
+
+/**
+ * Agrupa consultas de disponibilidade concorrentes em uma única chamada ao
+ * estoque remoto.
+ *
+ * As consultas que chegam dentro de uma janela curta (ou até completar o lote)
+ * são unidas pedindo, para cada produto, a maior quantidade entre elas. Se o
+ * produto está disponível nessa quantidade, está para todas; se não está, a
+ * resposta é exata para as consultas que pediram essa quantidade máxima, e as
+ * demais (que pediram menos) são refeitas individualmente. Em picos de venda,
+ * em que quase todos os carrinhos disputam os mesmos produtos, uma chamada
+ * remota responde centenas de finalizações.
+ */
+public class DisponibilidadeAgrupada implements IEstoqueExternal, AutoCloseable
+{
+	private final IEstoqueExternal remoto;
+	private final LoteAgrupador<Consulta> agrupador;
+
+	private final LongAdder consultasRecebidas = new LongAdder();
+	private final LongAdder chamadasRemotas = new LongAdder();
+
+	public DisponibilidadeAgrupada(IEstoqueExternal remoto, Duration janela, int maximoPorLote, int threads)
+	{
+		this.remoto = remoto;
+		this.agrupador = new LoteAgrupador<>("estoque-disponibilidade", janela, maximoPorLote, threads,
+				this::despachar);
+	}
+
+	@Override
+	public EstoqueBaixaDTO darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades)
+	{
+		return remoto.darBaixa(produtosIds, produtosQuantidades);
+	}
+
+	@Override
+	public EstoqueBaixaDTO darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades, List<Long> armazensIds)
+	{
+		return remoto.darBaixa(produtosIds, produtosQuantidades, armazensIds);
+	}
+
+	@Override
+	public DisponibilidadeDTO verificarDisponibilidade(List<Long> produtosIds, List<Long> produtosQuantidades)
+	{
+		consultasRecebidas.increment();
+		Consulta consulta = new Consulta(produtosIds, produtosQuantidades);
+		agrupador.adicionar(consulta);
+
+		DisponibilidadeDTO resposta = LoteAgrupador.aguardar(consulta.resposta);
+		if (resposta == null)
+		{
+			chamadasRemotas.increment();
+			return remoto.verificarDisponibilidade(produtosIds, produtosQuantidades);
+		}
+		return resposta;
+	}
+
+	@Override
+	public EstoqueBaixaDTO estornarBaixa(List<Long> produtosIds, List<Long> produtosQuantidades)
+	{
+		return remoto.estornarBaixa(produtosIds, produtosQuantidades);
+	}
+
+	@Override
+	public EstoqueBaixaDTO estornarBaixa(List<Long> produtosIds, List<Long> produtosQuantidades,
+			List<Long> armazensIds)
+	{
+		return remoto.estornarBaixa(produtosIds, produtosQuantidades, armazensIds);
+	}
+
+	@Override
+	public List<EstoqueArmazemDTO> consultarArmazens(List<Long> produtosIds)
+	{
+		return remoto.consultarArmazens(produtosIds);
+	}
+
+	public long getConsultasRecebidas()
+	{
+		return consultasRecebidas.sum();
+	}
+
+	public long getChamadasRemotas()
+	{
+		return chamadasRemotas.sum();
+	}
+
+	@Override
+	public void close()
+	{
+		agrupador.close();
+	}
+
+	private void despachar(List<Consulta> consultas)
+	{
+		try
+		{
+			chamadasRemotas.increment();
+			if (consultas.size() == 1)
+			{
+				Consulta unica = consultas.get(0);
+				unica.resposta.complete(remoto.verificarDisponibilidade(unica.produtosIds, unica.produtosQuantidades));
+				return;
+			}
+
+			Map<Long, Long> maximoPorProduto = new LinkedHashMap<>();
+			for (Consulta consulta : consultas)
+			{
+				consulta.necessidade.forEach((produtoId, quantidade) -> maximoPorProduto.merge(produtoId, quantidade, Math::max));
+			}
+
+			DisponibilidadeDTO agregada = remoto.verificarDisponibilidade(new ArrayList<>(maximoPorProduto.keySet()),
+					new ArrayList<>(maximoPorProduto.values()));
+
+			Set<Long> indisponiveis = new HashSet<>();
+			if (!agregada.disponivel())
+			{
+				if (agregada.idsProdutosIndisponiveis() == null || agregada.idsProdutosIndisponiveis().isEmpty())
+				{
+					// Sem saber quais produtos faltam, nenhuma consulta pode ser respondida pelo lote
+					consultas.forEach(consulta -> consulta.resposta.complete(null));
+					return;
+				}
+				indisponiveis.addAll(agregada.idsProdutosIndisponiveis());
+			}
+
+			for (Consulta consulta : consultas)
+			{
+				consulta.resposta.complete(consulta.responder(indisponiveis, maximoPorProduto));
+			}
+		}
+		catch (RuntimeException e)
+		{
+			consultas.forEach(consulta -> consulta.resposta.completeExceptionally(e));
+		}
+	}
+
+	private static final class Consulta
+	{
+		private final List<Long> produtosIds;
+		private final List<Long> produtosQuantidades;
+		private final Map<Long, Long> necessidade = new LinkedHashMap<>();
+		/** Resposta do lote, ou {@code null} quando a consulta precisa ser refeita individualmente. */
+		private final CompletableFuture<DisponibilidadeDTO> resposta = new CompletableFuture<>();
+
+		private Consulta(List<Long> produtosIds, List<Long> produtosQuantidades)
+		{
+			this.produtosIds = produtosIds;
+			this.produtosQuantidades = produtosQuantidades;
+			for (int i = 0; i < produtosIds.size(); i++)
+			{
+				necessidade.merge(produtosIds.get(i), produtosQuantidades.get(i), Long::sum);
+			}
+		}
+
+		private DisponibilidadeDTO responder(Set<Long> indisponiveis, Map<Long, Long> maximoPorProduto)
+		{
+			List<Long> idsIndisponiveis = new ArrayList<>();
+			for (Map.Entry<Long, Long> entrada : necessidade.entrySet())
+			{
+				if (indisponiveis.contains(entrada.getKey()))
+				{
+					if (entrada.getValue() < maximoPorProduto.get(entrada.getKey()))
+					{
+						return null;
+					}
+					idsIndisponiveis.add(entrada.getKey());
+				}
+			}
+			return new DisponibilidadeDTO(idsIndisponiveis.isEmpty(), idsIndisponiveis);
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package ecommerce.external.agrupamento;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Junta entradas que chegam dentro de uma janela curta em um lote e o entrega
+ * ao despachante quando a janela fecha ou o lote enche, o que vier primeiro.
+ * O despachante é responsável por completar as respostas de cada entrada.
+ */
+final class LoteAgrupador<E> implements AutoCloseable
+{
+	private final long janelaNanos;
+	private final int maximoPorLote;
+	private final Consumer<List<E>> despachante;
+	private final ScheduledExecutorService agendador;
+
+	private final Object trava = new Object();
+	private List<E> lote = new ArrayList<>();
+
+	LoteAgrupador(String nome, Duration janela, int maximoPorLote, int threads, Consumer<List<E>> despachante)
+	{
+		this.janelaNanos = janela.toNanos();
+		this.maximoPorLote = maximoPorLote;
+		this.despachante = despachante;
+		this.agendador = Executors.newScheduledThreadPool(threads, tarefa -> {
+			Thread thread = new Thread(tarefa, nome);
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	void adicionar(E entrada)
+	{
+		List<E> cheio = null;
+		synchronized (trava)
+		{
+			lote.add(entrada);
+			if (lote.size() >= maximoPorLote)
+			{
+				cheio = lote;
+				lote = new ArrayList<>();
+			}
+			else if (lote.size() == 1)
+			{
+				List<E> aberto = lote;
+				agendador.schedule(() -> despacharSeAberto(aberto), janelaNanos, TimeUnit.NANOSECONDS);
+			}
+		}
+		if (cheio != null)
+		{
+			despachante.accept(cheio);
+		}
+	}
+
+	@Override
+	public void close()
+	{
+		agendador.shutdown();
+		List<E> pendentes;
+		synchronized (trava)
+		{
+			pendentes = lote;
+			lote = new ArrayList<>();
+		}
+		if (!pendentes.isEmpty())
+		{
+			despachante.accept(pendentes);
+		}
+	}
+
+	/** Disparado pela janela de tempo: só despacha se o lote não foi despachado por estar cheio. */
+	private void despacharSeAberto(List<E> aberto)
+	{
+		synchronized (trava)
+		{
+			if (lote != aberto)
+			{
+				return;
+			}
+			lote = new ArrayList<>();
+		}
+		despachante.accept(aberto);
+	}
+
+	/** Espera a resposta do lote, relançando a exceção original do despacho. */
+	static <T> T aguardar(CompletableFuture<T> resposta)
+	{
+		try
+		{
+			return resposta.join();
+		}
+		catch (CompletionException e)
+		{
+			if (e.getCause() instanceof RuntimeException causa)
+			{
+				throw causa;
+			}
+			throw e;
+		}
+	}
+}
@@ -2,6 +2,7 @@ package ecommerce.external.fake;
 
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import ecommerce.dto.DisponibilidadeDTO;
@@ -9,6 +10,7 @@ import ecommerce.dto.EstoqueBaixaDTO;
 import ecommerce.external.IEstoqueExternal;
 
 @Service
+@Qualifier("remoto")
 public class EstoqueSimulado implements IEstoqueExternal
 {
 
@@ -19,6 +21,12 @@ public class EstoqueSimulado implements IEstoqueExternal
 		return null;
 	}
 
+	@Override
+	public EstoqueBaixaDTO estornarBaixa(List<Long> produtosIds, List<Long> produtosQuantidades)
+	{
+		return new EstoqueBaixaDTO(true);
+	}
+
 	@Override
 	public DisponibilidadeDTO verificarDisponibilidade(List<Long> produtosIds, List<Long> produtosQuantidades)
 	{
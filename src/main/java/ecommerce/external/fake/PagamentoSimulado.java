@@ -1,5 +1,7 @@
 package ecommerce.external.fake;
 
+import java.math.BigDecimal;
+
 import org.springframework.stereotype.Service;
 
 import ecommerce.dto.PagamentoDTO;
@@ -10,7 +12,7 @@ public class PagamentoSimulado implements IPagamentoExternal
 {
 
 	@Override
-	public PagamentoDTO autorizarPagamento(Long clienteId, Double custoTotal)
+	public PagamentoDTO autorizarPagamento(Long clienteId, BigDecimal custoTotal)
 	{
 		// TODO Auto-generated method stub
 		return null;
@@ -0,0 +1,71 @@
+package ecommerce.external.reativo;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueArmazemDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import ecommerce.external.IEstoqueExternal;
+import ecommerce.external.IEstoqueExternalReativo;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Adapta o cliente de estoque síncrono ao fluxo reativo, executando-o no
+ * agendador de chamadas bloqueantes e com tempo limite por chamada. Um cliente
+ * HTTP não bloqueante pode implementar {@link IEstoqueExternalReativo} diretamente.
+ */
+@Component
+public class EstoqueExternalReativo implements IEstoqueExternalReativo
+{
+	private final IEstoqueExternal estoqueExternal;
+	private final Scheduler agendador;
+	private final Duration timeout;
+
+	@Autowired
+	public EstoqueExternalReativo(IEstoqueExternal estoqueExternal, Scheduler agendadorBloqueante,
+			@Value("${ecommerce.reativo.timeout-estoque-ms:2000}") long timeoutMs)
+	{
+		this.estoqueExternal = estoqueExternal;
+		this.agendador = agendadorBloqueante;
+		this.timeout = Duration.ofMillis(timeoutMs);
+	}
+
+	@Override
+	public Mono<EstoqueBaixaDTO> darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades)
+	{
+		return Mono.fromCallable(() -> estoqueExternal.darBaixa(produtosIds, produtosQuantidades))
+				.subscribeOn(agendador)
+				.timeout(timeout);
+	}
+
+	@Override
+	public Mono<DisponibilidadeDTO> verificarDisponibilidade(List<Long> produtosIds, List<Long> produtosQuantidades)
+	{
+		return Mono.fromCallable(() -> estoqueExternal.verificarDisponibilidade(produtosIds, produtosQuantidades))
+				.subscribeOn(agendador)
+				.timeout(timeout);
+	}
+
+	@Override
+	public Mono<EstoqueBaixaDTO> darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades,
+			List<Long> armazensIds)
+	{
+		return Mono.fromCallable(() -> estoqueExternal.darBaixa(produtosIds, produtosQuantidades, armazensIds))
+				.subscribeOn(agendador)
+				.timeout(timeout);
+	}
+
+	@Override
+	public Mono<List<EstoqueArmazemDTO>> consultarArmazens(List<Long> produtosIds)
+	{
+		return Mono.fromCallable(() -> estoqueExternal.consultarArmazens(produtosIds))
+				.subscribeOn(agendador)
+				.timeout(timeout);
+	}
+}
@@ -0,0 +1,47 @@
+package ecommerce.external.reativo;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import ecommerce.dto.PagamentoDTO;
+import ecommerce.external.IPagamentoExternal;
+import ecommerce.external.IPagamentoExternalReativo;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+@Component
+public class PagamentoExternalReativo implements IPagamentoExternalReativo
+{
+	private final IPagamentoExternal pagamentoExternal;
+	private final Scheduler agendador;
+	private final Duration timeout;
+
+	@Autowired
+	public PagamentoExternalReativo(IPagamentoExternal pagamentoExternal, Scheduler agendadorBloqueante,
+			@Value("${ecommerce.reativo.timeout-pagamento-ms:3000}") long timeoutMs)
+	{
+		this.pagamentoExternal = pagamentoExternal;
+		this.agendador = agendadorBloqueante;
+		this.timeout = Duration.ofMillis(timeoutMs);
+	}
+
+	@Override
+	public Mono<PagamentoDTO> autorizarPagamento(Long clienteId, BigDecimal custoTotal)
+	{
+		return Mono.fromCallable(() -> pagamentoExternal.autorizarPagamento(clienteId, custoTotal))
+				.subscribeOn(agendador)
+				.timeout(timeout);
+	}
+
+	@Override
+	public Mono<Void> cancelarPagamento(Long clienteId, Long pagamentoTransacaoId)
+	{
+		return Mono.<Void>fromRunnable(() -> pagamentoExternal.cancelarPagamento(clienteId, pagamentoTransacaoId))
+				.subscribeOn(agendador)
+				.timeout(timeout);
+	}
+}
@@ -0,0 +1,222 @@
+package ecommerce.promocao;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.Promocao;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+
+/**
+ * Fotografia imutável das promoções, indexada para que cada item do carrinho
+ * avalie apenas as regras que podem alcançá-lo: primeiro pelo nível do
+ * cliente (regras sem nível entram em todos), depois por id de produto, por
+ * tipo de produto ou entre as gerais; as de cupom ficam num índice à parte por
+ * código. O custo de precificar depende das regras candidatas de cada item, não
+ * do total de promoções ativas.
+ *
+ * Promoções não se acumulam: cada item recebe o maior percentual entre as
+ * candidatas vigentes cuja quantidade mínima ele atinge. A vigência é conferida
+ * no momento da precificação, então uma promoção agendada entra e sai no
+ * horário certo sem esperar a próxima atualização do índice.
+ */
+public final class IndicePromocoes
+{
+	private static final Regra[] NENHUMA = new Regra[0];
+
+	public static final IndicePromocoes VAZIO = construir(List.of());
+
+	private final EnumMap<TipoCliente, Alcance> porNivel;
+	private final EnumMap<TipoCliente, Map<String, Alcance>> cuponsPorNivel;
+	private final int regras;
+
+	private IndicePromocoes(EnumMap<TipoCliente, Alcance> porNivel,
+			EnumMap<TipoCliente, Map<String, Alcance>> cuponsPorNivel, int regras)
+	{
+		this.porNivel = porNivel;
+		this.cuponsPorNivel = cuponsPorNivel;
+		this.regras = regras;
+	}
+
+	/** Indexa as promoções; as que têm percentual fora de (0, 1] são ignoradas. */
+	public static IndicePromocoes construir(List<Promocao> promocoes)
+	{
+		EnumMap<TipoCliente, Alcance.Construtor> porNivel = new EnumMap<>(TipoCliente.class);
+		EnumMap<TipoCliente, Map<String, Alcance.Construtor>> cuponsPorNivel = new EnumMap<>(TipoCliente.class);
+		for (TipoCliente nivel : TipoCliente.values())
+		{
+			porNivel.put(nivel, new Alcance.Construtor());
+			cuponsPorNivel.put(nivel, new HashMap<>());
+		}
+
+		int regras = 0;
+		for (Promocao promocao : promocoes)
+		{
+			if (promocao.getPercentual() == null || promocao.getPercentual().signum() <= 0
+					|| promocao.getPercentual().compareTo(BigDecimal.ONE) > 0 || promocao.getInicio() == null)
+			{
+				continue;
+			}
+			Regra regra = new Regra(promocao.getPercentual(),
+					promocao.getQuantidadeMinima() == null ? 1 : promocao.getQuantidadeMinima(), promocao.getInicio(),
+					promocao.getFim());
+			for (TipoCliente nivel : TipoCliente.values())
+			{
+				if (promocao.getTipoCliente() != null && promocao.getTipoCliente() != nivel)
+				{
+					continue;
+				}
+				Alcance.Construtor alcance = promocao.getCupom() == null ? porNivel.get(nivel)
+						: cuponsPorNivel.get(nivel).computeIfAbsent(promocao.getCupom(), c -> new Alcance.Construtor());
+				alcance.adicionar(promocao.getProdutoId(), promocao.getTipoProduto(), regra);
+			}
+			regras++;
+		}
+
+		EnumMap<TipoCliente, Alcance> indice = new EnumMap<>(TipoCliente.class);
+		EnumMap<TipoCliente, Map<String, Alcance>> cupons = new EnumMap<>(TipoCliente.class);
+		for (TipoCliente nivel : TipoCliente.values())
+		{
+			indice.put(nivel, porNivel.get(nivel).construir());
+			Map<String, Alcance> doNivel = new HashMap<>();
+			cuponsPorNivel.get(nivel).forEach((cupom, alcance) -> doNivel.put(cupom, alcance.construir()));
+			cupons.put(nivel, doNivel);
+		}
+		return new IndicePromocoes(indice, cupons, regras);
+	}
+
+	/** Quantidade de promoções indexadas. */
+	public int getRegras()
+	{
+		return regras;
+	}
+
+	/**
+	 * Soma dos descontos promocionais dos itens, para um cliente do nível dado e
+	 * com o cupom informado (ou {@code null}); um cupom desconhecido não dá desconto.
+	 */
+	public BigDecimal calcularDesconto(List<ItemCompra> itens, TipoCliente tipoCliente, String cupom, Instant agora)
+	{
+		return calcularDesconto(itens, tipoCliente, cupom, agora, Produto::getPreco);
+	}
+
+	/** Idem, sobre o preço de cada produto dado por {@code precos}. */
+	public BigDecimal calcularDesconto(List<ItemCompra> itens, TipoCliente tipoCliente, String cupom, Instant agora,
+			Function<Produto, BigDecimal> precos)
+	{
+		Alcance geral = porNivel.get(tipoCliente);
+		Alcance doCupom = cupom == null ? null : cuponsPorNivel.get(tipoCliente).get(cupom);
+		if (geral.vazio() && doCupom == null)
+		{
+			return BigDecimal.ZERO;
+		}
+
+		BigDecimal desconto = BigDecimal.ZERO;
+		for (ItemCompra item : itens)
+		{
+			Produto produto = item.getProduto();
+			long quantidade = item.getQuantidade();
+			BigDecimal percentual = geral.melhorPercentual(produto, quantidade, agora);
+			if (doCupom != null)
+			{
+				percentual = percentual.max(doCupom.melhorPercentual(produto, quantidade, agora));
+			}
+			if (percentual.signum() > 0)
+			{
+				desconto = desconto.add(precos.apply(produto).multiply(BigDecimal.valueOf(quantidade)).multiply(percentual));
+			}
+		}
+		return desconto;
+	}
+
+	private record Regra(BigDecimal percentual, long quantidadeMinima, Instant inicio, Instant fim)
+	{
+		boolean aplicavel(long quantidade, Instant agora)
+		{
+			return quantidade >= quantidadeMinima && !agora.isBefore(inicio) && (fim == null || agora.isBefore(fim));
+		}
+	}
+
+	/** Regras de um nível (ou de um cupom nesse nível) separadas por alcance. */
+	private static final class Alcance
+	{
+		private final Map<Long, Regra[]> porProduto;
+		private final EnumMap<TipoProduto, Regra[]> porTipo;
+		private final Regra[] gerais;
+
+		private Alcance(Map<Long, Regra[]> porProduto, EnumMap<TipoProduto, Regra[]> porTipo, Regra[] gerais)
+		{
+			this.porProduto = porProduto;
+			this.porTipo = porTipo;
+			this.gerais = gerais;
+		}
+
+		boolean vazio()
+		{
+			return porProduto.isEmpty() && porTipo.isEmpty() && gerais.length == 0;
+		}
+
+		BigDecimal melhorPercentual(Produto produto, long quantidade, Instant agora)
+		{
+			BigDecimal melhor = BigDecimal.ZERO;
+			melhor = melhor(porProduto.getOrDefault(produto.getId(), NENHUMA), melhor, quantidade, agora);
+			if (produto.getTipo() != null)
+			{
+				melhor = melhor(porTipo.getOrDefault(produto.getTipo(), NENHUMA), melhor, quantidade, agora);
+			}
+			return melhor(gerais, melhor, quantidade, agora);
+		}
+
+		private static BigDecimal melhor(Regra[] candidatas, BigDecimal melhor, long quantidade, Instant agora)
+		{
+			for (Regra regra : candidatas)
+			{
+				if (regra.percentual().compareTo(melhor) > 0 && regra.aplicavel(quantidade, agora))
+				{
+					melhor = regra.percentual();
+				}
+			}
+			return melhor;
+		}
+
+		static final class Construtor
+		{
+			private final Map<Long, List<Regra>> porProduto = new HashMap<>();
+			private final EnumMap<TipoProduto, List<Regra>> porTipo = new EnumMap<>(TipoProduto.class);
+			private final List<Regra> gerais = new ArrayList<>();
+
+			void adicionar(Long produtoId, TipoProduto tipo, Regra regra)
+			{
+				if (produtoId != null)
+				{
+					porProduto.computeIfAbsent(produtoId, id -> new ArrayList<>()).add(regra);
+				}
+				else if (tipo != null)
+				{
+					porTipo.computeIfAbsent(tipo, t -> new ArrayList<>()).add(regra);
+				}
+				else
+				{
+					gerais.add(regra);
+				}
+			}
+
+			Alcance construir()
+			{
+				Map<Long, Regra[]> produtos = new HashMap<>();
+				porProduto.forEach((id, regras) -> produtos.put(id, regras.toArray(NENHUMA)));
+				EnumMap<TipoProduto, Regra[]> tipos = new EnumMap<>(TipoProduto.class);
+				porTipo.forEach((tipo, regras) -> tipos.put(tipo, regras.toArray(NENHUMA)));
+				return new Alcance(produtos, tipos, gerais.toArray(NENHUMA));
+			}
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package ecommerce.promocao;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import ecommerce.repository.PromocaoRepository;
+import jakarta.transaction.Transactional;
+
+/**
+ * Mantém o {@link IndicePromocoes} usado na precificação, reconstruído a cada
+ * intervalo e trocado atomicamente. Cada carga inclui também as promoções que
+ * começam antes da carga seguinte (com folga de um intervalo), de modo que elas
+ * passam a valer no horário marcado sem depender do agendamento.
+ *
+ * O índice só responde pela janela da carga; as promoções de um instante fora
+ * dela são consultadas no banco (ver {@link #em(Instant)}).
+ */
+@Service
+public class PromocaoService
+{
+	private final PromocaoRepository repository;
+	private final Duration horizonte;
+	// Antes da primeira carga a janela é vazia, e todo instante é consultado no banco
+	private final AtomicReference<Carga> atual = new AtomicReference<>(
+			new Carga(IndicePromocoes.VAZIO, Instant.MAX, Instant.MAX));
+
+	@Autowired
+	public PromocaoService(PromocaoRepository repository,
+			@Value("${ecommerce.promocoes.intervalo-atualizacao-ms:30000}") long intervaloMs)
+	{
+		this.repository = repository;
+		this.horizonte = Duration.ofMillis(intervaloMs * 2);
+	}
+
+	public IndicePromocoes atual()
+	{
+		return atual.get().indice();
+	}
+
+	/**
+	 * Promoções que podem valer no instante dado: o índice atual, se o instante
+	 * está na janela da carga, ou as vigentes nele lidas do banco.
+	 */
+	public IndicePromocoes em(Instant momento)
+	{
+		Carga carga = atual.get();
+		if (!momento.isBefore(carga.desde()) && momento.isBefore(carga.ate()))
+		{
+			return carga.indice();
+		}
+		// A vigência exata é conferida de novo pelo índice, no instante da precificação
+		return IndicePromocoes.construir(repository.listarVigentesEntre(momento, momento.plus(1, ChronoUnit.MICROS)));
+	}
+
+	@Transactional
+	@Scheduled(fixedDelayString = "${ecommerce.promocoes.intervalo-atualizacao-ms:30000}")
+	public void atualizar()
+	{
+		Instant agora = Instant.now();
+		Instant ate = agora.plus(horizonte);
+		atual.set(new Carga(IndicePromocoes.construir(repository.listarVigentesEntre(agora, ate)), agora, ate));
+	}
+
+	/** Índice de uma carga e a janela {@code [desde, ate)} pela qual ele responde. */
+	private record Carga(IndicePromocoes indice, Instant desde, Instant ate)
+	{
+	}
+}
@@ -1,16 +1,64 @@
 package ecommerce.repository;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import ecommerce.dto.CarrinhoResumoDTO;
 import ecommerce.entity.CarrinhoDeCompras;
 import ecommerce.entity.Cliente;
+import jakarta.persistence.LockModeType;
 
 @Repository
 public interface CarrinhoDeComprasRepository extends JpaRepository<CarrinhoDeCompras, Long>
 {
+	String RESUMO = "select new ecommerce.dto.CarrinhoResumoDTO(c.id, c.cliente.id, c.data, c.versao)"
+			+ " from CarrinhoDeCompras c ";
 
+	/*
+	 * Paginação por chave (data, id): cada página continua depois do último
+	 * carrinho da anterior, percorrendo o índice sem descartar linhas como o
+	 * OFFSET. O "c.data >= :data" redundante delimita o início da faixa do
+	 * índice; o "or" só filtra os carrinhos da mesma data já entregues.
+	 * O Pageable só limita o tamanho da página (sempre a primeira).
+	 */
+
+	@Query(RESUMO + "where c.cliente.id = :clienteId order by c.data, c.id")
+	List<CarrinhoResumoDTO> listarPorCliente(@Param("clienteId") Long clienteId, Pageable pagina);
+
+	@Query(RESUMO + "where c.cliente.id = :clienteId and c.data >= :data and (c.data > :data or c.id > :id)"
+			+ " order by c.data, c.id")
+	List<CarrinhoResumoDTO> listarPorClienteApos(@Param("clienteId") Long clienteId, @Param("data") LocalDate data,
+			@Param("id") Long id, Pageable pagina);
+
+	@Query(RESUMO + "where c.data between :inicio and :fim order by c.data, c.id")
+	List<CarrinhoResumoDTO> listarPorPeriodo(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim,
+			Pageable pagina);
+
+	@Query(RESUMO + "where c.data between :inicio and :fim and c.data >= :data and (c.data > :data or c.id > :id)"
+			+ " order by c.data, c.id")
+	List<CarrinhoResumoDTO> listarPorPeriodoApos(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim,
+			@Param("data") LocalDate data, @Param("id") Long id, Pageable pagina);
+
+	// Itens e produtos carregados junto: o carrinho é usado fora da transação durante a compra
+	@EntityGraph(attributePaths = { "itens", "itens.produto" })
 	Optional<CarrinhoDeCompras> findByIdAndCliente(Long id, Cliente cliente);
+
+	// Incrementa a versão no commit, falhando se outra transação alterou o carrinho nesse intervalo
+	@Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+	@EntityGraph(attributePaths = "itens")
+	Optional<CarrinhoDeCompras> findParaConfirmacaoById(Long id);
+
+	// Toda edição incrementa a versão do carrinho, invalidando finalizações em andamento
+	@Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+	@EntityGraph(attributePaths = { "itens", "itens.produto" })
+	Optional<CarrinhoDeCompras> findParaAlteracaoByIdAndCliente(Long id, Cliente cliente);
 }
@@ -0,0 +1,41 @@
+package ecommerce.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import ecommerce.dto.PrecoVigenciaDTO;
+import ecommerce.entity.PrecoProduto;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface PrecoProdutoRepository extends JpaRepository<PrecoProduto, Long>
+{
+	/**
+	 * De cada produto, a vigência em curso em {@code momento} e as posteriores;
+	 * as encerradas antes dele ficam no banco. A vigência em curso é achada pelo
+	 * índice único (produto, vigência).
+	 */
+	@QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+	@Query("select new ecommerce.dto.PrecoVigenciaDTO(p.produtoId, p.preco, p.vigenteDesde) from PrecoProduto p"
+			+ " where p.vigenteDesde > :momento or p.vigenteDesde = (select max(q.vigenteDesde) from PrecoProduto q"
+			+ " where q.produtoId = p.produtoId and q.vigenteDesde <= :momento)"
+			+ " order by p.produtoId, p.vigenteDesde")
+	Stream<PrecoVigenciaDTO> listarVigentesAPartirDe(@Param("momento") Instant momento);
+
+	/** Idem, só dos produtos informados. */
+	@Query("select new ecommerce.dto.PrecoVigenciaDTO(p.produtoId, p.preco, p.vigenteDesde) from PrecoProduto p"
+			+ " where p.produtoId in :produtosIds and (p.vigenteDesde > :momento or p.vigenteDesde ="
+			+ " (select max(q.vigenteDesde) from PrecoProduto q where q.produtoId = p.produtoId"
+			+ " and q.vigenteDesde <= :momento))"
+			+ " order by p.produtoId, p.vigenteDesde")
+	List<PrecoVigenciaDTO> listarVigentesAPartirDe(@Param("momento") Instant momento,
+			@Param("produtosIds") Collection<Long> produtosIds);
+}
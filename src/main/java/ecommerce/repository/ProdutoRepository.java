@@ -1,11 +1,32 @@
 package ecommerce.repository;
 
+import java.time.Instant;
+import java.util.stream.Stream;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import ecommerce.dto.ProdutoPrecificacaoDTO;
 import ecommerce.entity.Produto;
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface ProdutoRepository extends JpaRepository<Produto, Long>
 {
+
+	// Projeção (não gerenciada): percorre o catálogo inteiro sem acumular entidades no contexto de persistência.
+	// Em ordem de id, a do catálogo de preços (ver CatalogoPrecos.Construtor)
+	@QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+	@Query("select new ecommerce.dto.ProdutoPrecificacaoDTO(p.id, p.preco, p.pesoFisico, p.comprimento, p.largura,"
+			+ " p.altura, p.fragil, p.tipo, p.atualizadoEm) from Produto p order by p.id")
+	Stream<ProdutoPrecificacaoDTO> listarParaPrecificacao();
+
+	@QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+	@Query("select new ecommerce.dto.ProdutoPrecificacaoDTO(p.id, p.preco, p.pesoFisico, p.comprimento, p.largura,"
+			+ " p.altura, p.fragil, p.tipo, p.atualizadoEm) from Produto p where p.atualizadoEm >= :desde"
+			+ " order by p.id")
+	Stream<ProdutoPrecificacaoDTO> listarParaPrecificacaoAlteradosDesde(@Param("desde") Instant desde);
 }
@@ -0,0 +1,19 @@
+package ecommerce.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import ecommerce.entity.Promocao;
+
+@Repository
+public interface PromocaoRepository extends JpaRepository<Promocao, Long>
+{
+	/** Promoções vigentes em algum instante entre {@code desde} e {@code ate}. */
+	@Query("select p from Promocao p where p.inicio < :ate and (p.fim is null or p.fim > :desde)")
+	List<Promocao> listarVigentesEntre(@Param("desde") Instant desde, @Param("ate") Instant ate);
+}
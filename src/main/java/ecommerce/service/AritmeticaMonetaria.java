@@ -0,0 +1,152 @@
+package ecommerce.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import ecommerce.entity.TipoProduto;
+
+/**
+ * Como as contas de dinheiro da precificação por resumo são feitas: descontos
+ * por tipo, desconto promocional, desconto por valor, frete e arredondamento
+ * final em centavos. As regras (faixas e percentuais) são sempre as de
+ * {@link CompraService}; muda apenas a representação dos valores intermediários.
+ *
+ * {@link #DECIMAL} é a referência. {@link #CENTAVOS} dá exatamente o mesmo
+ * resultado com inteiros e recorre à referência quando um valor não cabe na
+ * escala fixa. {@link #DOUBLE} reproduz o que acontecia com o valor em
+ * {@code double} e serve apenas para medir divergências.
+ */
+public enum AritmeticaMonetaria
+{
+	DECIMAL
+	{
+		@Override
+		public BigDecimal totalizar(ResumoCarrinho resumo, BigDecimal descontoPromocional, BigDecimal freteFinal)
+		{
+			BigDecimal descontoTotalTipo = BigDecimal.ZERO;
+			for (TipoProduto tipo : TIPOS)
+			{
+				BigDecimal descontoPercentual = CompraService.percentualDescontoPorTipo(resumo.getQuantidade(tipo));
+				if (descontoPercentual.compareTo(BigDecimal.ZERO) > 0)
+				{
+					descontoTotalTipo = descontoTotalTipo.add(resumo.getValor(tipo).multiply(descontoPercentual));
+				}
+			}
+
+			BigDecimal subtotalComDescontos = CompraService.aplicarDescontoPorValor(resumo.getSubtotal()
+					.subtract(descontoTotalTipo).subtract(descontoPromocional).max(BigDecimal.ZERO));
+
+			return subtotalComDescontos.add(freteFinal).setScale(2, RoundingMode.HALF_UP);
+		}
+	},
+
+	/**
+	 * Valores em {@code long}, em unidades de 10<sup>-8</sup>: os percentuais são
+	 * inteiros, então descontos sobre valores com até seis casas continuam exatos.
+	 * Estouro, mais casas ou divisão inexata fazem o cálculo cair para {@link #DECIMAL}.
+	 */
+	CENTAVOS
+	{
+		private static final int ESCALA = 8;
+		private static final long UNIDADES_POR_CENTAVO = 1_000_000L;
+
+		@Override
+		public BigDecimal totalizar(ResumoCarrinho resumo, BigDecimal descontoPromocional, BigDecimal freteFinal)
+		{
+			try
+			{
+				long subtotal = 0;
+				for (TipoProduto tipo : TIPOS)
+				{
+					if (resumo.getQuantidade(tipo) == 0)
+					{
+						continue;
+					}
+					long valor = emUnidades(resumo.getValor(tipo));
+					int percentual = emPorcento(CompraService.percentualDescontoPorTipo(resumo.getQuantidade(tipo)));
+					subtotal = Math.addExact(subtotal, Math.subtractExact(valor, porcentagem(valor, percentual)));
+				}
+				subtotal = Math.max(0, Math.subtractExact(subtotal, emUnidades(descontoPromocional)));
+
+				int percentual = emPorcento(
+						CompraService.percentualDescontoPorValor(BigDecimal.valueOf(subtotal, ESCALA)));
+				subtotal = Math.subtractExact(subtotal, porcentagem(subtotal, percentual));
+
+				long total = Math.addExact(subtotal, emUnidades(freteFinal));
+				long centavos = total / UNIDADES_POR_CENTAVO;
+				if (total % UNIDADES_POR_CENTAVO >= UNIDADES_POR_CENTAVO / 2)
+				{
+					centavos++;
+				}
+				return BigDecimal.valueOf(centavos, 2);
+			}
+			catch (ArithmeticException e)
+			{
+				return DECIMAL.totalizar(resumo, descontoPromocional, freteFinal);
+			}
+		}
+
+		private static long emUnidades(BigDecimal valor)
+		{
+			return valor.signum() == 0 ? 0 : valor.movePointRight(ESCALA).longValueExact();
+		}
+
+		private static int emPorcento(BigDecimal percentual)
+		{
+			return percentual.signum() == 0 ? 0 : percentual.movePointRight(2).intValueExact();
+		}
+
+		/** {@code valor * percentual / 100}, ou {@link ArithmeticException} se não for exato. */
+		private static long porcentagem(long valor, int percentual)
+		{
+			if (percentual == 0)
+			{
+				return 0;
+			}
+			long produto = Math.multiplyExact(valor, percentual);
+			if (produto % 100 != 0)
+			{
+				throw new ArithmeticException("Porcentagem inexata na escala fixa.");
+			}
+			return produto / 100;
+		}
+	},
+
+	DOUBLE
+	{
+		@Override
+		public BigDecimal totalizar(ResumoCarrinho resumo, BigDecimal descontoPromocional, BigDecimal freteFinal)
+		{
+			double subtotal = 0;
+			for (TipoProduto tipo : TIPOS)
+			{
+				double percentual = CompraService.percentualDescontoPorTipo(resumo.getQuantidade(tipo)).doubleValue();
+				double valor = resumo.getValor(tipo).doubleValue();
+				subtotal += valor - valor * percentual;
+			}
+			subtotal = Math.max(0, subtotal - descontoPromocional.doubleValue());
+
+			double percentual = CompraService.percentualDescontoPorValor(BigDecimal.valueOf(subtotal)).doubleValue();
+			subtotal -= subtotal * percentual;
+
+			return BigDecimal.valueOf(subtotal + freteFinal.doubleValue()).setScale(2, RoundingMode.HALF_UP);
+		}
+
+		@Override
+		public boolean isExata()
+		{
+			return false;
+		}
+	};
+
+	private static final TipoProduto[] TIPOS = TipoProduto.values();
+
+	/** Subtotal com os descontos mais o frete, arredondado em centavos. */
+	public abstract BigDecimal totalizar(ResumoCarrinho resumo, BigDecimal descontoPromocional, BigDecimal freteFinal);
+
+	/** Se o resultado é sempre igual ao de {@link #DECIMAL}; só as exatas podem ser usadas na precificação. */
+	public boolean isExata()
+	{
+		return true;
+	}
+}
@@ -1,26 +1,226 @@
 package ecommerce.service;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import ecommerce.entity.CarrinhoDeCompras;
 import ecommerce.entity.Cliente;
+import ecommerce.dto.CarrinhoResumoDTO;
+import ecommerce.dto.ItemCarrinhoDTO;
+import ecommerce.dto.PaginaCarrinhosDTO;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
 import ecommerce.repository.CarrinhoDeComprasRepository;
+import ecommerce.repository.ProdutoRepository;
+import jakarta.transaction.Transactional;
 
 @Service
 public class CarrinhoDeComprasService
 {
+	public static final int TAMANHO_MAXIMO_PAGINA = 500;
+
 	private final CarrinhoDeComprasRepository repository;
+	private final ProdutoRepository produtoRepository;
 
 	@Autowired
-	public CarrinhoDeComprasService(CarrinhoDeComprasRepository repository)
+	public CarrinhoDeComprasService(CarrinhoDeComprasRepository repository, ProdutoRepository produtoRepository)
 	{
 		this.repository = repository;
+		this.produtoRepository = produtoRepository;
 	}
 
+	@Transactional
 	public CarrinhoDeCompras buscarPorCarrinhoIdEClienteId(Long carrinhoId, Cliente cliente)
 	{
 		return repository.findByIdAndCliente(carrinhoId, cliente)
 				.orElseThrow(() -> new IllegalArgumentException("Carrinho não encontrado."));
 	}
+
+	@Transactional
+	public CarrinhoDeCompras criar(Cliente cliente, List<ItemCarrinhoDTO> itens)
+	{
+		Map<Long, Produto> produtos = validarItens(itens, false);
+
+		CarrinhoDeCompras carrinho = new CarrinhoDeCompras(null, cliente, new ArrayList<>(), LocalDate.now());
+		for (ItemCarrinhoDTO item : itens)
+		{
+			carrinho.getItens().add(new ItemCompra(null, produtos.get(item.produtoId()), item.quantidade()));
+		}
+		return repository.save(carrinho);
+	}
+
+	/**
+	 * Aplica várias alterações de itens de uma vez: quantidade positiva define a
+	 * quantidade do produto no carrinho (incluindo-o se ainda não está), zero o
+	 * remove. Os produtos são validados em uma única consulta e as linhas
+	 * gravadas em lote no commit.
+	 */
+	@Transactional
+	public CarrinhoDeCompras alterarItens(Long carrinhoId, Cliente cliente, List<ItemCarrinhoDTO> alteracoes)
+	{
+		Map<Long, Produto> produtos = validarItens(alteracoes, true);
+		CarrinhoDeCompras carrinho = repository.findParaAlteracaoByIdAndCliente(carrinhoId, cliente)
+				.orElseThrow(() -> new IllegalArgumentException("Carrinho não encontrado."));
+
+		Map<Long, ItemCompra> itensPorProduto = new HashMap<>();
+		for (ItemCompra item : carrinho.getItens())
+		{
+			itensPorProduto.putIfAbsent(item.getProduto().getId(), item);
+		}
+
+		Set<Long> removidos = new HashSet<>();
+		for (ItemCarrinhoDTO alteracao : alteracoes)
+		{
+			if (alteracao.quantidade() == 0)
+			{
+				removidos.add(alteracao.produtoId());
+				continue;
+			}
+			ItemCompra item = itensPorProduto.get(alteracao.produtoId());
+			if (item == null)
+			{
+				carrinho.getItens().add(new ItemCompra(null, produtos.get(alteracao.produtoId()), alteracao.quantidade()));
+			}
+			else if (!alteracao.quantidade().equals(item.getQuantidade()))
+			{
+				item.setQuantidade(alteracao.quantidade());
+			}
+		}
+		if (!removidos.isEmpty())
+		{
+			carrinho.getItens().removeIf(item -> removidos.contains(item.getProduto().getId()));
+		}
+		return carrinho;
+	}
+
+	/**
+	 * Carrinhos do cliente ordenados por data, uma página por vez: sem cursor,
+	 * a primeira; com {@code aposData}/{@code aposId}, a que segue esse carrinho.
+	 */
+	public PaginaCarrinhosDTO listarPorCliente(Long clienteId, LocalDate aposData, Long aposId, int tamanho)
+	{
+		Pageable pagina = primeiraPagina(aposData, aposId, tamanho);
+		List<CarrinhoResumoDTO> carrinhos = aposData == null
+				? repository.listarPorCliente(clienteId, pagina)
+				: repository.listarPorClienteApos(clienteId, aposData, aposId, pagina);
+		return paginar(carrinhos, tamanho);
+	}
+
+	/** Carrinhos com data entre {@code inicio} e {@code fim} (inclusive), paginados como em {@link #listarPorCliente}. */
+	public PaginaCarrinhosDTO listarPorPeriodo(LocalDate inicio, LocalDate fim, LocalDate aposData, Long aposId,
+			int tamanho)
+	{
+		if (inicio == null || fim == null || inicio.isAfter(fim))
+		{
+			throw new IllegalArgumentException("Período inválido.");
+		}
+		Pageable pagina = primeiraPagina(aposData, aposId, tamanho);
+		List<CarrinhoResumoDTO> carrinhos = aposData == null
+				? repository.listarPorPeriodo(inicio, fim, pagina)
+				: repository.listarPorPeriodoApos(inicio, fim, aposData, aposId, pagina);
+		return paginar(carrinhos, tamanho);
+	}
+
+	/**
+	 * Confirma, em uma transação curta, que o carrinho ainda está na mesma versão
+	 * (e com os mesmos itens) da leitura usada para precificar a compra, e
+	 * incrementa sua versão para que edições concorrentes a partir daqui falhem.
+	 *
+	 * Retorna {@code false} se o carrinho foi alterado; uma alteração concorrente
+	 * entre esta leitura e o commit é sinalizada pelo próprio commit com
+	 * {@link org.springframework.dao.OptimisticLockingFailureException}.
+	 */
+	@Transactional
+	public boolean confirmarVersao(CarrinhoDeCompras lido)
+	{
+		return repository.findParaConfirmacaoById(lido.getId())
+				.map(atual -> Objects.equals(atual.getVersao(), lido.getVersao())
+						&& versoesDosItens(atual.getItens()).equals(versoesDosItens(lido.getItens())))
+				.orElse(false);
+	}
+
+	private static Pageable primeiraPagina(LocalDate aposData, Long aposId, int tamanho)
+	{
+		if (tamanho < 1 || tamanho > TAMANHO_MAXIMO_PAGINA)
+		{
+			throw new IllegalArgumentException("Tamanho de página deve estar entre 1 e " + TAMANHO_MAXIMO_PAGINA + ".");
+		}
+		if ((aposData == null) != (aposId == null))
+		{
+			throw new IllegalArgumentException("Cursor incompleto: informe data e id do último carrinho.");
+		}
+		return PageRequest.of(0, tamanho);
+	}
+
+	private static PaginaCarrinhosDTO paginar(List<CarrinhoResumoDTO> carrinhos, int tamanho)
+	{
+		if (carrinhos.size() < tamanho)
+		{
+			return new PaginaCarrinhosDTO(carrinhos, null, null);
+		}
+		CarrinhoResumoDTO ultimo = carrinhos.get(carrinhos.size() - 1);
+		return new PaginaCarrinhosDTO(carrinhos, ultimo.data(), ultimo.id());
+	}
+
+	/**
+	 * Valida produtos e quantidades e retorna os produtos que serão incluídos ou
+	 * alterados, buscados todos em uma única consulta.
+	 */
+	private Map<Long, Produto> validarItens(List<ItemCarrinhoDTO> itens, boolean permiteRemocao)
+	{
+		if (itens == null || itens.isEmpty())
+		{
+			throw new IllegalArgumentException("Nenhum item informado.");
+		}
+
+		Set<Long> produtosIds = new HashSet<>();
+		Set<Long> produtosGravados = new HashSet<>();
+		for (ItemCarrinhoDTO item : itens)
+		{
+			if (item == null || item.produtoId() == null)
+			{
+				throw new IllegalArgumentException("Produto não informado.");
+			}
+			if (item.quantidade() == null || item.quantidade() < 0 || (item.quantidade() == 0 && !permiteRemocao))
+			{
+				throw new IllegalArgumentException("Quantidade inválida para o produto " + item.produtoId() + ".");
+			}
+			if (!produtosIds.add(item.produtoId()))
+			{
+				throw new IllegalArgumentException("Produto " + item.produtoId() + " informado mais de uma vez.");
+			}
+			if (item.quantidade() > 0)
+			{
+				produtosGravados.add(item.produtoId());
+			}
+		}
+
+		Map<Long, Produto> produtos = produtoRepository.findAllById(produtosGravados).stream()
+				.collect(Collectors.toMap(Produto::getId, Function.identity()));
+		if (produtos.size() != produtosGravados.size())
+		{
+			produtosGravados.removeAll(produtos.keySet());
+			throw new IllegalArgumentException("Produtos não encontrados: " + produtosGravados + ".");
+		}
+		return produtos;
+	}
+
+	private Map<Long, Long> versoesDosItens(List<ItemCompra> itens)
+	{
+		return itens.stream()
+				.collect(Collectors.toMap(ItemCompra::getId, item -> Objects.requireNonNullElse(item.getVersao(), 0L)));
+	}
 }
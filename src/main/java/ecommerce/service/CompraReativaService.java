@@ -0,0 +1,154 @@
+package ecommerce.service;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import ecommerce.dto.EstoqueArmazemDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import ecommerce.dto.PagamentoDTO;
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.external.IEstoqueExternalReativo;
+import ecommerce.external.IPagamentoExternalReativo;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Variante não bloqueante de {@link CompraService#tentarFinalizarCompra(Long, Long, String)}:
+ * as mesmas etapas e regras, compostas como um fluxo reativo, com as recusas do
+ * negócio também como {@link ResultadoCompra}. Nenhuma thread fica parada
+ * esperando estoque ou pagamento; o acesso ao banco (JPA) roda no agendador de
+ * chamadas bloqueantes, cuja fila limitada rejeita o excesso de carga.
+ */
+@Service
+public class CompraReativaService
+{
+	private static final Logger log = LoggerFactory.getLogger(CompraReativaService.class);
+
+	private final CompraService compraService;
+	private final CarrinhoDeComprasService carrinhoService;
+	private final ClienteService clienteService;
+
+	private final IEstoqueExternalReativo estoqueExternal;
+	private final IPagamentoExternalReativo pagamentoExternal;
+
+	private final Scheduler agendadorBloqueante;
+
+	@Autowired
+	public CompraReativaService(CompraService compraService, CarrinhoDeComprasService carrinhoService,
+			ClienteService clienteService, IEstoqueExternalReativo estoqueExternal,
+			IPagamentoExternalReativo pagamentoExternal, Scheduler agendadorBloqueante)
+	{
+		this.compraService = compraService;
+		this.carrinhoService = carrinhoService;
+		this.clienteService = clienteService;
+
+		this.estoqueExternal = estoqueExternal;
+		this.pagamentoExternal = pagamentoExternal;
+
+		this.agendadorBloqueante = agendadorBloqueante;
+	}
+
+	public Mono<ResultadoCompra> finalizarCompra(Long carrinhoId, Long clienteId)
+	{
+		return finalizarCompra(carrinhoId, clienteId, null);
+	}
+
+	/** Idem, aplicando também as promoções do cupom informado ({@code null} para nenhum). */
+	public Mono<ResultadoCompra> finalizarCompra(Long carrinhoId, Long clienteId, String cupom)
+	{
+		return bloqueante(() -> clienteService.buscarPorId(clienteId))
+				.flatMap(cliente -> bloqueante(() -> carrinhoService.buscarPorCarrinhoIdEClienteId(carrinhoId, cliente))
+						.flatMap(carrinho -> finalizar(cliente, carrinho, cupom)));
+	}
+
+	private Mono<ResultadoCompra> finalizar(Cliente cliente, CarrinhoDeCompras carrinho, String cupom)
+	{
+		List<Long> produtosIds = carrinho.getItens().stream().map(i -> i.getProduto().getId())
+				.collect(Collectors.toList());
+		List<Long> produtosQtds = carrinho.getItens().stream().map(i -> i.getQuantidade()).collect(Collectors.toList());
+
+		return estoqueExternal.verificarDisponibilidade(produtosIds, produtosQtds)
+				.flatMap(disponibilidade -> {
+					if (!disponibilidade.disponivel())
+					{
+						return Mono.just(new ResultadoCompra.ForaDeEstoque(disponibilidade.idsProdutosIndisponiveis()));
+					}
+					Mono<List<EstoqueArmazemDTO>> armazens = compraService.usaArmazens()
+							? estoqueExternal.consultarArmazens(produtosIds)
+							: Mono.just(List.of());
+					// Mesma precificação da finalização bloqueante: cupom e frete por plano de envios
+					return armazens.map(porArmazem -> compraService.precificar(carrinho, cliente, porArmazem, cupom))
+							// Erro na autorização (inclusive tempo esgotado) é repassado: sem resposta não há
+							// transação a cancelar, e o desfecho no meio de pagamento fica desconhecido
+							.flatMap(precificacao -> pagamentoExternal
+									.autorizarPagamento(cliente.getId(), precificacao.custoTotal())
+									.flatMap(pagamento -> confirmar(cliente, carrinho, precificacao, pagamento,
+											produtosIds, produtosQtds)));
+				});
+	}
+
+	private Mono<ResultadoCompra> confirmar(Cliente cliente, CarrinhoDeCompras carrinho, Precificacao precificacao,
+			PagamentoDTO pagamento, List<Long> produtosIds, List<Long> produtosQtds)
+	{
+		if (!pagamento.autorizado())
+		{
+			return Mono.just(new ResultadoCompra.PagamentoNegado());
+		}
+		return bloqueante(() -> compraService.carrinhoInalterado(carrinho))
+				// Antes da baixa nada mais foi reservado: basta cancelar a autorização
+				.onErrorResume(e -> cancelarERepassar(cliente, pagamento, e))
+				.flatMap(inalterado -> inalterado
+						? baixar(cliente, carrinho, precificacao, pagamento, produtosIds, produtosQtds)
+						: cancelar(cliente, pagamento, new ResultadoCompra.CarrinhoAlterado()));
+	}
+
+	/**
+	 * Dá baixa no estoque (com plano de envios, cada produto no armazém cujo
+	 * frete foi cobrado) e registra o pedido. Só a recusa explícita do estoque
+	 * cancela o pagamento; um erro na chamada, inclusive o tempo esgotado, é
+	 * repassado como na finalização bloqueante, pois a baixa pode ter sido
+	 * feita e cancelar deixaria a mercadoria baixada sem pagamento.
+	 */
+	private Mono<ResultadoCompra> baixar(Cliente cliente, CarrinhoDeCompras carrinho, Precificacao precificacao,
+			PagamentoDTO pagamento, List<Long> produtosIds, List<Long> produtosQtds)
+	{
+		Mono<EstoqueBaixaDTO> baixa = precificacao.plano() == null
+				? estoqueExternal.darBaixa(produtosIds, produtosQtds)
+				: estoqueExternal.darBaixa(produtosIds, produtosQtds, precificacao.plano().armazensDe(produtosIds));
+		return baixa.flatMap(resultado -> resultado.sucesso()
+				? bloqueante(() -> compraService.concluir(carrinho, cliente, precificacao, pagamento, produtosIds,
+						produtosQtds)).<ResultadoCompra>map(ResultadoCompra.Sucesso::new)
+				: cancelar(cliente, pagamento, new ResultadoCompra.FalhaNaBaixa()));
+	}
+
+	/** Cancela a autorização e repassa o erro original, com a falha do cancelamento como suprimida. */
+	private <T> Mono<T> cancelarERepassar(Cliente cliente, PagamentoDTO pagamento, Throwable erro)
+	{
+		log.error("Finalização da transação {} falhou após a autorização; cancelando o pagamento",
+				pagamento.transacaoId(), erro);
+		return pagamentoExternal.cancelarPagamento(cliente.getId(), pagamento.transacaoId())
+				.onErrorResume(cancelamento -> {
+					erro.addSuppressed(cancelamento);
+					return Mono.empty();
+				})
+				.then(Mono.error(erro));
+	}
+
+	private Mono<ResultadoCompra> cancelar(Cliente cliente, PagamentoDTO pagamento, ResultadoCompra recusa)
+	{
+		return pagamentoExternal.cancelarPagamento(cliente.getId(), pagamento.transacaoId())
+				.thenReturn(recusa);
+	}
+
+	private <T> Mono<T> bloqueante(Callable<T> chamada)
+	{
+		return Mono.fromCallable(chamada).subscribeOn(agendadorBloqueante);
+	}
+}
@@ -2,32 +2,48 @@ package ecommerce.service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import ecommerce.entity.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
+import ecommerce.catalogo.CatalogoPrecos;
+import ecommerce.catalogo.CatalogoPrecosService;
+import ecommerce.catalogo.HistoricoPrecos;
+import ecommerce.catalogo.HistoricoPrecosService;
 import ecommerce.dto.CompraDTO;
 import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueArmazemDTO;
 import ecommerce.dto.EstoqueBaixaDTO;
 import ecommerce.dto.PagamentoDTO;
 import ecommerce.external.IEstoqueExternal;
 import ecommerce.external.IPagamentoExternal;
-import jakarta.transaction.Transactional;
+import ecommerce.promocao.IndicePromocoes;
+import ecommerce.promocao.PromocaoService;
 
 @Service
 public class CompraService
 {
+	private static final Logger log = LoggerFactory.getLogger(CompraService.class);
+
 	private static final BigDecimal FATOR_PESO_CUBICO = new BigDecimal("6000");
 	private static final BigDecimal TAXA_MINIMA_FRETE = new BigDecimal("12.00");
 	private static final BigDecimal TAXA_ITEM_FRAGIL = new BigDecimal("5.00");
 
 	private static final BigDecimal LIMITE_SUBTOTAL_DESC_10 = new BigDecimal("500.00");
 	private static final BigDecimal LIMITE_SUBTOTAL_DESC_20 = new BigDecimal("1000.00");
+	private static final BigDecimal DESC_5_PORCENTO = new BigDecimal("0.05");
 	private static final BigDecimal DESC_10_PORCENTO = new BigDecimal("0.10");
+	private static final BigDecimal DESC_15_PORCENTO = new BigDecimal("0.15");
 	private static final BigDecimal DESC_20_PORCENTO = new BigDecimal("0.20");
 
 	private static final BigDecimal PESO_FAIXA_A_MAX = new BigDecimal("5.00");
@@ -38,25 +54,93 @@ public class CompraService
 	private static final BigDecimal FRETE_FAIXA_C_POR_KG = new BigDecimal("4.00");
 	private static final BigDecimal FRETE_FAIXA_D_POR_KG = new BigDecimal("7.00");
 
+	private static final BigDecimal FATOR_FRETE_PRATA = new BigDecimal("0.50");
+
+	/** Frete do caminho por resumo; equivalente a {@link #calcularFrete}. */
+	static final TabelaFrete TABELA_FRETE = new TabelaFrete(
+			new BigDecimal[] { PESO_FAIXA_A_MAX, PESO_FAIXA_B_MAX, PESO_FAIXA_C_MAX },
+			new BigDecimal[] { null, FRETE_FAIXA_B_POR_KG, FRETE_FAIXA_C_POR_KG, FRETE_FAIXA_D_POR_KG },
+			new BigDecimal[] { BigDecimal.ZERO, TAXA_MINIMA_FRETE, TAXA_MINIMA_FRETE, TAXA_MINIMA_FRETE },
+			TAXA_ITEM_FRAGIL, CompraService::multiplicadorRegiao,
+			tipo -> tipo == TipoCliente.OURO ? BigDecimal.ZERO
+					: tipo == TipoCliente.PRATA ? FATOR_FRETE_PRATA : BigDecimal.ONE);
+
+	static final String MSG_FORA_DE_ESTOQUE = "Itens fora de estoque.";
+	static final String MSG_PAGAMENTO_NAO_AUTORIZADO = "Pagamento não autorizado.";
+	static final String MSG_CARRINHO_ALTERADO = "Carrinho alterado durante a finalização da compra.";
+	static final String MSG_ERRO_BAIXA = "Erro ao dar baixa no estoque.";
+	static final String MSG_SUCESSO = "Compra finalizada com sucesso.";
+
 	private final CarrinhoDeComprasService carrinhoService;
 	private final ClienteService clienteService;
 
 	private final IEstoqueExternal estoqueExternal;
 	private final IPagamentoExternal pagamentoExternal;
 
+	private final CatalogoPrecosService catalogoService;
+	private final PedidoService pedidoService;
+	private final PrecificacaoParalela precificacaoParalela;
+	private final MotorDeFrete motorDeFrete;
+	private final PromocaoService promocaoService;
+	private final HistoricoPrecosService historicoPrecosService;
+	private final AritmeticaMonetaria aritmetica;
+
 	@Autowired
 	public CompraService(CarrinhoDeComprasService carrinhoService, ClienteService clienteService,
-			IEstoqueExternal estoqueExternal, IPagamentoExternal pagamentoExternal)
+			IEstoqueExternal estoqueExternal, IPagamentoExternal pagamentoExternal,
+			CatalogoPrecosService catalogoService, PedidoService pedidoService,
+			PrecificacaoParalela precificacaoParalela, MotorDeFrete motorDeFrete, PromocaoService promocaoService,
+			HistoricoPrecosService historicoPrecosService,
+			@Value("${ecommerce.precificacao.aritmetica:DECIMAL}") AritmeticaMonetaria aritmetica)
 	{
 		this.carrinhoService = carrinhoService;
 		this.clienteService = clienteService;
 
 		this.estoqueExternal = estoqueExternal;
 		this.pagamentoExternal = pagamentoExternal;
+
+		this.catalogoService = catalogoService;
+		this.pedidoService = pedidoService;
+		this.precificacaoParalela = precificacaoParalela;
+		this.motorDeFrete = motorDeFrete;
+		this.promocaoService = promocaoService;
+		this.historicoPrecosService = historicoPrecosService;
+		if (aritmetica != null && !aritmetica.isExata()) {
+			throw new IllegalArgumentException("Aritmética " + aritmetica + " serve apenas para validação.");
+		}
+		this.aritmetica = aritmetica == null ? AritmeticaMonetaria.DECIMAL : aritmetica;
 	}
 
-	@Transactional
+	/**
+	 * Mesma finalização de {@link #tentarFinalizarCompra(Long, Long)}, com as
+	 * recusas lançadas como {@link IllegalStateException}.
+	 */
 	public CompraDTO finalizarCompra(Long carrinhoId, Long clienteId)
+	{
+		ResultadoCompra resultado = tentarFinalizarCompra(carrinhoId, clienteId);
+
+		if (resultado instanceof ResultadoCompra.Sucesso sucesso)
+		{
+			return sucesso.compra();
+		}
+		throw new IllegalStateException(resultado.mensagem());
+	}
+
+	/**
+	 * Sem transação própria: cliente e carrinho são lidos em transações curtas e a
+	 * versão do carrinho é confirmada em outra, de modo que nenhuma conexão com o
+	 * banco fica presa durante as chamadas de estoque e pagamento.
+	 *
+	 * As recusas do negócio voltam como {@link ResultadoCompra}; cliente ou
+	 * carrinho inexistentes ainda lançam {@link IllegalArgumentException}.
+	 */
+	public ResultadoCompra tentarFinalizarCompra(Long carrinhoId, Long clienteId)
+	{
+		return tentarFinalizarCompra(carrinhoId, clienteId, null);
+	}
+
+	/** Idem, aplicando também as promoções do cupom informado ({@code null} para nenhum). */
+	public ResultadoCompra tentarFinalizarCompra(Long carrinhoId, Long clienteId, String cupom)
 	{
 		Cliente cliente = clienteService.buscarPorId(clienteId);
 		CarrinhoDeCompras carrinho = carrinhoService.buscarPorCarrinhoIdEClienteId(carrinhoId, cliente);
@@ -69,29 +153,253 @@ public class CompraService
 
 		if (!disponibilidade.disponivel())
 		{
-			throw new IllegalStateException("Itens fora de estoque.");
+			return new ResultadoCompra.ForaDeEstoque(disponibilidade.idsProdutosIndisponiveis());
 		}
 
-		BigDecimal custoTotal = calcularCustoTotal(carrinho, cliente.getRegiao(), cliente.getTipo());
+		List<EstoqueArmazemDTO> armazens = usaArmazens() ? estoqueExternal.consultarArmazens(produtosIds)
+				: List.of();
+		Precificacao precificacao = precificar(carrinho, cliente, armazens, cupom);
 
-		PagamentoDTO pagamento = pagamentoExternal.autorizarPagamento(cliente.getId(), custoTotal.doubleValue());
+		PagamentoDTO pagamento = pagamentoExternal.autorizarPagamento(cliente.getId(), precificacao.custoTotal());
 
 		if (!pagamento.autorizado())
 		{
-			throw new IllegalStateException("Pagamento não autorizado.");
+			return new ResultadoCompra.PagamentoNegado();
 		}
 
-		EstoqueBaixaDTO baixaDTO = estoqueExternal.darBaixa(produtosIds, produtosQtds);
+		if (!carrinhoInalterado(carrinho))
+		{
+			pagamentoExternal.cancelarPagamento(cliente.getId(), pagamento.transacaoId());
+			return new ResultadoCompra.CarrinhoAlterado();
+		}
+
+		// Com plano de envios, cada produto é baixado do armazém cujo frete foi cobrado
+		EstoqueBaixaDTO baixaDTO = precificacao.plano() == null ? estoqueExternal.darBaixa(produtosIds, produtosQtds)
+				: estoqueExternal.darBaixa(produtosIds, produtosQtds, precificacao.plano().armazensDe(produtosIds));
 
 		if (!baixaDTO.sucesso())
 		{
 			pagamentoExternal.cancelarPagamento(cliente.getId(), pagamento.transacaoId());
-			throw new IllegalStateException("Erro ao dar baixa no estoque.");
+			return new ResultadoCompra.FalhaNaBaixa();
+		}
+
+		return new ResultadoCompra.Sucesso(concluir(carrinho, cliente, precificacao, pagamento, produtosIds,
+				produtosQtds));
+	}
+
+	/**
+	 * Se a precificação precisa da disponibilidade por armazém, isto é, se o
+	 * frete sai de um plano de envios do {@link MotorDeFrete}.
+	 */
+	boolean usaArmazens()
+	{
+		return motorDeFrete != null && motorDeFrete.isHabilitado();
+	}
+
+	/**
+	 * Registra o pedido (que publica o evento de pedido concluído) e monta a
+	 * resposta de sucesso. Se o pedido não puder ser gravado, a baixa já feita é
+	 * estornada e o pagamento cancelado antes de repassar a exceção; falhas da
+	 * própria compensação ficam registradas como suprimidas.
+	 */
+	CompraDTO concluir(CarrinhoDeCompras carrinho, Cliente cliente, Precificacao precificacao, PagamentoDTO pagamento,
+			List<Long> produtosIds, List<Long> produtosQtds)
+	{
+		try
+		{
+			pedidoService.registrar(carrinho, cliente, precificacao, pagamento.transacaoId());
+		}
+		catch (RuntimeException e)
+		{
+			log.error("Pedido da transação {} não foi gravado; estornando a baixa e cancelando o pagamento",
+					pagamento.transacaoId(), e);
+			try
+			{
+				EstoqueBaixaDTO estorno = precificacao.plano() == null
+						? estoqueExternal.estornarBaixa(produtosIds, produtosQtds)
+						: estoqueExternal.estornarBaixa(produtosIds, produtosQtds,
+								precificacao.plano().armazensDe(produtosIds));
+				if (estorno == null || !estorno.sucesso())
+				{
+					log.error("Estorno da baixa recusado pelo estoque: produtos {} quantidades {}", produtosIds,
+							produtosQtds);
+					e.addSuppressed(new IllegalStateException(
+							"Estorno da baixa recusado: produtos " + produtosIds + " quantidades " + produtosQtds));
+				}
+			}
+			catch (RuntimeException estorno)
+			{
+				e.addSuppressed(estorno);
+			}
+			try
+			{
+				pagamentoExternal.cancelarPagamento(cliente.getId(), pagamento.transacaoId());
+			}
+			catch (RuntimeException cancelamento)
+			{
+				e.addSuppressed(cancelamento);
+			}
+			throw e;
+		}
+
+		return new CompraDTO(true, pagamento.transacaoId(), MSG_SUCESSO);
+	}
+
+	/**
+	 * Precifica pelo catálogo em memória quando todos os itens estão nele; caso
+	 * contrário (produto novo, ainda não carregado, ou com dados inválidos), pelas
+	 * entidades. Os preços do catálogo têm no máximo o atraso do intervalo de
+	 * atualização ({@code ecommerce.catalogo.intervalo-atualizacao-ms}).
+	 *
+	 * As promoções vigentes e as do cupom informado (ver {@link PromocaoService})
+	 * entram como desconto sobre o subtotal, antes do desconto por valor.
+	 *
+	 * Itens com um preço versionado já em vigor (ver {@link HistoricoPrecos}) são
+	 * precificados pelas entidades, com o preço da vigência.
+	 *
+	 * Carrinhos com pelo menos {@code ecommerce.precificacao.paralela.limiar-itens}
+	 * itens são resumidos em paralelo (ver {@link PrecificacaoParalela}), pelos
+	 * mesmos dois caminhos e com o mesmo resultado.
+	 */
+	Precificacao precificar(CarrinhoDeCompras carrinho, Cliente cliente)
+	{
+		return precificar(carrinho, cliente, List.of(), null);
+	}
+
+	/**
+	 * Com a disponibilidade por armazém, o frete é o do melhor plano de envios
+	 * do {@link MotorDeFrete}; sem ela (ou sem plano possível), o de um único envio.
+	 */
+	Precificacao precificar(CarrinhoDeCompras carrinho, Cliente cliente, List<EstoqueArmazemDTO> armazens,
+			String cupom)
+	{
+		return precificar(carrinho, cliente, armazens, cupom, Instant.now(),
+				historicoPrecosService == null ? HistoricoPrecos.VAZIO : historicoPrecosService.atual(),
+				promocaoService == null ? IndicePromocoes.VAZIO : promocaoService.atual());
+	}
+
+	/**
+	 * Preço do carrinho num instante qualquer, com os preços e as promoções
+	 * vigentes nele (sem cupom e em envio único). Vigências e promoções de
+	 * instantes que as fotografias em memória não cobrem são lidas do banco.
+	 *
+	 * Reproduz o valor de um carrinho precificado no passado se os itens, as
+	 * medidas dos produtos e o preço dos produtos sem histórico não mudaram desde
+	 * então. Um produto com histórico cuja primeira vigência é posterior ao
+	 * instante não tem o preço da época guardado, e então a precificação é
+	 * recusada com {@link IllegalArgumentException}.
+	 */
+	public BigDecimal precificarEm(CarrinhoDeCompras carrinho, Cliente cliente, Instant momento)
+	{
+		HistoricoPrecos historico = historicoPrecosService == null ? HistoricoPrecos.VAZIO
+				: historicoPrecosService.em(momento, carrinho.getItens());
+		if (!historico.conhecePrecosEm(carrinho.getItens(), momento))
+		{
+			throw new IllegalArgumentException("Preço de algum produto do carrinho em " + momento + " é desconhecido.");
+		}
+		return precificar(carrinho, cliente, List.of(), null, momento, historico,
+				promocaoService == null ? IndicePromocoes.VAZIO : promocaoService.em(momento)).custoTotal();
+	}
+
+	private Precificacao precificar(CarrinhoDeCompras carrinho, Cliente cliente, List<EstoqueArmazemDTO> armazens,
+			String cupom, Instant momento, HistoricoPrecos historico, IndicePromocoes promocoes)
+	{
+		Function<Produto, BigDecimal> precos = produto -> historico.precoEm(produto, momento);
+
+		CatalogoPrecos catalogo = catalogoService.atual();
+		ResumoCarrinho resumo;
+		// Origem dos preços do resumo: base do desconto promocional e preços gravados no pedido
+		Function<Produto, BigDecimal> precosDoResumo;
+		if (historico.afeta(carrinho.getItens(), momento))
+		{
+			resumo = precificacaoParalela.aplicavel(carrinho.getItens())
+					? precificacaoParalela.resumir(carrinho.getItens(), bloco -> resumirEntidades(bloco, precos))
+					: resumirEntidades(carrinho.getItens(), precos);
+			precosDoResumo = precos;
+		}
+		else
+		{
+			resumo = precificacaoParalela.aplicavel(carrinho.getItens())
+					? precificacaoParalela.resumir(carrinho.getItens(), catalogo::resumir)
+					: catalogo.resumir(carrinho.getItens());
+			precosDoResumo = produto -> catalogo.preco(produto.getId());
+			if (resumo == null)
+			{
+				resumo = precificacaoParalela.aplicavel(carrinho.getItens())
+						? precificacaoParalela.resumir(carrinho.getItens(), CompraService::resumirEntidades)
+						: resumirEntidades(carrinho.getItens());
+				precosDoResumo = Produto::getPreco;
+			}
+		}
+
+		// Itens inválidos ficam para o cálculo sequencial, que lança as exceções de validação
+		if (resumo == null)
+		{
+			return new Precificacao(calcularCustoTotal(carrinho, cliente.getRegiao(), cliente.getTipo()),
+					Produto::getPreco, null);
+		}
+
+		if (cliente.getRegiao() == null || cliente.getTipo() == null) {
+			throw new IllegalArgumentException("Região ou cliente não identificados.");
 		}
 
-		CompraDTO compraDTO = new CompraDTO(true, pagamento.transacaoId(), "Compra finalizada com sucesso.");
+		BigDecimal descontoPromocional = promocoes.calcularDesconto(carrinho.getItens(), cliente.getTipo(), cupom,
+				momento, precosDoResumo);
 
-		return compraDTO;
+		PlanoDeEnvio plano = armazens.isEmpty() ? null
+				: motorDeFrete.planejar(carrinho.getItens(), armazens, cliente.getRegiao(), cliente.getTipo());
+		BigDecimal freteFinal = plano != null ? plano.freteTotal()
+				: TABELA_FRETE.calcular(resumo.getPesoTributavel(), resumo.getUnidadesFrageis(), cliente.getRegiao(),
+						cliente.getTipo());
+		return new Precificacao(calcularCustoTotalDoResumo(resumo, descontoPromocional, freteFinal), precosDoResumo,
+				plano);
+	}
+
+	/**
+	 * Resume os itens a partir das entidades, ou retorna {@code null} se algum
+	 * deles não passar nas validações de {@link #calcularCustoTotal}.
+	 */
+	static ResumoCarrinho resumirEntidades(List<ItemCompra> itens)
+	{
+		return resumirEntidades(itens, Produto::getPreco);
+	}
+
+	/** Idem, com o preço de cada produto dado por {@code precos}. */
+	static ResumoCarrinho resumirEntidades(List<ItemCompra> itens, Function<Produto, BigDecimal> precos)
+	{
+		ResumoCarrinho resumo = new ResumoCarrinho();
+		for (ItemCompra item : itens)
+		{
+			Produto produto = item.getProduto();
+			BigDecimal preco = produto == null ? null : precos.apply(produto);
+			if (item.getQuantidade() == null || item.getQuantidade() <= 0 || preco == null
+					|| preco.compareTo(BigDecimal.ZERO) < 0)
+			{
+				return null;
+			}
+
+			BigDecimal quantidade = new BigDecimal(item.getQuantidade());
+			resumo.adicionarValor(produto.getTipo(), preco.multiply(quantidade), item.getQuantidade());
+			resumo.adicionarPeso(calcularPesoTributavel(produto.getPesoFisico(), produto.getComprimento(),
+					produto.getLargura(), produto.getAltura()).multiply(quantidade));
+			if (produto.isFragil())
+			{
+				resumo.adicionarFrageis(item.getQuantidade());
+			}
+		}
+		return resumo;
+	}
+
+	boolean carrinhoInalterado(CarrinhoDeCompras carrinho)
+	{
+		try
+		{
+			return carrinhoService.confirmarVersao(carrinho);
+		}
+		catch (OptimisticLockingFailureException e)
+		{
+			return false;
+		}
 	}
 
 	public BigDecimal calcularCustoTotal(CarrinhoDeCompras carrinho, Regiao regiao, TipoCliente tipoCliente)
@@ -125,6 +433,34 @@ public class CompraService
 		return total.setScale(2, RoundingMode.HALF_UP);
 	}
 
+	/**
+	 * Aplica as mesmas regras de {@link #calcularCustoTotal(CarrinhoDeCompras, Regiao, TipoCliente)}
+	 * a um carrinho já resumido, com itens previamente validados.
+	 */
+	public BigDecimal calcularCustoTotalDoResumo(ResumoCarrinho resumo, Regiao regiao, TipoCliente tipoCliente)
+	{
+		if (regiao == null || tipoCliente == null) {
+			throw new IllegalArgumentException("Região ou cliente não identificados.");
+		}
+
+		BigDecimal freteFinal = TABELA_FRETE.calcular(resumo.getPesoTributavel(), resumo.getUnidadesFrageis(), regiao,
+				tipoCliente);
+
+		return calcularCustoTotalDoResumo(resumo, BigDecimal.ZERO, freteFinal);
+	}
+
+	/**
+	 * Descontos sobre o resumo mais um frete final já calculado (por exemplo, de um
+	 * plano de envios). O desconto promocional é abatido do subtotal já com os
+	 * descontos por tipo, sem torná-lo negativo, e antes do desconto por valor.
+	 * As contas são feitas pela {@link AritmeticaMonetaria} configurada
+	 * ({@code ecommerce.precificacao.aritmetica}).
+	 */
+	BigDecimal calcularCustoTotalDoResumo(ResumoCarrinho resumo, BigDecimal descontoPromocional, BigDecimal freteFinal)
+	{
+		return aritmetica.totalizar(resumo, descontoPromocional, freteFinal);
+	}
+
 	private BigDecimal calcularSubtotal(CarrinhoDeCompras carrinho) {
 		BigDecimal subtotal = BigDecimal.ZERO;
 		for (ItemCompra item : carrinho.getItens()) {
@@ -152,16 +488,7 @@ public class CompraService
 
 		for (Map.Entry<TipoProduto, Long> entry : contagemPorTipo.entrySet()) {
 			TipoProduto tipo = entry.getKey();
-			long quantidade = entry.getValue();
-			BigDecimal descontoPercentual = BigDecimal.ZERO;
-
-			if (quantidade >= 8) {
-				descontoPercentual = new BigDecimal("0.15"); // 15%
-			} else if (quantidade >= 5) {
-				descontoPercentual = new BigDecimal("0.10"); // 10%
-			} else if (quantidade >= 3) {
-				descontoPercentual = new BigDecimal("0.05"); // 5%
-			}
+			BigDecimal descontoPercentual = percentualDescontoPorTipo(entry.getValue());
 
 			if (descontoPercentual.compareTo(BigDecimal.ZERO) > 0) {
 				BigDecimal subtotalCategoria = BigDecimal.ZERO;
@@ -177,14 +504,19 @@ public class CompraService
 		return subtotalAtual.subtract(descontoTotalTipo);
 	}
 
-	private BigDecimal aplicarDescontoPorValor(BigDecimal subtotal) {
-		BigDecimal descontoPercentual = BigDecimal.ZERO;
-
-		if (subtotal.compareTo(LIMITE_SUBTOTAL_DESC_20) > 0) { // > 1000
-			descontoPercentual = DESC_20_PORCENTO; // 20%
-		} else if (subtotal.compareTo(LIMITE_SUBTOTAL_DESC_10) > 0) { // > 500
-			descontoPercentual = DESC_10_PORCENTO; // 10%
+	static BigDecimal percentualDescontoPorTipo(long quantidade) {
+		if (quantidade >= 8) {
+			return DESC_15_PORCENTO; // 15%
+		} else if (quantidade >= 5) {
+			return DESC_10_PORCENTO; // 10%
+		} else if (quantidade >= 3) {
+			return DESC_5_PORCENTO; // 5%
 		}
+		return BigDecimal.ZERO;
+	}
+
+	static BigDecimal aplicarDescontoPorValor(BigDecimal subtotal) {
+		BigDecimal descontoPercentual = percentualDescontoPorValor(subtotal);
 
 		if (descontoPercentual.compareTo(BigDecimal.ZERO) > 0) {
 			return subtotal.subtract(subtotal.multiply(descontoPercentual));
@@ -192,10 +524,28 @@ public class CompraService
 		return subtotal;
 	}
 
+	static BigDecimal percentualDescontoPorValor(BigDecimal subtotal) {
+		if (subtotal.compareTo(LIMITE_SUBTOTAL_DESC_20) > 0) { // > 1000
+			return DESC_20_PORCENTO; // 20%
+		} else if (subtotal.compareTo(LIMITE_SUBTOTAL_DESC_10) > 0) { // > 500
+			return DESC_10_PORCENTO; // 10%
+		}
+		return BigDecimal.ZERO;
+	}
+
 	private BigDecimal calcularFreteBase(CarrinhoDeCompras carrinho, Regiao regiao) {
 		BigDecimal pesoTotal = calcularPesoTributavelTotal(carrinho);
+		long unidadesFrageis = 0;
+		for (ItemCompra item : carrinho.getItens()) {
+			if (item.getProduto().isFragil()) {
+				unidadesFrageis += item.getQuantidade();
+			}
+		}
+		return calcularFreteBase(pesoTotal, unidadesFrageis, regiao);
+	}
+
+	private BigDecimal calcularFreteBase(BigDecimal pesoTotal, long unidadesFrageis, Regiao regiao) {
 		BigDecimal frete = BigDecimal.ZERO;
-		BigDecimal multiplicadorRegiao = BigDecimal.ZERO;
 		boolean isento = false;
 
 		// Cálculo por faixa de peso
@@ -213,12 +563,15 @@ public class CompraService
 			frete = frete.add(TAXA_MINIMA_FRETE);
 		}
 
-		for (ItemCompra item : carrinho.getItens()) {
-			if (item.getProduto().isFragil()) {
-				frete = frete.add(TAXA_ITEM_FRAGIL.multiply(new BigDecimal(item.getQuantidade())));
-			}
-		}
+		frete = frete.add(TAXA_ITEM_FRAGIL.multiply(BigDecimal.valueOf(unidadesFrageis)));
+
+		frete = frete.multiply(multiplicadorRegiao(regiao));
 
+		return frete;
+	}
+
+	private static BigDecimal multiplicadorRegiao(Regiao regiao) {
+		BigDecimal multiplicadorRegiao;
 		switch (regiao) {
 			case SUL:
 				multiplicadorRegiao = BigDecimal.valueOf(1.05);
@@ -237,10 +590,12 @@ public class CompraService
 				multiplicadorRegiao = BigDecimal.valueOf(1.00);
 				break; // Boa prática adicionar no default também
 		}
+		return multiplicadorRegiao;
+	}
 
-		frete = frete.multiply(multiplicadorRegiao);
-
-		return frete;
+	/** Frete final pelas regras aplicadas em sequência (referência de {@link #TABELA_FRETE}). */
+	BigDecimal calcularFrete(BigDecimal pesoTributavel, long unidadesFrageis, Regiao regiao, TipoCliente tipoCliente) {
+		return aplicarDescontoClienteNoFrete(calcularFreteBase(pesoTributavel, unidadesFrageis, regiao), tipoCliente);
 	}
 
 	private BigDecimal aplicarDescontoClienteNoFrete(BigDecimal freteBase, TipoCliente tipoCliente) {
@@ -248,7 +603,7 @@ public class CompraService
 			case OURO:
 				return BigDecimal.ZERO; // 100% de desconto
 			case PRATA:
-				return freteBase.multiply(new BigDecimal("0.50")); // 50% de desconto
+				return freteBase.multiply(FATOR_FRETE_PRATA); // 50% de desconto
 			case BRONZE:
 			default:
 				return freteBase; // Não tem desconto
@@ -258,15 +613,21 @@ public class CompraService
 	private BigDecimal calcularPesoTributavelTotal(CarrinhoDeCompras carrinho) {
 		BigDecimal pesoTotal = BigDecimal.ZERO;
 		for (ItemCompra item : carrinho.getItens()) {
-			BigDecimal pesoFisico = item.getProduto().getPesoFisico();
-
-			BigDecimal volume = item.getProduto().getComprimento().multiply(item.getProduto().getLargura()).multiply(item.getProduto().getAltura());
-			BigDecimal pesoCubico = volume.divide(FATOR_PESO_CUBICO, 2, RoundingMode.HALF_UP);
-
-			BigDecimal pesoTributavelItem = pesoFisico.max(pesoCubico);
+			Produto produto = item.getProduto();
+			BigDecimal pesoTributavelItem = calcularPesoTributavel(produto.getPesoFisico(), produto.getComprimento(),
+					produto.getLargura(), produto.getAltura());
 			pesoTotal = pesoTotal.add(pesoTributavelItem.multiply(new BigDecimal(item.getQuantidade())));
 		}
 		return pesoTotal;
 	}
 
+	/** Peso tributável de uma unidade: o maior entre o peso físico e o peso cúbico (volume / 6000). */
+	public static BigDecimal calcularPesoTributavel(BigDecimal pesoFisico, BigDecimal comprimento, BigDecimal largura,
+			BigDecimal altura) {
+		BigDecimal volume = comprimento.multiply(largura).multiply(altura);
+		BigDecimal pesoCubico = volume.divide(FATOR_PESO_CUBICO, 2, RoundingMode.HALF_UP);
+
+		return pesoFisico.max(pesoCubico);
+	}
+
 }
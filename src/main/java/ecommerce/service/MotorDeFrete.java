@@ -0,0 +1,390 @@
+package ecommerce.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import ecommerce.dto.EstoqueArmazemDTO;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.Regiao;
+import ecommerce.entity.TipoCliente;
+
+/**
+ * Escolhe de qual armazém sai cada item do carrinho de modo a minimizar a soma
+ * dos fretes dos envios, cada envio com as próprias faixas de peso, taxa
+ * mínima e taxa de itens frágeis ({@link CompraService#TABELA_FRETE}).
+ *
+ * Cada produto sai inteiro de um único armazém que tenha a quantidade pedida.
+ * Um plano guloso (cada item no armazém que menos aumenta o frete, dos mais
+ * pesados aos mais leves) é melhorado movendo itens isolados entre armazéns;
+ * carrinhos com até {@code maximoItensBuscaExata} produtos passam ainda por
+ * uma busca exata com poda. O frete de um envio nunca diminui ao receber mais
+ * itens, então o custo parcial é um limite inferior válido. Tudo para no
+ * orçamento de tempo, retornando o melhor plano encontrado até ali.
+ */
+@Component
+public class MotorDeFrete
+{
+	private static final int NOS_POR_CONSULTA_AO_RELOGIO = 256;
+
+	private final boolean habilitado;
+	private final long orcamentoNanos;
+	private final int maximoItensBuscaExata;
+
+	@Autowired
+	public MotorDeFrete(@Value("${ecommerce.frete.armazens.habilitado:false}") boolean habilitado,
+			@Value("${ecommerce.frete.armazens.orcamento-micros:2000}") long orcamentoMicros,
+			@Value("${ecommerce.frete.armazens.maximo-itens-busca-exata:12}") int maximoItensBuscaExata)
+	{
+		this.habilitado = habilitado;
+		this.orcamentoNanos = Duration.ofNanos(orcamentoMicros * 1000).toNanos();
+		this.maximoItensBuscaExata = maximoItensBuscaExata;
+	}
+
+	public boolean isHabilitado()
+	{
+		return habilitado;
+	}
+
+	/**
+	 * Planeja os envios, ou retorna {@code null} se não há armazéns informados
+	 * ou algum produto não está disponível por inteiro em nenhum deles.
+	 */
+	public PlanoDeEnvio planejar(List<ItemCompra> itens, List<EstoqueArmazemDTO> armazens, Regiao regiao,
+			TipoCliente tipoCliente)
+	{
+		if (armazens == null || armazens.isEmpty() || itens.isEmpty())
+		{
+			return null;
+		}
+		Busca busca = Busca.criar(itens, armazens, regiao, tipoCliente, System.nanoTime() + orcamentoNanos);
+		if (busca == null)
+		{
+			return null;
+		}
+
+		busca.gulosa();
+		busca.melhorarLocalmente();
+		boolean otimo = busca.produtos() <= maximoItensBuscaExata && busca.exata();
+		return busca.plano(otimo);
+	}
+
+	/** Estado de um planejamento: produtos (linhas somadas por produto), armazéns candidatos e a melhor divisão. */
+	private static final class Busca
+	{
+		private final Long[] produtosIds;
+		private final BigDecimal[] pesos;
+		private final long[] frageis;
+		private final int[][] candidatos;
+		private final Long[] armazensIds;
+		private final Regiao regiao;
+		private final TipoCliente tipoCliente;
+		private final long prazo;
+
+		// Divisão corrente
+		private final int[] armazemDoProduto;
+		private final BigDecimal[] pesoPorArmazem;
+		private final long[] frageisPorArmazem;
+		private final int[] produtosPorArmazem;
+
+		private int[] melhor;
+		private BigDecimal melhorFrete;
+		private long nos;
+		private boolean esgotado;
+
+		private Busca(Long[] produtosIds, BigDecimal[] pesos, long[] frageis, int[][] candidatos, Long[] armazensIds,
+				Regiao regiao, TipoCliente tipoCliente, long prazo)
+		{
+			this.produtosIds = produtosIds;
+			this.pesos = pesos;
+			this.frageis = frageis;
+			this.candidatos = candidatos;
+			this.armazensIds = armazensIds;
+			this.regiao = regiao;
+			this.tipoCliente = tipoCliente;
+			this.prazo = prazo;
+
+			this.armazemDoProduto = new int[produtosIds.length];
+			Arrays.fill(armazemDoProduto, -1);
+			this.pesoPorArmazem = new BigDecimal[armazensIds.length];
+			Arrays.fill(pesoPorArmazem, BigDecimal.ZERO);
+			this.frageisPorArmazem = new long[armazensIds.length];
+			this.produtosPorArmazem = new int[armazensIds.length];
+		}
+
+		static Busca criar(List<ItemCompra> itens, List<EstoqueArmazemDTO> armazens, Regiao regiao,
+				TipoCliente tipoCliente, long prazo)
+		{
+			Map<Long, Long> quantidades = new LinkedHashMap<>();
+			Map<Long, Produto> porId = new HashMap<>();
+			for (ItemCompra item : itens)
+			{
+				Produto produto = item.getProduto();
+				quantidades.merge(produto.getId(), item.getQuantidade(), Long::sum);
+				porId.put(produto.getId(), produto);
+			}
+
+			List<Map<Long, Long>> disponiveis = new ArrayList<>(armazens.size());
+			Long[] armazensIds = new Long[armazens.size()];
+			for (int a = 0; a < armazens.size(); a++)
+			{
+				EstoqueArmazemDTO armazem = armazens.get(a);
+				Map<Long, Long> disponivel = new HashMap<>();
+				for (int i = 0; i < armazem.produtosIds().size(); i++)
+				{
+					disponivel.merge(armazem.produtosIds().get(i), armazem.quantidadesDisponiveis().get(i), Long::sum);
+				}
+				disponiveis.add(disponivel);
+				armazensIds[a] = armazem.armazemId();
+			}
+
+			int n = quantidades.size();
+			Long[] produtosIds = new Long[n];
+			BigDecimal[] pesos = new BigDecimal[n];
+			long[] frageis = new long[n];
+			int[][] candidatos = new int[n][];
+			int p = 0;
+			for (Map.Entry<Long, Long> entrada : quantidades.entrySet())
+			{
+				Produto produto = porId.get(entrada.getKey());
+				long quantidade = entrada.getValue();
+
+				int[] armazensDoProduto = new int[armazens.size()];
+				int encontrados = 0;
+				for (int a = 0; a < armazens.size(); a++)
+				{
+					if (disponiveis.get(a).getOrDefault(produto.getId(), 0L) >= quantidade)
+					{
+						armazensDoProduto[encontrados++] = a;
+					}
+				}
+				if (encontrados == 0)
+				{
+					return null;
+				}
+
+				produtosIds[p] = produto.getId();
+				pesos[p] = CompraService.calcularPesoTributavel(produto.getPesoFisico(), produto.getComprimento(),
+						produto.getLargura(), produto.getAltura()).multiply(BigDecimal.valueOf(quantidade));
+				frageis[p] = produto.isFragil() ? quantidade : 0;
+				candidatos[p] = Arrays.copyOf(armazensDoProduto, encontrados);
+				p++;
+			}
+			return new Busca(produtosIds, pesos, frageis, candidatos, armazensIds, regiao, tipoCliente, prazo);
+		}
+
+		int produtos()
+		{
+			return produtosIds.length;
+		}
+
+		/** Do produto mais pesado ao mais leve, no armazém em que o frete total menos aumenta. */
+		void gulosa()
+		{
+			Integer[] ordem = new Integer[produtos()];
+			for (int p = 0; p < ordem.length; p++)
+			{
+				ordem[p] = p;
+			}
+			Arrays.sort(ordem, Comparator.comparing((Integer p) -> pesos[p]).reversed());
+
+			for (int p : ordem)
+			{
+				int escolhido = -1;
+				BigDecimal menorAumento = null;
+				for (int a : candidatos[p])
+				{
+					BigDecimal aumento = freteCom(a, pesos[p], frageis[p]).subtract(frete(a));
+					// No empate, prefere juntar a um envio que já existe
+					if (menorAumento == null || aumento.compareTo(menorAumento) < 0 || aumento.compareTo(menorAumento) == 0
+							&& produtosPorArmazem[a] > 0 && produtosPorArmazem[escolhido] == 0)
+					{
+						escolhido = a;
+						menorAumento = aumento;
+					}
+				}
+				atribuir(p, escolhido);
+			}
+			guardarMelhor(freteTotal());
+		}
+
+		/** Move um produto por vez para outro armazém enquanto isso baixar o frete total. */
+		void melhorarLocalmente()
+		{
+			boolean melhorou = true;
+			while (melhorou && !prazoEsgotado())
+			{
+				melhorou = false;
+				for (int p = 0; p < produtos(); p++)
+				{
+					int atual = armazemDoProduto[p];
+					for (int a : candidatos[p])
+					{
+						if (a == atual)
+						{
+							continue;
+						}
+						BigDecimal ganho = frete(atual).add(frete(a))
+								.subtract(freteSem(atual, pesos[p], frageis[p]))
+								.subtract(freteCom(a, pesos[p], frageis[p]));
+						if (ganho.signum() > 0)
+						{
+							desatribuir(p);
+							atribuir(p, a);
+							atual = a;
+							melhorou = true;
+						}
+					}
+				}
+			}
+			BigDecimal total = freteTotal();
+			if (total.compareTo(melhorFrete) < 0)
+			{
+				guardarMelhor(total);
+			}
+		}
+
+		/** Busca em profundidade com poda pelo custo parcial; retorna {@code false} se o prazo acabou antes. */
+		boolean exata()
+		{
+			for (int p = 0; p < produtos(); p++)
+			{
+				desatribuir(p);
+			}
+			// Produtos com menos opções primeiro: a árvore estreita no topo
+			Integer[] ordem = new Integer[produtos()];
+			for (int p = 0; p < ordem.length; p++)
+			{
+				ordem[p] = p;
+			}
+			Arrays.sort(ordem, Comparator.comparingInt((Integer p) -> candidatos[p].length)
+					.thenComparing((Integer p) -> pesos[p], Comparator.reverseOrder()));
+
+			buscar(ordem, 0, BigDecimal.ZERO);
+			return !esgotado;
+		}
+
+		private void buscar(Integer[] ordem, int profundidade, BigDecimal parcial)
+		{
+			if (parcial.compareTo(melhorFrete) >= 0 || esgotado || ++nos % NOS_POR_CONSULTA_AO_RELOGIO == 0
+					&& prazoEsgotado())
+			{
+				return;
+			}
+			if (profundidade == ordem.length)
+			{
+				guardarMelhor(parcial);
+				return;
+			}
+
+			int p = ordem[profundidade];
+			for (int a : candidatos[p])
+			{
+				BigDecimal antes = frete(a);
+				atribuir(p, a);
+				buscar(ordem, profundidade + 1, parcial.add(frete(a)).subtract(antes));
+				desatribuir(p);
+			}
+		}
+
+		PlanoDeEnvio plano(boolean otimo)
+		{
+			Map<Integer, List<Long>> produtosPorEnvio = new LinkedHashMap<>();
+			BigDecimal[] peso = new BigDecimal[armazensIds.length];
+			long[] frageisDoEnvio = new long[armazensIds.length];
+			Arrays.fill(peso, BigDecimal.ZERO);
+			for (int p = 0; p < produtos(); p++)
+			{
+				int a = melhor[p];
+				produtosPorEnvio.computeIfAbsent(a, x -> new ArrayList<>()).add(produtosIds[p]);
+				peso[a] = peso[a].add(pesos[p]);
+				frageisDoEnvio[a] += frageis[p];
+			}
+
+			List<PlanoDeEnvio.Envio> envios = new ArrayList<>(produtosPorEnvio.size());
+			for (Map.Entry<Integer, List<Long>> envio : produtosPorEnvio.entrySet())
+			{
+				int a = envio.getKey();
+				envios.add(new PlanoDeEnvio.Envio(armazensIds[a], envio.getValue(), peso[a],
+						CompraService.TABELA_FRETE.calcular(peso[a], frageisDoEnvio[a], regiao, tipoCliente)));
+			}
+			return new PlanoDeEnvio(envios, melhorFrete, otimo);
+		}
+
+		private void atribuir(int p, int a)
+		{
+			armazemDoProduto[p] = a;
+			pesoPorArmazem[a] = pesoPorArmazem[a].add(pesos[p]);
+			frageisPorArmazem[a] += frageis[p];
+			produtosPorArmazem[a]++;
+		}
+
+		private void desatribuir(int p)
+		{
+			int a = armazemDoProduto[p];
+			if (a < 0)
+			{
+				return;
+			}
+			armazemDoProduto[p] = -1;
+			pesoPorArmazem[a] = pesoPorArmazem[a].subtract(pesos[p]);
+			frageisPorArmazem[a] -= frageis[p];
+			produtosPorArmazem[a]--;
+		}
+
+		private BigDecimal frete(int a)
+		{
+			return produtosPorArmazem[a] == 0 ? BigDecimal.ZERO
+					: CompraService.TABELA_FRETE.calcular(pesoPorArmazem[a], frageisPorArmazem[a], regiao, tipoCliente);
+		}
+
+		private BigDecimal freteCom(int a, BigDecimal peso, long frageisDoProduto)
+		{
+			return CompraService.TABELA_FRETE.calcular(pesoPorArmazem[a].add(peso),
+					frageisPorArmazem[a] + frageisDoProduto, regiao, tipoCliente);
+		}
+
+		private BigDecimal freteSem(int a, BigDecimal peso, long frageisDoProduto)
+		{
+			return produtosPorArmazem[a] == 1 ? BigDecimal.ZERO
+					: CompraService.TABELA_FRETE.calcular(pesoPorArmazem[a].subtract(peso),
+							frageisPorArmazem[a] - frageisDoProduto, regiao, tipoCliente);
+		}
+
+		private BigDecimal freteTotal()
+		{
+			BigDecimal total = BigDecimal.ZERO;
+			for (int a = 0; a < armazensIds.length; a++)
+			{
+				total = total.add(frete(a));
+			}
+			return total;
+		}
+
+		private void guardarMelhor(BigDecimal frete)
+		{
+			melhor = armazemDoProduto.clone();
+			melhorFrete = frete;
+		}
+
+		private boolean prazoEsgotado()
+		{
+			if (!esgotado && System.nanoTime() - prazo > 0)
+			{
+				esgotado = true;
+			}
+			return esgotado;
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package ecommerce.service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.ItemPedido;
+import ecommerce.entity.Pedido;
+import ecommerce.eventos.EventosDePedidoService;
+import ecommerce.eventos.PedidoConcluido;
+import ecommerce.repository.PedidoRepository;
+
+@Service
+public class PedidoService
+{
+	private static final Logger log = LoggerFactory.getLogger(PedidoService.class);
+
+	private final PedidoRepository repository;
+	private final EventosDePedidoService eventosService;
+
+	@Autowired
+	public PedidoService(PedidoRepository repository, EventosDePedidoService eventosService)
+	{
+		this.repository = repository;
+		this.eventosService = eventosService;
+	}
+
+	/**
+	 * Grava o pedido da compra finalizada e, depois de confirmado no banco,
+	 * publica o evento de pedido concluído. Pedido e linhas são inseridos em uma
+	 * transação; com ids de sequência pré-alocados, as linhas vão em lote
+	 * ({@code hibernate.jdbc.batch_size}).
+	 *
+	 * Cada linha guarda o preço unitário usado na precificação, não o preço
+	 * atual do produto, e o armazém de onde sai, se a compra seguiu um plano de
+	 * envios. Uma exceção significa que o pedido não foi gravado: uma
+	 * falha ao publicar o evento de um pedido já gravado só é registrada no log.
+	 */
+	public Pedido registrar(CarrinhoDeCompras carrinho, Cliente cliente, Precificacao precificacao, Long transacaoId)
+	{
+		Pedido pedido = new Pedido(cliente, carrinho.getId(), transacaoId, precificacao.custoTotal(), Instant.now());
+		PlanoDeEnvio plano = precificacao.plano();
+		for (ItemCompra item : carrinho.getItens())
+		{
+			pedido.adicionarItem(new ItemPedido(item.getProduto(), item.getQuantidade(),
+					precificacao.precos().apply(item.getProduto()),
+					plano == null ? null : plano.armazemDe(item.getProduto().getId())));
+		}
+		pedido = repository.save(pedido);
+
+		List<PedidoConcluido.Item> itens = pedido.getItens().stream()
+				.map(i -> new PedidoConcluido.Item(i.getProduto().getId(), i.getQuantidade(), i.getPrecoUnitario(),
+						i.getArmazemId()))
+				.collect(Collectors.toList());
+		try
+		{
+			eventosService.publicar(new PedidoConcluido(pedido.getId(), carrinho.getId(), cliente.getId(),
+					transacaoId, precificacao.custoTotal(), itens, pedido.getConcluidoEm()));
+		}
+		catch (RuntimeException e)
+		{
+			log.error("Evento do pedido {} (transação {}) não foi publicado", pedido.getId(), transacaoId, e);
+		}
+
+		return pedido;
+	}
+}
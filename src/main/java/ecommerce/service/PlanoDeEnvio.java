@@ -0,0 +1,43 @@
+package ecommerce.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Divisão dos itens de um carrinho em envios, um por armazém.
+ *
+ * @param otimo {@code true} se a busca exata terminou dentro do orçamento de
+ *              tempo; {@code false} se o plano é o da heurística (ou o melhor
+ *              encontrado até o prazo)
+ */
+public record PlanoDeEnvio(List<Envio> envios, BigDecimal freteTotal, boolean otimo)
+{
+	/** Armazém de onde sai o produto, ou {@code null} se ele não está no plano. */
+	public Long armazemDe(Long produtoId)
+	{
+		for (Envio envio : envios)
+		{
+			if (envio.produtosIds().contains(produtoId))
+			{
+				return envio.armazemId();
+			}
+		}
+		return null;
+	}
+
+	/** Armazém de cada produto, na ordem dada. */
+	public List<Long> armazensDe(List<Long> produtosIds)
+	{
+		List<Long> armazens = new ArrayList<>(produtosIds.size());
+		for (Long produtoId : produtosIds)
+		{
+			armazens.add(armazemDe(produtoId));
+		}
+		return armazens;
+	}
+
+	public record Envio(Long armazemId, List<Long> produtosIds, BigDecimal pesoTributavel, BigDecimal frete)
+	{
+	}
+}
@@ -0,0 +1,21 @@
+package ecommerce.service;
+
+import java.math.BigDecimal;
+import java.util.function.Function;
+
+import ecommerce.entity.Produto;
+
+/**
+ * Resultado da precificação de um carrinho.
+ *
+ * @param custoTotal valor cobrado do cliente
+ * @param precos     preço unitário de cada produto usado no cálculo (do
+ *                   catálogo, do histórico ou da entidade), que é o gravado
+ *                   nas linhas do pedido
+ * @param plano      envios por armazém cujo frete foi cobrado, ou {@code null}
+ *                   para o frete de um único envio; a baixa e o pedido seguem
+ *                   o mesmo plano
+ */
+public record Precificacao(BigDecimal custoTotal, Function<Produto, BigDecimal> precos, PlanoDeEnvio plano)
+{
+}
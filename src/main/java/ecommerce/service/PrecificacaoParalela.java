@@ -0,0 +1,94 @@
+package ecommerce.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import ecommerce.entity.ItemCompra;
+
+/**
+ * Resume carrinhos muito grandes em paralelo: a lista de itens é dividida em
+ * blocos, cada bloco vira um {@link ResumoCarrinho} parcial no pool comum de
+ * fork/join e os parciais são somados com {@link ResumoCarrinho#combinar}.
+ * Como os agregados são somas exatas de BigDecimal e long, o resultado é
+ * idêntico (inclusive na escala) ao do resumo sequencial, e as regras de preço
+ * continuam sendo aplicadas uma única vez sobre o total.
+ */
+@Component
+public class PrecificacaoParalela
+{
+	private final int limiarItens;
+	private final int tamanhoBloco;
+
+	/**
+	 * @param limiarItens  quantidade de itens a partir da qual o carrinho é
+	 *                     resumido em paralelo; zero desativa
+	 * @param tamanhoBloco quantidade máxima de itens resumidos por tarefa
+	 */
+	@Autowired
+	public PrecificacaoParalela(@Value("${ecommerce.precificacao.paralela.limiar-itens:5000}") int limiarItens,
+			@Value("${ecommerce.precificacao.paralela.tamanho-bloco:1024}") int tamanhoBloco)
+	{
+		if (tamanhoBloco <= 0)
+		{
+			throw new IllegalArgumentException("Tamanho do bloco deve ser maior que zero.");
+		}
+		this.limiarItens = limiarItens;
+		this.tamanhoBloco = tamanhoBloco;
+	}
+
+	public boolean aplicavel(List<ItemCompra> itens)
+	{
+		return limiarItens > 0 && itens.size() >= limiarItens;
+	}
+
+	/**
+	 * Aplica {@code resumidor} a cada bloco e combina os resultados; retorna
+	 * {@code null} se o resumidor retornar {@code null} para algum bloco.
+	 */
+	public ResumoCarrinho resumir(List<ItemCompra> itens, Function<List<ItemCompra>, ResumoCarrinho> resumidor)
+	{
+		// Cópia com acesso aleatório: a coleção do Hibernate não é feita para leitura concorrente
+		List<ItemCompra> copia = new ArrayList<>(itens);
+		return ForkJoinPool.commonPool().invoke(new Bloco(copia, 0, copia.size(), resumidor));
+	}
+
+	private final class Bloco extends RecursiveTask<ResumoCarrinho>
+	{
+		private final List<ItemCompra> itens;
+		private final int inicio;
+		private final int fim;
+		private final Function<List<ItemCompra>, ResumoCarrinho> resumidor;
+
+		Bloco(List<ItemCompra> itens, int inicio, int fim, Function<List<ItemCompra>, ResumoCarrinho> resumidor)
+		{
+			this.itens = itens;
+			this.inicio = inicio;
+			this.fim = fim;
+			this.resumidor = resumidor;
+		}
+
+		@Override
+		protected ResumoCarrinho compute()
+		{
+			if (fim - inicio <= tamanhoBloco)
+			{
+				return resumidor.apply(itens.subList(inicio, fim));
+			}
+
+			int meio = (inicio + fim) >>> 1;
+			Bloco esquerda = new Bloco(itens, inicio, meio, resumidor);
+			esquerda.fork();
+			ResumoCarrinho direita = new Bloco(itens, meio, fim, resumidor).compute();
+			ResumoCarrinho resumo = esquerda.join();
+
+			return resumo == null || direita == null ? null : resumo.combinar(direita);
+		}
+	}
+}
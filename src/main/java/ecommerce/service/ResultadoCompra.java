@@ -0,0 +1,64 @@
+package ecommerce.service;
+
+import java.util.List;
+
+import ecommerce.dto.CompraDTO;
+
+/**
+ * Desfecho de uma finalização de compra. As recusas esperadas do negócio
+ * (estoque, pagamento, carrinho alterado, baixa) são valores, não exceções:
+ * numa promoção a maior parte das requisições termina nelas, e montar a pilha
+ * de uma exceção em cada uma custa mais que o próprio fluxo. Exceções ficam
+ * para argumentos inválidos e falhas inesperadas.
+ */
+public sealed interface ResultadoCompra
+{
+	String mensagem();
+
+	record Sucesso(CompraDTO compra) implements ResultadoCompra
+	{
+		@Override
+		public String mensagem()
+		{
+			return compra.mensagem();
+		}
+	}
+
+	record ForaDeEstoque(List<Long> idsProdutosIndisponiveis) implements ResultadoCompra
+	{
+		@Override
+		public String mensagem()
+		{
+			return CompraService.MSG_FORA_DE_ESTOQUE;
+		}
+	}
+
+	record PagamentoNegado() implements ResultadoCompra
+	{
+		@Override
+		public String mensagem()
+		{
+			return CompraService.MSG_PAGAMENTO_NAO_AUTORIZADO;
+		}
+	}
+
+	/** O carrinho mudou entre a precificação e a confirmação; o pagamento foi cancelado. */
+	record CarrinhoAlterado() implements ResultadoCompra
+	{
+		@Override
+		public String mensagem()
+		{
+			return CompraService.MSG_CARRINHO_ALTERADO;
+		}
+	}
+
+	/** O estoque recusou a baixa; o pagamento foi cancelado. */
+	record FalhaNaBaixa() implements ResultadoCompra
+	{
+		@Override
+		public String mensagem()
+		{
+			return CompraService.MSG_ERRO_BAIXA;
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package ecommerce.service;
+
+import java.math.BigDecimal;
+
+import ecommerce.entity.TipoProduto;
+
+/**
+ * Agregados de um carrinho necessários para aplicar as regras de preço:
+ * valor e quantidade por tipo de produto, peso tributável total e unidades
+ * frágeis. As regras de desconto e frete dependem apenas destes valores, então
+ * um carrinho pode ser resumido por qualquer caminho (entidades, catálogo em
+ * memória, em paralelo) e precificado uma única vez.
+ */
+public final class ResumoCarrinho
+{
+	private static final int TIPOS = TipoProduto.values().length;
+
+	private final BigDecimal[] valorPorTipo = new BigDecimal[TIPOS];
+	private final long[] quantidadePorTipo = new long[TIPOS];
+	private BigDecimal pesoTributavel = BigDecimal.ZERO;
+	private long unidadesFrageis;
+
+	public ResumoCarrinho()
+	{
+		for (int i = 0; i < TIPOS; i++)
+		{
+			valorPorTipo[i] = BigDecimal.ZERO;
+		}
+	}
+
+	public void adicionarValor(TipoProduto tipo, BigDecimal valor, long quantidade)
+	{
+		valorPorTipo[tipo.ordinal()] = valorPorTipo[tipo.ordinal()].add(valor);
+		quantidadePorTipo[tipo.ordinal()] += quantidade;
+	}
+
+	public void adicionarPeso(BigDecimal peso)
+	{
+		pesoTributavel = pesoTributavel.add(peso);
+	}
+
+	public void adicionarFrageis(long unidades)
+	{
+		unidadesFrageis += unidades;
+	}
+
+	/** Soma os agregados de outro resumo a este (operação associativa). */
+	public ResumoCarrinho combinar(ResumoCarrinho outro)
+	{
+		for (int i = 0; i < TIPOS; i++)
+		{
+			valorPorTipo[i] = valorPorTipo[i].add(outro.valorPorTipo[i]);
+			quantidadePorTipo[i] += outro.quantidadePorTipo[i];
+		}
+		pesoTributavel = pesoTributavel.add(outro.pesoTributavel);
+		unidadesFrageis += outro.unidadesFrageis;
+		return this;
+	}
+
+	public BigDecimal getSubtotal()
+	{
+		BigDecimal subtotal = BigDecimal.ZERO;
+		for (BigDecimal valor : valorPorTipo)
+		{
+			subtotal = subtotal.add(valor);
+		}
+		return subtotal;
+	}
+
+	public BigDecimal getValor(TipoProduto tipo)
+	{
+		return valorPorTipo[tipo.ordinal()];
+	}
+
+	public long getQuantidade(TipoProduto tipo)
+	{
+		return quantidadePorTipo[tipo.ordinal()];
+	}
+
+	public BigDecimal getPesoTributavel()
+	{
+		return pesoTributavel;
+	}
+
+	public long getUnidadesFrageis()
+	{
+		return unidadesFrageis;
+	}
+}
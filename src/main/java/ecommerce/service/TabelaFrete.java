@@ -0,0 +1,95 @@
+package ecommerce.service;
+
+import java.math.BigDecimal;
+import java.util.function.Function;
+
+import ecommerce.entity.Regiao;
+import ecommerce.entity.TipoCliente;
+
+/**
+ * Regras de frete pré-calculadas por (região, nível do cliente, faixa de peso):
+ * cada célula guarda o valor por kg e a parte fixa (taxa mínima) já
+ * multiplicados pelo fator da região e pelo benefício do nível, e cada par
+ * (região, nível) a taxa por unidade frágil. O frete vira a escolha da faixa,
+ * leituras de array e as multiplicações pelo peso e pelas unidades frágeis.
+ *
+ * As multiplicações de BigDecimal são exatas, então o resultado tem o mesmo
+ * valor que aplicar faixa, taxas, região e nível em sequência.
+ */
+final class TabelaFrete
+{
+	private static final Regiao[] REGIOES = Regiao.values();
+	private static final TipoCliente[] TIPOS = TipoCliente.values();
+
+	private final BigDecimal[] limitesFaixas;
+	private final int faixas;
+
+	private final BigDecimal[] porKg;
+	private final BigDecimal[] fixo;
+	private final BigDecimal[] porFragil;
+
+	/**
+	 * @param limitesFaixas  limite superior (inclusivo) de cada faixa, menos a última
+	 * @param porKgPorFaixa  valor por kg de cada faixa; {@code null} para faixa isenta
+	 * @param fixoPorFaixa   parte fixa de cada faixa
+	 * @param taxaFragil     taxa por unidade frágil
+	 * @param multiplicador  fator de cada região
+	 * @param fatorCliente   fator do benefício de cada nível de cliente
+	 */
+	TabelaFrete(BigDecimal[] limitesFaixas, BigDecimal[] porKgPorFaixa, BigDecimal[] fixoPorFaixa,
+			BigDecimal taxaFragil, Function<Regiao, BigDecimal> multiplicador,
+			Function<TipoCliente, BigDecimal> fatorCliente)
+	{
+		this.limitesFaixas = limitesFaixas.clone();
+		this.faixas = limitesFaixas.length + 1;
+		if (porKgPorFaixa.length != faixas || fixoPorFaixa.length != faixas)
+		{
+			throw new IllegalArgumentException("Uma taxa por kg e uma parte fixa por faixa.");
+		}
+
+		this.porKg = new BigDecimal[REGIOES.length * TIPOS.length * faixas];
+		this.fixo = new BigDecimal[porKg.length];
+		this.porFragil = new BigDecimal[REGIOES.length * TIPOS.length];
+
+		for (Regiao regiao : REGIOES)
+		{
+			for (TipoCliente tipo : TIPOS)
+			{
+				int celula = celula(regiao, tipo);
+				BigDecimal fator = multiplicador.apply(regiao).multiply(fatorCliente.apply(tipo));
+				porFragil[celula] = taxaFragil.multiply(fator);
+				for (int faixa = 0; faixa < faixas; faixa++)
+				{
+					porKg[celula * faixas + faixa] = porKgPorFaixa[faixa] == null ? null
+							: porKgPorFaixa[faixa].multiply(fator);
+					fixo[celula * faixas + faixa] = fixoPorFaixa[faixa].multiply(fator);
+				}
+			}
+		}
+	}
+
+	/** Frete final (já com região e benefício do nível) para o peso tributável e as unidades frágeis. */
+	BigDecimal calcular(BigDecimal pesoTributavel, long unidadesFrageis, Regiao regiao, TipoCliente tipoCliente)
+	{
+		int celula = celula(regiao, tipoCliente);
+		int indice = celula * faixas + faixa(pesoTributavel);
+
+		BigDecimal frete = fixo[indice].add(porFragil[celula].multiply(BigDecimal.valueOf(unidadesFrageis)));
+		return porKg[indice] == null ? frete : frete.add(pesoTributavel.multiply(porKg[indice]));
+	}
+
+	int faixa(BigDecimal pesoTributavel)
+	{
+		int faixa = 0;
+		while (faixa < limitesFaixas.length && pesoTributavel.compareTo(limitesFaixas[faixa]) > 0)
+		{
+			faixa++;
+		}
+		return faixa;
+	}
+
+	private static int celula(Regiao regiao, TipoCliente tipoCliente)
+	{
+		return regiao.ordinal() * TIPOS.length + tipoCliente.ordinal();
+	}
+}
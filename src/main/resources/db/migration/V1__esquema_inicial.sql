@@ -0,0 +1,68 @@
+-- Esquema completo no momento em que as migrações versionadas foram adotadas:
+-- as tabelas antes geradas pelo Hibernate e o que veio junto nesta série
+-- (colunas versao, produto.atualizado_em com seu índice, pedido e item_pedido
+-- com suas sequências). Mudanças posteriores entram em novas versões.
+
+CREATE TABLE cliente (
+	id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+	nome VARCHAR(255),
+	regiao SMALLINT,
+	tipo VARCHAR(255)
+);
+
+CREATE TABLE produto (
+	id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+	nome VARCHAR(255),
+	descricao VARCHAR(255),
+	preco NUMERIC(38, 2),
+	peso_fisico NUMERIC(38, 2),
+	comprimento NUMERIC(38, 2),
+	largura NUMERIC(38, 2),
+	altura NUMERIC(38, 2),
+	fragil BOOLEAN,
+	tipo VARCHAR(255),
+	atualizado_em TIMESTAMP(6) WITH TIME ZONE
+);
+
+CREATE INDEX idx_produto_atualizado_em ON produto (atualizado_em);
+
+CREATE TABLE carrinho_de_compras (
+	id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+	cliente_id BIGINT,
+	data DATE,
+	versao BIGINT,
+	CONSTRAINT fk_carrinho_cliente FOREIGN KEY (cliente_id) REFERENCES cliente (id)
+);
+
+CREATE TABLE item_compra (
+	id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+	carrinho_id BIGINT,
+	produto_id BIGINT,
+	quantidade BIGINT,
+	versao BIGINT,
+	CONSTRAINT fk_item_compra_carrinho FOREIGN KEY (carrinho_id) REFERENCES carrinho_de_compras (id),
+	CONSTRAINT fk_item_compra_produto FOREIGN KEY (produto_id) REFERENCES produto (id)
+);
+
+CREATE SEQUENCE pedido_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE item_pedido_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE pedido (
+	id BIGINT PRIMARY KEY,
+	cliente_id BIGINT,
+	carrinho_id BIGINT,
+	transacao_pagamento_id BIGINT,
+	total NUMERIC(38, 2),
+	concluido_em TIMESTAMP(6) WITH TIME ZONE,
+	CONSTRAINT fk_pedido_cliente FOREIGN KEY (cliente_id) REFERENCES cliente (id)
+);
+
+CREATE TABLE item_pedido (
+	id BIGINT PRIMARY KEY,
+	pedido_id BIGINT,
+	produto_id BIGINT,
+	quantidade BIGINT,
+	preco_unitario NUMERIC(38, 2),
+	CONSTRAINT fk_item_pedido_pedido FOREIGN KEY (pedido_id) REFERENCES pedido (id),
+	CONSTRAINT fk_item_pedido_produto FOREIGN KEY (produto_id) REFERENCES produto (id)
+);
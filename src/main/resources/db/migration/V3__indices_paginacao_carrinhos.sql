@@ -0,0 +1,3 @@
+-- Paginação por chave (data, id) dos carrinhos de um cliente e dos carrinhos de um período
+CREATE INDEX idx_carrinho_cliente_data_id ON carrinho_de_compras (cliente_id, data, id);
+CREATE INDEX idx_carrinho_data_id ON carrinho_de_compras (data, id);
@@ -0,0 +1,14 @@
+-- Índices explícitos dos caminhos de consulta da finalização da compra. Bancos como o
+-- PostgreSQL não indexam as chaves estrangeiras de V1; no H2, que já cria um índice
+-- implícito para cada uma, o otimizador pode usar qualquer um dos dois.
+
+-- Carga do carrinho: itens por carrinho, produto de cada item
+CREATE INDEX idx_item_compra_carrinho ON item_compra (carrinho_id);
+CREATE INDEX idx_item_compra_produto ON item_compra (produto_id);
+
+-- Carrinho por cliente: coberto pelo prefixo de idx_carrinho_cliente_data_id (V3)
+
+-- Gravação e consulta de pedidos
+CREATE INDEX idx_pedido_cliente ON pedido (cliente_id);
+CREATE INDEX idx_item_pedido_pedido ON item_pedido (pedido_id);
+CREATE INDEX idx_item_pedido_produto ON item_pedido (produto_id);
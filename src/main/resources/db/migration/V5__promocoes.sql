@@ -0,0 +1,19 @@
+-- Promoções e cupons: por produto, por tipo de produto ou gerais, opcionalmente restritas a um nível de cliente
+CREATE SEQUENCE promocao_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE promocao (
+	id BIGINT PRIMARY KEY,
+	nome VARCHAR(255),
+	cupom VARCHAR(64),
+	produto_id BIGINT,
+	tipo_produto VARCHAR(255),
+	tipo_cliente VARCHAR(255),
+	percentual NUMERIC(5, 4) NOT NULL,
+	quantidade_minima BIGINT NOT NULL DEFAULT 1,
+	inicio TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+	fim TIMESTAMP(6) WITH TIME ZONE,
+	CONSTRAINT fk_promocao_produto FOREIGN KEY (produto_id) REFERENCES produto (id)
+);
+
+-- Carga do índice em memória: promoções ainda não encerradas
+CREATE INDEX idx_promocao_fim ON promocao (fim);
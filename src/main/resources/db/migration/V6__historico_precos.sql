@@ -0,0 +1,12 @@
+-- Preços versionados por vigência: cada linha vale de vigente_desde até a próxima do mesmo produto.
+-- Antes da primeira (ou sem nenhuma), vale produto.preco.
+CREATE SEQUENCE preco_produto_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE preco_produto (
+	id BIGINT PRIMARY KEY,
+	produto_id BIGINT NOT NULL,
+	preco NUMERIC(38, 2) NOT NULL,
+	vigente_desde TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+	CONSTRAINT fk_preco_produto_produto FOREIGN KEY (produto_id) REFERENCES produto (id),
+	CONSTRAINT uk_preco_produto_vigencia UNIQUE (produto_id, vigente_desde)
+);
@@ -0,0 +1,2 @@
+-- Armazém de onde sai cada linha do pedido, quando a compra seguiu um plano de envios por armazém
+ALTER TABLE item_pedido ADD COLUMN armazem_id BIGINT;
@@ -0,0 +1,4 @@
+-- A paginação por chave (data, id) não alcança carrinhos sem data: "c.data >= :data" nunca
+-- é verdadeiro para NULL. Carrinhos antigos sem data ficam com a data da migração.
+UPDATE carrinho_de_compras SET data = CURRENT_DATE WHERE data IS NULL;
+ALTER TABLE carrinho_de_compras ALTER COLUMN data SET NOT NULL;
@@ -0,0 +1,160 @@
+package ecommerce.admissao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * {@link FiltroDeAdmissao} diante de um controller de teste, com relógio
+ * parado no balde (uma ficha por segundo, sem rajada), uma única vaga de
+ * concorrência e os conversores JSON, CBOR e Smile do Spring MVC.
+ */
+public class FiltroDeAdmissaoTest {
+	private final AtomicLong relogio = new AtomicLong(1_000_000_000_000L);
+	private final LimiteDeTaxaPorCliente limiteCliente = new LimiteDeTaxaPorCliente(1, 1, relogio::get);
+	private final LimiteDeConcorrencia limiteConcorrencia = new LimiteDeConcorrencia(1, 1, 1, 1000);
+	private final FinalizacaoDeTeste controller = new FinalizacaoDeTeste();
+
+	private MockMvc mvc;
+
+	@BeforeEach
+	public void setup() {
+		mvc = MockMvcBuilders.standaloneSetup(controller)
+				.addFilters(new FiltroDeAdmissao(limiteCliente, limiteConcorrencia,
+						List.of(new MappingJackson2HttpMessageConverter(), new MappingJackson2CborHttpMessageConverter(),
+								new MappingJackson2SmileHttpMessageConverter())))
+				.build();
+	}
+
+	@Test
+	@DisplayName("Cliente sem ficha recebe 429 com Retry-After e a mensagem, e a vaga é devolvida")
+	public void semFicha() throws Exception {
+		mvc.perform(post("/finalizar").param("clienteId", "1")).andExpect(status().isOk());
+
+		mvc.perform(post("/finalizar").param("clienteId", "1"))
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().string("Retry-After", "1"))
+				.andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+				.andExpect(jsonPath("$.status").value(429))
+				.andExpect(jsonPath("$.detail").value(FiltroDeAdmissao.MSG_LIMITE_CLIENTE));
+
+		assertThat(limiteConcorrencia.getEmVoo()).isZero();
+		assertThat(controller.chamadas).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("Sem vaga, a requisição recebe 429 sem gastar a ficha do cliente")
+	public void semVagaNaoGastaFicha() throws Exception {
+		MvcResult emAndamento = mvc.perform(post("/reativo/finalizar").param("clienteId", "1"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		mvc.perform(post("/finalizar").param("clienteId", "2"))
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().string("Retry-After", "1"))
+				.andExpect(jsonPath("$.detail").value(FiltroDeAdmissao.MSG_SOBRECARGA));
+
+		controller.pendente.complete("ok");
+		mvc.perform(asyncDispatch(emAndamento)).andExpect(status().isOk());
+
+		// Com o relógio parado, o cliente 2 só é aceito se a recusa anterior não consumiu sua única ficha
+		mvc.perform(post("/finalizar").param("clienteId", "2")).andExpect(status().isOk());
+	}
+
+	@Test
+	@DisplayName("Resposta assíncrona ocupa a vaga até terminar, não até a thread do servlet voltar")
+	public void vagaAssincrona() throws Exception {
+		MvcResult emAndamento = mvc.perform(post("/reativo/finalizar").param("clienteId", "1"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		assertThat(limiteConcorrencia.getEmVoo()).isEqualTo(1);
+
+		controller.pendente.complete("ok");
+		mvc.perform(asyncDispatch(emAndamento)).andExpect(status().isOk());
+
+		assertThat(limiteConcorrencia.getEmVoo()).isZero();
+	}
+
+	@Test
+	@DisplayName("Recusa em CBOR ou Smile quando o cliente pede o formato binário")
+	public void recusaNoFormatoBinario() throws Exception {
+		mvc.perform(post("/finalizar").param("clienteId", "1")).andExpect(status().isOk());
+
+		MockHttpServletResponse cbor = recusa("application/cbor");
+		assertThat(cbor.getContentType()).isEqualTo("application/cbor");
+		assertThat(detalhe(cbor, new ObjectMapper(new CBORFactory()))).isEqualTo(FiltroDeAdmissao.MSG_LIMITE_CLIENTE);
+
+		MockHttpServletResponse smile = recusa("application/x-jackson-smile");
+		assertThat(smile.getContentType()).isEqualTo("application/x-jackson-smile");
+		assertThat(detalhe(smile, new ObjectMapper(new SmileFactory()))).isEqualTo(FiltroDeAdmissao.MSG_LIMITE_CLIENTE);
+	}
+
+	@Test
+	@DisplayName("Recusa em JSON com Accept genérico, com um formato que nenhum conversor escreve ou com JSON preferido")
+	public void recusaEmJsonPorPadrao() throws Exception {
+		mvc.perform(post("/finalizar").param("clienteId", "1")).andExpect(status().isOk());
+
+		for (String accept : List.of("*/*", "text/html", "application/cbor;q=0.5, application/json")) {
+			MockHttpServletResponse resposta = recusa(accept);
+			assertThat(resposta.getContentType()).as(accept).endsWith("json");
+			assertThat(detalhe(resposta, new ObjectMapper())).isEqualTo(FiltroDeAdmissao.MSG_LIMITE_CLIENTE);
+		}
+	}
+
+	private MockHttpServletResponse recusa(String accept) throws Exception {
+		return mvc.perform(post("/finalizar").param("clienteId", "1").header("Accept", accept))
+				.andExpect(status().isTooManyRequests())
+				.andReturn()
+				.getResponse();
+	}
+
+	private static String detalhe(MockHttpServletResponse resposta, ObjectMapper leitor) throws Exception {
+		return leitor.readTree(resposta.getContentAsByteArray()).get("detail").asText();
+	}
+
+	@RestController
+	static class FinalizacaoDeTeste {
+		final CompletableFuture<String> pendente = new CompletableFuture<>();
+		int chamadas;
+
+		@PostMapping("/finalizar")
+		public String finalizar() {
+			chamadas++;
+			return "ok";
+		}
+
+		@PostMapping("/reativo/finalizar")
+		public CompletableFuture<String> finalizarReativo() {
+			chamadas++;
+			return pendente;
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package ecommerce.admissao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class LimitesDeAdmissaoTest {
+	private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	@DisplayName("Balde aceita a rajada, rejeita o excesso e volta a aceitar no ritmo da taxa")
+	public void baldePorCliente() {
+		AtomicLong relogio = new AtomicLong(1_000_000 * MS);
+		LimiteDeTaxaPorCliente limite = new LimiteDeTaxaPorCliente(10, 3, relogio::get);
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(limite.tentarConsumir(1L)).isZero();
+		}
+		assertThat(limite.tentarConsumir(1L)).isEqualTo(100 * MS);
+		assertThat(limite.tentarConsumir(2L)).as("outro cliente tem o próprio balde").isZero();
+
+		relogio.addAndGet(100 * MS);
+		assertThat(limite.tentarConsumir(1L)).isZero();
+		assertThat(limite.tentarConsumir(1L)).isPositive();
+	}
+
+	@Test
+	@DisplayName("Clientes com balde cheio são descartados pela limpeza")
+	public void limpezaDeOciosos() {
+		AtomicLong relogio = new AtomicLong(1_000_000 * MS);
+		LimiteDeTaxaPorCliente limite = new LimiteDeTaxaPorCliente(10, 3, relogio::get);
+		limite.tentarConsumir(1L);
+		limite.tentarConsumir(2L);
+
+		relogio.addAndGet(50 * MS);
+		limite.removerOciosos();
+		assertThat(limite.getClientes()).isEqualTo(2);
+
+		relogio.addAndGet(50 * MS);
+		limite.removerOciosos();
+		assertThat(limite.getClientes()).isZero();
+	}
+
+	@Test
+	@DisplayName("Concorrência rejeita acima do limite e libera vagas")
+	public void vagas() {
+		LimiteDeConcorrencia limite = new LimiteDeConcorrencia(2, 1, 10, 1000);
+
+		assertThat(limite.tentarAdquirir()).isTrue();
+		assertThat(limite.tentarAdquirir()).isTrue();
+		assertThat(limite.tentarAdquirir()).isFalse();
+
+		limite.liberar(10 * MS);
+		assertThat(limite.getEmVoo()).isEqualTo(1);
+		assertThat(limite.tentarAdquirir()).isTrue();
+	}
+
+	@Test
+	@DisplayName("Vaga devolvida libera a concorrência sem mexer no limite")
+	public void vagaDevolvida() {
+		LimiteDeConcorrencia limite = new LimiteDeConcorrencia(2, 1, 10, 1000);
+
+		for (int i = 0; i < 100; i++) {
+			assertThat(limite.tentarAdquirir()).isTrue();
+			assertThat(limite.tentarAdquirir()).isTrue();
+			limite.devolver();
+			limite.devolver();
+		}
+		assertThat(limite.getEmVoo()).isZero();
+		assertThat(limite.getLimite()).isEqualTo(2);
+	}
+
+	@Test
+	@DisplayName("Limite cresce com latência estável e encolhe quando a latência sobe")
+	public void limiteAdaptativo() {
+		LimiteDeConcorrencia limite = new LimiteDeConcorrencia(10, 2, 100, 1000);
+
+		for (int i = 0; i < 50; i++) {
+			saturarELiberar(limite, 10 * MS);
+		}
+		int aposLatenciaEstavel = limite.getLimite();
+		assertThat(aposLatenciaEstavel).isGreaterThan(10);
+
+		for (int i = 0; i < 50; i++) {
+			saturarELiberar(limite, 100 * MS);
+		}
+		assertThat(limite.getLimite()).isLessThan(aposLatenciaEstavel);
+		assertThat(limite.getLimite()).isGreaterThanOrEqualTo(2);
+	}
+
+	private static void saturarELiberar(LimiteDeConcorrencia limite, long latencia) {
+		int adquiridas = 0;
+		while (limite.tentarAdquirir()) {
+			adquiridas++;
+		}
+		for (int i = 0; i < adquiridas; i++) {
+			limite.liberar(latencia);
+		}
+	}
+}
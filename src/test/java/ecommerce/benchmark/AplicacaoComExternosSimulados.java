@@ -0,0 +1,21 @@
+package ecommerce.benchmark;
+
+import org.springframework.boot.SpringApplication;
+
+import ecommerce.CompraApplication;
+
+/**
+ * A aplicação com {@link ExternosSimulados}, iniciada numa JVM separada pelo
+ * {@link InicioRapidoBenchmark} (exige {@code --spring.main.allow-bean-definition-overriding=true}).
+ */
+public final class AplicacaoComExternosSimulados
+{
+	private AplicacaoComExternosSimulados()
+	{
+	}
+
+	public static void main(String[] args)
+	{
+		SpringApplication.run(new Class<?>[] { CompraApplication.class, ExternosSimulados.class }, args);
+	}
+}
@@ -0,0 +1,122 @@
+package ecommerce.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ecommerce.entity.TipoProduto;
+import ecommerce.service.AritmeticaMonetaria;
+import ecommerce.service.ResumoCarrinho;
+
+/**
+ * Vazão, alocação por carrinho e divergência de arredondamento das aritméticas
+ * monetárias sobre um corpus de carrinhos aleatórios (preços em centavos,
+ * quantidades em todas as faixas de desconto, promoções com percentual de quatro
+ * casas e frete com multiplicador regional). A referência é {@code DECIMAL}.
+ */
+@DisplayName("Benchmark de aritmética monetária: BigDecimal x centavos em long x double")
+class AritmeticaMonetariaBenchmark
+{
+	private static final int CARRINHOS = 100_000;
+	private static final int RODADAS = 5;
+
+	private static final BigDecimal[] MULTIPLICADORES = { BigDecimal.ONE, new BigDecimal("1.05"),
+			new BigDecimal("1.10"), new BigDecimal("1.20"), new BigDecimal("1.30") };
+
+	@Test
+	void compararAritmeticas()
+	{
+		List<Carrinho> corpus = gerarCorpus(new Random(42));
+		List<BigDecimal> referencia = new ArrayList<>(CARRINHOS);
+		for (Carrinho carrinho : corpus)
+		{
+			referencia.add(AritmeticaMonetaria.DECIMAL.totalizar(carrinho.resumo(), carrinho.desconto(),
+					carrinho.frete()));
+		}
+
+		for (AritmeticaMonetaria aritmetica : AritmeticaMonetaria.values())
+		{
+			// Aquecimento antes da medição
+			totalizar(aritmetica, corpus);
+
+			com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+					.getThreadMXBean();
+			long alocadoAntes = threads.getCurrentThreadAllocatedBytes();
+			Cronometro.medir(aritmetica + " (" + CARRINHOS * RODADAS + " carrinhos)", (long) CARRINHOS * RODADAS,
+					() -> {
+						for (int i = 0; i < RODADAS; i++)
+						{
+							totalizar(aritmetica, corpus);
+						}
+					});
+			long bytesPorCarrinho = (threads.getCurrentThreadAllocatedBytes() - alocadoAntes) / CARRINHOS / RODADAS;
+
+			int divergencias = 0;
+			BigDecimal maiorDiferenca = BigDecimal.ZERO;
+			for (int i = 0; i < CARRINHOS; i++)
+			{
+				Carrinho carrinho = corpus.get(i);
+				BigDecimal total = aritmetica.totalizar(carrinho.resumo(), carrinho.desconto(), carrinho.frete());
+				if (total.compareTo(referencia.get(i)) != 0)
+				{
+					divergencias++;
+					maiorDiferenca = maiorDiferenca.max(total.subtract(referencia.get(i)).abs());
+				}
+			}
+			System.out.printf("[benchmark] %-50s %8d bytes/carrinho  %6d divergências (maior: %s)%n", aritmetica,
+					bytesPorCarrinho, divergencias, maiorDiferenca);
+
+			if (aritmetica.isExata())
+			{
+				assertThat(divergencias).isEqualTo(0);
+			}
+		}
+	}
+
+	private static void totalizar(AritmeticaMonetaria aritmetica, List<Carrinho> corpus)
+	{
+		for (Carrinho carrinho : corpus)
+		{
+			aritmetica.totalizar(carrinho.resumo(), carrinho.desconto(), carrinho.frete());
+		}
+	}
+
+	private static List<Carrinho> gerarCorpus(Random random)
+	{
+		TipoProduto[] tipos = TipoProduto.values();
+		List<Carrinho> corpus = new ArrayList<>(CARRINHOS);
+		for (int c = 0; c < CARRINHOS; c++)
+		{
+			ResumoCarrinho resumo = new ResumoCarrinho();
+			BigDecimal desconto = BigDecimal.ZERO;
+			int itens = 1 + random.nextInt(12);
+			for (int i = 0; i < itens; i++)
+			{
+				BigDecimal preco = BigDecimal.valueOf(1 + random.nextInt(60_000), 2);
+				long quantidade = 1 + random.nextInt(9);
+				BigDecimal valor = preco.multiply(BigDecimal.valueOf(quantidade));
+				resumo.adicionarValor(tipos[random.nextInt(tipos.length)], valor, quantidade);
+				if (random.nextInt(4) == 0)
+				{
+					desconto = desconto.add(valor.multiply(BigDecimal.valueOf(1 + random.nextInt(5_000), 4)));
+				}
+			}
+			BigDecimal frete = random.nextInt(3) == 0 ? BigDecimal.ZERO
+					: BigDecimal.valueOf(random.nextInt(100_000), 2)
+							.multiply(MULTIPLICADORES[random.nextInt(MULTIPLICADORES.length)]);
+			corpus.add(new Carrinho(resumo, desconto, frete));
+		}
+		return corpus;
+	}
+
+	private record Carrinho(ResumoCarrinho resumo, BigDecimal desconto, BigDecimal frete)
+	{
+	}
+}
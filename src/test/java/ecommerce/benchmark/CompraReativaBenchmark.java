@@ -0,0 +1,251 @@
+package ecommerce.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import ecommerce.dto.PagamentoDTO;
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.Regiao;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+import ecommerce.external.IEstoqueExternal;
+import ecommerce.external.IEstoqueExternalReativo;
+import ecommerce.external.IPagamentoExternal;
+import ecommerce.external.IPagamentoExternalReativo;
+import ecommerce.repository.CarrinhoDeComprasRepository;
+import ecommerce.repository.ClienteRepository;
+import ecommerce.repository.ProdutoRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Compara /finalizar (bloqueante) e /reativo/finalizar com as mesmas
+ * latências simuladas nos serviços externos e um pool pequeno de threads do
+ * Tomcat, medindo vazão e concorrência efetiva (lei de Little) por núcleo.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"server.tomcat.threads.max=" + CompraReativaBenchmark.THREADS_TOMCAT,
+		"spring.datasource.hikari.maximum-pool-size=20",
+		"spring.main.allow-bean-definition-overriding=true",
+		"ecommerce.estoque.agrupamento.habilitado=false",
+		"ecommerce.estoque.baixa-agregada.habilitado=false",
+		"ecommerce.admissao.habilitado=false" })
+@DisplayName("Benchmark: finalização bloqueante x reativa")
+class CompraReativaBenchmark
+{
+	static final int THREADS_TOMCAT = 8;
+	private static final Duration LATENCIA_EXTERNA = Duration.ofMillis(20);
+	private static final int REQUISICOES = 2_000;
+	private static final int EM_VOO = 256;
+
+	@LocalServerPort
+	private int porta;
+
+	@Autowired
+	private ClienteRepository clientes;
+
+	@Autowired
+	private ProdutoRepository produtos;
+
+	@Autowired
+	private CarrinhoDeComprasRepository carrinhos;
+
+	@Test
+	void compararVazao() throws Exception
+	{
+		Cliente cliente = clientes.save(new Cliente(null, "Cliente", Regiao.SUL, TipoCliente.BRONZE));
+		Produto produto = produtos.save(new Produto(null, "Produto", "Desc", new BigDecimal("49.90"), BigDecimal.ONE,
+				BigDecimal.TEN, BigDecimal.TEN, BigDecimal.TEN, false, TipoProduto.LIVRO));
+
+		executar("/finalizar", cliente, criarCarrinhos(cliente, produto));
+		executar("/reativo/finalizar", cliente, criarCarrinhos(cliente, produto));
+	}
+
+	private List<Long> criarCarrinhos(Cliente cliente, Produto produto)
+	{
+		List<CarrinhoDeCompras> novos = new ArrayList<>(REQUISICOES);
+		for (int i = 0; i < REQUISICOES; i++)
+		{
+			novos.add(new CarrinhoDeCompras(null, cliente, new ArrayList<>(List.of(new ItemCompra(null, produto, 2L))),
+					LocalDate.now()));
+		}
+		return carrinhos.saveAll(novos).stream().map(CarrinhoDeCompras::getId).toList();
+	}
+
+	private void executar(String caminho, Cliente cliente, List<Long> idsCarrinhos) throws Exception
+	{
+		HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		Semaphore emVoo = new Semaphore(EM_VOO);
+		AtomicInteger sucessos = new AtomicInteger();
+		AtomicLong latenciaTotalNanos = new AtomicLong();
+		List<CompletableFuture<?>> respostas = new ArrayList<>(idsCarrinhos.size());
+
+		long decorrido = Cronometro.medir(caminho + " (" + REQUISICOES + " requisições)", REQUISICOES, () -> {
+			for (Long carrinhoId : idsCarrinhos)
+			{
+				emVoo.acquireUninterruptibly();
+				long inicio = System.nanoTime();
+				HttpRequest requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + caminho
+						+ "?carrinhoId=" + carrinhoId + "&clienteId=" + cliente.getId()))
+						.POST(HttpRequest.BodyPublishers.noBody())
+						.build();
+				respostas.add(http.sendAsync(requisicao, HttpResponse.BodyHandlers.discarding())
+						.whenComplete((resposta, erro) -> {
+							latenciaTotalNanos.addAndGet(System.nanoTime() - inicio);
+							if (erro == null && resposta.statusCode() == 200)
+							{
+								sucessos.incrementAndGet();
+							}
+							emVoo.release();
+						}));
+			}
+			CompletableFuture.allOf(respostas.toArray(CompletableFuture[]::new)).join();
+		});
+
+		double vazao = REQUISICOES / (decorrido / 1000.0);
+		double latenciaMediaSegundos = latenciaTotalNanos.get() / 1e9 / REQUISICOES;
+		int nucleos = Runtime.getRuntime().availableProcessors();
+		System.out.printf("[benchmark] %-50s concorrência efetiva por núcleo: %.1f (latência média %.1f ms)%n",
+				caminho, vazao * latenciaMediaSegundos / nucleos, latenciaMediaSegundos * 1000);
+
+		assertThat(sucessos.get()).isEqualTo(REQUISICOES);
+	}
+
+	/** Serviços externos com a mesma latência nas duas variantes: dormindo na bloqueante, agendada na reativa. */
+	@TestConfiguration
+	static class ExternosComLatencia
+	{
+		private final AtomicLong transacoes = new AtomicLong();
+
+		@Bean("estoqueSimulado")
+		@Qualifier("remoto")
+		IEstoqueExternal estoqueBloqueante()
+		{
+			return new IEstoqueExternal()
+			{
+				@Override
+				public EstoqueBaixaDTO darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades)
+				{
+					dormir();
+					return new EstoqueBaixaDTO(true);
+				}
+
+				@Override
+				public EstoqueBaixaDTO estornarBaixa(List<Long> produtosIds, List<Long> produtosQuantidades)
+				{
+					dormir();
+					return new EstoqueBaixaDTO(true);
+				}
+
+				@Override
+				public DisponibilidadeDTO verificarDisponibilidade(List<Long> produtosIds,
+						List<Long> produtosQuantidades)
+				{
+					dormir();
+					return new DisponibilidadeDTO(true, List.of());
+				}
+			};
+		}
+
+		@Bean
+		@Primary
+		IPagamentoExternal pagamentoBloqueante()
+		{
+			return new IPagamentoExternal()
+			{
+				@Override
+				public PagamentoDTO autorizarPagamento(Long clienteId, BigDecimal custoTotal)
+				{
+					dormir();
+					return new PagamentoDTO(true, transacoes.incrementAndGet());
+				}
+
+				@Override
+				public void cancelarPagamento(Long clienteId, Long pagamentoTransacaoId)
+				{
+				}
+			};
+		}
+
+		@Bean
+		@Primary
+		IEstoqueExternalReativo estoqueReativo()
+		{
+			return new IEstoqueExternalReativo()
+			{
+				@Override
+				public Mono<EstoqueBaixaDTO> darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades)
+				{
+					return Mono.delay(LATENCIA_EXTERNA).thenReturn(new EstoqueBaixaDTO(true));
+				}
+
+				@Override
+				public Mono<DisponibilidadeDTO> verificarDisponibilidade(List<Long> produtosIds,
+						List<Long> produtosQuantidades)
+				{
+					return Mono.delay(LATENCIA_EXTERNA).thenReturn(new DisponibilidadeDTO(true, List.of()));
+				}
+			};
+		}
+
+		@Bean
+		@Primary
+		IPagamentoExternalReativo pagamentoReativo()
+		{
+			return new IPagamentoExternalReativo()
+			{
+				@Override
+				public Mono<PagamentoDTO> autorizarPagamento(Long clienteId, BigDecimal custoTotal)
+				{
+					return Mono.delay(LATENCIA_EXTERNA)
+							.thenReturn(new PagamentoDTO(true, transacoes.incrementAndGet()));
+				}
+
+				@Override
+				public Mono<Void> cancelarPagamento(Long clienteId, Long pagamentoTransacaoId)
+				{
+					return Mono.empty();
+				}
+			};
+		}
+
+		private static void dormir()
+		{
+			try
+			{
+				Thread.sleep(LATENCIA_EXTERNA.toMillis());
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
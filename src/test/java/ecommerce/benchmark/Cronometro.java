@@ -0,0 +1,26 @@
+package ecommerce.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Medição simples de tempo de parede para os benchmarks.
+ */
+public final class Cronometro
+{
+	private Cronometro()
+	{
+	}
+
+	/** Executa a tarefa, imprime o tempo e as operações por segundo, e retorna o tempo em ms. */
+	public static long medir(String nome, long operacoes, Runnable tarefa)
+	{
+		long inicio = System.nanoTime();
+		tarefa.run();
+		long decorrido = System.nanoTime() - inicio;
+
+		long ms = TimeUnit.NANOSECONDS.toMillis(decorrido);
+		double porSegundo = operacoes / (decorrido / 1_000_000_000.0);
+		System.out.printf("[benchmark] %-50s %8d ms  %12.1f ops/s%n", nome, ms, porSegundo);
+		return ms;
+	}
+}
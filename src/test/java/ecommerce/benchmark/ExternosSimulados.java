@@ -0,0 +1,71 @@
+package ecommerce.benchmark;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import ecommerce.dto.PagamentoDTO;
+import ecommerce.external.IEstoqueExternal;
+import ecommerce.external.IPagamentoExternal;
+
+/**
+ * Estoque e pagamento externos que sempre respondem com sucesso, para que os
+ * benchmarks meçam apenas o custo da aplicação.
+ */
+@TestConfiguration
+public class ExternosSimulados
+{
+	/** Substitui o estoque remoto, mantendo o agrupamento de consultas configurado pela aplicação. */
+	@Bean("estoqueSimulado")
+	@Qualifier("remoto")
+	public IEstoqueExternal estoqueSempreDisponivel()
+	{
+		return new IEstoqueExternal()
+		{
+			@Override
+			public EstoqueBaixaDTO darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades)
+			{
+				return new EstoqueBaixaDTO(true);
+			}
+
+			@Override
+			public EstoqueBaixaDTO estornarBaixa(List<Long> produtosIds, List<Long> produtosQuantidades)
+			{
+				return new EstoqueBaixaDTO(true);
+			}
+
+			@Override
+			public DisponibilidadeDTO verificarDisponibilidade(List<Long> produtosIds, List<Long> produtosQuantidades)
+			{
+				return new DisponibilidadeDTO(true, List.of());
+			}
+		};
+	}
+
+	@Bean
+	@Primary
+	public IPagamentoExternal pagamentoSempreAutorizado()
+	{
+		AtomicLong transacoes = new AtomicLong();
+		return new IPagamentoExternal()
+		{
+			@Override
+			public PagamentoDTO autorizarPagamento(Long clienteId, BigDecimal custoTotal)
+			{
+				return new PagamentoDTO(true, transacoes.incrementAndGet());
+			}
+
+			@Override
+			public void cancelarPagamento(Long clienteId, Long pagamentoTransacaoId)
+			{
+			}
+		};
+	}
+}
@@ -0,0 +1,140 @@
+package ecommerce.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tempo da partida da JVM até a primeira finalização com sucesso, com a
+ * configuração padrão e com o perfil {@code inicio-rapido} (inicialização
+ * preguiçosa) sobre um arquivo CDS gravado numa partida de treino. Cada partida é
+ * uma JVM nova com o classpath dos testes e os externos simulados; o carrinho
+ * finalizado vem de {@code benchmark/inicio-rapido/V1000__dados_inicio_rapido.sql}.
+ */
+@DisplayName("Benchmark de partida: padrão x perfil inicio-rapido com CDS")
+class InicioRapidoBenchmark
+{
+	private static final int RODADAS = 3;
+	private static final Duration LIMITE_PARTIDA = Duration.ofMinutes(2);
+	private static final String FINALIZAR = "/finalizar?carrinhoId=1000000&clienteId=1000000";
+
+	private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+	@Test
+	void compararPartidas() throws Exception
+	{
+		Path cds = Files.createTempDirectory("ecommerce-cds").resolve("benchmark.jsa");
+		List<String> perfil = List.of("--spring.profiles.active=inicio-rapido");
+
+		// Treino: a JVM grava as classes carregadas no arquivo ao terminar
+		partir(List.of("-XX:ArchiveClassesAtExit=" + cds), perfil);
+		assertThat(cds).exists();
+
+		long padrao = medir("padrão", List.of(), List.of());
+		long rapido = medir("inicio-rapido + CDS", List.of("-Xshare:auto", "-XX:SharedArchiveFile=" + cds), perfil);
+		System.out.printf("[benchmark] %-50s %8.2fx%n", "partida padrão / inicio-rapido + CDS",
+				(double) padrao / rapido);
+	}
+
+	/** Imprime e retorna a mediana das partidas, em ms. */
+	private long medir(String nome, List<String> argumentosJvm, List<String> argumentosAplicacao) throws Exception
+	{
+		long[] tempos = new long[RODADAS];
+		for (int i = 0; i < RODADAS; i++)
+		{
+			tempos[i] = partir(argumentosJvm, argumentosAplicacao);
+		}
+		Arrays.sort(tempos);
+		long mediana = tempos[RODADAS / 2];
+		System.out.printf("[benchmark] %-50s %8d ms até a primeira finalização (mediana de %d, mínimo %d ms)%n", nome,
+				mediana, RODADAS, tempos[0]);
+		return mediana;
+	}
+
+	/** Inicia a aplicação, espera a primeira finalização com sucesso e encerra; retorna o tempo em ms. */
+	private long partir(List<String> argumentosJvm, List<String> argumentosAplicacao) throws Exception
+	{
+		int porta = portaLivre();
+		Path diretorio = Files.createTempDirectory("ecommerce-inicio");
+		Path saida = diretorio.resolve("saida.log");
+
+		List<String> comando = new ArrayList<>();
+		comando.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+		comando.addAll(argumentosJvm);
+		comando.add("-cp");
+		comando.add(System.getProperty("java.class.path"));
+		comando.add(AplicacaoComExternosSimulados.class.getName());
+		comando.add("--server.port=" + porta);
+		comando.add("--spring.main.allow-bean-definition-overriding=true");
+		comando.add("--spring.flyway.locations=classpath:db/migration,classpath:benchmark/inicio-rapido");
+		comando.add("--ecommerce.catalogo.arquivo=" + diretorio.resolve("catalogo-precos.bin"));
+		comando.add("--ecommerce.eventos.diretorio=" + diretorio.resolve("eventos"));
+		comando.addAll(argumentosAplicacao);
+
+		HttpRequest requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + FINALIZAR))
+				.timeout(Duration.ofSeconds(30)).POST(HttpRequest.BodyPublishers.noBody()).build();
+
+		long inicio = System.nanoTime();
+		Process processo = new ProcessBuilder(comando).redirectErrorStream(true).redirectOutput(saida.toFile()).start();
+		try
+		{
+			long limite = inicio + LIMITE_PARTIDA.toNanos();
+			while (System.nanoTime() < limite)
+			{
+				if (!processo.isAlive())
+				{
+					throw new IllegalStateException("A aplicação terminou antes de responder:\n" + Files.readString(saida));
+				}
+				try
+				{
+					HttpResponse<String> resposta = http.send(requisicao, HttpResponse.BodyHandlers.ofString());
+					if (resposta.statusCode() == 200)
+					{
+						return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+					}
+					throw new IllegalStateException(
+							"Finalização recusada (" + resposta.statusCode() + "): " + resposta.body());
+				}
+				catch (IOException e)
+				{
+					// Servidor ainda não aceita conexões
+					Thread.sleep(10);
+				}
+			}
+			throw new IllegalStateException("A aplicação não respondeu em " + LIMITE_PARTIDA + ":\n"
+					+ Files.readString(saida));
+		}
+		finally
+		{
+			// SIGTERM: o arquivo CDS de treino é gravado no encerramento normal da JVM
+			processo.destroy();
+			if (!processo.waitFor(1, TimeUnit.MINUTES))
+			{
+				processo.destroyForcibly();
+			}
+		}
+	}
+
+	private static int portaLivre() throws IOException
+	{
+		try (ServerSocket socket = new ServerSocket(0))
+		{
+			return socket.getLocalPort();
+		}
+	}
+}
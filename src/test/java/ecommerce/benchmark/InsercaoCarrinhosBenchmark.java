@@ -0,0 +1,152 @@
+package ecommerce.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.h2.tools.Server;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import ecommerce.CompraApplication;
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.Regiao;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+import ecommerce.repository.CarrinhoDeComprasRepository;
+import ecommerce.repository.ClienteRepository;
+import ecommerce.repository.ProdutoRepository;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Inserção de carrinhos grandes com ids IDENTITY (um insert executado por
+ * linha, para obter o id gerado) e com sequências pooled (ids em memória,
+ * inserts em lote), ambos no perfil "producao" contra um H2 em modo servidor.
+ */
+@DisplayName("Benchmark de inserção: ids IDENTITY x sequências pooled")
+class InsercaoCarrinhosBenchmark
+{
+	private static final int CARRINHOS = 200;
+	private static final int ITENS_POR_CARRINHO = 500;
+	private static final int PRODUTOS = 200;
+	private static final int LOTE = 20;
+
+	private static Server servidor;
+
+	@BeforeAll
+	static void iniciarServidor() throws SQLException, IOException
+	{
+		servidor = Server.createTcpServer("-tcpPort", String.valueOf(portaLivre()), "-ifNotExists").start();
+	}
+
+	@AfterAll
+	static void pararServidor()
+	{
+		servidor.stop();
+	}
+
+	@Test
+	void inserirCarrinhosGrandes()
+	{
+		// IDENTITY: esquema gerado pelo Hibernate a partir do mapeamento antigo (o das migrações já usa sequências)
+		long comandosIdentity = inserir("identity", "spring.flyway.enabled=false",
+				"spring.jpa.hibernate.ddl-auto=create-drop", "spring.jpa.mapping-resources=benchmark/ids-identity.xml");
+		long comandosSequencia = inserir("sequencia");
+
+		assertThat(comandosSequencia).isLessThan(comandosIdentity);
+	}
+
+	/** Insere os carrinhos e retorna quantos comandos JDBC foram preparados. */
+	private static long inserir(String variante, String... propriedades)
+	{
+		try (ConfigurableApplicationContext contexto = iniciarAplicacao(variante, propriedades))
+		{
+			ClienteRepository clientes = contexto.getBean(ClienteRepository.class);
+			ProdutoRepository produtos = contexto.getBean(ProdutoRepository.class);
+			CarrinhoDeComprasRepository carrinhos = contexto.getBean(CarrinhoDeComprasRepository.class);
+			Statistics estatisticas = contexto.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class)
+					.getStatistics();
+
+			Cliente cliente = clientes.save(new Cliente(null, "Cliente", Regiao.SUDESTE, TipoCliente.PRATA));
+			List<Produto> catalogo = produtos.saveAll(criarProdutos());
+
+			estatisticas.clear();
+			Cronometro.medir("[" + variante + "] " + CARRINHOS + " carrinhos x " + ITENS_POR_CARRINHO + " itens",
+					(long) CARRINHOS * ITENS_POR_CARRINHO, () -> {
+						for (int inicio = 0; inicio < CARRINHOS; inicio += LOTE)
+						{
+							List<CarrinhoDeCompras> lote = new ArrayList<>(LOTE);
+							for (int i = inicio; i < inicio + LOTE; i++)
+							{
+								lote.add(criarCarrinho(cliente, catalogo, i));
+							}
+							carrinhos.saveAll(lote);
+						}
+					});
+
+			long comandos = estatisticas.getPrepareStatementCount();
+			System.out.printf("[benchmark] %-50s %8d comandos preparados%n", "[" + variante + "]", comandos);
+			return comandos;
+		}
+	}
+
+	private static ConfigurableApplicationContext iniciarAplicacao(String variante, String... propriedades)
+	{
+		String url = "jdbc:h2:tcp://localhost:" + servidor.getPort() + "/mem:insercao_" + variante + ";DB_CLOSE_DELAY=-1";
+		List<String> todas = new ArrayList<>(List.of(propriedades));
+		todas.add("spring.datasource.url=" + url);
+		todas.add("spring.main.allow-bean-definition-overriding=true");
+		return new SpringApplicationBuilder(CompraApplication.class, ExternosSimulados.class)
+				.web(WebApplicationType.NONE)
+				.profiles("producao")
+				.properties(todas.toArray(String[]::new))
+				.run();
+	}
+
+	private static List<Produto> criarProdutos()
+	{
+		List<Produto> produtos = new ArrayList<>(PRODUTOS);
+		TipoProduto[] tipos = TipoProduto.values();
+		for (int i = 0; i < PRODUTOS; i++)
+		{
+			produtos.add(new Produto(null, "Produto " + i, "Desc", new BigDecimal("10.00").add(BigDecimal.valueOf(i)),
+					BigDecimal.ONE, BigDecimal.TEN, BigDecimal.TEN, BigDecimal.TEN, i % 7 == 0, tipos[i % tipos.length]));
+		}
+		return produtos;
+	}
+
+	private static CarrinhoDeCompras criarCarrinho(Cliente cliente, List<Produto> catalogo, int semente)
+	{
+		List<ItemCompra> itens = new ArrayList<>(ITENS_POR_CARRINHO);
+		for (int j = 0; j < ITENS_POR_CARRINHO; j++)
+		{
+			Produto produto = catalogo.get((semente * 31 + j * 17) % catalogo.size());
+			itens.add(new ItemCompra(null, produto, (long) (1 + j % 3)));
+		}
+		return new CarrinhoDeCompras(null, cliente, itens, LocalDate.now());
+	}
+
+	private static int portaLivre() throws IOException
+	{
+		try (ServerSocket socket = new ServerSocket(0))
+		{
+			return socket.getLocalPort();
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package ecommerce.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import ecommerce.CompraApplication;
+import ecommerce.dto.CarrinhoResumoDTO;
+import ecommerce.dto.PaginaCarrinhosDTO;
+import ecommerce.repository.CarrinhoDeComprasRepository;
+import ecommerce.service.CarrinhoDeComprasService;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Paginação por chave (data, id) x OFFSET sobre uma tabela de carrinhos com
+ * milhões de linhas, gerada diretamente no H2 (SYSTEM_RANGE).
+ */
+@DisplayName("Benchmark de paginação de carrinhos: keyset x offset")
+class PaginacaoCarrinhosBenchmark
+{
+	private static final int CLIENTES = 20_000;
+	private static final int CARRINHOS = 2_000_000;
+	private static final int DIAS = 1_095;
+	private static final LocalDate INICIO = LocalDate.of(2023, 1, 1);
+	private static final int TAMANHO_PAGINA = 100;
+
+	private static ConfigurableApplicationContext contexto;
+	private static CarrinhoDeComprasService carrinhoService;
+	private static EntityManager entityManager;
+
+	@BeforeAll
+	static void popularBanco()
+	{
+		contexto = new SpringApplicationBuilder(CompraApplication.class, ExternosSimulados.class)
+				.web(WebApplicationType.NONE)
+				.properties("spring.datasource.url=jdbc:h2:mem:paginacao;DB_CLOSE_DELAY=-1",
+						"spring.main.allow-bean-definition-overriding=true")
+				.run();
+		carrinhoService = contexto.getBean(CarrinhoDeComprasService.class);
+		entityManager = contexto.getBean(EntityManager.class);
+
+		JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+		Cronometro.medir("carga de " + CARRINHOS + " carrinhos", CARRINHOS, () -> {
+			jdbc.update("INSERT INTO cliente (id, nome, regiao, tipo)"
+					+ " SELECT X, 'Cliente ' || X, MOD(X, 5), 'BRONZE' FROM SYSTEM_RANGE(1, " + CLIENTES + ")");
+			jdbc.update("INSERT INTO carrinho_de_compras (id, cliente_id, data, versao)"
+					+ " SELECT X, MOD(X, " + CLIENTES + ") + 1, DATEADD('DAY', MOD(X * 7919, " + DIAS + "), DATE '"
+					+ INICIO + "'), 0 FROM SYSTEM_RANGE(1, " + CARRINHOS + ")");
+		});
+	}
+
+	@AfterAll
+	static void encerrar()
+	{
+		contexto.close();
+	}
+
+	@Test
+	void percorrerPeriodo()
+	{
+		LocalDate inicio = INICIO.plusDays(500);
+		LocalDate fim = inicio.plusDays(29);
+
+		AtomicLong porChave = new AtomicLong();
+		Cronometro.medir("[keyset] 30 dias, páginas de " + TAMANHO_PAGINA, 1, () -> {
+			PaginaCarrinhosDTO pagina = carrinhoService.listarPorPeriodo(inicio, fim, null, null, TAMANHO_PAGINA);
+			porChave.addAndGet(pagina.carrinhos().size());
+			while (pagina.proximoId() != null)
+			{
+				pagina = carrinhoService.listarPorPeriodo(inicio, fim, pagina.proximaData(), pagina.proximoId(),
+						TAMANHO_PAGINA);
+				porChave.addAndGet(pagina.carrinhos().size());
+			}
+		});
+
+		AtomicLong porOffset = new AtomicLong();
+		Cronometro.medir("[offset] 30 dias, páginas de " + TAMANHO_PAGINA, 1, () -> {
+			int lidos;
+			do
+			{
+				lidos = porOffset(CarrinhoDeComprasRepository.RESUMO
+						+ "where c.data between :inicio and :fim order by c.data, c.id", (int) porOffset.get(),
+						inicio, fim).size();
+				porOffset.addAndGet(lidos);
+			}
+			while (lidos == TAMANHO_PAGINA);
+		});
+
+		assertThat(porChave.get()).isEqualTo(porOffset.get());
+	}
+
+	@Test
+	void paginaProfunda()
+	{
+		int deslocamento = CARRINHOS / 2;
+		LocalDate fim = INICIO.plusDays(DIAS);
+
+		// Cursor equivalente ao deslocamento: o carrinho imediatamente anterior à página
+		CarrinhoResumoDTO anterior = porOffset(CarrinhoDeComprasRepository.RESUMO
+				+ "where c.data between :inicio and :fim order by c.data, c.id", deslocamento - 1, INICIO, fim).get(0);
+
+		int repeticoes = 20;
+		Cronometro.medir("[offset] página no deslocamento " + deslocamento, repeticoes, () -> {
+			for (int i = 0; i < repeticoes; i++)
+			{
+				porOffset(CarrinhoDeComprasRepository.RESUMO
+						+ "where c.data between :inicio and :fim order by c.data, c.id", deslocamento, INICIO, fim);
+			}
+		});
+		Cronometro.medir("[keyset] página no deslocamento " + deslocamento, repeticoes, () -> {
+			for (int i = 0; i < repeticoes; i++)
+			{
+				carrinhoService.listarPorPeriodo(INICIO, fim, anterior.data(), anterior.id(), TAMANHO_PAGINA);
+			}
+		});
+	}
+
+	@Test
+	void percorrerCarrinhosDeClientes()
+	{
+		int clientes = 500;
+		Cronometro.medir("[keyset] carrinhos de " + clientes + " clientes", clientes, () -> {
+			for (long clienteId = 1; clienteId <= clientes; clienteId++)
+			{
+				PaginaCarrinhosDTO pagina = carrinhoService.listarPorCliente(clienteId, null, null, 20);
+				while (pagina.proximoId() != null)
+				{
+					pagina = carrinhoService.listarPorCliente(clienteId, pagina.proximaData(), pagina.proximoId(), 20);
+				}
+			}
+		});
+	}
+
+	private static List<CarrinhoResumoDTO> porOffset(String jpql, int deslocamento, LocalDate inicio, LocalDate fim)
+	{
+		return entityManager.createQuery(jpql, CarrinhoResumoDTO.class)
+				.setParameter("inicio", inicio)
+				.setParameter("fim", fim)
+				.setFirstResult(deslocamento)
+				.setMaxResults(TAMANHO_PAGINA)
+				.getResultList();
+	}
+}
@@ -0,0 +1,159 @@
+package ecommerce.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import ecommerce.CompraApplication;
+import ecommerce.dto.CompraDTO;
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.Regiao;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+import ecommerce.repository.CarrinhoDeComprasRepository;
+import ecommerce.repository.ClienteRepository;
+import ecommerce.repository.ProdutoRepository;
+import ecommerce.service.CompraService;
+
+/**
+ * Compara a configuração padrão de persistência com o perfil "producao"
+ * (pool, batching, ordenação de inserts/updates) contra um H2 em modo servidor,
+ * para que cada comando pague o custo de ida e volta pela rede. A ordem dos
+ * perfis alterna a cada rodada, para que o aquecimento da JVM não favoreça
+ * sempre o segundo.
+ */
+@DisplayName("Benchmark de persistência: perfil padrão x perfil de produção")
+class PersistenciaBenchmark
+{
+	private static final int RODADAS = 4;
+	private static final int CARRINHOS = 5_000;
+	private static final int ITENS_POR_CARRINHO = 10;
+	private static final int PRODUTOS = 200;
+	private static final int LOTE = 500;
+	/** Mesmo cache de statements do perfil "producao", cuja URL é substituída pela do servidor. */
+	private static final String CACHE_DE_STATEMENTS = ";QUERY_CACHE_SIZE=256";
+
+	private static Server servidor;
+
+	@BeforeAll
+	static void iniciarServidor() throws SQLException, IOException
+	{
+		servidor = Server.createTcpServer("-tcpPort", String.valueOf(portaLivre()), "-ifNotExists").start();
+	}
+
+	@AfterAll
+	static void pararServidor()
+	{
+		servidor.stop();
+	}
+
+	@Test
+	void compararPerfis()
+	{
+		for (int rodada = 1; rodada <= RODADAS; rodada++)
+		{
+			List<String> perfis = rodada % 2 == 1 ? List.of("default", "producao") : List.of("producao", "default");
+			for (String perfil : perfis)
+			{
+				inserirEFinalizarCarrinhos(perfil, rodada);
+			}
+		}
+	}
+
+	private static void inserirEFinalizarCarrinhos(String perfil, int rodada)
+	{
+		String rotulo = "[rodada " + rodada + ", " + perfil + "]";
+		try (ConfigurableApplicationContext contexto = iniciarAplicacao(perfil, rodada))
+		{
+			ClienteRepository clientes = contexto.getBean(ClienteRepository.class);
+			ProdutoRepository produtos = contexto.getBean(ProdutoRepository.class);
+			CarrinhoDeComprasRepository carrinhos = contexto.getBean(CarrinhoDeComprasRepository.class);
+			CompraService compraService = contexto.getBean(CompraService.class);
+
+			Cliente cliente = clientes.save(new Cliente(null, "Cliente", Regiao.SUDESTE, TipoCliente.PRATA));
+			List<Produto> catalogo = produtos.saveAll(criarProdutos());
+			List<Long> idsCarrinhos = new ArrayList<>(CARRINHOS);
+
+			Cronometro.medir(rotulo + " inserção de " + CARRINHOS + " carrinhos", CARRINHOS, () -> {
+				for (int inicio = 0; inicio < CARRINHOS; inicio += LOTE)
+				{
+					List<CarrinhoDeCompras> lote = new ArrayList<>(LOTE);
+					for (int i = inicio; i < inicio + LOTE; i++)
+					{
+						lote.add(criarCarrinho(cliente, catalogo, i));
+					}
+					carrinhos.saveAll(lote).forEach(c -> idsCarrinhos.add(c.getId()));
+				}
+			});
+
+			Cronometro.medir(rotulo + " finalização de " + CARRINHOS + " carrinhos", CARRINHOS, () -> {
+				for (Long carrinhoId : idsCarrinhos)
+				{
+					CompraDTO compra = compraService.finalizarCompra(carrinhoId, cliente.getId());
+					assertThat(compra.sucesso()).isTrue();
+				}
+			});
+		}
+	}
+
+	private static ConfigurableApplicationContext iniciarAplicacao(String perfil, int rodada)
+	{
+		// Um banco novo por rodada: cada execução parte das mesmas tabelas vazias
+		String url = "jdbc:h2:tcp://localhost:" + servidor.getPort() + "/mem:bench_" + perfil + "_" + rodada
+				+ ";DB_CLOSE_DELAY=-1" + ("producao".equals(perfil) ? CACHE_DE_STATEMENTS : "");
+		return new SpringApplicationBuilder(CompraApplication.class, ExternosSimulados.class)
+				.web(WebApplicationType.NONE)
+				.profiles(perfil)
+				.properties("spring.datasource.url=" + url, "spring.main.allow-bean-definition-overriding=true")
+				.run();
+	}
+
+	private static List<Produto> criarProdutos()
+	{
+		List<Produto> produtos = new ArrayList<>(PRODUTOS);
+		TipoProduto[] tipos = TipoProduto.values();
+		for (int i = 0; i < PRODUTOS; i++)
+		{
+			produtos.add(new Produto(null, "Produto " + i, "Desc", new BigDecimal("10.00").add(BigDecimal.valueOf(i)),
+					BigDecimal.ONE, BigDecimal.TEN, BigDecimal.TEN, BigDecimal.TEN, i % 7 == 0, tipos[i % tipos.length]));
+		}
+		return produtos;
+	}
+
+	private static CarrinhoDeCompras criarCarrinho(Cliente cliente, List<Produto> catalogo, int semente)
+	{
+		List<ItemCompra> itens = new ArrayList<>(ITENS_POR_CARRINHO);
+		for (int j = 0; j < ITENS_POR_CARRINHO; j++)
+		{
+			Produto produto = catalogo.get((semente * 31 + j * 17) % catalogo.size());
+			itens.add(new ItemCompra(null, produto, (long) (1 + j % 3)));
+		}
+		return new CarrinhoDeCompras(null, cliente, itens, LocalDate.now());
+	}
+
+	private static int portaLivre() throws IOException
+	{
+		try (ServerSocket socket = new ServerSocket(0))
+		{
+			return socket.getLocalPort();
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package ecommerce.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+import ecommerce.CompraApplication;
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.Regiao;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+import ecommerce.external.IEstoqueExternal;
+import ecommerce.repository.CarrinhoDeComprasRepository;
+import ecommerce.repository.ClienteRepository;
+import ecommerce.repository.ProdutoRepository;
+import ecommerce.service.CompraService;
+import ecommerce.service.ResultadoCompra;
+
+/**
+ * Caminho de recusa por falta de estoque, o mais comum numa promoção:
+ * {@code finalizarCompra} (recusa como exceção) x {@code tentarFinalizarCompra}
+ * (recusa como {@link ResultadoCompra}).
+ */
+@DisplayName("Benchmark: recusa por estoque com exceção x com resultado")
+class RecusaPorEstoqueBenchmark
+{
+	private static final int RODADAS = 3;
+	private static final int TENTATIVAS = 50_000;
+
+	@Test
+	void compararRecusas()
+	{
+		try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(CompraApplication.class,
+				EstoqueEsgotado.class)
+				.web(WebApplicationType.NONE)
+				.properties("spring.datasource.url=jdbc:h2:mem:recusa;DB_CLOSE_DELAY=-1",
+						"spring.main.allow-bean-definition-overriding=true",
+						"ecommerce.estoque.agrupamento.habilitado=false",
+						"ecommerce.estoque.baixa-agregada.habilitado=false")
+				.run())
+		{
+			CompraService compraService = contexto.getBean(CompraService.class);
+			Cliente cliente = contexto.getBean(ClienteRepository.class)
+					.save(new Cliente(null, "Cliente", Regiao.SUDESTE, TipoCliente.BRONZE));
+			Produto produto = contexto.getBean(ProdutoRepository.class).save(new Produto(null, "Produto", "Desc",
+					new BigDecimal("99.90"), BigDecimal.ONE, BigDecimal.TEN, BigDecimal.TEN, BigDecimal.TEN, false,
+					TipoProduto.ELETRONICO));
+			Long carrinhoId = contexto.getBean(CarrinhoDeComprasRepository.class).save(new CarrinhoDeCompras(null,
+					cliente, new ArrayList<>(List.of(new ItemCompra(null, produto, 1L))), LocalDate.now())).getId();
+
+			for (int rodada = 1; rodada <= RODADAS; rodada++)
+			{
+				AtomicInteger recusasPorExcecao = new AtomicInteger();
+				Cronometro.medir("[rodada " + rodada + "] recusa com exceção", TENTATIVAS, () -> {
+					for (int i = 0; i < TENTATIVAS; i++)
+					{
+						try
+						{
+							compraService.finalizarCompra(carrinhoId, cliente.getId());
+						}
+						catch (IllegalStateException e)
+						{
+							recusasPorExcecao.incrementAndGet();
+						}
+					}
+				});
+
+				AtomicInteger recusasPorResultado = new AtomicInteger();
+				Cronometro.medir("[rodada " + rodada + "] recusa com resultado", TENTATIVAS, () -> {
+					for (int i = 0; i < TENTATIVAS; i++)
+					{
+						if (compraService.tentarFinalizarCompra(carrinhoId,
+								cliente.getId()) instanceof ResultadoCompra.ForaDeEstoque)
+						{
+							recusasPorResultado.incrementAndGet();
+						}
+					}
+				});
+
+				assertThat(recusasPorExcecao.get()).isEqualTo(TENTATIVAS);
+				assertThat(recusasPorResultado.get()).isEqualTo(TENTATIVAS);
+			}
+		}
+	}
+
+	/** Estoque remoto sem nenhum produto disponível. */
+	@TestConfiguration
+	static class EstoqueEsgotado
+	{
+		@Bean("estoqueSimulado")
+		@Qualifier("remoto")
+		IEstoqueExternal estoqueEsgotado()
+		{
+			return new IEstoqueExternal()
+			{
+				@Override
+				public EstoqueBaixaDTO darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades)
+				{
+					return new EstoqueBaixaDTO(false);
+				}
+
+				@Override
+				public EstoqueBaixaDTO estornarBaixa(List<Long> produtosIds, List<Long> produtosQuantidades)
+				{
+					return new EstoqueBaixaDTO(true);
+				}
+
+				@Override
+				public DisponibilidadeDTO verificarDisponibilidade(List<Long> produtosIds,
+						List<Long> produtosQuantidades)
+				{
+					return new DisponibilidadeDTO(false, produtosIds);
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package ecommerce.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ecommerce.dto.CarrinhoDTO;
+import ecommerce.dto.CarrinhoResumoDTO;
+import ecommerce.dto.CompraDTO;
+import ecommerce.dto.ItemCarrinhoDTO;
+import ecommerce.dto.PaginaCarrinhosDTO;
+
+/**
+ * Custo de serialização e tamanho das respostas em JSON, CBOR e Smile, com
+ * mapeadores montados como os da aplicação (mesmos módulos e configurações).
+ */
+@DisplayName("Benchmark de serialização: JSON x CBOR x Smile")
+class SerializacaoBenchmark
+{
+	private static final int REPETICOES = 200_000;
+
+	private static final Map<String, ObjectMapper> FORMATOS = Map.of(
+			"json", Jackson2ObjectMapperBuilder.json().build(),
+			"cbor", Jackson2ObjectMapperBuilder.cbor().build(),
+			"smile", Jackson2ObjectMapperBuilder.smile().build());
+
+	@Test
+	void compraDTO()
+	{
+		comparar("CompraDTO", new CompraDTO(true, 123_456_789L, "Compra finalizada com sucesso."), CompraDTO.class,
+				REPETICOES);
+	}
+
+	@Test
+	void carrinhoCom200Itens()
+	{
+		List<ItemCarrinhoDTO> itens = new ArrayList<>();
+		for (long i = 1; i <= 200; i++)
+		{
+			itens.add(new ItemCarrinhoDTO(1_000 + i, i % 5 + 1));
+		}
+		comparar("CarrinhoDTO (200 itens)", new CarrinhoDTO(42L, 7L, LocalDate.of(2024, 5, 1), 3L, itens),
+				CarrinhoDTO.class, REPETICOES / 20);
+	}
+
+	@Test
+	void paginaDe500Carrinhos()
+	{
+		List<CarrinhoResumoDTO> carrinhos = new ArrayList<>();
+		for (long i = 1; i <= 500; i++)
+		{
+			carrinhos.add(new CarrinhoResumoDTO(10_000 + i, 7L, LocalDate.of(2024, 1, 1).plusDays(i), i % 4));
+		}
+		comparar("PaginaCarrinhosDTO (500)", new PaginaCarrinhosDTO(carrinhos, LocalDate.of(2025, 5, 15), 10_500L),
+				PaginaCarrinhosDTO.class, REPETICOES / 50);
+	}
+
+	private static <T> void comparar(String nome, T valor, Class<T> tipo, int repeticoes)
+	{
+		for (String formato : List.of("json", "cbor", "smile"))
+		{
+			ObjectMapper mapper = FORMATOS.get(formato);
+			byte[] bytes = escrever(mapper, valor);
+			assertThat(ler(mapper, bytes, tipo)).isEqualTo(valor);
+
+			Cronometro.medir("[" + formato + "] escrita " + nome, repeticoes, () -> {
+				for (int i = 0; i < repeticoes; i++)
+				{
+					escrever(mapper, valor);
+				}
+			});
+			Cronometro.medir("[" + formato + "] leitura " + nome, repeticoes, () -> {
+				for (int i = 0; i < repeticoes; i++)
+				{
+					ler(mapper, bytes, tipo);
+				}
+			});
+			System.out.printf("[benchmark] %-50s %8d bytes%n", "[" + formato + "] tamanho " + nome, bytes.length);
+		}
+	}
+
+	private static byte[] escrever(ObjectMapper mapper, Object valor)
+	{
+		try
+		{
+			return mapper.writeValueAsBytes(valor);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static <T> T ler(ObjectMapper mapper, byte[] bytes, Class<T> tipo)
+	{
+		try
+		{
+			return mapper.readValue(bytes, tipo);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package ecommerce.catalogo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ecommerce.dto.ProdutoPrecificacaoDTO;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.TipoProduto;
+
+public class ArquivoCatalogoTest {
+	private static final long BANCO = 0x0123_4567_89AB_CDEFL;
+	private static final Instant ATUALIZADO_ATE = Instant.parse("2025-03-01T12:30:00.123Z");
+
+	private Path diretorio;
+	private Path arquivo;
+	private CatalogoPrecos catalogo;
+
+	@BeforeEach
+	public void setup() throws IOException {
+		diretorio = Files.createTempDirectory("catalogo");
+		arquivo = diretorio.resolve("catalogo-precos.bin");
+
+		CatalogoPrecos.Construtor construtor = CatalogoPrecos.construtor(3);
+		construtor.adicionar(dto(1L, "10.50", false, TipoProduto.LIVRO, null));
+		construtor.adicionar(dto(40L, "3.25", true, TipoProduto.ALIMENTO, null));
+		construtor.adicionar(dto(9_000_000_000L, "999.99", false, TipoProduto.MOVEL, ATUALIZADO_ATE));
+		catalogo = construtor.construir();
+	}
+
+	@AfterEach
+	public void limpar() throws IOException {
+		Files.deleteIfExists(arquivo);
+		Files.deleteIfExists(diretorio);
+	}
+
+	@Test
+	@DisplayName("Fotografia gravada é lida de volta igual, pelo mesmo banco")
+	public void idaEVolta() throws IOException {
+		ArquivoCatalogo.gravar(catalogo, arquivo, BANCO);
+
+		CatalogoPrecos lido = ArquivoCatalogo.ler(arquivo, BANCO).orElseThrow();
+
+		assertThat(lido.getProdutos()).isEqualTo(3);
+		assertThat(lido.getAtualizadoAte()).isEqualTo(ATUALIZADO_ATE);
+		assertThat(lido.tabela().equals(catalogo.tabela())).isTrue();
+		List<ItemCompra> itens = List.of(item(1L, 2), item(40L, 1), item(9_000_000_000L, 1));
+		assertThat(lido.resumir(itens).getSubtotal()).isEqualByComparingTo(catalogo.resumir(itens).getSubtotal());
+		assertThat(Files.exists(arquivo.resolveSibling(arquivo.getFileName() + ".tmp"))).isFalse();
+	}
+
+	@Test
+	@DisplayName("Catálogo vazio também faz a ida e volta")
+	public void vazio() throws IOException {
+		ArquivoCatalogo.gravar(CatalogoPrecos.VAZIO, arquivo, BANCO);
+
+		assertThat(ArquivoCatalogo.ler(arquivo, BANCO).orElseThrow().getProdutos()).isEqualTo(0);
+	}
+
+	@Test
+	@DisplayName("Arquivo gravado a partir de outro banco é ignorado")
+	public void outroBanco() throws IOException {
+		ArquivoCatalogo.gravar(catalogo, arquivo, BANCO);
+
+		assertThat(ArquivoCatalogo.ler(arquivo, BANCO + 1).isPresent()).isFalse();
+	}
+
+	@Test
+	@DisplayName("Tabela corrompida, arquivo truncado ou inexistente são ignorados")
+	public void arquivoInvalido() throws IOException {
+		assertThat(ArquivoCatalogo.ler(arquivo, BANCO).isPresent()).isFalse();
+
+		ArquivoCatalogo.gravar(catalogo, arquivo, BANCO);
+		try (RandomAccessFile acesso = new RandomAccessFile(arquivo.toFile(), "rw")) {
+			// Um bit do preço do segundo produto
+			long posicao = ArquivoCatalogo.TAMANHO_CABECALHO + CatalogoPrecos.TAMANHO_REGISTRO + 8;
+			acesso.seek(posicao);
+			int valor = acesso.read();
+			acesso.seek(posicao);
+			acesso.write(valor ^ 1);
+		}
+		assertThat(ArquivoCatalogo.ler(arquivo, BANCO).isPresent()).isFalse();
+
+		ArquivoCatalogo.gravar(catalogo, arquivo, BANCO);
+		try (RandomAccessFile acesso = new RandomAccessFile(arquivo.toFile(), "rw")) {
+			acesso.setLength(acesso.length() - 1);
+		}
+		assertThat(ArquivoCatalogo.ler(arquivo, BANCO).isPresent()).isFalse();
+
+		Files.write(arquivo, new byte[ArquivoCatalogo.TAMANHO_CABECALHO]);
+		assertThat(ArquivoCatalogo.ler(arquivo, BANCO).isPresent()).isFalse();
+	}
+
+	private static ProdutoPrecificacaoDTO dto(long id, String preco, boolean fragil, TipoProduto tipo,
+			Instant atualizadoEm) {
+		return new ProdutoPrecificacaoDTO(id, new BigDecimal(preco), BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ONE,
+				BigDecimal.ONE, fragil, tipo, atualizadoEm);
+	}
+
+	private static ItemCompra item(long produtoId, long quantidade) {
+		Produto produto = new Produto();
+		produto.setId(produtoId);
+		return new ItemCompra(null, produto, quantidade);
+	}
+}
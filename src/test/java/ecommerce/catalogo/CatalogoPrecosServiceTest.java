@@ -0,0 +1,150 @@
+package ecommerce.catalogo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ecommerce.dto.ProdutoPrecificacaoDTO;
+import ecommerce.entity.TipoProduto;
+import ecommerce.repository.ProdutoRepository;
+
+/**
+ * Atualizações do catálogo sobre um repositório simulado à mão, com os
+ * produtos em um mapa ordenado por id como nas consultas reais.
+ */
+public class CatalogoPrecosServiceTest {
+	private static final long BANCO = 42L;
+	private static final long HORA_MS = 3_600_000L;
+	private static final Instant JANEIRO = Instant.parse("2025-01-01T00:00:00Z");
+	private static final Instant FEVEREIRO = Instant.parse("2025-02-01T00:00:00Z");
+
+	private final TreeMap<Long, ProdutoPrecificacaoDTO> banco = new TreeMap<>();
+	private final List<String> consultas = new ArrayList<>();
+	private final ProdutoRepository repository = (ProdutoRepository) Proxy.newProxyInstance(
+			getClass().getClassLoader(), new Class<?>[] { ProdutoRepository.class }, (proxy, metodo, argumentos) -> {
+				consultas.add(metodo.getName());
+				switch (metodo.getName()) {
+				case "listarParaPrecificacao":
+					return new ArrayList<>(banco.values()).stream();
+				case "listarParaPrecificacaoAlteradosDesde":
+					Instant desde = (Instant) argumentos[0];
+					return new ArrayList<>(banco.values()).stream()
+							.filter(p -> p.atualizadoEm() != null && !p.atualizadoEm().isBefore(desde));
+				default:
+					throw new UnsupportedOperationException(metodo.getName());
+				}
+			});
+
+	private Path diretorio;
+	private String arquivo;
+
+	@BeforeEach
+	public void setup() throws IOException {
+		diretorio = Files.createTempDirectory("catalogo");
+		arquivo = diretorio.resolve("catalogo-precos.bin").toString();
+		salvar(1L, "10.00", JANEIRO);
+		salvar(2L, "20.00", JANEIRO);
+	}
+
+	@AfterEach
+	public void limpar() throws IOException {
+		Files.deleteIfExists(Path.of(arquivo));
+		Files.deleteIfExists(diretorio);
+	}
+
+	@Test
+	@DisplayName("Primeira atualização relê o catálogo inteiro; as seguintes, só os produtos alterados")
+	public void incrementalDepoisDaPrimeira() {
+		CatalogoPrecosService service = new CatalogoPrecosService(repository, BANCO, arquivo, HORA_MS);
+
+		service.atualizar();
+		salvar(1L, "11.00", FEVEREIRO);
+		salvar(3L, "30.00", FEVEREIRO);
+		service.atualizar();
+
+		assertThat(consultas).containsExactly("listarParaPrecificacao", "listarParaPrecificacaoAlteradosDesde");
+		CatalogoPrecos catalogo = service.atual();
+		assertThat(catalogo.getProdutos()).isEqualTo(3);
+		assertThat(catalogo.getAtualizadoAte()).isEqualTo(FEVEREIRO);
+		assertThat(catalogo.tabela().equals(esperado().tabela())).isTrue();
+	}
+
+	@Test
+	@DisplayName("Releitura completa remove excluídos e pega alterações sem atualizado_em")
+	public void reconstrucaoCompleta() {
+		CatalogoPrecosService service = new CatalogoPrecosService(repository, BANCO, arquivo, 0L);
+		service.atualizar();
+
+		banco.remove(2L);
+		salvar(1L, "12.00", null);
+		service.atualizar();
+
+		assertThat(consultas).containsExactly("listarParaPrecificacao", "listarParaPrecificacao");
+		assertThat(service.atual().contem(2L)).isFalse();
+		assertThat(service.atual().tabela().equals(esperado().tabela())).isTrue();
+	}
+
+	@Test
+	@DisplayName("Inicia pela fotografia gravada a partir do mesmo banco, e não pela de outro")
+	public void inicioPeloArquivo() {
+		new CatalogoPrecosService(repository, BANCO, arquivo, HORA_MS).atualizar();
+
+		CatalogoPrecosService mesmoBanco = new CatalogoPrecosService(repository, BANCO, arquivo, HORA_MS);
+		CatalogoPrecosService outroBanco = new CatalogoPrecosService(repository, BANCO + 1, arquivo, HORA_MS);
+
+		assertThat(mesmoBanco.atual().getProdutos()).isEqualTo(2);
+		assertThat(outroBanco.atual()).isSameAs(CatalogoPrecos.VAZIO);
+	}
+
+	@Test
+	@DisplayName("Primeira atualização depois de iniciar pelo arquivo também é completa")
+	public void primeiraAtualizacaoAposIniciarPeloArquivo() {
+		new CatalogoPrecosService(repository, BANCO, arquivo, HORA_MS).atualizar();
+		banco.remove(2L);
+		consultas.clear();
+
+		CatalogoPrecosService reiniciado = new CatalogoPrecosService(repository, BANCO, arquivo, HORA_MS);
+		reiniciado.atualizar();
+
+		assertThat(consultas).containsExactly("listarParaPrecificacao");
+		assertThat(reiniciado.atual().getProdutos()).isEqualTo(1);
+		assertThat(new CatalogoPrecosService(repository, BANCO, arquivo, HORA_MS).atual().contem(2L)).isFalse();
+	}
+
+	@Test
+	@DisplayName("Releitura completa sem mudanças mantém a fotografia publicada")
+	public void reconstrucaoSemMudancas() {
+		CatalogoPrecosService service = new CatalogoPrecosService(repository, BANCO, arquivo, 0L);
+		service.atualizar();
+		CatalogoPrecos publicado = service.atual();
+
+		service.atualizar();
+
+		assertThat(service.atual()).isSameAs(publicado);
+	}
+
+	/** O catálogo montado do zero a partir do estado atual do banco. */
+	private CatalogoPrecos esperado() {
+		CatalogoPrecos.Construtor construtor = CatalogoPrecos.construtor(banco.size());
+		banco.values().forEach(construtor::adicionar);
+		return construtor.construir();
+	}
+
+	private void salvar(long id, String preco, Instant atualizadoEm) {
+		banco.put(id, new ProdutoPrecificacaoDTO(id, new BigDecimal(preco), BigDecimal.ONE, BigDecimal.ONE,
+				BigDecimal.ONE, BigDecimal.ONE, false, TipoProduto.LIVRO, atualizadoEm));
+	}
+}
@@ -0,0 +1,159 @@
+package ecommerce.catalogo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ecommerce.dto.ProdutoPrecificacaoDTO;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.TipoProduto;
+import ecommerce.service.ResumoCarrinho;
+
+public class CatalogoPrecosTest {
+	private static final Instant JANEIRO = Instant.parse("2025-01-01T00:00:00Z");
+	private static final Instant FEVEREIRO = Instant.parse("2025-02-01T00:00:00Z");
+
+	@Test
+	@DisplayName("Resumo pela tabela soma valor e quantidade por tipo, peso tributável e unidades frágeis")
+	public void resumir() {
+		CatalogoPrecos catalogo = construir(
+				dto(1L, "10.50", "2.000", false, TipoProduto.LIVRO, JANEIRO),
+				dto(2L, "3.25", "0.500", true, TipoProduto.LIVRO, JANEIRO),
+				dto(3L, "100.00", "7.250", false, TipoProduto.MOVEL, JANEIRO));
+
+		ResumoCarrinho resumo = catalogo.resumir(List.of(item(1L, 2), item(2L, 4), item(3L, 1)));
+
+		assertThat(resumo.getValor(TipoProduto.LIVRO)).isEqualByComparingTo("34.00");
+		assertThat(resumo.getQuantidade(TipoProduto.LIVRO)).isEqualTo(6L);
+		assertThat(resumo.getValor(TipoProduto.MOVEL)).isEqualByComparingTo("100.00");
+		assertThat(resumo.getPesoTributavel()).isEqualByComparingTo("13.250");
+		assertThat(resumo.getUnidadesFrageis()).isEqualTo(4L);
+	}
+
+	@Test
+	@DisplayName("Produto ausente ou quantidade inválida deixa o resumo para as entidades")
+	public void resumirSemTodosOsItens() {
+		CatalogoPrecos catalogo = construir(dto(1L, "10.00", "1.000", false, TipoProduto.LIVRO, JANEIRO));
+
+		assertThat(catalogo.resumir(List.of(item(1L, 1), item(2L, 1)))).isNull();
+		assertThat(catalogo.resumir(List.of(item(1L, 0)))).isNull();
+		assertThat(catalogo.resumir(List.of(new ItemCompra(null, new Produto(), 1L)))).isNull();
+	}
+
+	@Test
+	@DisplayName("Tabela ocupa um registro por produto, mesmo com ids esparsos e grandes")
+	public void tabelaDensa() {
+		long grande = 5_000_000_000L;
+		CatalogoPrecos catalogo = construir(
+				dto(7L, "1.00", "1.000", false, TipoProduto.ROUPA, JANEIRO),
+				dto(grande, "2.00", "1.000", false, TipoProduto.ROUPA, JANEIRO));
+
+		assertThat(catalogo.getProdutos()).isEqualTo(2);
+		assertThat(catalogo.tabela().capacity()).isEqualTo(2 * CatalogoPrecos.TAMANHO_REGISTRO);
+		assertThat(catalogo.contem(7L)).isTrue();
+		assertThat(catalogo.contem(grande)).isTrue();
+		assertThat(catalogo.contem(8L)).isFalse();
+		assertThat(catalogo.contem(-1L)).isFalse();
+		assertThat(catalogo.preco(grande)).isEqualByComparingTo("2.00");
+		assertThat(catalogo.preco(8L)).isNull();
+		assertThat(catalogo.resumir(List.of(item(grande, 3))).getValor(TipoProduto.ROUPA))
+				.isEqualByComparingTo("6.00");
+	}
+
+	@Test
+	@DisplayName("Construtor exige ids em ordem crescente")
+	public void ordemDosIds() {
+		CatalogoPrecos.Construtor construtor = CatalogoPrecos.construtor(2);
+		construtor.adicionar(dto(2L, "1.00", "1.000", false, TipoProduto.LIVRO, JANEIRO));
+
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> construtor.adicionar(dto(1L, "1.00", "1.000", false, TipoProduto.LIVRO, JANEIRO)));
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> construtor.adicionar(dto(2L, "1.00", "1.000", false, TipoProduto.LIVRO, JANEIRO)));
+	}
+
+	@Test
+	@DisplayName("Preço fora de centavos ou peso fora de gramas fica de fora da tabela")
+	public void valoresNaoRepresentaveis() {
+		CatalogoPrecos.Construtor construtor = CatalogoPrecos.construtor(0);
+
+		assertThat(construtor.adicionar(dto(1L, "10.005", "1.000", false, TipoProduto.LIVRO, JANEIRO))).isFalse();
+		assertThat(construtor.adicionar(dto(2L, "10.00", "1.0005", false, TipoProduto.LIVRO, JANEIRO))).isFalse();
+		assertThat(construtor.adicionar(dto(3L, "-1.00", "1.000", false, TipoProduto.LIVRO, JANEIRO))).isFalse();
+		assertThat(construtor.adicionar(dto(4L, "10.00", "1.000", false, TipoProduto.LIVRO, JANEIRO))).isTrue();
+		CatalogoPrecos catalogo = construtor.construir();
+
+		assertThat(catalogo.getProdutos()).isEqualTo(1);
+		assertThat(catalogo.contem(1L)).isFalse();
+		assertThat(catalogo.contem(4L)).isTrue();
+	}
+
+	@Test
+	@DisplayName("Construtor incremental substitui, inclui e remove só os produtos recebidos")
+	public void incremental() {
+		CatalogoPrecos base = construir(
+				dto(1L, "10.00", "1.000", false, TipoProduto.LIVRO, JANEIRO),
+				dto(3L, "30.00", "1.000", false, TipoProduto.LIVRO, JANEIRO),
+				dto(5L, "50.00", "1.000", false, TipoProduto.LIVRO, JANEIRO),
+				dto(7L, "70.00", "1.000", false, TipoProduto.LIVRO, JANEIRO));
+
+		CatalogoPrecos.Construtor construtor = base.construtorIncremental();
+		construtor.adicionar(dto(2L, "20.00", "1.000", false, TipoProduto.LIVRO, FEVEREIRO));
+		construtor.adicionar(dto(3L, "33.00", "1.000", true, TipoProduto.LIVRO, FEVEREIRO));
+		construtor.adicionar(dto(5L, null, "1.000", false, TipoProduto.LIVRO, FEVEREIRO));
+		construtor.adicionar(dto(9L, "90.00", "1.000", false, TipoProduto.LIVRO, FEVEREIRO));
+		CatalogoPrecos novo = construtor.construir();
+
+		assertThat(novo.getProdutos()).isEqualTo(5);
+		assertThat(novo.getAtualizadoAte()).isEqualTo(FEVEREIRO);
+		assertThat(novo.contem(5L)).isFalse();
+		assertThat(novo.resumir(List.of(item(1L, 1), item(2L, 1), item(3L, 1), item(7L, 1), item(9L, 1))).getSubtotal())
+				.isEqualByComparingTo("223.00");
+		assertThat(novo.resumir(List.of(item(3L, 2))).getUnidadesFrageis()).isEqualTo(2L);
+		// A base publicada não muda
+		assertThat(base.getProdutos()).isEqualTo(4);
+		assertThat(base.resumir(List.of(item(3L, 1), item(5L, 1))).getSubtotal()).isEqualByComparingTo("80.00");
+	}
+
+	@Test
+	@DisplayName("Construtor incremental sem mudanças devolve a própria base")
+	public void incrementalSemMudancas() {
+		CatalogoPrecos base = construir(
+				dto(1L, "10.00", "1.000", false, TipoProduto.LIVRO, FEVEREIRO),
+				dto(2L, "20.00", "1.000", false, TipoProduto.LIVRO, JANEIRO));
+
+		CatalogoPrecos.Construtor construtor = base.construtorIncremental();
+		construtor.adicionar(dto(2L, "20.00", "1.000", false, TipoProduto.LIVRO, JANEIRO));
+
+		assertThat(construtor.construir()).isSameAs(base);
+		assertThat(base.construtorIncremental().construir()).isSameAs(base);
+	}
+
+	private static CatalogoPrecos construir(ProdutoPrecificacaoDTO... produtos) {
+		CatalogoPrecos.Construtor construtor = CatalogoPrecos.construtor(produtos.length);
+		for (ProdutoPrecificacaoDTO produto : produtos) {
+			construtor.adicionar(produto);
+		}
+		return construtor.construir();
+	}
+
+	private static ProdutoPrecificacaoDTO dto(long id, String preco, String peso, boolean fragil, TipoProduto tipo,
+			Instant atualizadoEm) {
+		// Medidas pequenas: o peso tributável é o peso físico
+		return new ProdutoPrecificacaoDTO(id, preco == null ? null : new BigDecimal(preco), new BigDecimal(peso),
+				BigDecimal.ONE, BigDecimal.ONE, BigDecimal.ONE, fragil, tipo, atualizadoEm);
+	}
+
+	private static ItemCompra item(long produtoId, long quantidade) {
+		Produto produto = new Produto();
+		produto.setId(produtoId);
+		return new ItemCompra(null, produto, quantidade);
+	}
+}
@@ -0,0 +1,91 @@
+package ecommerce.catalogo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ecommerce.dto.PrecoVigenciaDTO;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.TipoProduto;
+
+public class HistoricoPrecosTest {
+	private static final Instant JANEIRO = Instant.parse("2025-01-01T00:00:00Z");
+	private static final Instant FEVEREIRO = Instant.parse("2025-02-01T00:00:00Z");
+	private static final Instant MARCO = Instant.parse("2025-03-01T00:00:00Z");
+
+	private final Produto produto = produto(1L, "100.00");
+	private final Produto semHistorico = produto(2L, "30.00");
+
+	@Test
+	@DisplayName("Preço no instante é o da última vigência iniciada até ele, com início inclusivo")
+	public void precoEmInstante() {
+		HistoricoPrecos historico = construir(
+				new PrecoVigenciaDTO(1L, new BigDecimal("80.00"), MARCO),
+				new PrecoVigenciaDTO(1L, new BigDecimal("90.00"), JANEIRO),
+				new PrecoVigenciaDTO(1L, new BigDecimal("85.00"), FEVEREIRO));
+
+		assertThat(historico.precoEm(produto, JANEIRO.minusNanos(1000))).isEqualByComparingTo("100.00");
+		assertThat(historico.precoEm(produto, JANEIRO)).isEqualByComparingTo("90.00");
+		assertThat(historico.precoEm(produto, FEVEREIRO.minusNanos(1000))).isEqualByComparingTo("90.00");
+		assertThat(historico.precoEm(produto, FEVEREIRO)).isEqualByComparingTo("85.00");
+		assertThat(historico.precoEm(produto, MARCO.plusSeconds(3600))).isEqualByComparingTo("80.00");
+		assertThat(historico.precoEm(semHistorico, MARCO)).isEqualByComparingTo("30.00");
+	}
+
+	@Test
+	@DisplayName("Carrinho só é afetado depois que alguma vigência dos seus produtos começa")
+	public void afeta() {
+		HistoricoPrecos historico = construir(new PrecoVigenciaDTO(1L, new BigDecimal("90.00"), FEVEREIRO),
+				new PrecoVigenciaDTO(3L, new BigDecimal("-1.00"), JANEIRO));
+		List<ItemCompra> itens = List.of(new ItemCompra(null, produto, 1L), new ItemCompra(null, semHistorico, 2L));
+
+		assertThat(historico.getProdutos()).isEqualTo(1);
+		assertThat(historico.afeta(itens, JANEIRO)).isFalse();
+		assertThat(historico.afeta(itens, FEVEREIRO)).isTrue();
+		assertThat(historico.afeta(List.of(new ItemCompra(null, semHistorico, 1L)), MARCO)).isFalse();
+		assertThat(HistoricoPrecos.VAZIO.afeta(itens, MARCO)).isFalse();
+	}
+
+	@Test
+	@DisplayName("Fotografia a partir de um instante não responde antes dele nem antes da primeira vigência carregada")
+	public void conhecePrecos() {
+		HistoricoPrecos.Construtor construtor = HistoricoPrecos.construtor(FEVEREIRO);
+		// Vigência em curso em fevereiro e a agendada para março
+		construtor.adicionar(new PrecoVigenciaDTO(1L, new BigDecimal("90.00"), JANEIRO));
+		construtor.adicionar(new PrecoVigenciaDTO(1L, new BigDecimal("80.00"), MARCO));
+		construtor.adicionar(new PrecoVigenciaDTO(3L, new BigDecimal("10.00"), MARCO));
+		HistoricoPrecos historico = construtor.construir();
+		Produto agendado = produto(3L, "12.00");
+
+		assertThat(historico.cobre(FEVEREIRO)).isTrue();
+		assertThat(historico.cobre(FEVEREIRO.minusNanos(1000))).isFalse();
+		assertThat(historico.conhecePrecosEm(List.of(new ItemCompra(null, produto, 1L)), FEVEREIRO)).isTrue();
+		assertThat(historico.conhecePrecosEm(List.of(new ItemCompra(null, produto, 1L)), JANEIRO)).isFalse();
+		// Antes da primeira vigência do produto, o preço da época não foi guardado
+		assertThat(historico.conhecePrecosEm(List.of(new ItemCompra(null, agendado, 1L)), FEVEREIRO)).isFalse();
+		assertThat(historico.conhecePrecosEm(List.of(new ItemCompra(null, agendado, 1L)), MARCO)).isTrue();
+		assertThat(historico.conhecePrecosEm(List.of(new ItemCompra(null, semHistorico, 1L)), FEVEREIRO)).isTrue();
+		assertThat(historico.precoEm(agendado, FEVEREIRO)).isEqualByComparingTo("12.00");
+		assertThat(HistoricoPrecos.construtor(FEVEREIRO).construir().cobre(JANEIRO)).isFalse();
+		assertThat(HistoricoPrecos.VAZIO.cobre(Instant.EPOCH)).isTrue();
+	}
+
+	private static HistoricoPrecos construir(PrecoVigenciaDTO... vigencias) {
+		HistoricoPrecos.Construtor construtor = HistoricoPrecos.construtor();
+		for (PrecoVigenciaDTO vigencia : vigencias) {
+			construtor.adicionar(vigencia);
+		}
+		return construtor.construir();
+	}
+
+	private static Produto produto(Long id, String preco) {
+		return new Produto(id, "Produto " + id, "Desc", new BigDecimal(preco), BigDecimal.ONE, BigDecimal.TEN,
+				BigDecimal.TEN, BigDecimal.TEN, false, TipoProduto.LIVRO);
+	}
+}
@@ -0,0 +1,96 @@
+package ecommerce.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import ecommerce.dto.CompraDTO;
+
+/**
+ * Lista de conversores montada como na aplicação (conversores declarados mais
+ * os padrões do Spring MVC) e a negociação de formato sobre ela.
+ */
+public class FormatosBinariosConfigTest {
+	private static final CompraDTO COMPRA = new CompraDTO(true, 7L, "Compra finalizada com sucesso.");
+
+	private final FormatosBinariosConfig config = new FormatosBinariosConfig();
+	private final MappingJackson2CborHttpMessageConverter cbor = config.conversorCbor(Jackson2ObjectMapperBuilder.json());
+	private final MappingJackson2SmileHttpMessageConverter smile = config
+			.conversorSmile(Jackson2ObjectMapperBuilder.json());
+	private final List<HttpMessageConverter<?>> combinados = new HttpMessageConverters(List.of(cbor, smile))
+			.getConverters();
+
+	@Test
+	@DisplayName("Os padrões CBOR e Smile do Spring MVC saem da lista; ficam os do builder do Spring Boot")
+	public void semConversoresDuplicados() {
+		// Sem o ajuste, o padrão de cada classe continua na lista, logo depois do declarado
+		assertThat(contar(combinados, MappingJackson2CborHttpMessageConverter.class)).isEqualTo(2);
+
+		List<HttpMessageConverter<?>> conversores = FormatosBinariosConfig.semPadroesSubstituidos(combinados);
+
+		assertThat(conversores.stream().filter(c -> c instanceof MappingJackson2CborHttpMessageConverter).toList())
+				.containsExactly(cbor);
+		assertThat(conversores.stream().filter(c -> c instanceof MappingJackson2SmileHttpMessageConverter).toList())
+				.containsExactly(smile);
+		assertThat(conversores).hasSize(combinados.size() - 2);
+	}
+
+	@Test
+	@DisplayName("Accept escolhe CBOR ou Smile; sem Accept, JSON")
+	public void negociacao() throws Exception {
+		MockMvc mvc = MockMvcBuilders.standaloneSetup(new CompraDeTeste())
+				.setMessageConverters(
+						FormatosBinariosConfig.semPadroesSubstituidos(combinados).toArray(HttpMessageConverter[]::new))
+				.build();
+
+		byte[] emCbor = mvc.perform(get("/compra").accept("application/cbor"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType("application/cbor"))
+				.andReturn().getResponse().getContentAsByteArray();
+		assertThat(new ObjectMapper(new CBORFactory()).readValue(emCbor, CompraDTO.class)).isEqualTo(COMPRA);
+
+		byte[] emSmile = mvc.perform(get("/compra").accept("application/x-jackson-smile"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType("application/x-jackson-smile"))
+				.andReturn().getResponse().getContentAsByteArray();
+		assertThat(new ObjectMapper(new SmileFactory()).readValue(emSmile, CompraDTO.class)).isEqualTo(COMPRA);
+
+		mvc.perform(get("/compra"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+				.andExpect(jsonPath("$.transacaoPagamentoId").value(7));
+	}
+
+	private static long contar(List<HttpMessageConverter<?>> conversores, Class<?> classe) {
+		return conversores.stream().filter(c -> c.getClass() == classe).count();
+	}
+
+	@RestController
+	static class CompraDeTeste {
+		@GetMapping("/compra")
+		public CompraDTO compra() {
+			return COMPRA;
+		}
+	}
+}
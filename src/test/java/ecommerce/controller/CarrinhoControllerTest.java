@@ -0,0 +1,165 @@
+package ecommerce.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+
+import ecommerce.dto.CarrinhoDTO;
+import ecommerce.dto.ItemCarrinhoDTO;
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.Regiao;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+import ecommerce.repository.CarrinhoDeComprasRepository;
+import ecommerce.repository.ProdutoRepository;
+import ecommerce.service.CarrinhoDeComprasService;
+import ecommerce.service.ClienteService;
+
+/**
+ * Criação e edição de carrinhos pelo {@link CarrinhoController}, com o serviço
+ * real sobre repositórios simulados à mão: o "banco" guarda um único carrinho.
+ */
+public class CarrinhoControllerTest {
+	private static final long CARRINHO_ID = 100L;
+
+	private final Cliente cliente = new Cliente(1L, "Cliente", Regiao.SUDESTE, TipoCliente.BRONZE);
+	private final Map<Long, Produto> produtos = Map.of(10L, produto(10L), 20L, produto(20L));
+
+	private CarrinhoDeCompras noBanco;
+	private RuntimeException falhaNaAlteracao;
+
+	private final CarrinhoController controller = new CarrinhoController(
+			new CarrinhoDeComprasService(carrinhosNoBanco(), produtosNoBanco()), new ClienteService(null) {
+				@Override
+				public Cliente buscarPorId(Long clienteId) {
+					return cliente;
+				}
+			});
+
+	@Test
+	@DisplayName("Criação responde 201 com o carrinho e seus itens")
+	public void criar() {
+		ResponseEntity<?> resposta = controller.criar(cliente.getId(),
+				List.of(new ItemCarrinhoDTO(10L, 2L), new ItemCarrinhoDTO(20L, 1L)));
+
+		assertThat(resposta.getStatusCode().value()).isEqualTo(201);
+		CarrinhoDTO carrinho = (CarrinhoDTO) resposta.getBody();
+		assertThat(carrinho.id()).isEqualTo(CARRINHO_ID);
+		assertThat(carrinho.clienteId()).isEqualTo(cliente.getId());
+		assertThat(carrinho.itens()).containsExactly(new ItemCarrinhoDTO(10L, 2L), new ItemCarrinhoDTO(20L, 1L));
+	}
+
+	@Test
+	@DisplayName("Quantidade zero remove o produto; as demais alterações da mesma chamada são aplicadas")
+	public void quantidadeZeroRemove() {
+		noBanco = carrinho(new ItemCompra(1L, produtos.get(10L), 2L));
+
+		ResponseEntity<?> resposta = controller.alterarItens(CARRINHO_ID, cliente.getId(),
+				List.of(new ItemCarrinhoDTO(10L, 0L), new ItemCarrinhoDTO(20L, 3L)));
+
+		assertThat(resposta.getStatusCode().value()).isEqualTo(200);
+		assertThat(((CarrinhoDTO) resposta.getBody()).itens()).containsExactly(new ItemCarrinhoDTO(20L, 3L));
+	}
+
+	@Test
+	@DisplayName("Entrada inválida responde 400 com o motivo")
+	public void entradaInvalida() {
+		noBanco = carrinho(new ItemCompra(1L, produtos.get(10L), 2L));
+
+		assertThat(problema(controller.criar(cliente.getId(), List.of()), 400).getDetail())
+				.isEqualTo("Nenhum item informado.");
+		assertThat(problema(controller.criar(cliente.getId(), List.of(new ItemCarrinhoDTO(10L, 0L))), 400)
+				.getDetail()).isEqualTo("Quantidade inválida para o produto 10.");
+		assertThat(problema(controller.alterarItens(CARRINHO_ID, cliente.getId(),
+				List.of(new ItemCarrinhoDTO(10L, -1L))), 400).getDetail())
+				.isEqualTo("Quantidade inválida para o produto 10.");
+		assertThat(problema(controller.alterarItens(CARRINHO_ID, cliente.getId(),
+				List.of(new ItemCarrinhoDTO(99L, 1L))), 400).getDetail())
+				.isEqualTo("Produtos não encontrados: [99].");
+		assertThat(problema(controller.alterarItens(CARRINHO_ID + 1, cliente.getId(),
+				List.of(new ItemCarrinhoDTO(10L, 1L))), 400).getDetail())
+				.isEqualTo("Carrinho não encontrado.");
+		// Nada foi alterado pelas chamadas recusadas
+		assertThat(noBanco.getItens()).hasSize(1);
+		assertThat(noBanco.getItens().get(0).getQuantidade()).isEqualTo(2L);
+	}
+
+	@Test
+	@DisplayName("Edição concorrente do mesmo carrinho responde 409")
+	public void conflitoDeVersao() {
+		noBanco = carrinho(new ItemCompra(1L, produtos.get(10L), 2L));
+		falhaNaAlteracao = new OptimisticLockingFailureException("versão do carrinho mudou");
+
+		ProblemDetail problema = problema(controller.alterarItens(CARRINHO_ID, cliente.getId(),
+				List.of(new ItemCarrinhoDTO(10L, 5L))), 409);
+
+		assertThat(problema.getDetail()).isEqualTo("Carrinho alterado por outra requisição, tente novamente.");
+	}
+
+	private static ProblemDetail problema(ResponseEntity<?> resposta, int status) {
+		assertThat(resposta.getStatusCode().value()).isEqualTo(status);
+		return (ProblemDetail) resposta.getBody();
+	}
+
+	private CarrinhoDeCompras carrinho(ItemCompra... itens) {
+		return new CarrinhoDeCompras(CARRINHO_ID, cliente, new ArrayList<>(List.of(itens)), LocalDate.now());
+	}
+
+	/** Repositório que grava e edita um único carrinho. */
+	private CarrinhoDeComprasRepository carrinhosNoBanco() {
+		return (CarrinhoDeComprasRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { CarrinhoDeComprasRepository.class }, (proxy, metodo, argumentos) -> {
+					switch (metodo.getName()) {
+					case "save":
+						noBanco = (CarrinhoDeCompras) argumentos[0];
+						noBanco.setId(CARRINHO_ID);
+						return noBanco;
+					case "findParaAlteracaoByIdAndCliente":
+						// O incremento forçado da versão falha quando outra transação gravou o carrinho antes
+						if (falhaNaAlteracao != null) {
+							throw falhaNaAlteracao;
+						}
+						return Optional.ofNullable(noBanco).filter(c -> c.getId().equals(argumentos[0]));
+					default:
+						throw new UnsupportedOperationException(metodo.getName());
+					}
+				});
+	}
+
+	private ProdutoRepository produtosNoBanco() {
+		return (ProdutoRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { ProdutoRepository.class }, (proxy, metodo, argumentos) -> {
+					if (!metodo.getName().equals("findAllById")) {
+						throw new UnsupportedOperationException(metodo.getName());
+					}
+					List<Produto> encontrados = new ArrayList<>();
+					for (Object id : (Collection<?>) argumentos[0]) {
+						if (produtos.containsKey(id)) {
+							encontrados.add(produtos.get(id));
+						}
+					}
+					return encontrados;
+				});
+	}
+
+	private static Produto produto(long id) {
+		return new Produto(id, "Produto " + id, "Desc", new BigDecimal("10.00"), new BigDecimal("1.00"),
+				new BigDecimal("10"), new BigDecimal("10"), new BigDecimal("10"), false, TipoProduto.LIVRO);
+	}
+}
@@ -0,0 +1,163 @@
+package ecommerce.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+
+import ecommerce.dto.CompraDTO;
+import ecommerce.service.AritmeticaMonetaria;
+import ecommerce.service.CompraReativaService;
+import ecommerce.service.CompraService;
+import ecommerce.service.ResultadoCompra;
+import reactor.core.publisher.Mono;
+
+/**
+ * Resposta de {@code /finalizar} e {@code /reativo/finalizar} para cada
+ * desfecho da compra e cada tipo de falha, com os serviços simulados à mão.
+ * Recusas e falhas respondem no mesmo formato ({@link ProblemDetail}) das
+ * rotas de carrinho.
+ */
+public class CompraControllerTest {
+	private ResultadoCompra resultado;
+	private Exception falha;
+
+	private final CompraController controller = new CompraController(
+			new CompraService(null, null, null, null, null, null, null, null, null, null, AritmeticaMonetaria.DECIMAL) {
+				@Override
+				public ResultadoCompra tentarFinalizarCompra(Long carrinhoId, Long clienteId, String cupom) {
+					if (falha != null) {
+						throw (RuntimeException) falha;
+					}
+					return resultado;
+				}
+			}, new CompraReativaService(null, null, null, null, null, null) {
+				@Override
+				public Mono<ResultadoCompra> finalizarCompra(Long carrinhoId, Long clienteId, String cupom) {
+					return falha != null ? Mono.error(falha) : Mono.just(resultado);
+				}
+			});
+
+	@Test
+	@DisplayName("Sucesso responde 200 com a compra")
+	public void sucesso() {
+		CompraDTO compra = new CompraDTO(true, 7L, "Compra finalizada com sucesso.");
+		resultado = new ResultadoCompra.Sucesso(compra);
+
+		for (ResponseEntity<?> resposta : respostas()) {
+			assertThat(resposta.getStatusCode().value()).isEqualTo(200);
+			assertThat(resposta.getBody()).isEqualTo(compra);
+		}
+	}
+
+	@Test
+	@DisplayName("Fora de estoque responde 409 com os produtos indisponíveis")
+	public void foraDeEstoque() {
+		resultado = new ResultadoCompra.ForaDeEstoque(List.of(10L, 30L));
+
+		for (ResponseEntity<?> resposta : respostas()) {
+			ProblemDetail problema = problema(resposta, 409);
+			assertThat(problema.getTitle()).isEqualTo("Fora de estoque");
+			assertThat(problema.getDetail()).isEqualTo("Itens fora de estoque.");
+			assertThat(problema.getProperties().get("idsProdutosIndisponiveis")).isEqualTo(List.of(10L, 30L));
+		}
+	}
+
+	@Test
+	@DisplayName("Pagamento negado responde 402")
+	public void pagamentoNegado() {
+		resultado = new ResultadoCompra.PagamentoNegado();
+
+		for (ResponseEntity<?> resposta : respostas()) {
+			ProblemDetail problema = problema(resposta, 402);
+			assertThat(problema.getTitle()).isEqualTo("Pagamento negado");
+			assertThat(problema.getDetail()).isEqualTo("Pagamento não autorizado.");
+		}
+	}
+
+	@Test
+	@DisplayName("Carrinho alterado durante a compra responde 409")
+	public void carrinhoAlterado() {
+		resultado = new ResultadoCompra.CarrinhoAlterado();
+
+		for (ResponseEntity<?> resposta : respostas()) {
+			ProblemDetail problema = problema(resposta, 409);
+			assertThat(problema.getTitle()).isEqualTo("Carrinho alterado");
+			assertThat(problema.getDetail()).isEqualTo("Carrinho alterado durante a finalização da compra.");
+		}
+	}
+
+	@Test
+	@DisplayName("Baixa recusada pelo estoque responde 409, com título próprio")
+	public void falhaNaBaixa() {
+		resultado = new ResultadoCompra.FalhaNaBaixa();
+
+		for (ResponseEntity<?> resposta : respostas()) {
+			ProblemDetail problema = problema(resposta, 409);
+			assertThat(problema.getTitle()).isEqualTo("Falha na baixa do estoque");
+			assertThat(problema.getDetail()).isEqualTo("Erro ao dar baixa no estoque.");
+		}
+	}
+
+	@Test
+	@DisplayName("Argumento inválido (carrinho ou cliente inexistente) responde 400")
+	public void argumentoInvalido() {
+		falha = new IllegalArgumentException("Carrinho não encontrado.");
+
+		for (ResponseEntity<?> resposta : respostas()) {
+			assertThat(problema(resposta, 400).getDetail()).isEqualTo("Carrinho não encontrado.");
+		}
+	}
+
+	@Test
+	@DisplayName("Estado inválido responde 409")
+	public void estadoInvalido() {
+		falha = new IllegalStateException("Estado inválido.");
+
+		for (ResponseEntity<?> resposta : respostas()) {
+			assertThat(problema(resposta, 409).getDetail()).isEqualTo("Estado inválido.");
+		}
+	}
+
+	@Test
+	@DisplayName("Falha inesperada responde 500 sem expor a mensagem interna")
+	public void falhaInesperada() {
+		falha = new RuntimeException("detalhe interno");
+
+		for (ResponseEntity<?> resposta : respostas()) {
+			assertThat(problema(resposta, 500).getDetail()).isEqualTo("Erro ao processar compra.");
+		}
+	}
+
+	@Test
+	@DisplayName("Rota reativa: tempo esgotado responde 504 e agendador sobrecarregado, 503")
+	public void falhasDaRotaReativa() {
+		falha = new TimeoutException();
+		assertThat(problema(controller.finalizarCompraReativa(1L, 1L, null).block(), 504).getDetail())
+				.isEqualTo("Tempo esgotado ao processar compra.");
+
+		falha = new RejectedExecutionException();
+		assertThat(problema(controller.finalizarCompraReativa(1L, 1L, null).block(), 503).getDetail())
+				.isEqualTo("Serviço sobrecarregado, tente novamente.");
+	}
+
+	/** Resposta das duas rotas para o mesmo desfecho. */
+	private List<ResponseEntity<?>> respostas() {
+		List<ResponseEntity<?>> respostas = new ArrayList<>();
+		respostas.add(controller.finalizarCompra(1L, 1L, null));
+		respostas.add(controller.finalizarCompraReativa(1L, 1L, null).block());
+		return respostas;
+	}
+
+	private static ProblemDetail problema(ResponseEntity<?> resposta, int status) {
+		assertThat(resposta.getStatusCode().value()).isEqualTo(status);
+		return (ProblemDetail) resposta.getBody();
+	}
+}
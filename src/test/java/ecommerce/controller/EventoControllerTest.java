@@ -0,0 +1,55 @@
+package ecommerce.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+
+import ecommerce.dto.EventosPedidoDTO;
+import ecommerce.eventos.EventosDePedidoService;
+
+/**
+ * Respostas de erro do {@link EventoController}, com o serviço de eventos
+ * simulado à mão.
+ */
+public class EventoControllerTest {
+	private Exception falhaNaLeitura;
+
+	private final EventoController controller = new EventoController(new EventosDePedidoService(null, null) {
+		@Override
+		public EventosPedidoDTO ler(long posicao, int maximo, Duration espera) throws InterruptedException {
+			if (falhaNaLeitura instanceof InterruptedException e) {
+				throw e;
+			}
+			throw (IllegalArgumentException) falhaNaLeitura;
+		}
+	});
+
+	@Test
+	@DisplayName("Posição inválida responde 400 com o motivo")
+	public void posicaoInvalida() {
+		falhaNaLeitura = new IllegalArgumentException("Posição fora do log: 99 (fim em 10).");
+
+		ResponseEntity<?> resposta = controller.lerPedidos(99L, 100, 0L);
+
+		assertThat(resposta.getStatusCode().value()).isEqualTo(400);
+		assertThat(((ProblemDetail) resposta.getBody()).getDetail()).isEqualTo("Posição fora do log: 99 (fim em 10).");
+	}
+
+	@Test
+	@DisplayName("Espera interrompida responde 503 com o motivo")
+	public void esperaInterrompida() {
+		falhaNaLeitura = new InterruptedException();
+
+		ResponseEntity<?> resposta = controller.lerPedidos(0L, 100, 1000L);
+
+		assertThat(resposta.getStatusCode().value()).isEqualTo(503);
+		assertThat(((ProblemDetail) resposta.getBody()).getDetail())
+				.isEqualTo("Leitura de eventos interrompida; tente novamente");
+		assertThat(Thread.interrupted()).isTrue();
+	}
+}
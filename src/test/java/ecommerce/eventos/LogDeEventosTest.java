@@ -0,0 +1,101 @@
+package ecommerce.eventos;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class LogDeEventosTest {
+	private Path diretorio;
+
+	@BeforeEach
+	public void setup() throws IOException {
+		diretorio = Files.createTempDirectory("log-de-eventos");
+	}
+
+	@Test
+	@DisplayName("Registros anexados são lidos em ordem, atravessando segmentos")
+	public void leituraEmOrdemEntreSegmentos() throws Exception {
+		try (LogDeEventos log = new LogDeEventos(diretorio, 64, 16, 1000)) {
+			for (int i = 0; i < 20; i++) {
+				assertThat(log.anexar(("evento-" + i).getBytes(StandardCharsets.UTF_8))).isTrue();
+			}
+
+			List<String> lidos = lerTudo(log);
+
+			assertThat(lidos).hasSize(20);
+			for (int i = 0; i < 20; i++) {
+				assertThat(lidos.get(i)).isEqualTo("evento-" + i);
+			}
+			assertThat(contarSegmentos()).isGreaterThan(1L);
+		}
+	}
+
+	@Test
+	@DisplayName("Ao reabrir, final incompleto do último segmento é descartado e a gravação continua dele")
+	public void recuperaDeGravacaoIncompleta() throws Exception {
+		try (LogDeEventos log = new LogDeEventos(diretorio, 1 << 20, 16, 1000)) {
+			log.anexar("a".getBytes(StandardCharsets.UTF_8));
+			log.anexar("b".getBytes(StandardCharsets.UTF_8));
+			lerTudo(log);
+		}
+		try (FileChannel canal = FileChannel.open(diretorio.resolve(String.format("%020d.log", 0)),
+				StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+			canal.write(ByteBuffer.wrap(new byte[] { 0, 0, 0, 9, 1, 2 }));
+		}
+
+		try (LogDeEventos log = new LogDeEventos(diretorio, 1 << 20, 16, 1000)) {
+			log.anexar("c".getBytes(StandardCharsets.UTF_8));
+
+			assertThat(lerTudo(log)).containsExactly("a", "b", "c");
+		}
+	}
+
+	@Test
+	@DisplayName("Consumidor acompanhando o fim do log recebe o próximo registro sincronizado")
+	public void acompanharRecebeNovoRegistro() throws Exception {
+		try (LogDeEventos log = new LogDeEventos(diretorio, 1 << 20, 16, 1000)) {
+			long fim = log.getPosicaoFinal();
+			Thread publicador = new Thread(() -> log.anexar("novo".getBytes(StandardCharsets.UTF_8)));
+			publicador.start();
+
+			List<RegistroDoLog> registros = log.acompanhar(fim, 10, Duration.ofSeconds(10));
+
+			assertThat(registros).hasSize(1);
+			assertThat(new String(registros.get(0).dados(), StandardCharsets.UTF_8)).isEqualTo("novo");
+			assertThat(registros.get(0).proximaPosicao()).isEqualTo(log.getPosicaoFinal());
+		}
+	}
+
+	private List<String> lerTudo(LogDeEventos log) throws InterruptedException {
+		List<String> lidos = new ArrayList<>();
+		long posicao = 0;
+		List<RegistroDoLog> registros;
+		while (!(registros = log.acompanhar(posicao, 7, Duration.ofMillis(500))).isEmpty()) {
+			for (RegistroDoLog registro : registros) {
+				lidos.add(new String(registro.dados(), StandardCharsets.UTF_8));
+				posicao = registro.proximaPosicao();
+			}
+		}
+		return lidos;
+	}
+
+	private long contarSegmentos() throws IOException {
+		try (Stream<Path> arquivos = Files.list(diretorio)) {
+			return arquivos.count();
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package ecommerce.external.agrupamento;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import ecommerce.external.IEstoqueExternal;
+
+public class BaixaAgregadaTest {
+	private final Map<Long, Long> saldo = new HashMap<>(Map.of(1L, 10L, 2L, 10L));
+	private final AtomicInteger chamadas = new AtomicInteger();
+
+	/** Estoque remoto tudo-ou-nada: ou baixa todos os itens, ou nenhum. */
+	private final IEstoqueExternal remoto = new IEstoqueExternal() {
+		@Override
+		public synchronized EstoqueBaixaDTO darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades) {
+			chamadas.incrementAndGet();
+			for (int i = 0; i < produtosIds.size(); i++) {
+				if (saldo.get(produtosIds.get(i)) < produtosQuantidades.get(i)) {
+					return new EstoqueBaixaDTO(false);
+				}
+			}
+			for (int i = 0; i < produtosIds.size(); i++) {
+				saldo.merge(produtosIds.get(i), -produtosQuantidades.get(i), Long::sum);
+			}
+			return new EstoqueBaixaDTO(true);
+		}
+
+		@Override
+		public synchronized EstoqueBaixaDTO estornarBaixa(List<Long> produtosIds, List<Long> produtosQuantidades) {
+			for (int i = 0; i < produtosIds.size(); i++) {
+				saldo.merge(produtosIds.get(i), produtosQuantidades.get(i), Long::sum);
+			}
+			return new EstoqueBaixaDTO(true);
+		}
+
+		@Override
+		public DisponibilidadeDTO verificarDisponibilidade(List<Long> produtosIds, List<Long> produtosQuantidades) {
+			return new DisponibilidadeDTO(true, List.of());
+		}
+	};
+
+	private final ExecutorService clientes = Executors.newFixedThreadPool(8);
+	private BaixaAgregada agregada;
+
+	@AfterEach
+	public void encerrar() {
+		clientes.shutdownNow();
+		agregada.close();
+	}
+
+	@Test
+	@DisplayName("Baixas do mesmo produto em finalizações concorrentes viram uma baixa remota")
+	public void loteBemSucedidoUsaUmaChamada() throws Exception {
+		agregada = new BaixaAgregada(remoto, Duration.ofSeconds(10), 8, 1);
+		List<List<Long>> ids = new ArrayList<>();
+		List<List<Long>> quantidades = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			ids.add(List.of(1L, 2L));
+			quantidades.add(List.of(1L, 1L));
+		}
+
+		List<EstoqueBaixaDTO> respostas = baixarConcorrentemente(ids, quantidades);
+
+		assertThat(respostas).allMatch(EstoqueBaixaDTO::sucesso);
+		assertThat(chamadas.get()).isEqualTo(1);
+		assertThat(saldo.get(1L)).isEqualTo(2L);
+		assertThat(saldo.get(2L)).isEqualTo(2L);
+	}
+
+	@Test
+	@DisplayName("Baixa que não cabe no estoque falha sozinha, sem afetar as demais do lote")
+	public void falhaIsoladaNoLote() throws Exception {
+		agregada = new BaixaAgregada(remoto, Duration.ofSeconds(10), 8, 1);
+		List<List<Long>> ids = new ArrayList<>();
+		List<List<Long>> quantidades = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			ids.add(List.of(1L));
+			quantidades.add(List.of(i == 5 ? 50L : 1L));
+		}
+
+		List<EstoqueBaixaDTO> respostas = baixarConcorrentemente(ids, quantidades);
+
+		for (int i = 0; i < respostas.size(); i++) {
+			assertThat(respostas.get(i).sucesso()).isEqualTo(i != 5);
+		}
+		assertThat(saldo.get(1L)).isEqualTo(3L);
+	}
+
+	private List<EstoqueBaixaDTO> baixarConcorrentemente(List<List<Long>> ids, List<List<Long>> quantidades)
+			throws Exception {
+		CountDownLatch largada = new CountDownLatch(1);
+		List<Future<EstoqueBaixaDTO>> futuros = new ArrayList<>();
+		for (int i = 0; i < ids.size(); i++) {
+			int indice = i;
+			futuros.add(clientes.submit(() -> {
+				largada.await();
+				return agregada.darBaixa(ids.get(indice), quantidades.get(indice));
+			}));
+		}
+		largada.countDown();
+		List<EstoqueBaixaDTO> respostas = new ArrayList<>();
+		for (Future<EstoqueBaixaDTO> futuro : futuros) {
+			respostas.add(futuro.get());
+		}
+		return respostas;
+	}
+}
@@ -0,0 +1,114 @@
+package ecommerce.external.agrupamento;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import ecommerce.external.IEstoqueExternal;
+
+public class DisponibilidadeAgrupadaTest {
+	/** Estoque fixo: produto 1 tem 5 unidades, produto 2 tem 1, produto 3 está esgotado. */
+	private static final Map<Long, Long> SALDO = Map.of(1L, 5L, 2L, 1L, 3L, 0L);
+
+	private final AtomicInteger chamadas = new AtomicInteger();
+	private final IEstoqueExternal remoto = new IEstoqueExternal() {
+		@Override
+		public EstoqueBaixaDTO darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades) {
+			return new EstoqueBaixaDTO(true);
+		}
+
+		@Override
+		public EstoqueBaixaDTO estornarBaixa(List<Long> produtosIds, List<Long> produtosQuantidades) {
+			return new EstoqueBaixaDTO(true);
+		}
+
+		@Override
+		public DisponibilidadeDTO verificarDisponibilidade(List<Long> produtosIds, List<Long> produtosQuantidades) {
+			chamadas.incrementAndGet();
+			List<Long> indisponiveis = new ArrayList<>();
+			for (int i = 0; i < produtosIds.size(); i++) {
+				if (SALDO.getOrDefault(produtosIds.get(i), 0L) < produtosQuantidades.get(i)) {
+					indisponiveis.add(produtosIds.get(i));
+				}
+			}
+			return new DisponibilidadeDTO(indisponiveis.isEmpty(), indisponiveis);
+		}
+	};
+
+	private final ExecutorService clientes = Executors.newFixedThreadPool(8);
+	private DisponibilidadeAgrupada agrupada;
+
+	@AfterEach
+	public void encerrar() {
+		clientes.shutdownNow();
+		agrupada.close();
+	}
+
+	@Test
+	@DisplayName("Consultas concorrentes recebem a mesma resposta que teriam individualmente")
+	public void respostasIguaisAsIndividuais() throws Exception {
+		agrupada = new DisponibilidadeAgrupada(remoto, Duration.ofMillis(50), 8, 1);
+		List<List<Long>> ids = List.of(List.of(1L), List.of(1L, 2L), List.of(1L), List.of(2L), List.of(3L),
+				List.of(1L, 3L), List.of(2L), List.of(1L));
+		List<List<Long>> quantidades = List.of(List.of(5L), List.of(6L, 1L), List.of(2L), List.of(1L), List.of(1L),
+				List.of(1L, 1L), List.of(2L), List.of(1L));
+
+		List<DisponibilidadeDTO> respostas = consultarConcorrentemente(ids, quantidades);
+
+		for (int i = 0; i < ids.size(); i++) {
+			assertThat(respostas.get(i)).isEqualTo(remoto.verificarDisponibilidade(ids.get(i), quantidades.get(i)));
+		}
+	}
+
+	@Test
+	@DisplayName("Lote inteiramente disponível é respondido com uma única chamada remota")
+	public void loteDisponivelUsaUmaChamada() throws Exception {
+		agrupada = new DisponibilidadeAgrupada(remoto, Duration.ofSeconds(10), 8, 1);
+		List<List<Long>> ids = new ArrayList<>();
+		List<List<Long>> quantidades = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			ids.add(List.of(1L, 2L));
+			quantidades.add(List.of(1L + i % 5, 1L));
+		}
+
+		List<DisponibilidadeDTO> respostas = consultarConcorrentemente(ids, quantidades);
+
+		assertThat(respostas).allMatch(DisponibilidadeDTO::disponivel);
+		assertThat(chamadas.get()).isEqualTo(1);
+		assertThat(agrupada.getConsultasRecebidas()).isEqualTo(8L);
+		assertThat(agrupada.getChamadasRemotas()).isEqualTo(1L);
+	}
+
+	private List<DisponibilidadeDTO> consultarConcorrentemente(List<List<Long>> ids, List<List<Long>> quantidades)
+			throws Exception {
+		CountDownLatch largada = new CountDownLatch(1);
+		List<Future<DisponibilidadeDTO>> futuros = new ArrayList<>();
+		for (int i = 0; i < ids.size(); i++) {
+			int indice = i;
+			futuros.add(clientes.submit(() -> {
+				largada.await();
+				return agrupada.verificarDisponibilidade(ids.get(indice), quantidades.get(indice));
+			}));
+		}
+		largada.countDown();
+		List<DisponibilidadeDTO> respostas = new ArrayList<>();
+		for (Future<DisponibilidadeDTO> futuro : futuros) {
+			respostas.add(futuro.get());
+		}
+		return respostas;
+	}
+}
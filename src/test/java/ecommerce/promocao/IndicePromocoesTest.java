@@ -0,0 +1,83 @@
+package ecommerce.promocao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.Promocao;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+
+public class IndicePromocoesTest {
+	private static final Instant AGORA = Instant.parse("2025-06-01T12:00:00Z");
+	private static final Instant ONTEM = AGORA.minusSeconds(86_400);
+	private static final Instant AMANHA = AGORA.plusSeconds(86_400);
+
+	private final Produto livro = produto(1L, "100.00", TipoProduto.LIVRO);
+	private final Produto roupa = produto(2L, "50.00", TipoProduto.ROUPA);
+
+	@Test
+	@DisplayName("Cada item recebe a maior promoção aplicável, sem acumular produto, tipo e geral")
+	public void melhorPromocaoSemAcumular() {
+		IndicePromocoes indice = IndicePromocoes.construir(List.of(
+				promocao(null, 1L, null, null, "0.10", 1L, ONTEM, null),
+				promocao(null, null, TipoProduto.LIVRO, null, "0.25", 1L, ONTEM, null),
+				promocao(null, null, null, null, "0.05", 1L, ONTEM, null)));
+
+		BigDecimal desconto = indice.calcularDesconto(List.of(new ItemCompra(null, livro, 2L),
+				new ItemCompra(null, roupa, 1L)), TipoCliente.BRONZE, null, AGORA);
+
+		// livro: 25% de 200,00; roupa: só a geral, 5% de 50,00
+		assertThat(desconto).isEqualByComparingTo("52.50");
+	}
+
+	@Test
+	@DisplayName("Nível do cliente, quantidade mínima e vigência restringem a promoção")
+	public void restricoes() {
+		IndicePromocoes indice = IndicePromocoes.construir(List.of(
+				promocao(null, null, null, TipoCliente.OURO, "0.20", 1L, ONTEM, null),
+				promocao(null, 2L, null, null, "0.30", 3L, ONTEM, null),
+				promocao(null, 1L, null, null, "0.40", 1L, AMANHA, null),
+				promocao(null, 1L, null, null, "0.50", 1L, ONTEM.minusSeconds(60), ONTEM)));
+		List<ItemCompra> itens = List.of(new ItemCompra(null, livro, 1L), new ItemCompra(null, roupa, 2L));
+
+		assertThat(indice.calcularDesconto(itens, TipoCliente.PRATA, null, AGORA)).isEqualByComparingTo("0");
+		assertThat(indice.calcularDesconto(itens, TipoCliente.OURO, null, AGORA)).isEqualByComparingTo("40.00");
+		// a promoção agendada passa a valer no início, sem reconstruir o índice
+		assertThat(indice.calcularDesconto(itens, TipoCliente.PRATA, null, AMANHA)).isEqualByComparingTo("40.00");
+		assertThat(indice.calcularDesconto(List.of(new ItemCompra(null, roupa, 3L)), TipoCliente.PRATA, null, AGORA))
+				.isEqualByComparingTo("45.00");
+	}
+
+	@Test
+	@DisplayName("Promoção de cupom só vale com o código informado")
+	public void cupom() {
+		IndicePromocoes indice = IndicePromocoes.construir(List.of(
+				promocao("LIVROS10", null, TipoProduto.LIVRO, null, "0.10", 1L, ONTEM, null),
+				promocao(null, null, null, null, "1.50", 1L, ONTEM, null)));
+		List<ItemCompra> itens = List.of(new ItemCompra(null, livro, 1L));
+
+		assertThat(indice.getRegras()).isEqualTo(1);
+		assertThat(indice.calcularDesconto(itens, TipoCliente.BRONZE, null, AGORA)).isEqualByComparingTo("0");
+		assertThat(indice.calcularDesconto(itens, TipoCliente.BRONZE, "OUTRO", AGORA)).isEqualByComparingTo("0");
+		assertThat(indice.calcularDesconto(itens, TipoCliente.BRONZE, "LIVROS10", AGORA)).isEqualByComparingTo("10.00");
+	}
+
+	private static Produto produto(Long id, String preco, TipoProduto tipo) {
+		return new Produto(id, "Produto " + id, "Desc", new BigDecimal(preco), BigDecimal.ONE, BigDecimal.TEN,
+				BigDecimal.TEN, BigDecimal.TEN, false, tipo);
+	}
+
+	private static Promocao promocao(String cupom, Long produtoId, TipoProduto tipoProduto, TipoCliente tipoCliente,
+			String percentual, Long quantidadeMinima, Instant inicio, Instant fim) {
+		return new Promocao(null, "Promoção", cupom, produtoId, tipoProduto, tipoCliente, new BigDecimal(percentual),
+				quantidadeMinima, inicio, fim);
+	}
+}
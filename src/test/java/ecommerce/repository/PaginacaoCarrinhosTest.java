@@ -0,0 +1,131 @@
+package ecommerce.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import ecommerce.dto.CarrinhoResumoDTO;
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.Regiao;
+import ecommerce.entity.TipoCliente;
+
+/**
+ * Paginação por chave (data, id) das consultas de
+ * {@link CarrinhoDeComprasRepository} sobre o esquema das migrações: percorrer
+ * as páginas pelo cursor do último carrinho entrega cada carrinho uma única vez,
+ * na ordem (data, id), inclusive com vários carrinhos na mesma data divididos
+ * entre páginas.
+ */
+@DataJpaTest
+public class PaginacaoCarrinhosTest {
+	private static final LocalDate DIA_1 = LocalDate.of(2025, 3, 1);
+	private static final LocalDate DIA_2 = DIA_1.plusDays(1);
+	private static final LocalDate DIA_3 = DIA_1.plusDays(2);
+	private static final int TAMANHO = 2;
+
+	@Autowired
+	private CarrinhoDeComprasRepository carrinhos;
+
+	@Autowired
+	private ClienteRepository clientes;
+
+	private Cliente cliente;
+	private Cliente outroCliente;
+	private final List<CarrinhoDeCompras> doCliente = new ArrayList<>();
+
+	@BeforeEach
+	public void setup() {
+		cliente = clientes.save(new Cliente(null, "Cliente", Regiao.SUDESTE, TipoCliente.BRONZE));
+		outroCliente = clientes.save(new Cliente(null, "Outro", Regiao.SUL, TipoCliente.OURO));
+
+		// Gravados fora da ordem de data; três carrinhos no segundo dia atravessam a divisa das páginas
+		for (LocalDate data : List.of(DIA_2, DIA_1, DIA_2, DIA_3, DIA_2)) {
+			doCliente.add(carrinhos.save(new CarrinhoDeCompras(null, cliente, new ArrayList<>(), data)));
+		}
+		carrinhos.save(new CarrinhoDeCompras(null, outroCliente, new ArrayList<>(), DIA_2));
+		carrinhos.flush();
+	}
+
+	@Test
+	@DisplayName("Carrinhos do cliente: todas as páginas, sem repetir nem pular carrinhos da mesma data")
+	public void porClienteComEmpates() {
+		List<CarrinhoResumoDTO> lidos = percorrer(
+				pagina -> carrinhos.listarPorCliente(cliente.getId(), pagina),
+				(ultimo, pagina) -> carrinhos.listarPorClienteApos(cliente.getId(), ultimo.data(), ultimo.id(), pagina));
+
+		assertThat(lidos.stream().map(CarrinhoResumoDTO::id).toList()).isEqualTo(emOrdem(doCliente));
+		assertThat(lidos.stream().map(CarrinhoResumoDTO::clienteId).distinct().toList())
+				.isEqualTo(List.of(cliente.getId()));
+	}
+
+	@Test
+	@DisplayName("Carrinhos do período: todas as páginas, só dentro do período, com os empates de data")
+	public void porPeriodoComEmpates() {
+		List<CarrinhoResumoDTO> lidos = percorrer(
+				pagina -> carrinhos.listarPorPeriodo(DIA_1, DIA_2, pagina),
+				(ultimo, pagina) -> carrinhos.listarPorPeriodoApos(DIA_1, DIA_2, ultimo.data(), ultimo.id(), pagina));
+
+		List<CarrinhoDeCompras> noPeriodo = new ArrayList<>(carrinhos.findAll());
+		noPeriodo.removeIf(c -> c.getData().isAfter(DIA_2));
+		assertThat(lidos.stream().map(CarrinhoResumoDTO::id).toList()).isEqualTo(emOrdem(noPeriodo));
+		assertThat(lidos).hasSize(5);
+	}
+
+	@Test
+	@DisplayName("Cursor no meio de uma data continua pelos ids maiores da mesma data")
+	public void cursorNoMeioDaData() {
+		List<Long> doDia2 = emOrdem(doCliente.stream().filter(c -> c.getData().equals(DIA_2)).toList());
+
+		List<CarrinhoResumoDTO> seguintes = carrinhos.listarPorClienteApos(cliente.getId(), DIA_2, doDia2.get(0),
+				PageRequest.of(0, 10));
+
+		assertThat(seguintes.stream().map(CarrinhoResumoDTO::id).toList()).isEqualTo(List.of(doDia2.get(1),
+				doDia2.get(2), doCliente.get(3).getId()));
+	}
+
+	@Test
+	@DisplayName("Carrinho sem data é recusado pelo banco, pois ficaria fora de toda página")
+	public void dataObrigatoria() {
+		assertThatThrownBy(() -> carrinhos.saveAndFlush(new CarrinhoDeCompras(null, cliente, new ArrayList<>(), null)))
+				.isInstanceOf(DataIntegrityViolationException.class);
+	}
+
+	/** Lê a primeira página e segue pelo cursor do último carrinho até uma página incompleta. */
+	private static List<CarrinhoResumoDTO> percorrer(Function<Pageable, List<CarrinhoResumoDTO>> primeira,
+			BiFunction<CarrinhoResumoDTO, Pageable, List<CarrinhoResumoDTO>> seguinte) {
+		Pageable pagina = PageRequest.of(0, TAMANHO);
+		List<CarrinhoResumoDTO> lidos = new ArrayList<>();
+		List<CarrinhoResumoDTO> atual = primeira.apply(pagina);
+		while (true) {
+			assertThat(atual.size()).isLessThanOrEqualTo(TAMANHO);
+			lidos.addAll(atual);
+			if (atual.size() < TAMANHO) {
+				return lidos;
+			}
+			atual = seguinte.apply(atual.get(atual.size() - 1), pagina);
+		}
+	}
+
+	private static List<Long> emOrdem(List<CarrinhoDeCompras> carrinhos) {
+		return carrinhos.stream()
+				.sorted(Comparator.comparing(CarrinhoDeCompras::getData).thenComparing(CarrinhoDeCompras::getId))
+				.map(CarrinhoDeCompras::getId)
+				.toList();
+	}
+}
@@ -0,0 +1,81 @@
+package ecommerce.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import ecommerce.entity.Cliente;
+import ecommerce.entity.Regiao;
+import ecommerce.entity.TipoCliente;
+
+/**
+ * Confere, pelo EXPLAIN do H2 sobre o SQL que o Hibernate realmente gera, que a
+ * carga do carrinho na finalização usa os índices das migrações em vez de
+ * varrer as tabelas.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "ecommerce.repository.PlanoDeConsultaCarrinhoTest$CapturaDeSql")
+public class PlanoDeConsultaCarrinhoTest {
+	@Autowired
+	private CarrinhoDeComprasRepository carrinhos;
+
+	@Autowired
+	private ClienteRepository clientes;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Test
+	@DisplayName("Carga do carrinho por id e cliente usa a chave primária e o índice de itens por carrinho")
+	public void cargaDoCarrinhoUsaIndices() throws SQLException {
+		Cliente cliente = clientes.save(new Cliente(null, "Cliente", Regiao.SUDESTE, TipoCliente.BRONZE));
+
+		CapturaDeSql.ultimo = null;
+		carrinhos.findByIdAndCliente(1L, cliente);
+		String plano = explicar(CapturaDeSql.ultimo);
+
+		// Índice de V4 ou o implícito da chave estrangeira de V1, ambos sobre carrinho_id
+		assertThat(plano).containsPattern("IDX_ITEM_COMPRA_CARRINHO|FK_ITEM_COMPRA_CARRINHO");
+		assertThat(plano).containsIgnoringCase("PRIMARY_KEY");
+		assertThat(plano).doesNotContain("tableScan");
+	}
+
+	private String explicar(String sql) throws SQLException {
+		try (Connection conexao = dataSource.getConnection();
+				PreparedStatement explain = conexao.prepareStatement("EXPLAIN " + sql)) {
+			int parametros = (int) sql.chars().filter(c -> c == '?').count();
+			for (int i = 1; i <= parametros; i++) {
+				explain.setLong(i, 1L);
+			}
+			StringBuilder plano = new StringBuilder();
+			try (ResultSet rs = explain.executeQuery()) {
+				while (rs.next()) {
+					plano.append(rs.getString(1)).append('\n');
+				}
+			}
+			return plano.toString();
+		}
+	}
+
+	/** Guarda o último SQL preparado pelo Hibernate. */
+	public static class CapturaDeSql implements StatementInspector {
+		static volatile String ultimo;
+
+		@Override
+		public String inspect(String sql) {
+			ultimo = sql;
+			return sql;
+		}
+	}
+}
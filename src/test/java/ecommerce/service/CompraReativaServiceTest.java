@@ -0,0 +1,347 @@
+package ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import ecommerce.catalogo.CatalogoPrecosService;
+import ecommerce.dto.CompraDTO;
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueArmazemDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import ecommerce.dto.PagamentoDTO;
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Pedido;
+import ecommerce.entity.Produto;
+import ecommerce.entity.Promocao;
+import ecommerce.entity.Regiao;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+import ecommerce.external.IEstoqueExternal;
+import ecommerce.external.IEstoqueExternalReativo;
+import ecommerce.external.IPagamentoExternal;
+import ecommerce.external.IPagamentoExternalReativo;
+import ecommerce.promocao.IndicePromocoes;
+import ecommerce.promocao.PromocaoService;
+import ecommerce.repository.CarrinhoDeComprasRepository;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Fluxo de {@link CompraReativaService#finalizarCompra} com estoque, pagamento e
+ * banco simulados à mão, como em {@link FinalizacaoCompraTest}: as recusas e a
+ * precificação devem ser as mesmas da finalização bloqueante.
+ */
+public class CompraReativaServiceTest {
+	private static final long CARRINHO_ID = 100L;
+	private static final long TRANSACAO_ID = 7L;
+
+	private final Cliente cliente = new Cliente(1L, "Cliente", Regiao.SUDESTE, TipoCliente.BRONZE);
+	private final Produto produto = new Produto(10L, "Produto", "Desc", new BigDecimal("100.00"),
+			new BigDecimal("1.00"), new BigDecimal("10"), new BigDecimal("10"), new BigDecimal("10"), false,
+			TipoProduto.LIVRO);
+
+	private final List<String> chamadas = new ArrayList<>();
+	private long versaoNoBanco = 3L;
+	private DisponibilidadeDTO disponibilidade = new DisponibilidadeDTO(true, List.of());
+	private boolean pagamentoAutorizado = true;
+	private Runnable aoAutorizarPagamento = () -> {
+	};
+	private Mono<EstoqueBaixaDTO> baixa = Mono.just(new EstoqueBaixaDTO(true));
+	private RuntimeException falhaNaConfirmacao;
+	private RuntimeException falhaNoRegistro;
+	private List<EstoqueArmazemDTO> armazens = List.of();
+
+	private CompraReativaService service;
+
+	@BeforeEach
+	public void setup() {
+		ClienteService clientes = new ClienteService(null) {
+			@Override
+			public Cliente buscarPorId(Long clienteId) {
+				return cliente;
+			}
+		};
+		CarrinhoDeComprasService carrinhos = new CarrinhoDeComprasService(carrinhosNoBanco(), null);
+
+		// Só a compensação de um pedido não gravado usa o estoque e o pagamento bloqueantes
+		IEstoqueExternal estoque = new IEstoqueExternal() {
+			@Override
+			public EstoqueBaixaDTO darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades) {
+				throw new UnsupportedOperationException("darBaixa");
+			}
+
+			@Override
+			public EstoqueBaixaDTO estornarBaixa(List<Long> produtosIds, List<Long> produtosQuantidades) {
+				chamadas.add("estornarBaixa " + produtosIds + " " + produtosQuantidades);
+				return new EstoqueBaixaDTO(true);
+			}
+
+			@Override
+			public DisponibilidadeDTO verificarDisponibilidade(List<Long> produtosIds, List<Long> produtosQuantidades) {
+				throw new UnsupportedOperationException("verificarDisponibilidade");
+			}
+		};
+		IPagamentoExternal pagamento = new IPagamentoExternal() {
+			@Override
+			public PagamentoDTO autorizarPagamento(Long clienteId, BigDecimal custoTotal) {
+				throw new UnsupportedOperationException("autorizarPagamento");
+			}
+
+			@Override
+			public void cancelarPagamento(Long clienteId, Long pagamentoTransacaoId) {
+				chamadas.add("cancelarPagamento " + pagamentoTransacaoId);
+			}
+		};
+		PedidoService pedidos = new PedidoService(null, null) {
+			@Override
+			public Pedido registrar(CarrinhoDeCompras carrinho, Cliente cliente, Precificacao precificacao,
+					Long transacaoId) {
+				if (falhaNoRegistro != null) {
+					chamadas.add("registrar falhou");
+					throw falhaNoRegistro;
+				}
+				chamadas.add("registrar " + precificacao.custoTotal());
+				return null;
+			}
+		};
+		CatalogoPrecosService catalogo = new CatalogoPrecosService(null, 0L,
+				Path.of(System.getProperty("java.io.tmpdir"), "inexistente", "catalogo.bin").toString(), 0L);
+		IndicePromocoes promocoesAtuais = IndicePromocoes.construir(List.of(new Promocao(1L, "Livros", "LIVROS10",
+				null, TipoProduto.LIVRO, null, new BigDecimal("0.10"), 1L, Instant.parse("2025-01-01T00:00:00Z"),
+				null)));
+		PromocaoService promocoes = new PromocaoService(null, 30_000L) {
+			@Override
+			public IndicePromocoes atual() {
+				return promocoesAtuais;
+			}
+		};
+		CompraService compraService = new CompraService(carrinhos, clientes, estoque, pagamento, catalogo, pedidos,
+				new PrecificacaoParalela(0, 1024), new MotorDeFrete(true, 2000, 12), promocoes, null,
+				AritmeticaMonetaria.DECIMAL);
+
+		IEstoqueExternalReativo estoqueReativo = new IEstoqueExternalReativo() {
+			@Override
+			public Mono<EstoqueBaixaDTO> darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades) {
+				chamadas.add("darBaixa " + produtosIds + " " + produtosQuantidades);
+				return baixa;
+			}
+
+			@Override
+			public Mono<EstoqueBaixaDTO> darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades,
+					List<Long> armazensIds) {
+				chamadas.add("darBaixa " + produtosIds + " " + produtosQuantidades + " armazéns " + armazensIds);
+				return baixa;
+			}
+
+			@Override
+			public Mono<DisponibilidadeDTO> verificarDisponibilidade(List<Long> produtosIds,
+					List<Long> produtosQuantidades) {
+				return Mono.just(disponibilidade);
+			}
+
+			@Override
+			public Mono<List<EstoqueArmazemDTO>> consultarArmazens(List<Long> produtosIds) {
+				return Mono.just(armazens);
+			}
+		};
+		IPagamentoExternalReativo pagamentoReativo = new IPagamentoExternalReativo() {
+			@Override
+			public Mono<PagamentoDTO> autorizarPagamento(Long clienteId, BigDecimal custoTotal) {
+				return Mono.fromCallable(() -> {
+					chamadas.add("autorizarPagamento " + custoTotal);
+					aoAutorizarPagamento.run();
+					return new PagamentoDTO(pagamentoAutorizado, TRANSACAO_ID);
+				});
+			}
+
+			@Override
+			public Mono<Void> cancelarPagamento(Long clienteId, Long pagamentoTransacaoId) {
+				return Mono.fromRunnable(() -> chamadas.add("cancelarPagamento " + pagamentoTransacaoId));
+			}
+		};
+
+		service = new CompraReativaService(compraService, carrinhos, clientes, estoqueReativo, pagamentoReativo,
+				Schedulers.immediate());
+	}
+
+	@Test
+	@DisplayName("Carrinho inalterado: paga, dá baixa e registra o pedido")
+	public void sucesso() {
+		ResultadoCompra resultado = service.finalizarCompra(CARRINHO_ID, cliente.getId()).block();
+
+		assertThat(resultado).isEqualTo(
+				new ResultadoCompra.Sucesso(new CompraDTO(true, TRANSACAO_ID, CompraService.MSG_SUCESSO)));
+		assertThat(chamadas).containsExactly("autorizarPagamento 200.00", "darBaixa [10] [2]", "registrar 200.00");
+	}
+
+	@Test
+	@DisplayName("Cupom informado entra na precificação, como na finalização bloqueante")
+	public void cupom() {
+		ResultadoCompra resultado = service.finalizarCompra(CARRINHO_ID, cliente.getId(), "LIVROS10").block();
+
+		assertThat(resultado).isEqualTo(
+				new ResultadoCompra.Sucesso(new CompraDTO(true, TRANSACAO_ID, CompraService.MSG_SUCESSO)));
+		assertThat(chamadas).containsExactly("autorizarPagamento 180.00", "darBaixa [10] [2]", "registrar 180.00");
+	}
+
+	@Test
+	@DisplayName("Com plano de envios, a baixa segue o armazém cujo frete foi cobrado")
+	public void baixaPeloPlanoDeEnvio() {
+		// Só o armazém 2 tem as duas unidades
+		armazens = List.of(new EstoqueArmazemDTO(1L, List.of(10L), List.of(1L)),
+				new EstoqueArmazemDTO(2L, List.of(10L), List.of(5L)));
+
+		ResultadoCompra resultado = service.finalizarCompra(CARRINHO_ID, cliente.getId()).block();
+
+		assertThat(resultado).isEqualTo(
+				new ResultadoCompra.Sucesso(new CompraDTO(true, TRANSACAO_ID, CompraService.MSG_SUCESSO)));
+		assertThat(chamadas).containsExactly("autorizarPagamento 200.00", "darBaixa [10] [2] armazéns [2]",
+				"registrar 200.00");
+	}
+
+	@Test
+	@DisplayName("Fora de estoque: recusa com os produtos indisponíveis, sem cobrar")
+	public void foraDeEstoque() {
+		disponibilidade = new DisponibilidadeDTO(false, List.of(10L));
+
+		ResultadoCompra resultado = service.finalizarCompra(CARRINHO_ID, cliente.getId()).block();
+
+		assertThat(resultado).isEqualTo(new ResultadoCompra.ForaDeEstoque(List.of(10L)));
+		assertThat(chamadas).isEmpty();
+	}
+
+	@Test
+	@DisplayName("Pagamento negado: recusa sem dar baixa")
+	public void pagamentoNegado() {
+		pagamentoAutorizado = false;
+
+		ResultadoCompra resultado = service.finalizarCompra(CARRINHO_ID, cliente.getId()).block();
+
+		assertThat(resultado).isEqualTo(new ResultadoCompra.PagamentoNegado());
+		assertThat(chamadas).containsExactly("autorizarPagamento 200.00");
+	}
+
+	@Test
+	@DisplayName("Carrinho editado entre a precificação e a confirmação: cancela o pagamento e não dá baixa")
+	public void carrinhoAlterado() {
+		aoAutorizarPagamento = () -> versaoNoBanco++;
+
+		ResultadoCompra resultado = service.finalizarCompra(CARRINHO_ID, cliente.getId()).block();
+
+		assertThat(resultado).isEqualTo(new ResultadoCompra.CarrinhoAlterado());
+		assertThat(chamadas).containsExactly("autorizarPagamento 200.00", "cancelarPagamento " + TRANSACAO_ID);
+	}
+
+	@Test
+	@DisplayName("Conflito no commit da confirmação: cancela o pagamento e não dá baixa")
+	public void conflitoNaConfirmacao() {
+		falhaNaConfirmacao = new OptimisticLockingFailureException("versão do carrinho mudou");
+
+		ResultadoCompra resultado = service.finalizarCompra(CARRINHO_ID, cliente.getId()).block();
+
+		assertThat(resultado).isEqualTo(new ResultadoCompra.CarrinhoAlterado());
+		assertThat(chamadas).containsExactly("autorizarPagamento 200.00", "cancelarPagamento " + TRANSACAO_ID);
+	}
+
+	@Test
+	@DisplayName("Baixa recusada pelo estoque: cancela o pagamento")
+	public void baixaRecusada() {
+		baixa = Mono.just(new EstoqueBaixaDTO(false));
+
+		ResultadoCompra resultado = service.finalizarCompra(CARRINHO_ID, cliente.getId()).block();
+
+		assertThat(resultado).isEqualTo(new ResultadoCompra.FalhaNaBaixa());
+		assertThat(chamadas).containsExactly("autorizarPagamento 200.00", "darBaixa [10] [2]",
+				"cancelarPagamento " + TRANSACAO_ID);
+	}
+
+	@Test
+	@DisplayName("Falha na chamada de baixa: repassa o erro sem cancelar o pagamento, pois a baixa pode ter ocorrido")
+	public void falhaNaChamadaDeBaixa() {
+		baixa = Mono.error(new IllegalStateException("estoque indisponível"));
+
+		assertThatIllegalStateException()
+				.isThrownBy(() -> service.finalizarCompra(CARRINHO_ID, cliente.getId()).block())
+				.withMessage("estoque indisponível");
+		assertThat(chamadas).containsExactly("autorizarPagamento 200.00", "darBaixa [10] [2]");
+	}
+
+	@Test
+	@DisplayName("Falha na confirmação após a autorização: cancela o pagamento e repassa a exceção")
+	public void falhaNaConfirmacaoCancelaPagamento() {
+		falhaNaConfirmacao = new IllegalStateException("banco indisponível");
+
+		assertThatIllegalStateException()
+				.isThrownBy(() -> service.finalizarCompra(CARRINHO_ID, cliente.getId()).block())
+				.withMessage("banco indisponível");
+		assertThat(chamadas).containsExactly("autorizarPagamento 200.00", "cancelarPagamento " + TRANSACAO_ID);
+	}
+
+	@Test
+	@DisplayName("Falha na autorização: repassa a exceção; sem transação não há o que cancelar")
+	public void falhaNaAutorizacao() {
+		aoAutorizarPagamento = () -> {
+			throw new IllegalStateException("tempo esgotado");
+		};
+
+		assertThatIllegalStateException()
+				.isThrownBy(() -> service.finalizarCompra(CARRINHO_ID, cliente.getId()).block())
+				.withMessage("tempo esgotado");
+		assertThat(chamadas).containsExactly("autorizarPagamento 200.00");
+	}
+
+	@Test
+	@DisplayName("Falha ao gravar o pedido: estorna a baixa, cancela o pagamento e repassa a exceção")
+	public void falhaNoRegistroCompensa() {
+		falhaNoRegistro = new IllegalStateException("banco indisponível");
+
+		assertThatIllegalStateException()
+				.isThrownBy(() -> service.finalizarCompra(CARRINHO_ID, cliente.getId()).block())
+				.withMessage("banco indisponível");
+		assertThat(chamadas).containsExactly("autorizarPagamento 200.00", "darBaixa [10] [2]", "registrar falhou",
+				"estornarBaixa [10] [2]", "cancelarPagamento " + TRANSACAO_ID);
+	}
+
+	/** Repositório que só atende as leituras da finalização, sempre com uma cópia do estado atual. */
+	private CarrinhoDeComprasRepository carrinhosNoBanco() {
+		return (CarrinhoDeComprasRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { CarrinhoDeComprasRepository.class }, (proxy, metodo, argumentos) -> {
+					switch (metodo.getName()) {
+					case "findByIdAndCliente":
+						return Optional.of(lerCarrinho());
+					case "findParaConfirmacaoById":
+						if (falhaNaConfirmacao != null) {
+							throw falhaNaConfirmacao;
+						}
+						return Optional.of(lerCarrinho());
+					default:
+						throw new UnsupportedOperationException(metodo.getName());
+					}
+				});
+	}
+
+	private CarrinhoDeCompras lerCarrinho() {
+		ItemCompra item = new ItemCompra(1000L, produto, 2L);
+		item.setVersao(0L);
+		CarrinhoDeCompras carrinho = new CarrinhoDeCompras(CARRINHO_ID, cliente, new ArrayList<>(List.of(item)),
+				LocalDate.now());
+		carrinho.setVersao(versaoNoBanco);
+		return carrinho;
+	}
+}
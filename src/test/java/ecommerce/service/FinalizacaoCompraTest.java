@@ -0,0 +1,321 @@
+package ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import ecommerce.catalogo.CatalogoPrecos;
+import ecommerce.catalogo.CatalogoPrecosService;
+import ecommerce.dto.CompraDTO;
+import ecommerce.dto.DisponibilidadeDTO;
+import ecommerce.dto.EstoqueArmazemDTO;
+import ecommerce.dto.EstoqueBaixaDTO;
+import ecommerce.dto.PagamentoDTO;
+import ecommerce.dto.ProdutoPrecificacaoDTO;
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Pedido;
+import ecommerce.entity.Produto;
+import ecommerce.entity.Promocao;
+import ecommerce.entity.Regiao;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+import ecommerce.external.IEstoqueExternal;
+import ecommerce.external.IPagamentoExternal;
+import ecommerce.promocao.IndicePromocoes;
+import ecommerce.promocao.PromocaoService;
+import ecommerce.repository.CarrinhoDeComprasRepository;
+
+/**
+ * Fluxo de {@link CompraService#tentarFinalizarCompra} com estoque, pagamento e
+ * banco simulados à mão: o "banco" guarda só a versão do carrinho e de seus
+ * itens, e cada leitura devolve uma cópia nova, como o Hibernate faria em
+ * transações diferentes.
+ */
+public class FinalizacaoCompraTest {
+	private static final long CARRINHO_ID = 100L;
+	private static final long TRANSACAO_ID = 7L;
+
+	private final Cliente cliente = new Cliente(1L, "Cliente", Regiao.SUDESTE, TipoCliente.BRONZE);
+	private final Produto produto = new Produto(10L, "Produto", "Desc", new BigDecimal("100.00"),
+			new BigDecimal("1.00"), new BigDecimal("10"), new BigDecimal("10"), new BigDecimal("10"), false,
+			TipoProduto.LIVRO);
+
+	private final List<String> chamadas = new ArrayList<>();
+	private long versaoNoBanco = 3L;
+	private Runnable aoAutorizarPagamento = () -> {
+	};
+	private RuntimeException falhaNaConfirmacao;
+	private RuntimeException falhaNoRegistro;
+	private boolean estornoAceito = true;
+	private CatalogoPrecos catalogoAtual = CatalogoPrecos.VAZIO;
+	private IndicePromocoes promocoesAtuais = IndicePromocoes.VAZIO;
+	private List<EstoqueArmazemDTO> armazens = List.of();
+
+	private CompraService service;
+
+	@BeforeEach
+	public void setup() {
+		ClienteService clientes = new ClienteService(null) {
+			@Override
+			public Cliente buscarPorId(Long clienteId) {
+				return cliente;
+			}
+		};
+		CarrinhoDeComprasService carrinhos = new CarrinhoDeComprasService(carrinhosNoBanco(), null);
+
+		IEstoqueExternal estoque = new IEstoqueExternal() {
+			@Override
+			public EstoqueBaixaDTO darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades) {
+				chamadas.add("darBaixa " + produtosIds + " " + produtosQuantidades);
+				return new EstoqueBaixaDTO(true);
+			}
+
+			@Override
+			public EstoqueBaixaDTO darBaixa(List<Long> produtosIds, List<Long> produtosQuantidades,
+					List<Long> armazensIds) {
+				chamadas.add("darBaixa " + produtosIds + " " + produtosQuantidades + " armazéns " + armazensIds);
+				return new EstoqueBaixaDTO(true);
+			}
+
+			@Override
+			public EstoqueBaixaDTO estornarBaixa(List<Long> produtosIds, List<Long> produtosQuantidades) {
+				chamadas.add("estornarBaixa " + produtosIds + " " + produtosQuantidades);
+				return new EstoqueBaixaDTO(estornoAceito);
+			}
+
+			@Override
+			public EstoqueBaixaDTO estornarBaixa(List<Long> produtosIds, List<Long> produtosQuantidades,
+					List<Long> armazensIds) {
+				chamadas.add("estornarBaixa " + produtosIds + " " + produtosQuantidades + " armazéns " + armazensIds);
+				return new EstoqueBaixaDTO(estornoAceito);
+			}
+
+			@Override
+			public List<EstoqueArmazemDTO> consultarArmazens(List<Long> produtosIds) {
+				return armazens;
+			}
+
+			@Override
+			public DisponibilidadeDTO verificarDisponibilidade(List<Long> produtosIds, List<Long> produtosQuantidades) {
+				return new DisponibilidadeDTO(true, List.of());
+			}
+		};
+		IPagamentoExternal pagamento = new IPagamentoExternal() {
+			@Override
+			public PagamentoDTO autorizarPagamento(Long clienteId, BigDecimal custoTotal) {
+				chamadas.add("autorizarPagamento " + custoTotal);
+				aoAutorizarPagamento.run();
+				return new PagamentoDTO(true, TRANSACAO_ID);
+			}
+
+			@Override
+			public void cancelarPagamento(Long clienteId, Long pagamentoTransacaoId) {
+				chamadas.add("cancelarPagamento " + pagamentoTransacaoId);
+			}
+		};
+		PedidoService pedidos = new PedidoService(null, null) {
+			@Override
+			public Pedido registrar(CarrinhoDeCompras carrinho, Cliente cliente, Precificacao precificacao,
+					Long transacaoId) {
+				if (falhaNoRegistro != null) {
+					chamadas.add("registrar falhou");
+					throw falhaNoRegistro;
+				}
+				chamadas.add("registrar " + precificacao.custoTotal() + " "
+						+ carrinho.getItens().stream().map(i -> precificacao.precos().apply(i.getProduto())).toList()
+						+ (precificacao.plano() == null ? ""
+								: " armazéns " + precificacao.plano().armazensDe(List.of(produto.getId()))));
+				return null;
+			}
+		};
+		CatalogoPrecosService catalogo = new CatalogoPrecosService(null, 0L,
+				Path.of(System.getProperty("java.io.tmpdir"), "inexistente", "catalogo.bin").toString(), 0L) {
+			@Override
+			public CatalogoPrecos atual() {
+				return catalogoAtual;
+			}
+		};
+
+		PromocaoService promocoes = new PromocaoService(null, 30_000L) {
+			@Override
+			public IndicePromocoes atual() {
+				return promocoesAtuais;
+			}
+		};
+
+		service = new CompraService(carrinhos, clientes, estoque, pagamento, catalogo, pedidos,
+				new PrecificacaoParalela(0, 1024), new MotorDeFrete(true, 2000, 12), promocoes, null,
+				AritmeticaMonetaria.DECIMAL);
+	}
+
+	@Test
+	@DisplayName("Carrinho inalterado: paga, dá baixa e registra o pedido")
+	public void carrinhoInalteradoConclui() {
+		ResultadoCompra resultado = service.tentarFinalizarCompra(CARRINHO_ID, cliente.getId());
+
+		assertThat(resultado).isEqualTo(
+				new ResultadoCompra.Sucesso(new CompraDTO(true, TRANSACAO_ID, CompraService.MSG_SUCESSO)));
+		assertThat(chamadas).containsExactly("autorizarPagamento 200.00", "darBaixa [10] [2]",
+				"registrar 200.00 [100.00]");
+	}
+
+	@Test
+	@DisplayName("Pedido registrado com o preço do catálogo usado na cobrança, não com o preço atual da entidade")
+	public void pedidoComPrecoDaPrecificacao() {
+		// Catálogo ainda com o preço anterior à última alteração do produto
+		catalogoAtual = catalogoComPreco("90.00");
+
+		ResultadoCompra resultado = service.tentarFinalizarCompra(CARRINHO_ID, cliente.getId());
+
+		assertThat(resultado).isEqualTo(
+				new ResultadoCompra.Sucesso(new CompraDTO(true, TRANSACAO_ID, CompraService.MSG_SUCESSO)));
+		assertThat(chamadas).containsExactly("autorizarPagamento 180.00", "darBaixa [10] [2]",
+				"registrar 180.00 [90.00]");
+	}
+
+	@Test
+	@DisplayName("Desconto do cupom calculado sobre os mesmos preços do subtotal")
+	public void cupomSobrePrecoDoCatalogo() {
+		catalogoAtual = catalogoComPreco("90.00");
+		promocoesAtuais = IndicePromocoes.construir(List.of(new Promocao(1L, "Livros", "LIVROS10", null,
+				TipoProduto.LIVRO, null, new BigDecimal("0.10"), 1L, Instant.parse("2025-01-01T00:00:00Z"), null)));
+
+		ResultadoCompra resultado = service.tentarFinalizarCompra(CARRINHO_ID, cliente.getId(), "LIVROS10");
+
+		// 10% de 180,00 (catálogo), não de 200,00 (entidade)
+		assertThat(resultado).isEqualTo(
+				new ResultadoCompra.Sucesso(new CompraDTO(true, TRANSACAO_ID, CompraService.MSG_SUCESSO)));
+		assertThat(chamadas).containsExactly("autorizarPagamento 162.00", "darBaixa [10] [2]",
+				"registrar 162.00 [90.00]");
+	}
+
+	@Test
+	@DisplayName("Com plano de envios, a baixa e o pedido seguem o armazém cujo frete foi cobrado")
+	public void baixaPeloPlanoDeEnvio() {
+		// Só o armazém 2 tem as duas unidades
+		armazens = List.of(new EstoqueArmazemDTO(1L, List.of(10L), List.of(1L)),
+				new EstoqueArmazemDTO(2L, List.of(10L), List.of(5L)));
+
+		ResultadoCompra resultado = service.tentarFinalizarCompra(CARRINHO_ID, cliente.getId());
+
+		assertThat(resultado).isEqualTo(
+				new ResultadoCompra.Sucesso(new CompraDTO(true, TRANSACAO_ID, CompraService.MSG_SUCESSO)));
+		assertThat(chamadas).containsExactly("autorizarPagamento 200.00", "darBaixa [10] [2] armazéns [2]",
+				"registrar 200.00 [100.00] armazéns [2]");
+	}
+
+	@Test
+	@DisplayName("Falha ao gravar um pedido com plano de envios estorna a baixa do mesmo armazém")
+	public void falhaNoRegistroComPlanoDeEnvio() {
+		armazens = List.of(new EstoqueArmazemDTO(2L, List.of(10L), List.of(5L)));
+		falhaNoRegistro = new IllegalStateException("banco indisponível");
+
+		assertThatIllegalStateException()
+				.isThrownBy(() -> service.tentarFinalizarCompra(CARRINHO_ID, cliente.getId()));
+		assertThat(chamadas).containsExactly("autorizarPagamento 200.00", "darBaixa [10] [2] armazéns [2]",
+				"registrar falhou", "estornarBaixa [10] [2] armazéns [2]", "cancelarPagamento " + TRANSACAO_ID);
+	}
+
+	@Test
+	@DisplayName("Falha ao gravar o pedido: estorna a baixa, cancela o pagamento e repassa a exceção")
+	public void falhaNoRegistroCompensa() {
+		falhaNoRegistro = new IllegalStateException("banco indisponível");
+
+		assertThatIllegalStateException()
+				.isThrownBy(() -> service.tentarFinalizarCompra(CARRINHO_ID, cliente.getId()))
+				.withMessage("banco indisponível");
+		assertThat(chamadas).containsExactly("autorizarPagamento 200.00", "darBaixa [10] [2]", "registrar falhou",
+				"estornarBaixa [10] [2]", "cancelarPagamento " + TRANSACAO_ID);
+	}
+
+	@Test
+	@DisplayName("Estorno recusado pelo estoque: cancela o pagamento e anexa a recusa à exceção repassada")
+	public void estornoRecusado() {
+		falhaNoRegistro = new IllegalStateException("banco indisponível");
+		estornoAceito = false;
+
+		Throwable erro = catchThrowable(() -> service.tentarFinalizarCompra(CARRINHO_ID, cliente.getId()));
+
+		assertThat(erro.getMessage()).isEqualTo("banco indisponível");
+		assertThat(Arrays.stream(erro.getSuppressed()).map(Throwable::getMessage).toList())
+				.containsExactly("Estorno da baixa recusado: produtos [10] quantidades [2]");
+		assertThat(chamadas).containsExactly("autorizarPagamento 200.00", "darBaixa [10] [2]", "registrar falhou",
+				"estornarBaixa [10] [2]", "cancelarPagamento " + TRANSACAO_ID);
+	}
+
+	@Test
+	@DisplayName("Carrinho editado entre a precificação e a confirmação: cancela o pagamento e não dá baixa")
+	public void carrinhoAlteradoAntesDaConfirmacao() {
+		// A edição acontece enquanto o pagamento do valor já calculado é autorizado
+		aoAutorizarPagamento = () -> versaoNoBanco++;
+
+		ResultadoCompra resultado = service.tentarFinalizarCompra(CARRINHO_ID, cliente.getId());
+
+		assertThat(resultado).isEqualTo(new ResultadoCompra.CarrinhoAlterado());
+		assertThat(chamadas).containsExactly("autorizarPagamento 200.00", "cancelarPagamento " + TRANSACAO_ID);
+	}
+
+	@Test
+	@DisplayName("Edição concorrente detectada no commit da confirmação: cancela o pagamento e não dá baixa")
+	public void conflitoNoCommitDaConfirmacao() {
+		// O incremento forçado da versão falha quando outra transação gravou o carrinho antes do commit
+		falhaNaConfirmacao = new OptimisticLockingFailureException("versão do carrinho mudou");
+
+		ResultadoCompra resultado = service.tentarFinalizarCompra(CARRINHO_ID, cliente.getId());
+
+		assertThat(resultado).isEqualTo(new ResultadoCompra.CarrinhoAlterado());
+		assertThat(chamadas).containsExactly("autorizarPagamento 200.00", "cancelarPagamento " + TRANSACAO_ID);
+	}
+
+	private CatalogoPrecos catalogoComPreco(String preco) {
+		CatalogoPrecos.Construtor construtor = CatalogoPrecos.construtor(1);
+		construtor.adicionar(new ProdutoPrecificacaoDTO(produto.getId(), new BigDecimal(preco),
+				produto.getPesoFisico(), produto.getComprimento(), produto.getLargura(), produto.getAltura(), false,
+				TipoProduto.LIVRO, Instant.parse("2025-01-01T00:00:00Z")));
+		return construtor.construir();
+	}
+
+	/** Repositório que só atende as leituras da finalização, sempre com uma cópia do estado atual. */
+	private CarrinhoDeComprasRepository carrinhosNoBanco() {
+		return (CarrinhoDeComprasRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { CarrinhoDeComprasRepository.class }, (proxy, metodo, argumentos) -> {
+					switch (metodo.getName()) {
+					case "findByIdAndCliente":
+						return Optional.of(lerCarrinho());
+					case "findParaConfirmacaoById":
+						if (falhaNaConfirmacao != null) {
+							throw falhaNaConfirmacao;
+						}
+						return Optional.of(lerCarrinho());
+					default:
+						throw new UnsupportedOperationException(metodo.getName());
+					}
+				});
+	}
+
+	private CarrinhoDeCompras lerCarrinho() {
+		ItemCompra item = new ItemCompra(1000L, produto, 2L);
+		item.setVersao(0L);
+		CarrinhoDeCompras carrinho = new CarrinhoDeCompras(CARRINHO_ID, cliente, new ArrayList<>(List.of(item)),
+				LocalDate.now());
+		carrinho.setVersao(versaoNoBanco);
+		return carrinho;
+	}
+}
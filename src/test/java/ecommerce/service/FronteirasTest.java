@@ -22,7 +22,7 @@ class FronteirasTest {
 
     @BeforeEach
     void setUp() {
-        compraService = new CompraService(null, null, null, null);
+        compraService = new CompraService(null, null, null, null, null, null, null, null, null, null, null);
         clienteBronzeSudeste = new Cliente(1L, "Cliente Padrão", Regiao.SUDESTE, TipoCliente.BRONZE);
     }
 
@@ -0,0 +1,142 @@
+package ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ecommerce.dto.EstoqueArmazemDTO;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.Regiao;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+
+public class MotorDeFreteTest {
+	private final MotorDeFrete motor = new MotorDeFrete(true, 1_000_000, 12);
+
+	private static Produto produto(long id, String peso, boolean fragil) {
+		// 10 x 10 x 10 cm: peso cúbico 0,17 kg, abaixo de todos os pesos usados
+		return new Produto(id, "p" + id, "Desc", BigDecimal.TEN, new BigDecimal(peso), BigDecimal.TEN, BigDecimal.TEN,
+				BigDecimal.TEN, fragil, TipoProduto.LIVRO);
+	}
+
+	@Test
+	@DisplayName("Divide o carrinho entre armazéns quando envios menores ficam isentos")
+	public void divideQuandoMaisBarato() {
+		List<ItemCompra> itens = List.of(new ItemCompra(null, produto(1, "4.00", false), 1L),
+				new ItemCompra(null, produto(2, "4.00", false), 1L));
+		List<EstoqueArmazemDTO> armazens = List.of(
+				new EstoqueArmazemDTO(10L, List.of(1L, 2L), List.of(5L, 5L)),
+				new EstoqueArmazemDTO(20L, List.of(2L), List.of(5L)));
+
+		PlanoDeEnvio plano = motor.planejar(itens, armazens, Regiao.SUDESTE, TipoCliente.BRONZE);
+
+		// Um envio de 8 kg custaria 8 * 2,00 + 12,00; dois de 4 kg são isentos
+		assertThat(plano.freteTotal()).isEqualByComparingTo("0");
+		assertThat(plano.envios()).hasSize(2);
+		assertThat(plano.otimo()).isTrue();
+	}
+
+	@Test
+	@DisplayName("Sem armazém com a quantidade inteira de algum produto não há plano")
+	public void semPlanoPossivel() {
+		List<ItemCompra> itens = List.of(new ItemCompra(null, produto(1, "1.00", false), 3L));
+		List<EstoqueArmazemDTO> armazens = List.of(new EstoqueArmazemDTO(10L, List.of(1L), List.of(2L)),
+				new EstoqueArmazemDTO(20L, List.of(1L), List.of(2L)));
+
+		assertThat(motor.planejar(itens, armazens, Regiao.SUL, TipoCliente.PRATA)).isNull();
+		assertThat(motor.planejar(itens, List.of(), Regiao.SUL, TipoCliente.PRATA)).isNull();
+	}
+
+	@Test
+	@DisplayName("Busca exata encontra o mesmo frete mínimo que a enumeração de todas as divisões")
+	public void exataIgualAForcaBruta() {
+		Random random = new Random(7);
+		for (int caso = 0; caso < 200; caso++) {
+			int produtos = 1 + random.nextInt(6);
+			int armazens = 1 + random.nextInt(3);
+
+			List<ItemCompra> itens = new ArrayList<>();
+			List<List<Long>> ids = new ArrayList<>();
+			List<List<Long>> quantidades = new ArrayList<>();
+			for (int a = 0; a < armazens; a++) {
+				ids.add(new ArrayList<>());
+				quantidades.add(new ArrayList<>());
+			}
+			for (long id = 1; id <= produtos; id++) {
+				long quantidade = 1 + random.nextInt(3);
+				itens.add(new ItemCompra(null, produto(id, BigDecimal.valueOf(50 + random.nextInt(2_000), 2).toString(),
+						random.nextInt(4) == 0), quantidade));
+				int garantido = random.nextInt(armazens);
+				for (int a = 0; a < armazens; a++) {
+					if (a == garantido || random.nextBoolean()) {
+						ids.get(a).add(id);
+						quantidades.get(a).add(quantidade);
+					}
+				}
+			}
+			List<EstoqueArmazemDTO> estoque = new ArrayList<>();
+			for (int a = 0; a < armazens; a++) {
+				estoque.add(new EstoqueArmazemDTO(100L + a, ids.get(a), quantidades.get(a)));
+			}
+			Regiao regiao = Regiao.values()[random.nextInt(Regiao.values().length)];
+			TipoCliente tipo = random.nextBoolean() ? TipoCliente.BRONZE : TipoCliente.PRATA;
+
+			PlanoDeEnvio plano = motor.planejar(itens, estoque, regiao, tipo);
+
+			assertThat(plano.otimo()).isTrue();
+			assertThat(plano.freteTotal()).as("caso %d", caso)
+					.isEqualByComparingTo(forcaBruta(itens, estoque, regiao, tipo));
+		}
+	}
+
+	/** Menor frete entre todas as atribuições de produto a armazém que tenha a quantidade. */
+	private static BigDecimal forcaBruta(List<ItemCompra> itens, List<EstoqueArmazemDTO> estoque, Regiao regiao,
+			TipoCliente tipo) {
+		int n = itens.size();
+		int w = estoque.size();
+		BigDecimal melhor = null;
+		int[] escolha = new int[n];
+		long combinacoes = (long) Math.pow(w, n);
+		for (long c = 0; c < combinacoes; c++) {
+			long resto = c;
+			boolean valida = true;
+			for (int i = 0; i < n; i++) {
+				escolha[i] = (int) (resto % w);
+				resto /= w;
+				valida &= estoque.get(escolha[i]).produtosIds().contains(itens.get(i).getProduto().getId());
+			}
+			if (!valida) {
+				continue;
+			}
+			BigDecimal total = BigDecimal.ZERO;
+			for (int a = 0; a < w; a++) {
+				BigDecimal peso = BigDecimal.ZERO;
+				long frageis = 0;
+				boolean usado = false;
+				for (int i = 0; i < n; i++) {
+					if (escolha[i] == a) {
+						Produto p = itens.get(i).getProduto();
+						peso = peso.add(CompraService.calcularPesoTributavel(p.getPesoFisico(), p.getComprimento(),
+								p.getLargura(), p.getAltura()).multiply(BigDecimal.valueOf(itens.get(i).getQuantidade())));
+						frageis += p.isFragil() ? itens.get(i).getQuantidade() : 0;
+						usado = true;
+					}
+				}
+				if (usado) {
+					total = total.add(CompraService.TABELA_FRETE.calcular(peso, frageis, regiao, tipo));
+				}
+			}
+			if (melhor == null || total.compareTo(melhor) < 0) {
+				melhor = total;
+			}
+		}
+		return melhor;
+	}
+}
@@ -27,7 +27,7 @@ class ParticoesTest {
         // Inicializa o serviço e dados comuns antes de cada teste [cite: 752]
         // Usamos um cliente BRONZE e região SUDESTE como padrão para isolar os testes
         // de frete e descontos, focando em uma variável por vez.
-        compraService = new CompraService(null, null, null, null); // Dependências mockadas/nulas pois não são usadas em calcularCustoTotal
+        compraService = new CompraService(null, null, null, null, null, null, null, null, null, null, null); // Dependências mockadas/nulas pois não são usadas em calcularCustoTotal
         clienteBronzeSudeste = new Cliente(1L, "Cliente Bronze", Regiao.SUDESTE, TipoCliente.BRONZE);
     }
 
@@ -0,0 +1,132 @@
+package ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Pedido;
+import ecommerce.entity.Produto;
+import ecommerce.entity.Regiao;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+import ecommerce.eventos.EventosDePedidoService;
+import ecommerce.eventos.PedidoConcluido;
+import ecommerce.repository.PedidoRepository;
+
+/** Gravação do pedido sobre um repositório e uma publicação de eventos simulados à mão. */
+public class PedidoServiceTest {
+	private final Cliente cliente = new Cliente(1L, "Cliente", Regiao.SUDESTE, TipoCliente.BRONZE);
+	private final Produto livro = produto(10L, "100.00");
+	private final Produto movel = produto(20L, "50.00");
+	private final CarrinhoDeCompras carrinho = new CarrinhoDeCompras(100L, cliente,
+			List.of(new ItemCompra(1L, livro, 2L), new ItemCompra(2L, movel, 1L)), LocalDate.now());
+
+	private final List<Pedido> gravados = new ArrayList<>();
+	private final List<PedidoConcluido> publicados = new ArrayList<>();
+	private RuntimeException falhaAoGravar;
+	private RuntimeException falhaAoPublicar;
+
+	private final PedidoService service = new PedidoService(repositorio(), new EventosDePedidoService(null, null) {
+		@Override
+		public void publicar(PedidoConcluido evento) {
+			if (falhaAoPublicar != null) {
+				throw falhaAoPublicar;
+			}
+			publicados.add(evento);
+		}
+	});
+
+	@Test
+	@DisplayName("Linhas do pedido e do evento levam o preço da precificação, não o preço atual do produto")
+	public void gravaPrecoDaPrecificacao() {
+		// Preços da vigência usada na cobrança, diferentes dos das entidades
+		Map<Long, BigDecimal> cobrados = Map.of(10L, new BigDecimal("90.00"), 20L, new BigDecimal("45.00"));
+		Precificacao precificacao = new Precificacao(new BigDecimal("225.00"), p -> cobrados.get(p.getId()), null);
+
+		Pedido pedido = service.registrar(carrinho, cliente, precificacao, 7L);
+
+		assertThat(gravados).hasSize(1);
+		assertThat(pedido.getTotal()).isEqualByComparingTo("225.00");
+		assertThat(pedido.getItens().get(0).getPrecoUnitario()).isEqualByComparingTo("90.00");
+		assertThat(pedido.getItens().get(1).getPrecoUnitario()).isEqualByComparingTo("45.00");
+		assertThat(publicados).hasSize(1);
+		assertThat(publicados.get(0).itens()).containsExactly(
+				new PedidoConcluido.Item(10L, 2L, new BigDecimal("90.00"), null),
+				new PedidoConcluido.Item(20L, 1L, new BigDecimal("45.00"), null));
+	}
+
+	@Test
+	@DisplayName("Linhas do pedido e do evento levam o armazém do plano de envios")
+	public void gravaArmazemDoPlano() {
+		PlanoDeEnvio plano = new PlanoDeEnvio(List.of(
+				new PlanoDeEnvio.Envio(3L, List.of(10L), new BigDecimal("2.00"), BigDecimal.ZERO),
+				new PlanoDeEnvio.Envio(4L, List.of(20L), new BigDecimal("1.00"), BigDecimal.ZERO)), BigDecimal.ZERO,
+				true);
+
+		Pedido pedido = service.registrar(carrinho, cliente,
+				new Precificacao(new BigDecimal("250.00"), Produto::getPreco, plano), 7L);
+
+		assertThat(pedido.getItens().get(0).getArmazemId()).isEqualTo(3L);
+		assertThat(pedido.getItens().get(1).getArmazemId()).isEqualTo(4L);
+		assertThat(publicados.get(0).itens()).containsExactly(
+				new PedidoConcluido.Item(10L, 2L, new BigDecimal("100.00"), 3L),
+				new PedidoConcluido.Item(20L, 1L, new BigDecimal("50.00"), 4L));
+	}
+
+	@Test
+	@DisplayName("Falha ao gravar chega a quem chamou, sem evento publicado")
+	public void falhaAoGravar() {
+		falhaAoGravar = new IllegalStateException("banco indisponível");
+
+		assertThatIllegalStateException()
+				.isThrownBy(() -> service.registrar(carrinho, cliente,
+						new Precificacao(new BigDecimal("250.00"), Produto::getPreco, null), 7L))
+				.withMessage("banco indisponível");
+		assertThat(publicados).isEmpty();
+	}
+
+	@Test
+	@DisplayName("Falha ao publicar o evento de um pedido já gravado não desfaz a compra")
+	public void falhaAoPublicar() {
+		falhaAoPublicar = new IllegalStateException("Erro ao serializar evento de pedido.");
+
+		Pedido pedido = service.registrar(carrinho, cliente,
+				new Precificacao(new BigDecimal("250.00"), Produto::getPreco, null), 7L);
+
+		assertThat(gravados).hasSize(1);
+		assertThat(pedido.getItens().get(0).getPrecoUnitario()).isEqualByComparingTo("100.00");
+	}
+
+	private PedidoRepository repositorio() {
+		return (PedidoRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { PedidoRepository.class }, (proxy, metodo, argumentos) -> {
+					if (!metodo.getName().equals("save")) {
+						throw new UnsupportedOperationException(metodo.getName());
+					}
+					if (falhaAoGravar != null) {
+						throw falhaAoGravar;
+					}
+					Pedido pedido = (Pedido) argumentos[0];
+					pedido.setId(1L + gravados.size());
+					gravados.add(pedido);
+					return pedido;
+				});
+	}
+
+	private static Produto produto(long id, String preco) {
+		return new Produto(id, "Produto " + id, "Desc", new BigDecimal(preco), new BigDecimal("1.00"),
+				new BigDecimal("10"), new BigDecimal("10"), new BigDecimal("10"), false, TipoProduto.LIVRO);
+	}
+}
@@ -0,0 +1,205 @@
+package ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.instancio.Select.field;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.instancio.Instancio;
+import org.instancio.Model;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ecommerce.catalogo.CatalogoPrecos;
+import ecommerce.dto.ProdutoPrecificacaoDTO;
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.Regiao;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+
+/**
+ * Compara os caminhos otimizados de precificação com {@link CompraService#calcularCustoTotal}
+ * em carrinhos válidos gerados pelo Instancio: todos os tipos de produto,
+ * regiões e níveis de cliente, com quantidades, pesos e preços concentrados nos
+ * limites das faixas de desconto e de frete.
+ *
+ * A quantidade de casos e a semente podem ser trocadas com
+ * {@code -Decommerce.diferencial.casos=5000000} e {@code -Decommerce.diferencial.semente=...}
+ * (por exemplo, para reproduzir uma falha relatada).
+ */
+public class PrecificacaoDiferencialTest {
+	private static final long CASOS = Long.getLong("ecommerce.diferencial.casos", 100_000);
+	private static final long SEMENTE = Long.getLong("ecommerce.diferencial.semente", 20_240_501L);
+
+	private static final int MAXIMO_ITENS = 12;
+
+	/** Limites das faixas de desconto por tipo (3, 5 e 8 unidades) e vizinhos. */
+	private static final Long[] QUANTIDADES_LIMITE = { 1L, 2L, 3L, 4L, 5L, 7L, 8L, 9L };
+
+	/** Limites das faixas de peso (5, 10 e 50 kg), com as duas escalas usadas no peso. */
+	private static final BigDecimal[] PESOS_LIMITE = decimais("0.00", "1.00", "2.50", "4.999", "5.00", "5.001",
+			"5.01", "10.00", "10.01", "50.00", "50.01");
+
+	/** Preços que levam o subtotal aos limites de 500 e 1000 reais. */
+	private static final BigDecimal[] PRECOS_LIMITE = decimais("0.00", "0.01", "99.99", "100.00", "166.67",
+			"250.00", "499.99", "500.00", "500.01", "1000.00", "1000.01");
+
+	private static final Model<Caso> MODELO = Instancio.of(Caso.class)
+			.generate(field(Caso.class, "itens"), gen -> gen.collection().minSize(1).maxSize(MAXIMO_ITENS))
+			.ignore(field(ItemCompra.class, "id"))
+			.ignore(field(ItemCompra.class, "versao"))
+			.supply(field(ItemCompra.class, "quantidade"),
+					random -> random.trueOrFalse() ? random.oneOf(QUANTIDADES_LIMITE) : random.longRange(1L, 20L))
+			.supply(field(Produto.class, "preco"), random -> random.trueOrFalse() ? random.oneOf(PRECOS_LIMITE)
+					: BigDecimal.valueOf(random.intRange(0, 150_000), 2))
+			.supply(field(Produto.class, "pesoFisico"), random -> random.trueOrFalse() ? random.oneOf(PESOS_LIMITE)
+					: BigDecimal.valueOf(random.intRange(0, 60_000), 3))
+			.supply(field(Produto.class, "comprimento"), random -> BigDecimal.valueOf(random.intRange(1, 600), 1))
+			.supply(field(Produto.class, "largura"), random -> BigDecimal.valueOf(random.intRange(1, 600), 1))
+			.supply(field(Produto.class, "altura"), random -> BigDecimal.valueOf(random.intRange(1, 600), 1))
+			.toModel();
+
+	private final CompraService referencia = new CompraService(null, null, null, null, null, null, null, null, null,
+			null, null);
+	private final CompraService emCentavos = new CompraService(null, null, null, null, null, null, null, null, null,
+			null, AritmeticaMonetaria.CENTAVOS);
+	private final PrecificacaoParalela paralela = new PrecificacaoParalela(1, 2);
+
+	record Caso(List<ItemCompra> itens, Regiao regiao, TipoCliente tipoCliente) {
+		@Override
+		public String toString() {
+			StringBuilder itensTexto = new StringBuilder();
+			for (ItemCompra item : itens) {
+				Produto p = item.getProduto();
+				itensTexto.append(String.format("%n    %d x %s %s (peso %s, %sx%sx%s%s)", item.getQuantidade(),
+						p.getTipo(), p.getPreco(), p.getPesoFisico(), p.getComprimento(), p.getLargura(), p.getAltura(),
+						p.isFragil() ? ", frágil" : ""));
+			}
+			return regiao + " " + tipoCliente + itensTexto;
+		}
+	}
+
+	@Test
+	@DisplayName("Caminhos otimizados de precificação dão o mesmo total que calcularCustoTotal")
+	public void caminhosOtimizadosIguaisAReferencia() {
+		TesteDiferencial<Caso> teste = new TesteDiferencial<>(PrecificacaoDiferencialTest::gerar,
+				PrecificacaoDiferencialTest::reducoes,
+				caso -> referencia.calcularCustoTotal(carrinho(caso), caso.regiao(), caso.tipoCliente()))
+				.comparar("resumo pelas entidades", caso -> referencia.calcularCustoTotalDoResumo(
+						CompraService.resumirEntidades(caso.itens()), caso.regiao(), caso.tipoCliente()))
+				.comparar("resumo pelo catálogo", caso -> referencia.calcularCustoTotalDoResumo(
+						resumirPeloCatalogo(caso.itens()), caso.regiao(), caso.tipoCliente()))
+				.comparar("resumo em paralelo", caso -> referencia.calcularCustoTotalDoResumo(
+						paralela.resumir(caso.itens(), CompraService::resumirEntidades), caso.regiao(),
+						caso.tipoCliente()))
+				.comparar("aritmética em centavos", caso -> emCentavos.calcularCustoTotalDoResumo(
+						CompraService.resumirEntidades(caso.itens()), caso.regiao(), caso.tipoCliente()));
+
+		assertThat(teste.executar(CASOS, SEMENTE)).isEmpty();
+	}
+
+	private static Caso gerar(long semente) {
+		Caso caso = Instancio.of(MODELO).withSeed(semente).create();
+		// Ids distintos por item: o catálogo é indexado pelo id do produto
+		for (int i = 0; i < caso.itens().size(); i++) {
+			caso.itens().get(i).getProduto().setId(i + 1L);
+		}
+		return caso;
+	}
+
+	/** Como na precificação: pelo catálogo quando ele tem todos os itens, senão pelas entidades. */
+	private static ResumoCarrinho resumirPeloCatalogo(List<ItemCompra> itens) {
+		CatalogoPrecos.Construtor construtor = CatalogoPrecos.construtor(itens.size());
+		for (ItemCompra item : itens) {
+			Produto p = item.getProduto();
+			construtor.adicionar(new ProdutoPrecificacaoDTO(p.getId(), p.getPreco(), p.getPesoFisico(),
+					p.getComprimento(), p.getLargura(), p.getAltura(), p.isFragil(), p.getTipo(), null));
+		}
+		ResumoCarrinho resumo = construtor.construir().resumir(itens);
+		return resumo != null ? resumo : CompraService.resumirEntidades(itens);
+	}
+
+	/** Casos menores: sem um item, com quantidades, preços e medidas mais simples, e enums no primeiro valor. */
+	private static List<Caso> reducoes(Caso caso) {
+		List<Caso> menores = new ArrayList<>();
+		List<ItemCompra> itens = caso.itens();
+		for (int i = 0; i < itens.size() && itens.size() > 1; i++) {
+			List<ItemCompra> semItem = new ArrayList<>(itens);
+			semItem.remove(i);
+			menores.add(new Caso(semItem, caso.regiao(), caso.tipoCliente()));
+		}
+		for (int i = 0; i < itens.size(); i++) {
+			ItemCompra item = itens.get(i);
+			Produto p = item.getProduto();
+			long quantidade = item.getQuantidade();
+			if (quantidade > 1) {
+				menores.add(trocar(caso, i, p, 1L));
+				menores.add(trocar(caso, i, p, quantidade - 1));
+			}
+			for (BigDecimal preco : List.of(BigDecimal.ZERO, p.getPreco().setScale(0, RoundingMode.DOWN))) {
+				if (preco.compareTo(p.getPreco()) != 0) {
+					menores.add(trocar(caso, i, copiar(p, preco, p.getPesoFisico(), p.getComprimento(), p.isFragil(),
+							p.getTipo()), quantidade));
+				}
+			}
+			if (p.getPesoFisico().signum() != 0) {
+				menores.add(trocar(caso, i, copiar(p, p.getPreco(), BigDecimal.ZERO, p.getComprimento(), p.isFragil(),
+						p.getTipo()), quantidade));
+			}
+			if (p.getComprimento().compareTo(BigDecimal.ONE) != 0 || p.getLargura().compareTo(BigDecimal.ONE) != 0
+					|| p.getAltura().compareTo(BigDecimal.ONE) != 0) {
+				menores.add(trocar(caso, i, copiar(p, p.getPreco(), p.getPesoFisico(), BigDecimal.ONE, p.isFragil(),
+						p.getTipo()), quantidade));
+			}
+			if (p.isFragil()) {
+				menores.add(trocar(caso, i, copiar(p, p.getPreco(), p.getPesoFisico(), p.getComprimento(), false,
+						p.getTipo()), quantidade));
+			}
+			if (p.getTipo() != TipoProduto.values()[0]) {
+				menores.add(trocar(caso, i, copiar(p, p.getPreco(), p.getPesoFisico(), p.getComprimento(),
+						p.isFragil(), TipoProduto.values()[0]), quantidade));
+			}
+		}
+		if (caso.regiao() != Regiao.values()[0]) {
+			menores.add(new Caso(itens, Regiao.values()[0], caso.tipoCliente()));
+		}
+		if (caso.tipoCliente() != TipoCliente.values()[0]) {
+			menores.add(new Caso(itens, caso.regiao(), TipoCliente.values()[0]));
+		}
+		return menores;
+	}
+
+	private static Caso trocar(Caso caso, int indice, Produto produto, long quantidade) {
+		List<ItemCompra> itens = new ArrayList<>(caso.itens());
+		itens.set(indice, new ItemCompra(null, produto, quantidade));
+		return new Caso(itens, caso.regiao(), caso.tipoCliente());
+	}
+
+	/** Cópia do produto; medidas iguais a {@code comprimento} quando ele difere do original. */
+	private static Produto copiar(Produto p, BigDecimal preco, BigDecimal pesoFisico, BigDecimal comprimento,
+			boolean fragil, TipoProduto tipo) {
+		boolean medidasOriginais = comprimento == p.getComprimento();
+		return new Produto(p.getId(), p.getNome(), p.getDescricao(), preco, pesoFisico, comprimento,
+				medidasOriginais ? p.getLargura() : comprimento, medidasOriginais ? p.getAltura() : comprimento, fragil,
+				tipo);
+	}
+
+	private static CarrinhoDeCompras carrinho(Caso caso) {
+		CarrinhoDeCompras carrinho = new CarrinhoDeCompras();
+		carrinho.setItens(new ArrayList<>(caso.itens()));
+		return carrinho;
+	}
+
+	private static BigDecimal[] decimais(String... valores) {
+		BigDecimal[] decimais = new BigDecimal[valores.length];
+		for (int i = 0; i < valores.length; i++) {
+			decimais[i] = new BigDecimal(valores[i]);
+		}
+		return decimais;
+	}
+}
@@ -0,0 +1,156 @@
+package ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ecommerce.catalogo.CatalogoPrecosService;
+import ecommerce.catalogo.HistoricoPrecosService;
+import ecommerce.dto.PrecoVigenciaDTO;
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.Cliente;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.Promocao;
+import ecommerce.entity.Regiao;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+import ecommerce.promocao.PromocaoService;
+import ecommerce.repository.PrecoProdutoRepository;
+import ecommerce.repository.PromocaoRepository;
+
+/**
+ * {@link CompraService#precificarEm} em instantes passados, com vigências de
+ * preço e promoções em repositórios simulados à mão que aplicam os mesmos
+ * filtros das consultas reais.
+ */
+public class PrecificacaoEmTest {
+	private static final Instant JANEIRO = Instant.parse("2025-01-01T00:00:00Z");
+	private static final Instant FEVEREIRO = Instant.parse("2025-02-01T00:00:00Z");
+	private static final Instant MARCO = Instant.parse("2025-03-01T00:00:00Z");
+
+	private final Cliente cliente = new Cliente(1L, "Cliente", Regiao.SUDESTE, TipoCliente.BRONZE);
+	// Preço da entidade já diferente de todas as vigências
+	private final Produto produto = new Produto(10L, "Produto", "Desc", new BigDecimal("100.00"),
+			new BigDecimal("1.00"), new BigDecimal("10"), new BigDecimal("10"), new BigDecimal("10"), false,
+			TipoProduto.LIVRO);
+	private final CarrinhoDeCompras carrinho = new CarrinhoDeCompras(100L, cliente,
+			List.of(new ItemCompra(1L, produto, 1L)), LocalDate.now());
+
+	private final List<PrecoVigenciaDTO> vigencias = List.of(
+			new PrecoVigenciaDTO(10L, new BigDecimal("80.00"), JANEIRO),
+			new PrecoVigenciaDTO(10L, new BigDecimal("90.00"), MARCO));
+	private final List<Promocao> promocoes = List.of(new Promocao(1L, "Fevereiro", null, 10L, null, null,
+			new BigDecimal("0.10"), 1L, FEVEREIRO, FEVEREIRO.plusSeconds(10 * 86_400)));
+	private final List<String> consultas = new ArrayList<>();
+
+	private HistoricoPrecosService historico;
+	private CompraService service;
+
+	@BeforeEach
+	public void setup() {
+		historico = new HistoricoPrecosService(precosNoBanco());
+		PromocaoService promocao = new PromocaoService(promocoesNoBanco(), 30_000L);
+		CatalogoPrecosService catalogo = new CatalogoPrecosService(null, 0L,
+				Path.of(System.getProperty("java.io.tmpdir"), "inexistente", "catalogo.bin").toString(), 0L);
+		service = new CompraService(null, null, null, null, catalogo, null, new PrecificacaoParalela(0, 1024),
+				new MotorDeFrete(false, 2000, 12), promocao, historico, AritmeticaMonetaria.DECIMAL);
+
+		historico.atualizar();
+		promocao.atualizar();
+		consultas.clear();
+	}
+
+	@Test
+	@DisplayName("Carga periódica traz só a vigência em curso e as futuras")
+	public void cargaSemHistoricoEncerrado() {
+		assertThat(historico.atual().cobre(FEVEREIRO)).isFalse();
+		assertThat(historico.atual().precoEm(produto, Instant.now())).isEqualByComparingTo("90.00");
+
+		assertThat(service.precificarEm(carrinho, cliente, Instant.now())).isEqualByComparingTo("90.00");
+		assertThat(consultas).isEmpty();
+	}
+
+	@Test
+	@DisplayName("Instante passado usa a vigência e a promoção da época, lidas do banco")
+	public void instantePassado() {
+		Instant momento = FEVEREIRO.plusSeconds(86_400);
+
+		// 80,00 da vigência de janeiro, com 10% da promoção de fevereiro
+		assertThat(service.precificarEm(carrinho, cliente, momento)).isEqualByComparingTo("72.00");
+		assertThat(consultas).containsExactly("listarVigentesAPartirDe [10]", "listarVigentesEntre");
+		assertThat(service.precificarEm(carrinho, cliente, MARCO)).isEqualByComparingTo("90.00");
+	}
+
+	@Test
+	@DisplayName("Instante anterior à primeira vigência do produto é recusado")
+	public void antesDaPrimeiraVigencia() {
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> service.precificarEm(carrinho, cliente, JANEIRO.minusSeconds(1)))
+				.withMessageContaining("desconhecido");
+	}
+
+	private PrecoProdutoRepository precosNoBanco() {
+		return (PrecoProdutoRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { PrecoProdutoRepository.class }, (proxy, metodo, argumentos) -> {
+					if (!metodo.getName().equals("listarVigentesAPartirDe")) {
+						throw new UnsupportedOperationException(metodo.getName());
+					}
+					Instant momento = (Instant) argumentos[0];
+					if (argumentos.length == 1) {
+						consultas.add("listarVigentesAPartirDe");
+						return aPartirDe(momento, null).stream();
+					}
+					@SuppressWarnings("unchecked")
+					Collection<Long> produtosIds = (Collection<Long>) argumentos[1];
+					consultas.add("listarVigentesAPartirDe " + new ArrayList<>(produtosIds));
+					return aPartirDe(momento, produtosIds);
+				});
+	}
+
+	/** Vigência em curso no instante e as posteriores, por produto. */
+	private List<PrecoVigenciaDTO> aPartirDe(Instant momento, Collection<Long> produtosIds) {
+		return vigencias.stream()
+				.filter(v -> produtosIds == null || produtosIds.contains(v.produtoId()))
+				.filter(v -> v.vigenteDesde().isAfter(momento)
+						|| v.vigenteDesde().equals(inicioEmCurso(v.produtoId(), momento)))
+				.collect(Collectors.toList());
+	}
+
+	private Instant inicioEmCurso(Long produtoId, Instant momento) {
+		return vigencias.stream()
+				.filter(v -> v.produtoId().equals(produtoId) && !v.vigenteDesde().isAfter(momento))
+				.map(PrecoVigenciaDTO::vigenteDesde)
+				.max(Comparator.naturalOrder())
+				.orElse(null);
+	}
+
+	private PromocaoRepository promocoesNoBanco() {
+		return (PromocaoRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { PromocaoRepository.class }, (proxy, metodo, argumentos) -> {
+					if (!metodo.getName().equals("listarVigentesEntre")) {
+						throw new UnsupportedOperationException(metodo.getName());
+					}
+					consultas.add("listarVigentesEntre");
+					Instant desde = (Instant) argumentos[0];
+					Instant ate = (Instant) argumentos[1];
+					return promocoes.stream()
+							.filter(p -> p.getInicio().isBefore(ate) && (p.getFim() == null || p.getFim().isAfter(desde)))
+							.collect(Collectors.toList());
+				});
+	}
+}
@@ -0,0 +1,95 @@
+package ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ecommerce.catalogo.CatalogoPrecos;
+import ecommerce.dto.ProdutoPrecificacaoDTO;
+import ecommerce.entity.CarrinhoDeCompras;
+import ecommerce.entity.ItemCompra;
+import ecommerce.entity.Produto;
+import ecommerce.entity.Regiao;
+import ecommerce.entity.TipoCliente;
+import ecommerce.entity.TipoProduto;
+
+public class PrecificacaoParalelaTest {
+	private static final int PRODUTOS = 500;
+	private static final int ITENS = 20_000;
+
+	private CompraService service;
+	private PrecificacaoParalela paralela;
+	private List<Produto> produtos;
+	private CarrinhoDeCompras carrinho;
+
+	@BeforeEach
+	public void setup() {
+		service = new CompraService(null, null, null, null, null, null, null, null, null, null, null);
+		paralela = new PrecificacaoParalela(1, 256);
+
+		Random random = new Random(42);
+		TipoProduto[] tipos = TipoProduto.values();
+		produtos = new ArrayList<>(PRODUTOS);
+		for (long id = 1; id <= PRODUTOS; id++) {
+			produtos.add(new Produto(id, "p" + id, "Desc", BigDecimal.valueOf(random.nextInt(100_000), 2),
+					BigDecimal.valueOf(random.nextInt(5_000), 3),
+					BigDecimal.valueOf(1 + random.nextInt(600), 1),
+					BigDecimal.valueOf(1 + random.nextInt(600), 1),
+					BigDecimal.valueOf(1 + random.nextInt(600), 1),
+					random.nextBoolean(), tipos[random.nextInt(tipos.length)]));
+		}
+
+		carrinho = new CarrinhoDeCompras();
+		carrinho.setItens(new ArrayList<>(ITENS));
+		for (int i = 0; i < ITENS; i++) {
+			carrinho.getItens().add(new ItemCompra(null, produtos.get(random.nextInt(PRODUTOS)), 1L + random.nextInt(20)));
+		}
+	}
+
+	@Test
+	@DisplayName("Resumo paralelo pelas entidades dá o mesmo BigDecimal (valor e escala) do cálculo sequencial")
+	public void entidadesIdenticoAoSequencial() {
+		for (Regiao regiao : Regiao.values()) {
+			for (TipoCliente tipoCliente : TipoCliente.values()) {
+				BigDecimal sequencial = service.calcularCustoTotal(carrinho, regiao, tipoCliente);
+				BigDecimal emParalelo = service.calcularCustoTotalDoResumo(
+						paralela.resumir(carrinho.getItens(), CompraService::resumirEntidades), regiao, tipoCliente);
+
+				assertThat(emParalelo).isEqualTo(sequencial);
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Resumo paralelo pelo catálogo é idêntico ao resumo sequencial pelo catálogo")
+	public void catalogoIdenticoAoSequencial() {
+		CatalogoPrecos.Construtor construtor = CatalogoPrecos.construtor(PRODUTOS);
+		for (Produto p : produtos) {
+			construtor.adicionar(new ProdutoPrecificacaoDTO(p.getId(), p.getPreco(), p.getPesoFisico(),
+					p.getComprimento(), p.getLargura(), p.getAltura(), p.isFragil(), p.getTipo(), null));
+		}
+		CatalogoPrecos catalogo = construtor.construir();
+
+		BigDecimal sequencial = service.calcularCustoTotalDoResumo(catalogo.resumir(carrinho.getItens()),
+				Regiao.NORTE, TipoCliente.PRATA);
+		BigDecimal emParalelo = service.calcularCustoTotalDoResumo(
+				paralela.resumir(carrinho.getItens(), catalogo::resumir), Regiao.NORTE, TipoCliente.PRATA);
+
+		assertThat(emParalelo).isEqualTo(sequencial);
+	}
+
+	@Test
+	@DisplayName("Item inválido em qualquer bloco anula o resumo paralelo")
+	public void itemInvalidoAnulaResumo() {
+		carrinho.getItens().set(ITENS - 1, new ItemCompra(null, produtos.get(0), 0L));
+
+		assertThat(paralela.resumir(carrinho.getItens(), CompraService::resumirEntidades)).isNull();
+	}
+}
@@ -17,7 +17,7 @@ public class RobustezTest {
     @BeforeEach
     public void setup() {
         // Instancia o serviço. Passamos 'null' para as dependências que o método 'calcularCustoTotal' não usa
-        service = new CompraService(null, null, null, null);
+        service = new CompraService(null, null, null, null, null, null, null, null, null, null, null);
 
         // Cria um novo carrinho vazio para cada teste
         carrinho = new CarrinhoDeCompras();
@@ -0,0 +1,57 @@
+package ecommerce.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ecommerce.entity.Regiao;
+import ecommerce.entity.TipoCliente;
+
+public class TabelaFreteTest {
+	/** Limites das faixas (com a menor diferença das escalas de peso usadas: 0,01 kg e 1 g) e valores internos. */
+	private static final List<String> PESOS = List.of("0", "0.00", "0.001", "2.50", "4.999", "5.00", "5.000", "5.001",
+			"5.01", "7.30", "9.999", "10.00", "10.001", "10.01", "27.125", "49.99", "50.00", "50.001", "50.01",
+			"123.456", "10000.00");
+
+	private static final List<Long> FRAGEIS = List.of(0L, 1L, 3L, 1_000L);
+
+	private final CompraService service = new CompraService(null, null, null, null, null, null, null, null, null, null, null);
+
+	@Test
+	@DisplayName("Tabela de frete dá o mesmo valor das regras em sequência para toda região, nível, faixa e limite")
+	public void equivalenteAsRegras() {
+		int comparacoes = 0;
+		for (Regiao regiao : Regiao.values()) {
+			for (TipoCliente tipo : TipoCliente.values()) {
+				for (String peso : PESOS) {
+					for (long frageis : FRAGEIS) {
+						BigDecimal pesoTributavel = new BigDecimal(peso);
+						BigDecimal esperado = service.calcularFrete(pesoTributavel, frageis, regiao, tipo);
+						BigDecimal tabelado = CompraService.TABELA_FRETE.calcular(pesoTributavel, frageis, regiao, tipo);
+
+						assertThat(tabelado).as("%s %s %s kg %d frágeis", regiao, tipo, peso, frageis)
+								.isEqualByComparingTo(esperado);
+						comparacoes++;
+					}
+				}
+			}
+		}
+		assertThat(comparacoes).isEqualTo(Regiao.values().length * TipoCliente.values().length * PESOS.size()
+				* FRAGEIS.size());
+	}
+
+	@Test
+	@DisplayName("Faixa de peso respeita os limites inclusivos de 5, 10 e 50 kg")
+	public void faixas() {
+		assertThat(CompraService.TABELA_FRETE.faixa(new BigDecimal("5.00"))).isEqualTo(0);
+		assertThat(CompraService.TABELA_FRETE.faixa(new BigDecimal("5.001"))).isEqualTo(1);
+		assertThat(CompraService.TABELA_FRETE.faixa(new BigDecimal("10.00"))).isEqualTo(1);
+		assertThat(CompraService.TABELA_FRETE.faixa(new BigDecimal("10.01"))).isEqualTo(2);
+		assertThat(CompraService.TABELA_FRETE.faixa(new BigDecimal("50.00"))).isEqualTo(2);
+		assertThat(CompraService.TABELA_FRETE.faixa(new BigDecimal("50.01"))).isEqualTo(3);
+	}
+}
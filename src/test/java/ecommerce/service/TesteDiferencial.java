@@ -0,0 +1,139 @@
+package ecommerce.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+import java.util.stream.LongStream;
+
+/**
+ * Teste diferencial: gera casos a partir de sementes, executa cada motor
+ * alternativo e a referência sobre o mesmo caso e compara as saídas (valor ou
+ * classe da exceção). Os casos são distribuídos entre os núcleos pelo pool
+ * comum; a primeira divergência de cada motor é reduzida ao menor caso que ainda
+ * diverge e relatada com a semente que a reproduz.
+ *
+ * @param <C> caso de teste
+ */
+final class TesteDiferencial<C>
+{
+	/** Limite de passos de redução, para não prender o teste em um caso patológico. */
+	private static final int MAXIMO_REDUCOES = 10_000;
+
+	private final LongFunction<C> gerador;
+	private final Function<C, List<C>> reducoes;
+	private final Function<C, Object> referencia;
+	private final Map<String, Function<C, Object>> motores = new LinkedHashMap<>();
+
+	/**
+	 * @param gerador    caso a partir da semente (deve ser determinístico)
+	 * @param reducoes   casos "menores" derivados de um caso, do mais ao menos agressivo
+	 * @param referencia implementação de referência
+	 */
+	TesteDiferencial(LongFunction<C> gerador, Function<C, List<C>> reducoes, Function<C, Object> referencia)
+	{
+		this.gerador = gerador;
+		this.reducoes = reducoes;
+		this.referencia = referencia;
+	}
+
+	TesteDiferencial<C> comparar(String nome, Function<C, Object> motor)
+	{
+		motores.put(nome, motor);
+		return this;
+	}
+
+	/**
+	 * Executa {@code casos} casos, com sementes a partir de {@code semente}, e
+	 * retorna uma descrição por motor divergente (vazia se todos concordam).
+	 */
+	List<String> executar(long casos, long semente)
+	{
+		Map<String, Long> primeirasFalhas = new ConcurrentHashMap<>();
+		LongStream.range(0, casos).parallel().forEach(i -> {
+			if (primeirasFalhas.size() == motores.size())
+			{
+				return;
+			}
+			C caso = gerador.apply(semente + i);
+			Saida esperada = executar(referencia, caso);
+			motores.forEach((nome, motor) -> {
+				if (!primeirasFalhas.containsKey(nome) && !esperada.equals(executar(motor, caso)))
+				{
+					primeirasFalhas.merge(nome, semente + i, Math::min);
+				}
+			});
+		});
+
+		List<String> relatorio = new ArrayList<>();
+		primeirasFalhas.forEach((nome, sementeFalha) -> {
+			Function<C, Object> motor = motores.get(nome);
+			C minimo = reduzir(gerador.apply(sementeFalha),
+					caso -> !executar(referencia, caso).equals(executar(motor, caso)));
+			relatorio.add(String.format("%s diverge da referência (semente %d); caso reduzido: %s%n"
+					+ "  referência: %s%n  %s: %s", nome, sementeFalha, minimo, executar(referencia, minimo), nome,
+					executar(motor, minimo)));
+		});
+		return relatorio;
+	}
+
+	/** Redução gulosa: troca o caso pela primeira redução que ainda falha, até nenhuma falhar. */
+	private C reduzir(C caso, Predicate<C> falha)
+	{
+		int passos = 0;
+		boolean reduziu = true;
+		while (reduziu && passos < MAXIMO_REDUCOES)
+		{
+			reduziu = false;
+			for (C menor : reducoes.apply(caso))
+			{
+				passos++;
+				if (falha.test(menor))
+				{
+					caso = menor;
+					reduziu = true;
+					break;
+				}
+			}
+		}
+		return caso;
+	}
+
+	private static <C> Saida executar(Function<C, Object> motor, C caso)
+	{
+		try
+		{
+			return new Saida(motor.apply(caso), null);
+		}
+		catch (RuntimeException e)
+		{
+			return new Saida(null, e.getClass());
+		}
+	}
+
+	private record Saida(Object valor, Class<?> erro)
+	{
+		@Override
+		public boolean equals(Object o)
+		{
+			return o instanceof Saida outra && Objects.equals(valor, outra.valor) && erro == outra.erro;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(valor, erro);
+		}
+
+		@Override
+		public String toString()
+		{
+			return erro != null ? "lança " + erro.getSimpleName() : String.valueOf(valor);
+		}
+	}
+}
@@ -0,0 +1,9 @@
+-- Cliente e carrinho finalizados pelo InicioRapidoBenchmark (ids fora das faixas das sequências)
+INSERT INTO cliente (id, nome, regiao, tipo) VALUES (1000000, 'Cliente', 0, 'BRONZE');
+
+INSERT INTO produto (id, nome, descricao, preco, peso_fisico, comprimento, largura, altura, fragil, tipo, atualizado_em)
+VALUES (1000000, 'Produto', 'Desc', 49.90, 1.00, 10.00, 10.00, 10.00, FALSE, 'LIVRO', CURRENT_TIMESTAMP);
+
+INSERT INTO carrinho_de_compras (id, cliente_id, data, versao) VALUES (1000000, 1000000, CURRENT_DATE, 0);
+
+INSERT INTO item_compra (id, carrinho_id, produto_id, quantidade, versao) VALUES (1000000, 1000000, 1000000, 2, 0);